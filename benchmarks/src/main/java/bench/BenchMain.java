@@ -0,0 +1,34 @@
+package bench;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * benchmarks.jar 진입점: JMH 명령행 옵션은 그대로 받고 {@link EntryProfiler} 를 항상 붙인다.
+ * <pre>
+ *   java -jar benchmarks.jar                                  전체
+ *   java -jar benchmarks.jar Scan -p mode=PARALLEL -p depth=4  스캔 엔진 하나, 더 깊은 트리
+ *   java -jar benchmarks.jar -rf json -rff result.json         결과를 JSON 으로
+ * </pre>
+ */
+public final class BenchMain {
+
+    private BenchMain() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(EntryProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
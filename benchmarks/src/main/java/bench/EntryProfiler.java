@@ -0,0 +1,67 @@
+package bench;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * iteration 마다 항목 기준 지표를 보조 결과로 붙인다.
+ * <ul>
+ *   <li>entries.rate: 초당 처리한 폴더+파일 수</li>
+ *   <li>alloc.per.entry: 항목 하나당 할당 바이트</li>
+ *   <li>heap.peak: iteration 동안 heap 최대 사용량 (pool 별 peak 의 합이라 약간 크게 나올 수 있음)</li>
+ * </ul>
+ * -rf json 으로 돌리면 다른 결과와 함께 기계가 읽을 수 있는 형태로 남는다.
+ */
+public class EntryProfiler implements InternalProfiler {
+
+    @Override
+    public String getDescription() {
+        return "SpaceScope entries/s, allocation per entry and peak heap";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        EntryStats.drain();
+        for (MemoryPoolMXBean pool : heapPools()) pool.resetPeakUsage();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long[] s = EntryStats.drain();
+        long entries = s[0];
+        long nanos = s[1];
+        long alloc = s[2];
+
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : heapPools()) peak += pool.getPeakUsage().getUsed();
+
+        List<Result> out = new ArrayList<>();
+        if (entries > 0 && nanos > 0) {
+            out.add(new ScalarResult("entries.rate", entries * 1e9 / nanos, "entries/s", AggregationPolicy.AVG));
+            out.add(new ScalarResult("alloc.per.entry", (double) alloc / entries, "B/entry", AggregationPolicy.AVG));
+        }
+        out.add(new ScalarResult("heap.peak", peak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+        return out;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> out = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) out.add(pool);
+        }
+        return out;
+    }
+}
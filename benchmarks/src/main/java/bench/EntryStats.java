@@ -0,0 +1,65 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 벤치마크 호출마다 처리한 항목 수, 걸린 시간, 할당량을 모아 {@link EntryProfiler} 에 넘긴다.
+ * 할당량은 모든 살아 있는 스레드의 할당 바이트 차이라서, 엔진 worker 가 끝나기 전에 {@link Meter#stop} 해야 한다.
+ */
+final class EntryStats {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final LongAdder entries = new LongAdder();
+    private static final LongAdder nanos = new LongAdder();
+    private static final LongAdder allocatedBytes = new LongAdder();
+
+    private EntryStats() {}
+
+    static Meter start() {
+        return new Meter(allocatedByThread(), System.nanoTime());
+    }
+
+    static final class Meter {
+        private final Map<Long, Long> allocBefore;
+        private final long startNanos;
+
+        private Meter(Map<Long, Long> allocBefore, long startNanos) {
+            this.allocBefore = allocBefore;
+            this.startNanos = startNanos;
+        }
+
+        void stop(long processedEntries) {
+            long elapsed = System.nanoTime() - startNanos;
+
+            long alloc = 0L;
+            for (Map.Entry<Long, Long> e : allocatedByThread().entrySet()) {
+                alloc += e.getValue() - allocBefore.getOrDefault(e.getKey(), 0L);
+            }
+
+            entries.add(processedEntries);
+            nanos.add(elapsed);
+            allocatedBytes.add(Math.max(0L, alloc));
+        }
+    }
+
+    /** {entries, nanos, allocatedBytes} 를 돌려주고 0 으로 되돌린다. */
+    static long[] drain() {
+        return new long[]{entries.sumThenReset(), nanos.sumThenReset(), allocatedBytes.sumThenReset()};
+    }
+
+    private static Map<Long, Long> allocatedByThread() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+
+        Map<Long, Long> out = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) out.put(ids[i], bytes[i]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import export.CsvRecursiveExportService;
+import export.ExportTree;
+import export.XlsxRecursiveExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 형식별 내보내기 (스캔 + 행 출력) 전체 시간.
+ * 할당량을 빠짐없이 재기 위해 내보내기 안의 스캔은 호출 스레드에서 순차로 돌린다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dspacescope.scan.mode=sequential")
+public class ExportBenchmark {
+
+    public enum Format { CSV, XLSX }
+
+    @Param({"CSV", "XLSX"})
+    public Format format;
+
+    @Param("3")
+    public int depth;
+
+    @Param("8")
+    public int fanOut;
+
+    @Param("16")
+    public int filesPerDir;
+
+    @Param("12")
+    public int nameLength;
+
+    private Path root;
+    private File outFile;
+    private int rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticTree.create(new SyntheticTree.Spec(depth, fanOut, filesPerDir, nameLength));
+        outFile = Files.createTempFile("spacescope-bench-", "." + format.name().toLowerCase()).toFile();
+        rows = ExportTree.scan(root, true).rowCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(root);
+        Files.deleteIfExists(outFile.toPath());
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        EntryStats.Meter meter = EntryStats.start();
+
+        ExportTree tree = ExportTree.scan(root, true);
+        switch (format) {
+            case CSV -> CsvRecursiveExportService.exportWithProgress(tree, outFile, null);
+            case XLSX -> XlsxRecursiveExportService.exportWithProgress(tree, outFile, null);
+        }
+
+        meter.stop(rows);
+        return outFile.length();
+    }
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import scan.ScanContext;
+import scan.ScanEngine;
+import scan.ScanMode;
+import scan.ScanOptions;
+import scan.ScanTree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스캔 엔진별로 가짜 트리 전체를 한 번 훑는 시간.
+ * SizeScanWorker 는 이 엔진들 위에서 도는 SwingWorker 라서 엔진을 직접 잰다.
+ * 트리는 trial 마다 한 번 만들므로 OS 디렉토리 캐시가 데워진 상태의 값이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"SEQUENTIAL", "PARALLEL", "VIRTUAL"})
+    public String mode;
+
+    @Param("3")
+    public int depth;
+
+    @Param("8")
+    public int fanOut;
+
+    @Param("16")
+    public int filesPerDir;
+
+    @Param("12")
+    public int nameLength;
+
+    private SyntheticTree.Spec spec;
+    private Path root;
+    private ScanOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ScanMode m = ScanMode.valueOf(mode);
+        if (!ScanEngine.isAvailable(m)) {
+            throw new IllegalStateException(mode + " scan mode is not available in this build (build with -Pjava21)");
+        }
+
+        spec = new SyntheticTree.Spec(depth, fanOut, filesPerDir, nameLength);
+        root = SyntheticTree.create(spec);
+        options = ScanOptions.fromSystemProperties().withMode(m).withSnapshotCache(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(root);
+    }
+
+    @Benchmark
+    public long scan() throws InterruptedException {
+        EntryStats.Meter meter = EntryStats.start();
+
+        ScanTree tree = new ScanTree();
+        ScanContext ctx = ScanContext.builder(null).index(tree).build();
+        try (ScanEngine engine = ScanEngine.create(options)) {
+            engine.scanDirs(List.of(root), ctx, (d, stats) -> {});
+            // worker 스레드가 살아 있을 때 할당량을 잰다
+            meter.stop(spec.entryCount());
+        }
+        return ctx.scannedFiles();
+    }
+}
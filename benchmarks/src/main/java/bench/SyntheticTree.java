@@ -0,0 +1,107 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * 벤치마크용 가짜 폴더 트리를 임시 폴더에 만든다.
+ * 같은 Spec 이면 이름/크기까지 항상 같은 트리가 나온다 (파일은 sparse 라 디스크는 거의 안 씀).
+ */
+final class SyntheticTree {
+
+    private static final String[] EXTENSIONS = {"txt", "jpg", "log", "java", "dat", "png", "json", "bin"};
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private SyntheticTree() {}
+
+    /**
+     * @param depth 루트 아래 폴더 단계 수 (0 이면 루트만)
+     * @param fanOut 폴더마다 하위 폴더 수
+     * @param filesPerDir 폴더마다 파일 수
+     * @param nameLength 파일/폴더 이름 길이 (확장자 제외)
+     */
+    record Spec(int depth, int fanOut, int filesPerDir, int nameLength) {
+
+        long dirCount() {
+            long n = 1L;
+            long level = 1L;
+            for (int d = 0; d < depth; d++) {
+                level *= fanOut;
+                n += level;
+            }
+            return n;
+        }
+
+        long fileCount() {
+            return dirCount() * filesPerDir;
+        }
+
+        /** 폴더 + 파일 (스캔/내보내기 한 번이 다루는 항목 수). */
+        long entryCount() {
+            return dirCount() + fileCount();
+        }
+    }
+
+    static Path create(Spec spec) throws IOException {
+        Path root = Files.createTempDirectory("spacescope-bench-");
+        fill(root, spec, 0, new Random(42L));
+        return root;
+    }
+
+    static void delete(Path root) throws IOException {
+        if (root == null || !Files.exists(root)) return;
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void fill(Path dir, Spec spec, int level, Random rnd) throws IOException {
+        for (int i = 0; i < spec.filesPerDir(); i++) {
+            String name = name(rnd, spec.nameLength(), i) + "." + EXTENSIONS[rnd.nextInt(EXTENSIONS.length)];
+            createSparse(dir.resolve(name), fileSize(rnd));
+        }
+
+        if (level >= spec.depth()) return;
+
+        for (int i = 0; i < spec.fanOut(); i++) {
+            Path sub = Files.createDirectory(dir.resolve(name(rnd, spec.nameLength(), i)));
+            fill(sub, spec, level + 1, rnd);
+        }
+    }
+
+    /** 앞은 임의 문자, 끝 4자리는 순번(36진수)이라 같은 폴더 안에서 겹치지 않는다. */
+    private static String name(Random rnd, int length, int index) {
+        String suffix = Integer.toString(index, 36);
+        suffix = "0000".substring(Math.min(4, suffix.length())) + suffix;
+
+        StringBuilder sb = new StringBuilder(Math.max(length, suffix.length()));
+        for (int i = suffix.length(); i < length; i++) sb.append(ALPHABET.charAt(rnd.nextInt(ALPHABET.length())));
+        return sb.append(suffix).toString();
+    }
+
+    /** 0 B ~ 수 MB, 작은 파일이 많은 분포. */
+    private static long fileSize(Random rnd) {
+        return (long) Math.pow(2, rnd.nextDouble() * 22) - 1;
+    }
+
+    private static void createSparse(Path file, long size) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (size > 0) ch.write(ByteBuffer.wrap(new byte[]{0}), size - 1);
+        }
+    }
+}
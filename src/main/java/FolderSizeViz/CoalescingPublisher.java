@@ -0,0 +1,74 @@
+package FolderSizeViz;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * worker 스레드에서 넘어오는 부분 결과를 모아 두었다가 EDT 에서 한 프레임에 한 번만 넘긴다.
+ * 항목마다 invokeLater/정렬/repaint 를 하지 않도록, 초당 최대 {@link #maxFps()} 번
+ * 그동안 쌓인 항목을 한 묶음으로 sink 에 전달한다.
+ */
+final class CoalescingPublisher<T> {
+
+    /** 초당 최대 반영 횟수 (-Dspacescope.ui.maxFps) */
+    static final String PROP_MAX_FPS = "spacescope.ui.maxFps";
+    private static final int DEFAULT_MAX_FPS = 10;
+
+    private final Consumer<List<T>> sink;
+    private final Timer timer;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private final Object lock = new Object();
+    private List<T> pending = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    /** @param sink EDT 에서 묶음 단위로 호출된다 (빈 묶음은 넘기지 않음) */
+    CoalescingPublisher(Consumer<List<T>> sink) {
+        this.sink = sink;
+        this.timer = new Timer(1000 / maxFps(), e -> flush());
+        this.timer.setCoalesce(true);
+    }
+
+    static int maxFps() {
+        Integer v = Integer.getInteger(PROP_MAX_FPS);
+        return (v == null || v <= 0) ? DEFAULT_MAX_FPS : Math.min(v, 1000);
+    }
+
+    /** 아무 스레드에서나 호출 가능. */
+    void submit(T item) {
+        if (closed) return;
+        synchronized (lock) {
+            pending.add(item);
+        }
+        if (started.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                if (!closed) timer.start();
+            });
+        }
+    }
+
+    /** EDT 전용. 쌓인 항목을 바로 넘긴다. */
+    void flush() {
+        if (closed) return;
+
+        List<T> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        sink.accept(batch);
+    }
+
+    /** EDT 전용. 타이머를 멈추고 아직 넘기지 않은 항목은 버린다 (최종 결과가 따로 반영될 때). */
+    void close() {
+        closed = true;
+        timer.stop();
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+    }
+}
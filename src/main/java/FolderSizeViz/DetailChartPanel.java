@@ -8,9 +8,9 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 public class DetailChartPanel extends JPanel implements Scrollable {
@@ -40,14 +40,17 @@ public class DetailChartPanel extends JPanel implements Scrollable {
 
     private static final int LABEL_TRIM_LEN = 42;
 
-    private static final Comparator<FolderSizeVizApp.SizeItem> BY_SIZE_DESC =
-            (a, b) -> Long.compare(b.bytes, a.bytes);
-
     private String title;
-    private final List<FolderSizeVizApp.SizeItem> items = new ArrayList<>();
+
+    // 크기 내림차순 항목 (파이 차트와 같이 쓰는 경우 MainFrame 이 넘겨줌)
+    private final SizeItemStore items;
 
     private long maxBytes = 1L;
 
+    // 항목별 라벨 문자열/폭 캐시 (보이는 행만 그리지만 스크롤마다 다시 만들지 않도록)
+    private final Map<FolderSizeVizApp.SizeItem, CachedLabel> labelCache = new IdentityHashMap<>();
+    private Font labelCacheFont;
+
     private Path titleClickTarget;
     private Runnable onTitleClick;
 
@@ -57,6 +60,13 @@ public class DetailChartPanel extends JPanel implements Scrollable {
     private Consumer<Path> onItemClick;
 
     public DetailChartPanel() {
+        this(new SizeItemStore());
+    }
+
+    public DetailChartPanel(SizeItemStore store) {
+        this.items = store;
+        store.addChangeListener(this::onItemsChanged);
+
         setOpaque(true);
         setBackground(UIManager.getColor("Panel.background"));
         setForeground(UIManager.getColor("Label.foreground"));
@@ -92,49 +102,32 @@ public class DetailChartPanel extends JPanel implements Scrollable {
         repaint();
     }
 
-    public void setItems(List<FolderSizeVizApp.SizeItem> newItems) {
-        items.clear();
-        if (newItems != null) items.addAll(newItems);
-        items.sort(BY_SIZE_DESC);
+    public SizeItemStore getStore() {
+        return items;
+    }
 
-        recomputeMaxBytes();
-        updatePreferredSize();
-        repaint();
+    public void setItems(List<FolderSizeVizApp.SizeItem> newItems) {
+        items.setAll(newItems == null ? List.of() : newItems);
     }
 
     public void upsertItem(FolderSizeVizApp.SizeItem item) {
-        if (item == null) return;
-
-        for (int i = 0; i < items.size(); i++) {
-            FolderSizeVizApp.SizeItem cur = items.get(i);
-            if (cur.isDirectory == item.isDirectory && cur.name.equals(item.name)) {
-                items.set(i, item);
-                items.sort(BY_SIZE_DESC);
+        items.upsert(item);
+    }
 
-                recomputeMaxBytes();
-                updatePreferredSize();
-                repaint();
-                return;
-            }
-        }
+    /** 여러 항목을 한 번에 반영한다 (store 변경 알림 → 다시 그리기 한 번). */
+    public void upsertItems(List<FolderSizeVizApp.SizeItem> batch) {
+        items.upsertAll(batch);
+    }
 
-        items.add(item);
-        items.sort(BY_SIZE_DESC);
+    private void onItemsChanged() {
+        // 바뀐 항목의 라벨은 새 SizeItem 으로 다시 만들어지므로, 쌓인 옛 항목만 가끔 비운다
+        if (labelCache.size() > 2 * items.size() + 64) labelCache.clear();
 
-        // maxBytes는 증가만 빠르게 처리 가능하지만, 정합성을 위해 단순 재계산
-        recomputeMaxBytes();
+        maxBytes = Math.max(1L, items.maxBytes());
         updatePreferredSize();
         repaint();
     }
 
-    private void recomputeMaxBytes() {
-        long max = 1L;
-        for (FolderSizeVizApp.SizeItem it : items) {
-            max = Math.max(max, it.bytes);
-        }
-        maxBytes = max;
-    }
-
     private void installMouseHandlers() {
         addMouseListener(new MouseAdapter() {
             @Override
@@ -321,18 +314,38 @@ public class DetailChartPanel extends JPanel implements Scrollable {
         FontMetrics fm = getFontMetrics(getFont());
 
         FolderSizeVizApp.SizeItem it = items.get(idx);
-        String label = buildItemLabel(it);
 
-        int textW = fm.stringWidth(label);
+        int textW = cachedLabel(it, fm).width;
         int textH = fm.getHeight();
         int textTop = baseline - fm.getAscent();
 
         return new Rectangle(tagX, textTop, textW, textH);
     }
 
+    private CachedLabel cachedLabel(FolderSizeVizApp.SizeItem it) {
+        return labelCache.computeIfAbsent(it, k -> new CachedLabel(buildItemLabel(k)));
+    }
+
+    /** label 문자열과 (현재 폰트 기준) 폭. 폰트가 바뀌면 폭은 다시 잰다. */
+    private CachedLabel cachedLabel(FolderSizeVizApp.SizeItem it, FontMetrics fm) {
+        if (labelCacheFont != fm.getFont()) {
+            labelCacheFont = fm.getFont();
+            for (CachedLabel l : labelCache.values()) l.width = -1;
+        }
+
+        CachedLabel l = cachedLabel(it);
+        if (l.width < 0) l.width = fm.stringWidth(l.text);
+        return l;
+    }
+
     private void updatePreferredSize() {
         int header = TITLE_H + AFTER_TITLE_GAP;
         int totalH = Math.max(200, header + (items.size() * ITEM_H));
+
+        // 높이가 그대로면 layout 을 다시 돌리지 않는다
+        Dimension cur = isPreferredSizeSet() ? getPreferredSize() : null;
+        if (cur != null && cur.height == totalH) return;
+
         setPreferredSize(new Dimension(10, totalH));
         revalidate();
     }
@@ -385,17 +398,24 @@ public class DetailChartPanel extends JPanel implements Scrollable {
                 return;
             }
 
-            // Items
+            // Items: clip 과 겹치는 행만 그린다 (viewport 에 보이는 20여 줄)
             int barX = CHART_LEFT_PADDING;
             int barAreaWidth = Math.max(0, w - CHART_LEFT_PADDING - ITEM_RIGHT_PADDING);
             int labelX = CHART_LEFT_PADDING - ITEM_RIGHT_PADDING;
 
-            int yy = y;
-            for (FolderSizeVizApp.SizeItem it : items) {
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, w, getHeight());
+
+            int first = Math.max(0, (clip.y - y) / ITEM_H);
+            int last = Math.min(items.size() - 1, (clip.y + clip.height - y) / ITEM_H);
+
+            int yy = y + first * ITEM_H;
+            for (int idx = first; idx <= last; idx++) {
+                FolderSizeVizApp.SizeItem it = items.get(idx);
                 double ratio = (maxBytes <= 0) ? 0.0 : (double) it.bytes / (double) maxBytes;
                 int barW = (int) (barAreaWidth * ratio);
 
-                String label = buildItemLabel(it);
+                String label = cachedLabel(it).text;
 
                 g2.setColor(c.fg);
                 g2.drawString(label, labelX, yy + LABEL_BASELINE_OFFSET);
@@ -411,6 +431,15 @@ public class DetailChartPanel extends JPanel implements Scrollable {
         }
     }
 
+    private static final class CachedLabel {
+        final String text;
+        int width = -1;
+
+        CachedLabel(String text) {
+            this.text = text;
+        }
+    }
+
     private static String trimMiddle(String s, int maxLen) {
         if (s == null) return "";
         if (s.length() <= maxLen) return s;
@@ -1,11 +1,27 @@
 package FolderSizeViz;
 
 import export.CsvExportRow;
+import Utils.AppDirs;
 import Utils.LanguageUtil;
 import Utils.LocaleManager;
 import Utils.SizeFormatUtil;
 import com.formdev.flatlaf.FlatLaf;
 import com.formdev.flatlaf.intellijthemes.materialthemeuilite.FlatMTArcDarkIJTheme;
+import scan.AgeHistogram;
+import scan.DirRecord;
+import scan.DirStats;
+import scan.DuplicateFinder;
+import scan.EntryReader;
+import scan.LargestFiles;
+import scan.ScanContext;
+import scan.ScanEngine;
+import scan.ScanMode;
+import scan.ScanOptions;
+import scan.ScanStats;
+import scan.ScanTree;
+import scan.SnapshotStore;
+import scan.TreeWatcher;
+import scan.TypeHistogram;
 
 import javax.swing.*;
 import javax.swing.event.TreeExpansionEvent;
@@ -18,10 +34,10 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Lock;
 
 public class FolderSizeVizApp {
 
@@ -30,6 +46,14 @@ public class FolderSizeVizApp {
 
     private static final String LOADING_NODE_TEXT = "loading...";
 
+    // 트리 자식 노드를 몇 개씩 묶어 넣을지 (nodesWereInserted 한 번에)
+    private static final int TREE_INSERT_CHUNK = 256;
+
+    private static final int STATS_REFRESH_MS = 500;
+
+    // 오래된 데이터 탭에 보여 줄 폴더 수
+    private static final int STALE_LIMIT = 100;
+
     private static final int FRAME_W = 1300;
     private static final int FRAME_H = 700;
 
@@ -38,6 +62,26 @@ public class FolderSizeVizApp {
 
     private static long scanToken = 0;
 
+    // 언어 전환으로 MainFrame 이 다시 만들어져도 유지
+    private static ScanOptions scanOptions = ScanOptions.fromSystemProperties();
+
+    // 왼쪽 트리 표시 옵션 (스캔으로 합계가 나온 폴더에 크기/파일 수 표시, 크기순 정렬)
+    private static boolean treeShowFileCounts = false;
+    private static boolean treeSortBySize = false;
+
+    // 파일 종류 파이: 확장자 대신 MIME 최상위 분류(video, image ...)로 묶을지
+    private static boolean typesByFamily = false;
+
+    // 오래된 데이터 탭: 이 일수 넘게 수정되지 않은 용량으로 순위 (나이 구간 경계 중 하나)
+    private static int staleDays = AgeHistogram.boundaryDays()[AgeHistogram.boundaryDays().length - 1];
+
+    // 한 번 끝까지 훑은 폴더들의 합계 (drill-down 시 재스캔 방지).
+    // 쓰기 전에 폴더 mtime / 항목 수로 확인하고, 스캔을 시작할 때 ScanTree.maxMemoryBytes() 를 넘었으면 비운다
+    private static final ScanTree sizeIndex = new ScanTree();
+
+    // 이전 실행의 스캔 결과 (설정 폴더, memory-mapped)
+    private static SnapshotStore snapshotStore;
+
     private static final Comparator<Path> PATH_BY_NAME = Comparator.comparing(p -> {
         Path fn = p.getFileName();
         String s = (fn == null ? p.toString() : fn.toString());
@@ -47,6 +91,8 @@ public class FolderSizeVizApp {
     public static void main(String[] args) {
         LanguageUtil.init();
 
+        if (scanOptions.snapshotCache()) snapshotStore = SnapshotStore.open(AppDirs.configDir().toPath());
+
         SwingUtilities.invokeLater(() -> {
             setupDarkTheme();
             new MainFrame().setVisible(true);
@@ -70,19 +116,60 @@ public class FolderSizeVizApp {
         private final JTree tree;
         private final DefaultTreeModel treeModel;
 
-        private final DetailChartPanel detailPanel = new DetailChartPanel();
+        // 현재 폴더 항목: 상세 막대와 파이 차트가 같이 읽는다
+        private final SizeItemStore items = new SizeItemStore();
+
+        private final DetailChartPanel detailPanel = new DetailChartPanel(items);
         private final PieChartTabPanel pieChartPanel = new PieChartTabPanel();
 
+        // 하위 여러 단계를 한 번에 보는 treemap (스캔 인덱스에서 직접 배치)
+        private final TreemapPanel treemapPanel = new TreemapPanel();
+
+        // 현재 폴더 하위 전체의 확장자별 용량 (스캔하면서 폴더마다 모은 값)
+        private final SizeItemStore typeItems = new SizeItemStore();
+        private final PieChartTabPanel typesPiePanel = new PieChartTabPanel();
+        private Path typesFolder;
+        private TypeHistogram latestTypes;
+
+        // 스캔한 폴더 하위 전체에서 가장 큰 파일들 (스캔 중에 bounded heap 으로 모음)
+        private final SizeItemStore largestItems = new SizeItemStore();
+        private final DetailChartPanel largestPanel = new DetailChartPanel(largestItems);
+
+        // 중복 파일: 묶음 하나당 막대 하나 (크기 = 하나만 남기면 확보되는 크기)
+        private final SizeItemStore duplicateItems = new SizeItemStore();
+        private final DetailChartPanel duplicatePanel = new DetailChartPanel(duplicateItems);
+        private DuplicateWorker duplicateWorker;
+
+        // 오래된 데이터: 스캔 인덱스의 나이별 용량으로 하위 폴더 순위 (디스크를 다시 읽지 않음)
+        private final SizeItemStore staleItems = new SizeItemStore();
+        private final DetailChartPanel stalePanel = new DetailChartPanel(staleItems);
+        private SwingWorker<List<ScanTree.StaleDir>, Void> staleWorker;
+        private DuplicateFinder.Result lastDuplicates;
+
         private final JTabbedPane rightTabs = new JTabbedPane();
 
         private final JLabel statusLabel = new JLabel(LanguageUtil.ln("status.ready"));
         private final JProgressBar progressBar = new JProgressBar();
 
+        // 스캔/내보내기 중 계측 값 (폴더 수, 파일 수, 초당 항목, 오류)
+        private final JLabel statsLabel = new JLabel();
+        private final javax.swing.Timer statsTimer = new javax.swing.Timer(STATS_REFRESH_MS, e -> refreshStatsLabel());
+        private volatile ScanStats exportStats;
+
         private SizeScanWorker currentWorker;
 
-        private ExportCsvWorker exportWorker;
+        // selectPathInTree 가 비동기로 펼치는 동안 더 최근 이동이 있었는지
+        private long navToken = 0;
+        private boolean selectingProgrammatically = false;
+
+        // 폴더 / 중복 파일 내보내기가 진행률 표시줄을 같이 쓰므로 한 번에 하나만
+        private SwingWorker<Void, Void> exportWorker;
+
+        // 감시 모드: 마지막으로 스캔이 끝난 트리를 지켜보며 변경분만 반영
+        private TreeWatcher watcher;
+        // 스캔 중에 들어온 변경 폴더: 인덱스에는 이미 반영됐고, 스캔이 끝나면 화면에 반영
+        private final Set<Path> pendingWatchChanges = new LinkedHashSet<>();
 
-        private final List<SizeItem> latestItems = new ArrayList<>();
         private Path latestFolder;
 
         MainFrame() {
@@ -105,6 +192,10 @@ public class FolderSizeVizApp {
             // 클릭 → 트리 선택 + 재스캔 공통 처리
             detailPanel.setOnItemClick(this::selectAndScan);
             pieChartPanel.setOnSliceClick(this::selectAndScan);
+            largestPanel.setOnItemClick(this::selectPathInTree);
+            duplicatePanel.setOnItemClick(this::selectPathInTree);
+            stalePanel.setOnItemClick(this::selectPathInTree);
+            treemapPanel.setOnItemClick(this::selectPathInTree);
         }
 
         private void selectAndScan(Path path) {
@@ -131,20 +222,145 @@ public class FolderSizeVizApp {
             aboutItem.addActionListener(e -> showAbout());
 
             settingsMenu.add(languageMenu);
+            settingsMenu.add(buildScanModeMenu());
+
+            JCheckBoxMenuItem cacheItem = new JCheckBoxMenuItem(LanguageUtil.ln("menu.settings.scan_cache"));
+            cacheItem.setSelected(scanOptions.snapshotCache());
+            cacheItem.addActionListener(e -> {
+                scanOptions = scanOptions.withSnapshotCache(cacheItem.isSelected());
+                if (scanOptions.snapshotCache() && snapshotStore == null) {
+                    snapshotStore = SnapshotStore.open(AppDirs.configDir().toPath());
+                }
+            });
+            settingsMenu.add(cacheItem);
+
+            JCheckBoxMenuItem watchItem = new JCheckBoxMenuItem(LanguageUtil.ln("menu.settings.scan_watch"));
+            watchItem.setSelected(scanOptions.watch());
+            watchItem.addActionListener(e -> {
+                scanOptions = scanOptions.withWatch(watchItem.isSelected());
+                if (!scanOptions.watch()) stopWatching();
+                else if (latestFolder != null && sizeIndex.get(latestFolder) != null) ensureWatching(latestFolder);
+            });
+            settingsMenu.add(watchItem);
+            settingsMenu.addSeparator();
+
+            JCheckBoxMenuItem treeCountsItem = new JCheckBoxMenuItem(LanguageUtil.ln("menu.settings.tree_file_counts"));
+            treeCountsItem.setSelected(treeShowFileCounts);
+            treeCountsItem.addActionListener(e -> {
+                treeShowFileCounts = treeCountsItem.isSelected();
+                refreshTreeSizes((FolderNode) treeModel.getRoot(), false);
+            });
+            settingsMenu.add(treeCountsItem);
+
+            JCheckBoxMenuItem treeSortItem = new JCheckBoxMenuItem(LanguageUtil.ln("menu.settings.tree_sort_size"));
+            treeSortItem.setSelected(treeSortBySize);
+            treeSortItem.addActionListener(e -> {
+                treeSortBySize = treeSortItem.isSelected();
+                refreshTreeSizes((FolderNode) treeModel.getRoot(), true);
+            });
+            settingsMenu.add(treeSortItem);
+
+            JCheckBoxMenuItem typesFamilyItem = new JCheckBoxMenuItem(LanguageUtil.ln("menu.settings.types_family"));
+            typesFamilyItem.setSelected(typesByFamily);
+            typesFamilyItem.addActionListener(e -> {
+                typesByFamily = typesFamilyItem.isSelected();
+                if (typesFolder != null) applyFileTypes(typesFolder, latestTypes);
+            });
+            settingsMenu.add(typesFamilyItem);
+            settingsMenu.add(buildStaleDaysMenu());
             settingsMenu.addSeparator();
             settingsMenu.add(aboutItem);
 
             menuBar.add(settingsMenu);
 
             JMenu fileMenu = new JMenu(LanguageUtil.ln("menu.file"));
+
+            JMenuItem rescanItem = new JMenuItem(LanguageUtil.ln("menu.file.rescan"));
+            rescanItem.setAccelerator(KeyStroke.getKeyStroke("F5"));
+            rescanItem.addActionListener(e -> rescanLatest());
+            fileMenu.add(rescanItem);
+
             JMenuItem exportItem = new JMenuItem(LanguageUtil.ln("menu.file.export"));
             exportItem.addActionListener(e -> onExportClicked());
             fileMenu.add(exportItem);
+            fileMenu.addSeparator();
+
+            JMenuItem duplicatesItem = new JMenuItem(LanguageUtil.ln("menu.file.duplicates"));
+            duplicatesItem.addActionListener(e -> onFindDuplicatesClicked());
+            fileMenu.add(duplicatesItem);
+
+            JMenuItem exportDuplicatesItem = new JMenuItem(LanguageUtil.ln("menu.file.export_duplicates"));
+            exportDuplicatesItem.addActionListener(e -> onExportDuplicatesClicked());
+            fileMenu.add(exportDuplicatesItem);
             menuBar.add(fileMenu);
 
             return menuBar;
         }
 
+        private JMenu buildStaleDaysMenu() {
+            JMenu menu = new JMenu(LanguageUtil.ln("menu.settings.stale_days"));
+            ButtonGroup group = new ButtonGroup();
+            for (int days : AgeHistogram.boundaryDays()) {
+                JRadioButtonMenuItem item = new JRadioButtonMenuItem(LanguageUtil.fmt("menu.settings.stale_days.item", String.valueOf(days)));
+                item.setSelected(days == staleDays);
+                item.addActionListener(e -> {
+                    staleDays = days;
+                    if (latestFolder != null) refreshStaleView(latestFolder);
+                });
+                group.add(item);
+                menu.add(item);
+            }
+            return menu;
+        }
+
+        private JMenu buildScanModeMenu() {
+            JMenu scanModeMenu = new JMenu(LanguageUtil.ln("menu.settings.scan_mode"));
+            ButtonGroup group = new ButtonGroup();
+
+            JRadioButtonMenuItem sequentialItem = new JRadioButtonMenuItem(LanguageUtil.ln("menu.settings.scan_mode.sequential"));
+            JRadioButtonMenuItem parallelItem = new JRadioButtonMenuItem(
+                    LanguageUtil.fmt("menu.settings.scan_mode.parallel", scanOptions.parallelism()));
+
+            JRadioButtonMenuItem virtualItem = new JRadioButtonMenuItem(
+                    LanguageUtil.fmt("menu.settings.scan_mode.virtual", scanOptions.maxOpenDirs()));
+
+            // 가상 스레드는 java21 프로파일 빌드에서만 (아니면 병렬로 동작)
+            boolean virtualAvailable = ScanEngine.isAvailable(ScanMode.VIRTUAL);
+            virtualItem.setEnabled(virtualAvailable);
+            if (!virtualAvailable) virtualItem.setToolTipText(LanguageUtil.ln("menu.settings.scan_mode.virtual_unavailable"));
+
+            sequentialItem.setSelected(scanOptions.mode() == ScanMode.SEQUENTIAL);
+            parallelItem.setSelected(scanOptions.mode() == ScanMode.PARALLEL
+                    || (scanOptions.mode() == ScanMode.VIRTUAL && !virtualAvailable));
+            virtualItem.setSelected(scanOptions.mode() == ScanMode.VIRTUAL && virtualAvailable);
+
+            sequentialItem.addActionListener(e -> scanOptions = scanOptions.withMode(ScanMode.SEQUENTIAL));
+            parallelItem.addActionListener(e -> scanOptions = scanOptions.withMode(ScanMode.PARALLEL));
+            virtualItem.addActionListener(e -> scanOptions = scanOptions.withMode(ScanMode.VIRTUAL));
+
+            group.add(sequentialItem);
+            group.add(parallelItem);
+            group.add(virtualItem);
+            scanModeMenu.add(sequentialItem);
+            scanModeMenu.add(parallelItem);
+            scanModeMenu.add(virtualItem);
+
+            return scanModeMenu;
+        }
+
+        /** 인덱스에 남은 합계를 버리고, 스냅샷 검증도 건너뛰고 디스크에서 전부 다시 읽는다. */
+        private void rescanLatest() {
+            if (latestFolder == null) return;
+
+            sizeIndex.invalidate(latestFolder);
+            try {
+                if (Files.isDirectory(latestFolder)) startScan(latestFolder, true);
+                else showFileInfo(latestFolder);
+            } catch (Exception ex) {
+                statusLabel.setText(LanguageUtil.ln("status.error") + " : " + latestFolder);
+            }
+        }
+
         private void onExportClicked() {
             if (latestFolder == null) {
                 JOptionPane.showMessageDialog(
@@ -172,10 +388,22 @@ public class FolderSizeVizApp {
             String base = (latestFolder.getFileName() == null) ? "folder_size" : latestFolder.getFileName().toString();
             fc.setSelectedFile(new File(base + "_folder_size_report.xlsx"));
 
+            // CSV 는 표가 하나뿐이라 확장자별 합계는 옆 파일(_types.csv)로만: 기본은 쓰지 않음
+            JCheckBox typesBox = new JCheckBox(LanguageUtil.ln("export.include_types"));
+            fc.setAccessory(typesBox);
+
             int result = fc.showSaveDialog(this);
             if (result != JFileChooser.APPROVE_OPTION) return;
 
             File outFile = fc.getSelectedFile();
+            boolean csv = isCsv(outFile);
+            boolean includeTypes = csv && typesBox.isSelected();
+
+            if (!confirmOverwrite(outFile, LanguageUtil.ln("menu.file.export"))) return;
+            if (includeTypes && !confirmOverwrite(
+                    export.CsvRecursiveExportService.typesFile(outFile), LanguageUtil.ln("menu.file.export"))) {
+                return;
+            }
 
             progressBar.setVisible(true);
             progressBar.setIndeterminate(false);
@@ -186,9 +414,10 @@ public class FolderSizeVizApp {
             progressBar.setString(LanguageUtil.ln("status.export_preparing"));
             statusLabel.setText(LanguageUtil.ln("status.export_start") + " : " + latestFolder);
 
-            boolean includeFiles = true;
+            statsLabel.setText("");
+            statsTimer.restart();
 
-            exportWorker = new ExportCsvWorker(latestFolder, outFile, includeFiles);
+            exportWorker = new ExportCsvWorker(latestFolder, outFile, true, csv, includeTypes);
             exportWorker.addPropertyChangeListener(evt -> {
                 if ("progress".equals(evt.getPropertyName())) {
                     int p = (int) evt.getNewValue();
@@ -200,6 +429,117 @@ public class FolderSizeVizApp {
 
         }
 
+        private static boolean isCsv(File f) {
+            return f.getName().toLowerCase(Locale.ROOT).endsWith(".csv");
+        }
+
+        /** 이미 있는 파일이면 덮어쓸지 묻는다. @return 써도 되면 true */
+        private boolean confirmOverwrite(File f, String title) {
+            if (!f.exists()) return true;
+            int answer = JOptionPane.showConfirmDialog(
+                    this,
+                    LanguageUtil.fmt("export.overwrite", f.getAbsolutePath()),
+                    title,
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.WARNING_MESSAGE
+            );
+            return answer == JOptionPane.YES_OPTION;
+        }
+
+        /** 마지막으로 선택한 폴더 하위에서 중복 파일을 찾는다 (크기 → 앞/뒤 64 KB → 전체 해시). */
+        private void onFindDuplicatesClicked() {
+            if (latestFolder == null || !Files.isDirectory(latestFolder)) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        LanguageUtil.ln("status.no_selection"),
+                        LanguageUtil.ln("menu.file.duplicates"),
+                        JOptionPane.WARNING_MESSAGE
+                );
+                return;
+            }
+            if (duplicateWorker != null && !duplicateWorker.isDone()) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        LanguageUtil.ln("status.duplicates_running"),
+                        LanguageUtil.ln("menu.file.duplicates"),
+                        JOptionPane.WARNING_MESSAGE
+                );
+                return;
+            }
+
+            Path folder = latestFolder;
+            duplicatePanel.setTitle(LanguageUtil.ln("status.duplicates_start") + " : " + folder);
+            duplicatePanel.setTitleClickTarget(folder);
+            duplicatePanel.setOnTitleClick(() -> openInExplorer(folder));
+            duplicateItems.clear();
+            rightTabs.setSelectedIndex(rightTabs.indexOfTab(LanguageUtil.ln("tab.duplicates")));
+
+            progressBar.setVisible(true);
+            progressBar.setIndeterminate(true);
+            progressBar.setStringPainted(true);
+            progressBar.setString(LanguageUtil.ln("status.duplicates_start"));
+            statusLabel.setText(LanguageUtil.ln("status.duplicates_start") + " : " + folder);
+
+            ScanStats stats = new ScanStats();
+            exportStats = stats;
+            statsLabel.setText("");
+            statsTimer.restart();
+
+            duplicateWorker = new DuplicateWorker(folder, stats);
+            duplicateWorker.execute();
+        }
+
+        private void onExportDuplicatesClicked() {
+            DuplicateFinder.Result result = lastDuplicates;
+            if (result == null || result.groups().isEmpty()) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        LanguageUtil.ln("status.no_duplicates"),
+                        LanguageUtil.ln("menu.file.export_duplicates"),
+                        JOptionPane.WARNING_MESSAGE
+                );
+                return;
+            }
+            if (exportWorker != null && !exportWorker.isDone()) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        LanguageUtil.ln("status.export_running"),
+                        LanguageUtil.ln("menu.file.export_duplicates"),
+                        JOptionPane.WARNING_MESSAGE
+                );
+                return;
+            }
+
+            JFileChooser fc = new JFileChooser();
+            fc.setDialogTitle(LanguageUtil.ln("export.dialog_title"));
+            Path fn = result.root().getFileName();
+            String base = (fn == null) ? "folder_size" : fn.toString();
+            fc.setSelectedFile(new File(base + "_duplicates.xlsx"));
+            if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+            File outFile = fc.getSelectedFile();
+            if (!confirmOverwrite(outFile, LanguageUtil.ln("menu.file.export_duplicates"))) return;
+
+            progressBar.setVisible(true);
+            progressBar.setIndeterminate(false);
+            progressBar.setMinimum(0);
+            progressBar.setMaximum(100);
+            progressBar.setValue(0);
+            progressBar.setStringPainted(true);
+            progressBar.setString(LanguageUtil.ln("status.export_preparing"));
+            statusLabel.setText(LanguageUtil.ln("status.export_start") + " : " + outFile.getAbsolutePath());
+
+            exportWorker = new ExportDuplicatesWorker(result, outFile);
+            exportWorker.addPropertyChangeListener(evt -> {
+                if ("progress".equals(evt.getPropertyName())) {
+                    int p = (int) evt.getNewValue();
+                    progressBar.setValue(p);
+                    progressBar.setString(LanguageUtil.ln("status.exporting") + " " + p + "%");
+                }
+            });
+            exportWorker.execute();
+        }
+
         private void exportLatestToCsv(File outFile) throws IOException {
             List<CsvExportRow> rows = buildRowsFromLatest();
             export.CsvExportService.write(outFile, rows);
@@ -214,12 +554,12 @@ public class FolderSizeVizApp {
             try { rootIsDir = Files.isDirectory(latestFolder); } catch (Exception ignored) {}
 
             long totalBytes = 0L;
-            for (SizeItem it : latestItems) totalBytes += Math.max(0L, it.bytes);
+            for (SizeItem it : items) totalBytes += Math.max(0L, it.bytes);
 
             Date rootDate = safeDate(latestFolder);
 
             // Root row
-            long rootSize = rootIsDir ? totalBytes : (!latestItems.isEmpty() ? latestItems.get(0).bytes : 0L);
+            long rootSize = rootIsDir ? totalBytes : (!items.isEmpty() ? items.get(0).bytes : 0L);
             rows.add(new export.CsvExportRow(
                     rootIsDir ? "Folder" : "File",
                     0,
@@ -230,7 +570,7 @@ public class FolderSizeVizApp {
             ));
 
             // Children rows (Depth=1)
-            for (SizeItem it : latestItems) {
+            for (SizeItem it : items) {
                 rows.add(new export.CsvExportRow(
                         it.isDirectory ? "Folder" : "File",
                         1,
@@ -254,6 +594,7 @@ public class FolderSizeVizApp {
 
         private void switchLanguage(Locale newLocale) {
             LocaleManager.saveLocale(newLocale);
+            stopWatching();
             dispose();
             LanguageUtil.setLocale(newLocale);
 
@@ -312,6 +653,25 @@ public class FolderSizeVizApp {
 
             rightTabs.addTab(LanguageUtil.ln("tab.detail"), detailScroll);
             rightTabs.addTab(LanguageUtil.ln("tab.chart"), pieScroll);
+            rightTabs.addTab(LanguageUtil.ln("tab.treemap"), treemapPanel);
+
+            JScrollPane typesScroll = new JScrollPane(typesPiePanel);
+            typesScroll.setBorder(BorderFactory.createEmptyBorder());
+            typesScroll.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+            typesScroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER);
+            rightTabs.addTab(LanguageUtil.ln("tab.types"), typesScroll);
+
+            JScrollPane largestScroll = new JScrollPane(largestPanel);
+            largestScroll.setBorder(BorderFactory.createEmptyBorder());
+            rightTabs.addTab(LanguageUtil.ln("tab.largest"), largestScroll);
+
+            JScrollPane staleScroll = new JScrollPane(stalePanel);
+            staleScroll.setBorder(BorderFactory.createEmptyBorder());
+            rightTabs.addTab(LanguageUtil.ln("tab.stale"), staleScroll);
+
+            JScrollPane duplicateScroll = new JScrollPane(duplicatePanel);
+            duplicateScroll.setBorder(BorderFactory.createEmptyBorder());
+            rightTabs.addTab(LanguageUtil.ln("tab.duplicates"), duplicateScroll);
 
             rightTabs.addChangeListener(e -> {
                 if (rightTabs.getSelectedIndex() == 1) refreshPieChartFromLatest();
@@ -332,8 +692,15 @@ public class FolderSizeVizApp {
             progressBar.setStringPainted(true);
             progressBar.setVisible(false);
 
+            statsLabel.setForeground(c.muted);
+
+            JPanel east = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+            east.setOpaque(false);
+            east.add(statsLabel);
+            east.add(progressBar);
+
             content.add(statusLabel, BorderLayout.CENTER);
-            content.add(progressBar, BorderLayout.EAST);
+            content.add(east, BorderLayout.EAST);
 
             bottom.add(content, BorderLayout.CENTER);
             return bottom;
@@ -353,6 +720,8 @@ public class FolderSizeVizApp {
             });
 
             tree.addTreeSelectionListener(e -> {
+                if (selectingProgrammatically) return;
+
                 Object sel = tree.getLastSelectedPathComponent();
                 if (!(sel instanceof FolderNode node)) return;
                 if (node.isVirtual()) return;
@@ -374,7 +743,8 @@ public class FolderSizeVizApp {
                 try {
                     Path p = r.toPath();
                     FolderNode drive = new FolderNode(p);
-                    maybeAddLoadingPlaceholder(drive, p);
+                    // 드라이브(네트워크 드라이브 포함)는 미리 열어 보지 않는다: 비어 있으면 펼칠 때 placeholder 를 지움
+                    if (drive.isDirectory) drive.add(new DefaultMutableTreeNode(LOADING_NODE_TEXT));
                     root.add(drive);
                 } catch (Exception ignored) {
                 }
@@ -383,41 +753,121 @@ public class FolderSizeVizApp {
         }
 
         private void ensureChildrenLoaded(FolderNode node) {
-            if (!node.isDirectory || node.isVirtual() || node.childrenLoaded) return;
+            ensureChildrenLoaded(node, null);
+        }
+
+        /**
+         * 자식 노드를 background 에서 읽기 시작한다 (이미 읽었거나 읽는 중이면 그대로).
+         * @param then 자식이 다 들어간 뒤 EDT 에서 실행 (null 가능)
+         */
+        private void ensureChildrenLoaded(FolderNode node, Runnable then) {
+            if (!node.isDirectory || node.isVirtual() || node.childrenLoaded) {
+                if (then != null) then.run();
+                return;
+            }
 
-            loadChildrenOneLevel(node);
-            treeModel.reload(node);
-            node.childrenLoaded = true;
+            if (then != null) node.onChildrenLoaded.add(then);
+            if (node.loader != null) return;
+
+            node.loader = new ChildLoadWorker(node);
+            node.loader.execute();
         }
 
-        private void loadChildrenOneLevel(FolderNode node) {
-            node.removeAllChildren();
+        /**
+         * 폴더 한 단계를 background 에서 읽어 (폴더 → 파일, 이름순) 묶음 단위로 트리에 넣는다.
+         * 하위 폴더마다 "자식이 있는지" 확인하는 것이 느린 부분이라, 확인되는 대로 먼저 보여 준다.
+         * placeholder 는 첫 묶음이 도착할 때(또는 비어 있음이 확인될 때) 치운다.
+         */
+        private final class ChildLoadWorker extends SwingWorker<Void, FolderNode> {
 
-            List<Path> dirs = new ArrayList<>();
-            List<Path> files = new ArrayList<>();
+            private final FolderNode node;
+            private boolean placeholderRemoved = false;
 
-            try (DirectoryStream<Path> ds = Files.newDirectoryStream(node.path)) {
-                for (Path p : ds) {
-                    try {
-                        if (Files.isDirectory(p)) dirs.add(p);
-                        else files.add(p);
-                    } catch (Exception ignored) {
-                    }
+            ChildLoadWorker(FolderNode node) {
+                this.node = node;
+            }
+
+            @Override
+            protected Void doInBackground() {
+                List<Path> dirs = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+
+                // 폴더/파일 구분은 목록과 함께 읽은 속성으로 (FolderNode 가 다시 stat 하지 않도록 넘김)
+                EntryReader.readDir(node.path, true, null, this::isCancelled, e -> {
+                    if (e.directory()) dirs.add(e.path());
+                    else files.add(e.path());
+                });
+                if (isCancelled()) return null;
+
+                dirs.sort(PATH_BY_NAME);
+                files.sort(PATH_BY_NAME);
+
+                // 합계는 이전 스캔 결과(인덱스)에서만 가져온다 (여기서 하위를 훑지 않음)
+                List<FolderNode> dirNodes = new ArrayList<>(dirs.size());
+                for (Path dir : dirs) {
+                    FolderNode child = new FolderNode(dir, true);
+                    child.applySize(sizeIndex);
+                    dirNodes.add(child);
                 }
-            } catch (IOException | SecurityException ignored) {
-                return;
+                if (treeSortBySize) dirNodes.sort(FolderNode.BY_SIZE_DESC);
+
+                for (FolderNode child : dirNodes) {
+                    if (isCancelled()) return null;
+
+                    maybeAddLoadingPlaceholder(child, child.path);
+                    publish(child);
+                }
+                for (Path f : files) {
+                    if (isCancelled()) return null;
+                    publish(new FolderNode(f, false));
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<FolderNode> chunk) {
+                for (int from = 0; from < chunk.size(); from += TREE_INSERT_CHUNK) {
+                    insert(chunk.subList(from, Math.min(chunk.size(), from + TREE_INSERT_CHUNK)));
+                }
+            }
+
+            private void insert(List<FolderNode> children) {
+                removePlaceholder();
+
+                int start = node.getChildCount();
+                int[] indices = new int[children.size()];
+                for (int i = 0; i < indices.length; i++) {
+                    node.add(children.get(i));
+                    indices[i] = start + i;
+                }
+                treeModel.nodesWereInserted(node, indices);
             }
 
-            dirs.sort(PATH_BY_NAME);
-            files.sort(PATH_BY_NAME);
+            private void removePlaceholder() {
+                if (placeholderRemoved) return;
+                placeholderRemoved = true;
 
-            for (Path dir : dirs) {
-                FolderNode child = new FolderNode(dir);
-                maybeAddLoadingPlaceholder(child, dir);
-                node.add(child);
+                for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                    if (node.getChildAt(i) instanceof FolderNode) continue;
+
+                    Object removed = node.getChildAt(i);
+                    node.remove(i);
+                    treeModel.nodesWereRemoved(node, new int[] { i }, new Object[] { removed });
+                }
             }
-            for (Path f : files) {
-                node.add(new FolderNode(f));
+
+            @Override
+            protected void done() {
+                node.loader = null;
+                if (isCancelled()) return;
+
+                // 비어 있거나 읽을 수 없는 폴더: placeholder 만 치운다
+                removePlaceholder();
+                node.childrenLoaded = true;
+
+                List<Runnable> pending = new ArrayList<>(node.onChildrenLoaded);
+                node.onChildrenLoaded.clear();
+                for (Runnable r : pending) r.run();
             }
         }
 
@@ -436,21 +886,15 @@ public class FolderSizeVizApp {
             String name = fileNameOrPath(file);
             statusLabel.setText(LanguageUtil.ln("status.file_selected") + " : " + file);
 
-            long size = 0L;
-            try {
-                if (Files.isRegularFile(file)) size = Files.size(file);
-            } catch (Exception ignored) {
-            }
+            EntryReader.Entry e = EntryReader.read(file, true, null);
+            long size = (e != null && e.regularFile()) ? e.size() : 0L;
 
             SizeItem single = new SizeItem(name, size, false, file);
             List<SizeItem> singleList = List.of(single);
 
             latestFolder = file;
-            latestItems.clear();
-            latestItems.addAll(singleList);
-
             detailPanel.setTitle(LanguageUtil.ln("label.file") + " : " + name);
-            detailPanel.setItems(singleList);
+            items.setAll(singleList);
 
             Path openPath = file.getParent();
             if (openPath == null) openPath = file.getRoot(); // 루트 방어
@@ -462,7 +906,7 @@ public class FolderSizeVizApp {
             pieChartPanel.setTitle(LanguageUtil.ln("label.file") + " : " + name);
             pieChartPanel.setTitleClickTarget(openPath);
             pieChartPanel.setOnTitleClick(() -> openInExplorer(finalOpenPath));
-            pieChartPanel.setItemsTop10(singleList);
+            pieChartPanel.setItems(items);
         }
 
         private void selectPathInTree(Path target) {
@@ -494,32 +938,131 @@ public class FolderSizeVizApp {
 
             javax.swing.tree.TreePath tp = new javax.swing.tree.TreePath(driveNode.getPath());
             tree.expandPath(tp);
-            ensureChildrenLoaded(driveNode);
 
-            Path curPath = drive;
-            FolderNode curNode = driveNode;
+            expandTowards(driveNode, tp, toSelect, ++navToken);
+        }
+
+        /**
+         * 자식이 읽히는 대로 한 단계씩 target 쪽으로 펼친다.
+         * 도중에 다른 곳으로 이동하면(navToken 변경) 멈춘다.
+         */
+        private void expandTowards(FolderNode curNode, javax.swing.tree.TreePath tp, Path target, long myNav) {
+            if (myNav != navToken) return;
+
+            if (target.equals(curNode.path)) {
+                selectProgrammatically(tp);
+                return;
+            }
 
-            for (Path namePart : drive.relativize(toSelect)) {
-                curPath = curPath.resolve(namePart);
+            ensureChildrenLoaded(curNode, () -> {
+                if (myNav != navToken) return;
 
-                ensureChildrenLoaded(curNode);
+                Path nextPath = curNode.path.resolve(curNode.path.relativize(target).getName(0));
 
                 FolderNode next = null;
                 for (int i = 0; i < curNode.getChildCount(); i++) {
                     Object ch = curNode.getChildAt(i);
-                    if (ch instanceof FolderNode fn && !fn.isVirtual() && curPath.equals(fn.path)) {
+                    if (ch instanceof FolderNode fn && !fn.isVirtual() && nextPath.equals(fn.path)) {
                         next = fn;
                         break;
                     }
                 }
-                if (next == null) break;
+                if (next == null) {
+                    selectProgrammatically(tp);
+                    return;
+                }
+
+                javax.swing.tree.TreePath nextTp = tp.pathByAddingChild(next);
+                tree.expandPath(nextTp);
+                expandTowards(next, nextTp, target, myNav);
+            });
+        }
+
+        /** 이미 읽어 둔 트리 노드 중 path 에 해당하는 것 (없으면 null, 디스크는 보지 않음). */
+        private FolderNode findLoadedNode(Path path) {
+            if (path == null) return null;
+            Path target = path.toAbsolutePath().normalize();
 
-                curNode = next;
-                tp = tp.pathByAddingChild(curNode);
-                tree.expandPath(tp);
+            FolderNode cur = (FolderNode) treeModel.getRoot();
+            while (true) {
+                FolderNode next = null;
+                for (int i = 0; i < cur.getChildCount(); i++) {
+                    if (cur.getChildAt(i) instanceof FolderNode fn && fn.isDirectory && target.startsWith(fn.path)) {
+                        next = fn;
+                        break;
+                    }
+                }
+                if (next == null) return null;
+                if (next.path.equals(target)) return next;
+                cur = next;
             }
+        }
 
-            tree.setSelectionPath(tp);
+        /**
+         * node 와 이미 읽어 둔 하위 노드들의 합계를 인덱스 값으로 갱신한다.
+         * @param resort true 면 정렬 설정에 맞춰 자식 순서도 다시 맞춘다 (펼침/선택 상태 유지)
+         */
+        private void refreshTreeSizes(FolderNode node, boolean resort) {
+            if (node == null) return;
+
+            javax.swing.tree.TreePath nodePath = new javax.swing.tree.TreePath(node.getPath());
+            List<javax.swing.tree.TreePath> expanded = new ArrayList<>();
+            if (resort) {
+                Enumeration<javax.swing.tree.TreePath> en = tree.getExpandedDescendants(nodePath);
+                if (en != null) while (en.hasMoreElements()) expanded.add(en.nextElement());
+            }
+            javax.swing.tree.TreePath selected = tree.getSelectionPath();
+
+            boolean reordered = refreshTreeSizes0(node, resort);
+
+            if (reordered) {
+                treeModel.nodeStructureChanged(node);
+                for (javax.swing.tree.TreePath tp : expanded) tree.expandPath(tp);
+                if (selected != null) selectProgrammatically(selected);
+            }
+        }
+
+        private boolean refreshTreeSizes0(FolderNode node, boolean resort) {
+            if (!node.isVirtual()) {
+                node.applySize(sizeIndex);
+                // 라벨 폭이 바뀌므로 크기 캐시를 다시 계산하게 한다
+                if (node.totalBytes >= 0) treeModel.nodeChanged(node);
+            }
+
+            boolean reordered = false;
+            List<FolderNode> dirs = new ArrayList<>();
+            List<FolderNode> files = new ArrayList<>();
+            for (int i = 0; i < node.getChildCount(); i++) {
+                if (!(node.getChildAt(i) instanceof FolderNode fn)) continue;
+                if (fn.isDirectory) {
+                    reordered |= refreshTreeSizes0(fn, resort);
+                    dirs.add(fn);
+                } else {
+                    files.add(fn);
+                }
+            }
+
+            // 드라이브 목록은 그대로 둔다
+            if (!resort || node.isVirtual() || dirs.size() < 2) return reordered;
+
+            List<FolderNode> sorted = new ArrayList<>(dirs);
+            sorted.sort(treeSortBySize ? FolderNode.BY_SIZE_DESC : FolderNode.BY_NAME);
+            if (sorted.equals(dirs)) return reordered;
+
+            node.removeAllChildren();
+            for (FolderNode d : sorted) node.add(d);
+            for (FolderNode f : files) node.add(f);
+            return true;
+        }
+
+        /** 선택 리스너의 스캔을 건너뛰고 선택만 옮긴다 (스캔은 호출한 쪽에서). */
+        private void selectProgrammatically(javax.swing.tree.TreePath tp) {
+            selectingProgrammatically = true;
+            try {
+                tree.setSelectionPath(tp);
+            } finally {
+                selectingProgrammatically = false;
+            }
             tree.scrollPathToVisible(tp);
         }
 
@@ -535,12 +1078,17 @@ public class FolderSizeVizApp {
         }
 
         private void startScan(Path folder) {
+            startScan(folder, false);
+        }
+
+        private void startScan(Path folder, boolean fullRescan) {
             cancelCurrentWorker();
+            trimIndex();
 
             final long myToken = ++scanToken;
 
             latestFolder = folder;
-            latestItems.clear();
+            items.clear();
 
             statusLabel.setText(LanguageUtil.ln("status.scan_start") + " : " + folder);
 
@@ -548,20 +1096,27 @@ public class FolderSizeVizApp {
             progressBar.setString(LanguageUtil.ln("status.scanning"));
             progressBar.setVisible(true);
 
+            statsLabel.setText("");
+            statsTimer.restart();
+
             applySelectionToDetail(LanguageUtil.ln("info.folder") + " : " + folder, folder);
             applySelectionToPie(LanguageUtil.ln("info.folder") + " : " + folder, folder);
             pieChartPanel.clear();
+            applySelectionToLargest(folder, null);
+            applyFileTypes(folder, null);
+            clearStaleView(folder);
+            treemapPanel.clear();
 
-            currentWorker = new SizeScanWorker(folder, new SizeScanWorker.Callback() {
+            SnapshotStore store = scanOptions.snapshotCache() ? snapshotStore : null;
+            currentWorker = new SizeScanWorker(folder, scanOptions, store, fullRescan, new SizeScanWorker.Callback() {
                 @Override
-                public void onPartial(SizeItem item) {
+                public void onPartial(List<SizeItem> batch) {
                     if (myToken != scanToken) return;
 
-                    detailPanel.upsertItem(item);
-                    upsertLatest(item);
+                    items.upsertAll(batch);
 
                     if (rightTabs.getSelectedIndex() == 1) {
-                        pieChartPanel.setItemsTop10(latestItems);
+                        pieChartPanel.setItems(items);
                     }
                 }
 
@@ -570,18 +1125,19 @@ public class FolderSizeVizApp {
                     if (myToken != scanToken) return;
 
                     progressBar.setVisible(false);
-                    statusLabel.setText(
-                            LanguageUtil.ln("status.done") + " : " + folder
-                                    + " / " + LanguageUtil.ln("info.total_size") + " : " + SizeFormatUtil.human(totalBytes)
-                                    + " / " + LanguageUtil.ln("label.file") + " : " + scannedFiles
-                    );
+                    stopStatsReadout();
+                    showDoneStatus(folder, totalBytes, scannedFiles);
 
-                    detailPanel.setItems(finalItems);
-
-                    latestItems.clear();
-                    latestItems.addAll(finalItems);
+                    items.setAll(finalItems);
 
                     refreshPieChartFromLatest();
+                    applySelectionToLargest(folder, currentWorker.largestFiles());
+                    applyFileTypes(folder, currentWorker.fileTypes());
+                    refreshStaleView(folder);
+                    treemapPanel.setRoot(sizeIndex, folder);
+
+                    if (scanOptions.watch()) ensureWatching(folder);
+                    refreshTreeSizes(findLoadedNode(folder), treeSortBySize);
                 }
 
                 @Override
@@ -589,6 +1145,7 @@ public class FolderSizeVizApp {
                     if (myToken != scanToken) return;
 
                     progressBar.setVisible(false);
+                    stopStatsReadout();
                     statusLabel.setText(LanguageUtil.ln("status.scan_cancelled") + " : " + folder);
                 }
 
@@ -597,12 +1154,185 @@ public class FolderSizeVizApp {
                     if (myToken != scanToken) return;
 
                     progressBar.setVisible(false);
+                    stopStatsReadout();
                     statusLabel.setText(
                             LanguageUtil.ln("status.error") + " : " + ex.getClass().getSimpleName() + " - " + ex.getMessage()
                     );
                 }
             });
 
+            currentWorker.addPropertyChangeListener(this::flushPendingWatchChanges);
+            currentWorker.execute();
+        }
+
+        /** 진행 중인 스캔(없으면 내보내기)의 계측 값을 하단 바에 표시한다. */
+        private void refreshStatsLabel() {
+            ScanStats stats = (currentWorker != null && !currentWorker.isDone()) ? currentWorker.stats() : exportStats;
+            if (stats != null) showStats(stats);
+        }
+
+        /** 타이머를 멈추고 마지막 값을 한 번 더 표시한다. */
+        private void stopStatsReadout() {
+            statsTimer.stop();
+            if (currentWorker != null) showStats(currentWorker.stats());
+        }
+
+        private void showStats(ScanStats stats) {
+            ScanStats.Snapshot s = stats.snapshot();
+            statsLabel.setText(LanguageUtil.fmt("status.stats",
+                    s.dirsOpened(), s.filesStatted(), Math.round(s.entriesPerSecond()), s.errors()));
+        }
+
+        private void showDoneStatus(Path folder, long totalBytes, long files) {
+            statusLabel.setText(
+                    LanguageUtil.ln("status.done") + " : " + folder
+                            + " / " + LanguageUtil.ln("info.total_size") + " : " + SizeFormatUtil.human(totalBytes)
+                            + " / " + LanguageUtil.ln("label.file") + " : " + files
+                            + watchLimitedSuffix()
+            );
+        }
+
+        /** 감시 등록이 OS 제한에 걸렸으면 상태 표시 뒤에 붙일 안내 (아니면 빈 문자열). */
+        private String watchLimitedSuffix() {
+            return (watcher != null && watcher.isRegistrationLimited())
+                    ? " / " + LanguageUtil.ln("status.watch_limited") : "";
+        }
+
+        /** 감시 스레드가 등록 제한에 걸린 순간 (스캔 결과 표시가 이미 끝난 뒤일 수 있다). */
+        private void showWatchLimited(TreeWatcher from) {
+            if (from != watcher) return;
+            String suffix = watchLimitedSuffix();
+            String text = statusLabel.getText();
+            if (!suffix.isEmpty() && !text.endsWith(suffix)) statusLabel.setText(text + suffix);
+        }
+
+        /** 인덱스가 상한을 넘었으면 비운다 (감시는 인덱스 기록으로 등록하므로 같이 멈추고, 스캔이 끝나면 다시 시작). */
+        private void trimIndex() {
+            if (sizeIndex.memoryBytes() <= ScanTree.maxMemoryBytes()) return;
+            stopWatching();
+            sizeIndex.clear();
+        }
+
+        /** folder 가 이미 감시 중인 트리 안이면 그대로 두고, 아니면 folder 로 감시 대상을 옮긴다. */
+        private void ensureWatching(Path folder) {
+            Path root = folder.toAbsolutePath().normalize();
+            if (watcher != null && root.startsWith(watcher.root())) return;
+
+            stopWatching();
+            try {
+                TreeWatcher[] started = new TreeWatcher[1];
+                watcher = started[0] = TreeWatcher.start(root, sizeIndex, new TreeWatcher.Listener() {
+                    @Override
+                    public void onDirsChanged(Set<Path> changed) {
+                        SwingUtilities.invokeLater(() -> applyWatchChanges(changed));
+                    }
+
+                    @Override
+                    public void onRegistrationLimited() {
+                        SwingUtilities.invokeLater(() -> showWatchLimited(started[0]));
+                    }
+                });
+            } catch (IOException | UnsupportedOperationException ex) {
+                watcher = null;
+            }
+        }
+
+        private void stopWatching() {
+            pendingWatchChanges.clear();
+            if (watcher == null) return;
+            watcher.close();
+            watcher = null;
+        }
+
+        /**
+         * 감시로 바뀐 폴더들을 현재 화면에 반영한다.
+         * 현재 폴더의 직계 항목이 바뀌었으면 한 단계만 다시 읽고(하위 합계는 인덱스),
+         * 더 깊은 곳이 바뀌었으면 해당 하위 폴더 항목만 인덱스 값으로 갱신한다.
+         * 스캔 중이면 모아 두었다가 스캔이 끝난 뒤({@link #flushPendingWatchChanges}) 한꺼번에 반영한다.
+         */
+        private void applyWatchChanges(Set<Path> changed) {
+            if (latestFolder == null || watcher == null) return;
+            if (currentWorker != null && !currentWorker.isDone()) {
+                pendingWatchChanges.addAll(changed);
+                return;
+            }
+            if (!pendingWatchChanges.isEmpty()) {
+                pendingWatchChanges.addAll(changed);
+                changed = new LinkedHashSet<>(pendingWatchChanges);
+                pendingWatchChanges.clear();
+            }
+
+            Path cur = latestFolder.toAbsolutePath().normalize();
+            boolean relist = false;
+            Set<Path> changedChildren = new LinkedHashSet<>();
+
+            for (Path c : changed) {
+                if (c.equals(cur)) relist = true;
+                else if (c.startsWith(cur)) changedChildren.add(cur.resolve(cur.relativize(c).getName(0)));
+            }
+
+            if (relist) {
+                refreshLatestQuietly();
+                return;
+            }
+            if (changedChildren.isEmpty()) return;
+
+            List<SizeItem> batch = new ArrayList<>();
+            for (Path child : changedChildren) {
+                DirRecord r = sizeIndex.get(child);
+                if (r == null) continue;
+
+                batch.add(new SizeItem(fileNameOrPath(child), r.total().bytes(), true, child));
+            }
+            items.upsertAll(batch);
+            if (rightTabs.getSelectedIndex() == 1) pieChartPanel.setItems(items);
+
+            DirRecord total = sizeIndex.get(cur);
+            if (total != null) showDoneStatus(latestFolder, total.total().bytes(), total.total().files());
+            refreshTreeSizes(findLoadedNode(cur), treeSortBySize);
+        }
+
+        /** 스캔 worker 가 끝나면(취소 / 오류 포함) 그동안 모인 감시 변경분을 반영한다. */
+        private void flushPendingWatchChanges(java.beans.PropertyChangeEvent evt) {
+            if (!"state".equals(evt.getPropertyName()) || evt.getNewValue() != SwingWorker.StateValue.DONE) return;
+            if (pendingWatchChanges.isEmpty()) return;
+
+            // 더 새 스캔이 돌고 있으면 applyWatchChanges 가 다시 모아 둔다
+            applyWatchChanges(Collections.emptySet());
+        }
+
+        /** 화면을 비우지 않고 현재 폴더를 다시 읽는다 (하위 폴더 합계는 인덱스에서). */
+        private void refreshLatestQuietly() {
+            Path folder = latestFolder;
+            final long myToken = ++scanToken;
+
+            currentWorker = new SizeScanWorker(folder, scanOptions, null, false, new SizeScanWorker.Callback() {
+                @Override
+                public void onPartial(List<SizeItem> batch) {
+                }
+
+                @Override
+                public void onDone(List<SizeItem> finalItems, long totalBytes, long scannedFiles) {
+                    if (myToken != scanToken) return;
+
+                    showDoneStatus(folder, totalBytes, scannedFiles);
+                    items.setAll(finalItems);
+                    applyFileTypes(folder, currentWorker.fileTypes());
+                    refreshStaleView(folder);
+                    treemapPanel.setRoot(sizeIndex, folder);
+
+                    if (rightTabs.getSelectedIndex() == 1) refreshPieChartFromLatest();
+                }
+
+                @Override
+                public void onCancelled() {
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                }
+            });
+            currentWorker.addPropertyChangeListener(this::flushPendingWatchChanges);
             currentWorker.execute();
         }
 
@@ -619,6 +1349,182 @@ public class FolderSizeVizApp {
             pieChartPanel.setOnTitleClick(() -> openInExplorer(openPath));
         }
 
+        /**
+         * 큰 파일 탭: 이름은 스캔한 폴더 기준 상대 경로 (다른 폴더의 같은 이름을 구분).
+         * 일부 하위 폴더를 캐시로 답한 스캔이면 제목을 눌러 캐시 없이 다시 스캔할 수 있다.
+         * @param largest null 이면 비운다 (스캔 시작)
+         */
+        private void applySelectionToLargest(Path folder, LargestFiles largest) {
+            if (largest == null) {
+                largestPanel.setTitle(LanguageUtil.ln("info.folder") + " : " + folder);
+                largestPanel.setTitleClickTarget(folder);
+                largestPanel.setOnTitleClick(() -> openInExplorer(folder));
+                largestItems.clear();
+                return;
+            }
+
+            List<SizeItem> list = new ArrayList<>();
+            for (LargestFiles.Entry e : largest.toList()) {
+                String name;
+                try {
+                    name = folder.relativize(e.path()).toString();
+                } catch (IllegalArgumentException ex) {
+                    name = e.path().toString();
+                }
+                list.add(new SizeItem(name, e.bytes(), false, e.path()));
+            }
+
+            String title = LanguageUtil.fmt("largest.title", largest.capacity(), folder);
+            if (largest.isPartial()) {
+                largestPanel.setTitle(title + " " + LanguageUtil.ln("largest.partial"));
+                largestPanel.setTitleClickTarget(folder);
+                largestPanel.setOnTitleClick(this::rescanLatest);
+            } else {
+                largestPanel.setTitle(title);
+                largestPanel.setTitleClickTarget(folder);
+                largestPanel.setOnTitleClick(() -> openInExplorer(folder));
+            }
+            largestItems.setAll(list);
+        }
+
+        /**
+         * 중복 탭: 묶음 하나당 막대 하나. 이름은 첫 복사본의 상대 경로 × 개수, 크기는 회수 가능한 크기.
+         * 상한(읽은 바이트 / 시간)에 닿아 멈췄으면 제목에 표시한다.
+         */
+        private void applyDuplicates(DuplicateFinder.Result result) {
+            Path folder = result.root();
+            List<SizeItem> list = new ArrayList<>(result.groups().size());
+            for (DuplicateFinder.Group g : result.groups()) {
+                Path first = g.copies().get(0).path();
+                String name;
+                try {
+                    name = folder.relativize(first).toString();
+                } catch (IllegalArgumentException ex) {
+                    name = first.toString();
+                }
+                list.add(new SizeItem(name + " ×" + g.copies().size(), g.reclaimableBytes(), false, first));
+            }
+
+            String title = LanguageUtil.fmt("duplicates.title",
+                    SizeFormatUtil.human(result.reclaimableBytes()), result.groups().size(), folder);
+            if (result.stoppedBy() == DuplicateFinder.Stop.BYTES || result.stoppedBy() == DuplicateFinder.Stop.TIME) {
+                title += " " + LanguageUtil.ln("duplicates.partial");
+            }
+            duplicatePanel.setTitle(title);
+            duplicatePanel.setTitleClickTarget(folder);
+            duplicatePanel.setOnTitleClick(() -> openInExplorer(folder));
+            duplicateItems.setAll(list);
+        }
+
+        /**
+         * 파일 종류 탭: 확장자(또는 MIME 분류)별 용량 파이.
+         * 일부 하위 폴더를 캐시로 답했거나 감시 모드로 합계만 고친 부분은 "분류 안 됨" 조각이 되고,
+         * 제목을 눌러 캐시 없이 다시 스캔할 수 있다.
+         * @param types null 이면 비운다 (스캔 시작)
+         */
+        private void applyFileTypes(Path folder, TypeHistogram types) {
+            typesFolder = folder;
+            latestTypes = types;
+            String title = LanguageUtil.fmt("types.title", folder);
+            if (types == null) {
+                typesPiePanel.setTitle(title);
+                typesPiePanel.setTitleClickTarget(folder);
+                typesPiePanel.setOnTitleClick(() -> openInExplorer(folder));
+                typeItems.clear();
+                typesPiePanel.clear();
+                return;
+            }
+
+            List<SizeItem> list = new ArrayList<>();
+            for (TypeHistogram.Entry e : typesByFamily ? types.families() : types.entries()) {
+                String name = switch (e.type()) {
+                    case TypeHistogram.NONE -> LanguageUtil.ln(typesByFamily ? "types.unclassified" : "types.none");
+                    case TypeHistogram.OTHER -> LanguageUtil.ln("types.other");
+                    case TypeHistogram.UNKNOWN -> LanguageUtil.ln("types.unknown");
+                    default -> typesByFamily ? e.type() : "." + e.type();
+                };
+                list.add(new SizeItem(name + " (" + e.files() + ")", e.bytes(), false, null));
+            }
+
+            typesPiePanel.setTitleClickTarget(folder);
+            if (types.unknownBytes() > 0L) {
+                typesPiePanel.setTitle(title + " " + LanguageUtil.ln("types.partial"));
+                typesPiePanel.setOnTitleClick(this::rescanLatest);
+            } else {
+                typesPiePanel.setTitle(title);
+                typesPiePanel.setOnTitleClick(() -> openInExplorer(folder));
+            }
+            typeItems.setAll(list);
+            typesPiePanel.setItems(typeItems);
+        }
+
+        private void clearStaleView(Path folder) {
+            if (staleWorker != null) staleWorker.cancel(true);
+            stalePanel.setTitle(LanguageUtil.fmt("stale.title.empty", String.valueOf(staleDays), folder));
+            stalePanel.setTitleClickTarget(folder);
+            stalePanel.setOnTitleClick(() -> openInExplorer(folder));
+            staleItems.clear();
+        }
+
+        /**
+         * 오래된 데이터 탭: folder 아래 폴더들을 staleDays 일 넘게 수정되지 않은 용량(하위 전체)이 큰 순으로.
+         * 스캔 인덱스만 보므로 (작업 스레드에서) 디스크 순회 없이 끝난다.
+         * 일부를 캐시로 답해 나이를 모르는 용량이 있으면 제목을 눌러 캐시 없이 다시 스캔할 수 있다.
+         */
+        private void refreshStaleView(Path folder) {
+            clearStaleView(folder);
+            DirRecord rec = sizeIndex.get(folder);
+            if (rec == null) return;
+
+            int days = staleDays;
+            SwingWorker<List<ScanTree.StaleDir>, Void> worker = new SwingWorker<>() {
+                @Override
+                protected List<ScanTree.StaleDir> doInBackground() {
+                    return sizeIndex.staleDirs(folder, days, STALE_LIMIT);
+                }
+
+                @Override
+                protected void done() {
+                    if (isCancelled() || staleWorker != this) return;
+                    List<ScanTree.StaleDir> dirs;
+                    try {
+                        dirs = get();
+                    } catch (Exception ex) {
+                        return;
+                    }
+                    applyStaleView(folder, rec.total(), days, dirs);
+                }
+            };
+            staleWorker = worker;
+            worker.execute();
+        }
+
+        private void applyStaleView(Path folder, DirStats total, int days, List<ScanTree.StaleDir> dirs) {
+            List<SizeItem> list = new ArrayList<>(dirs.size());
+            for (ScanTree.StaleDir d : dirs) {
+                String name;
+                try {
+                    name = folder.relativize(d.dir()).toString();
+                } catch (IllegalArgumentException ex) {
+                    name = d.dir().toString();
+                }
+                list.add(new SizeItem(name, d.staleBytes(), true, d.dir()));
+            }
+
+            long stale = (total.ages() == null) ? 0L : total.ages().olderThan(days);
+            String title = LanguageUtil.fmt("stale.title", String.valueOf(days),
+                    SizeFormatUtil.human(stale), SizeFormatUtil.human(total.bytes()), folder);
+            stalePanel.setTitleClickTarget(folder);
+            if (total.agesUnknownBytes() > 0L) {
+                stalePanel.setTitle(title + " " + LanguageUtil.ln("largest.partial"));
+                stalePanel.setOnTitleClick(this::rescanLatest);
+            } else {
+                stalePanel.setTitle(title);
+                stalePanel.setOnTitleClick(() -> openInExplorer(folder));
+            }
+            staleItems.setAll(list);
+        }
+
         private void refreshPieChartFromLatest() {
             if (latestFolder == null) {
                 pieChartPanel.setTitle(LanguageUtil.ln("label.none_selected"));
@@ -639,7 +1545,7 @@ public class FolderSizeVizApp {
                 pieChartPanel.setTitle(LanguageUtil.ln("info.folder") + " : " + latestFolder);
                 pieChartPanel.setTitleClickTarget(latestFolder);
                 pieChartPanel.setOnTitleClick(() -> openInExplorer(latestFolder));
-                pieChartPanel.setItemsTop10(latestItems);
+                pieChartPanel.setItems(items);
                 return;
             }
 
@@ -651,18 +1557,7 @@ public class FolderSizeVizApp {
             pieChartPanel.setTitleClickTarget(openPath);
             Path finalOpenPath = openPath;
             pieChartPanel.setOnTitleClick(() -> openInExplorer(finalOpenPath));
-            pieChartPanel.setItemsTop10(latestItems);
-        }
-
-        private void upsertLatest(SizeItem item) {
-            for (int i = 0; i < latestItems.size(); i++) {
-                SizeItem cur = latestItems.get(i);
-                if (cur.isDirectory == item.isDirectory && Objects.equals(cur.name, item.name)) {
-                    latestItems.set(i, item);
-                    return;
-                }
-            }
-            latestItems.add(item);
+            pieChartPanel.setItems(items);
         }
 
         private void openInExplorer(Path path) {
@@ -715,47 +1610,158 @@ public class FolderSizeVizApp {
             }
         }
 
+        private final class DuplicateWorker extends SwingWorker<DuplicateFinder.Result, Integer> {
+
+            private final Path root;
+            private final ScanStats stats;
+
+            DuplicateWorker(Path root, ScanStats stats) {
+                this.root = root;
+                this.stats = stats;
+            }
+
+            @Override
+            protected DuplicateFinder.Result doInBackground() throws Exception {
+                DuplicateFinder finder = new DuplicateFinder(
+                        root, scanOptions, DuplicateFinder.Limits.fromSystemProperties(), this::isCancelled, stats);
+                DuplicateFinder.Result result = finder.run(this::publish);
+                stats.log("duplicates", root);
+                return result;
+            }
+
+            @Override
+            protected void process(List<Integer> stages) {
+                int stage = stages.get(stages.size() - 1);
+                progressBar.setString(LanguageUtil.fmt("status.duplicates_stage", stage, DuplicateFinder.STAGE_FULL));
+            }
+
+            @Override
+            protected void done() {
+                statsTimer.stop();
+                showStats(stats);
+                if (exportStats == stats) exportStats = null;
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+
+                try {
+                    DuplicateFinder.Result result = get();
+                    lastDuplicates = result;
+                    applyDuplicates(result);
+                    statusLabel.setText(LanguageUtil.ln("status.done") + " : " + root
+                            + " / " + LanguageUtil.ln("duplicates.reclaimable") + " : "
+                            + SizeFormatUtil.human(result.reclaimableBytes()));
+                } catch (CancellationException ex) {
+                    statusLabel.setText(LanguageUtil.ln("status.scan_cancelled"));
+                } catch (Exception ex) {
+                    statusLabel.setText(LanguageUtil.ln("status.error") + " : " + ex.getMessage());
+                }
+            }
+        }
+
+        /** 중복 파일 결과 내보내기: 복사본 하나당 한 행이라 node_modules 같은 트리에서는 수십만 행이 될 수 있다. */
+        private final class ExportDuplicatesWorker extends SwingWorker<Void, Void> {
+
+            private final DuplicateFinder.Result result;
+            private final File outFile;
+
+            ExportDuplicatesWorker(DuplicateFinder.Result result, File outFile) {
+                this.result = result;
+                this.outFile = outFile;
+            }
+
+            @Override
+            protected Void doInBackground() throws Exception {
+                final int[] lastPct = { -1 };
+                int total = Math.max(1, result.copyCount());
+                java.util.function.IntConsumer onDone = done -> {
+                    int pct = (int) Math.min(100, Math.round(done * 100.0 / total));
+                    if (pct != lastPct[0]) {   // 퍼센트 바뀔 때만
+                        lastPct[0] = pct;
+                        setProgress(pct);
+                    }
+                };
+                if (isCsv(outFile)) {
+                    export.CsvRecursiveExportService.exportDuplicates(result, outFile, onDone);
+                } else {
+                    export.XlsxRecursiveExportService.exportDuplicates(result, outFile, onDone);
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setVisible(false);
+                try {
+                    get(); // 예외 있으면 던짐
+                    statusLabel.setText(LanguageUtil.ln("status.export_done") + " : " + outFile.getAbsolutePath());
+                } catch (Exception ex) {
+                    statusLabel.setText(LanguageUtil.ln("status.error") + " : " + ex.getMessage());
+                    JOptionPane.showMessageDialog(
+                            MainFrame.this,
+                            LanguageUtil.ln("status.error") + " : " + ex.getMessage(),
+                            LanguageUtil.ln("menu.file.export_duplicates"),
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }
+        }
+
         private final class ExportCsvWorker extends SwingWorker<Void, Void> {
 
             private final Path root;
             private final File outFile;
             private final boolean includeFiles;
+            private final boolean csv;
+            private final boolean includeTypes;
 
-            ExportCsvWorker(Path root, File outFile, boolean includeFiles) {
+            ExportCsvWorker(Path root, File outFile, boolean includeFiles, boolean csv, boolean includeTypes) {
                 this.root = root;
                 this.outFile = outFile;
                 this.includeFiles = includeFiles;
+                this.csv = csv;
+                this.includeTypes = includeTypes;
             }
 
             @Override
             protected Void doInBackground() throws Exception {
                 final int[] lastPct = { -1 };
-                // 결정형 progress를 위해 2-pass
-                // 1) 총 엔트리 수 계산 (폴더/파일 row 개수)
-                int total = export.XlsxRecursiveExportService.countEntries(root, includeFiles);
+                // 1) 한 번만 훑어서 이름/크기/mtime 을 메모리에 모음 (행 수도 여기서 나옴)
+                export.ExportTree tree = export.ExportTree.scan(root, includeFiles);
+                exportStats = tree.stats();
+                int total = tree.rowCount();
                 if (total <= 0) total = 1;
 
-                // 2) 실제 export (done 증가시마다 progress 갱신)
+                // 2) 실제 export: 디스크를 다시 보지 않고 메모리에서 출력 (done 증가시마다 progress 갱신)
                 int finalTotal = total;
-                export.XlsxRecursiveExportService.exportWithProgress(
-                        root,
-                        outFile,
-                        includeFiles,
-                        total,
-                        done -> {
-                            int pct = (int) Math.min(100, Math.round(done * 100.0 / finalTotal));
-                            if (pct != lastPct[0]) {   // 퍼센트 바뀔 때만
-                                lastPct[0] = pct;
-                                setProgress(pct);
-                            }
-                        }
-                );
+                java.util.function.IntConsumer onDone = done -> {
+                    int pct = (int) Math.min(100, Math.round(done * 100.0 / finalTotal));
+                    if (pct != lastPct[0]) {   // 퍼센트 바뀔 때만
+                        lastPct[0] = pct;
+                        setProgress(pct);
+                    }
+                };
+                if (csv) {
+                    export.CsvRecursiveExportService.exportWithProgress(
+                            tree,
+                            outFile,
+                            export.CsvRecursiveExportService.exportThreads(),
+                            includeTypes,
+                            onDone
+                    );
+                } else {
+                    export.XlsxRecursiveExportService.exportWithProgress(tree, outFile, onDone);
+                }
 
+                tree.stats().log("export", root);
                 return null;
             }
 
             @Override
             protected void done() {
+                statsTimer.stop();
+                if (exportStats != null) showStats(exportStats);
+                exportStats = null;
+
                 try {
                     get(); // 예외 있으면 던짐
 
@@ -793,6 +1799,21 @@ public class FolderSizeVizApp {
         final boolean isDirectory;
         boolean childrenLoaded = false;
 
+        static final Comparator<FolderNode> BY_NAME = (a, b) -> PATH_BY_NAME.compare(a.path, b.path);
+
+        /** 합계가 큰 순, 합계를 모르는 폴더는 뒤 (이름순). */
+        static final Comparator<FolderNode> BY_SIZE_DESC = Comparator
+                .comparingLong((FolderNode n) -> -n.totalBytes)
+                .thenComparing(BY_NAME);
+
+        // 스캔 인덱스에 있는 합계 (-1: 아직 모름)
+        volatile long totalBytes = -1L;
+        volatile long totalFiles = -1L;
+
+        // 자식 노드를 읽는 중인 worker 와, 다 읽은 뒤 실행할 작업 (EDT 전용)
+        SwingWorker<?, ?> loader;
+        final List<Runnable> onChildrenLoaded = new ArrayList<>(1);
+
         private FolderNode(String label) {
             this.path = null;
             this.isDirectory = true;
@@ -800,8 +1821,12 @@ public class FolderSizeVizApp {
         }
 
         FolderNode(Path path) {
+            this(path, Files.isDirectory(path));
+        }
+
+        FolderNode(Path path, boolean isDirectory) {
             this.path = path;
-            this.isDirectory = Files.isDirectory(path);
+            this.isDirectory = isDirectory;
             setUserObject(path.toString());
         }
 
@@ -813,6 +1838,16 @@ public class FolderSizeVizApp {
             return path == null;
         }
 
+        /** 인덱스에 이 폴더 합계가 있으면 가져온다. */
+        void applySize(ScanTree index) {
+            if (!isDirectory || path == null) return;
+
+            DirRecord r = index.get(path);
+            if (r == null) return;
+            totalBytes = r.total().bytes();
+            totalFiles = r.total().files();
+        }
+
         @Override
         public String toString() {
             if (path == null) return String.valueOf(getUserObject());
@@ -832,7 +1867,7 @@ public class FolderSizeVizApp {
             super.getTreeCellRendererComponent(tree, value, sel, expanded, leaf, row, hasFocus);
 
             if (value instanceof FolderNode node) {
-                setText(node.toString());
+                setText(node.totalBytes < 0 ? node.toString() : sizeLabel(node));
 
                 if (!node.isVirtual()) {
                     setToolTipText(node.path.toString());
@@ -856,6 +1891,12 @@ public class FolderSizeVizApp {
             return this;
         }
 
+        private static String sizeLabel(FolderNode node) {
+            String label = node + "  (" + SizeFormatUtil.human(node.totalBytes);
+            if (treeShowFileCounts) label += " · " + LanguageUtil.fmt("tree.files", node.totalFiles);
+            return label + ")";
+        }
+
         private Icon getSystemIconCached(Path path, boolean isDir) {
             try {
                 String key;
@@ -895,6 +1936,11 @@ public class FolderSizeVizApp {
             this.isDirectory = isDirectory;
             this.path = path;
         }
+
+        /** 같은 폴더 안에서 항목을 구분하는 키 (폴더/파일 + 이름). */
+        String key() {
+            return (isDirectory ? "d:" : "f:") + name;
+        }
     }
 
     public static class ThemeColors {
@@ -932,10 +1978,11 @@ public class FolderSizeVizApp {
         }
     }
 
-    static class SizeScanWorker extends SwingWorker<List<SizeItem>, SizeItem> {
+    static class SizeScanWorker extends SwingWorker<List<SizeItem>, Void> {
 
         interface Callback {
-            void onPartial(SizeItem item);
+            /** EDT 에서 초당 최대 {@link CoalescingPublisher#maxFps()} 번, 그동안 모인 항목을 한 번에 받는다. */
+            void onPartial(List<SizeItem> batch);
 
             void onDone(List<SizeItem> finalItems, long totalBytes, long scannedFiles);
 
@@ -945,122 +1992,193 @@ public class FolderSizeVizApp {
         }
 
         private final Path folder;
+        private final ScanOptions options;
+        private final SnapshotStore snapshotStore;
         private final Callback cb;
 
+        private final ScanContext ctx;
+        private final LargestFiles largestFiles = new LargestFiles(LargestFiles.defaultCount());
+        private final CoalescingPublisher<SizeItem> publisher;
         private long totalBytes = 0;
-        private long scannedFiles = 0;
-
-        SizeScanWorker(Path folder, Callback cb) {
+        private long totalFiles = 0;
+        private TypeHistogram types = TypeHistogram.EMPTY;
+        private AgeHistogram ages = AgeHistogram.EMPTY;
+
+        /**
+         * @param snapshotStore null 이 아니면 이전 스냅샷을 검증 후 재사용하고 끝나면 새로 저장
+         * @param fullRescan true 면 스냅샷을 재사용하지 않고 전부 디스크에서 읽는다 (저장은 함)
+         */
+        SizeScanWorker(Path folder, ScanOptions options, SnapshotStore snapshotStore, boolean fullRescan, Callback cb) {
             this.folder = folder;
+            this.options = options;
+            this.snapshotStore = snapshotStore;
             this.cb = cb;
+            this.ctx = ScanContext.builder(this::isCancelled)
+                    .index(sizeIndex)
+                    .snapshot((snapshotStore == null || fullRescan) ? null : snapshotStore.current())
+                    .largestFiles(largestFiles)
+                    .build();
+            this.publisher = new CoalescingPublisher<>(this::deliver);
         }
 
+        /** 감시 스레드의 갱신(읽고-디스크 보고-쓰기)과 겹치지 않게 인덱스 갱신 잠금을 잡고 스캔한다. */
         @Override
         protected List<SizeItem> doInBackground() {
-            List<Path> childrenDirs = new ArrayList<>();
-            List<Path> childrenFiles = new ArrayList<>();
-
-            try (DirectoryStream<Path> ds = Files.newDirectoryStream(folder)) {
-                for (Path p : ds) {
-                    if (isCancelled()) return Collections.emptyList();
-                    try {
-                        if (Files.isDirectory(p)) childrenDirs.add(p);
-                        else childrenFiles.add(p);
-                    } catch (Exception ignored) {
-                    }
-                }
-            } catch (IOException | SecurityException ignored) {
+            Lock updates = sizeIndex.updateLock();
+            try {
+                updates.lockInterruptibly();
+            } catch (InterruptedException e) {
+                return Collections.emptyList();
+            }
+            try {
+                return scan();
+            } finally {
+                updates.unlock();
             }
+        }
+
+        private List<SizeItem> scan() {
+            List<Path> childrenDirs = new ArrayList<>();
+            List<EntryReader.Entry> childrenFiles = new ArrayList<>();
+            int[] childCount = {0};
+            ScanStats scanStats = ctx.stats();
+
+            // 항목마다 속성은 한 번만 (목록과 함께 읽은 값으로 폴더/파일 구분과 크기를 같이 얻음)
+            long t0 = System.nanoTime();
+            long folderMtime = EntryReader.readDir(folder, true, scanStats, this::isCancelled, e -> {
+                childCount[0]++;
+                if (e.directory()) childrenDirs.add(e.path());
+                else childrenFiles.add(e);
+            });
+            scanStats.addPhase(ScanStats.Phase.LISTING, t0);
+            if (isCancelled()) return Collections.emptyList();
 
-            childrenFiles.sort(PATH_BY_NAME);
+            childrenFiles.sort((a, b) -> PATH_BY_NAME.compare(a.path(), b.path()));
             childrenDirs.sort(PATH_BY_NAME);
 
             List<SizeItem> result = new ArrayList<>();
+            TypeHistogram.Builder ownTypes = new TypeHistogram.Builder();
+            AgeHistogram.Builder ownAges = new AgeHistogram.Builder(ctx.startedAt());
 
-            for (Path f : childrenFiles) {
+            for (EntryReader.Entry f : childrenFiles) {
                 if (isCancelled()) return Collections.emptyList();
 
                 long sz = 0;
-                try {
-                    if (Files.isRegularFile(f)) {
-                        sz = Files.size(f);
-                        scannedFiles++;
-                    }
-                } catch (Exception ignored) {
+                if (f.regularFile()) {
+                    sz = f.size();
+                    largestFiles.offer(f.path(), sz, f.mtime());
+                    ownTypes.add(f.name(), sz);
+                    ownAges.add(sz, f.mtime());
+                    totalFiles++;
+                    ctx.addScannedFile();
+                    scanStats.addBytes(sz);
                 }
 
-                SizeItem item = new SizeItem(MainFrame.fileNameOrPath(f), sz, false, f);
+                SizeItem item = new SizeItem(MainFrame.fileNameOrPath(f.path()), sz, false, f.path());
                 result.add(item);
                 totalBytes += sz;
-                publish(item);
+                publisher.submit(item);
             }
 
+            long ownBytes = totalBytes;
+            long ownFiles = totalFiles;
+            types = ownTypes.build();
+            ages = ownAges.build();
+
+            // 이전 스캔에서 이미 끝까지 본 하위 폴더는 인덱스에서 바로 답한다
+            List<Path> toScan = new ArrayList<>();
             for (Path d : childrenDirs) {
-                if (isCancelled()) return Collections.emptyList();
+                DirStats cached = ctx.indexed(d);
+                if (cached == null) {
+                    toScan.add(d);
+                    continue;
+                }
+                ctx.skippedFiles();
+                addDirResult(result, d, cached);
+            }
+
+            // 병렬 엔진은 worker 스레드에서 listener 를 부르므로 result/합계는 result 로 동기화
+            try (ScanEngine engine = ScanEngine.create(options)) {
+                engine.scanDirs(toScan, ctx, (d, stats) -> addDirResult(result, d, stats));
+            } catch (InterruptedException ie) {
+                return Collections.emptyList();
+            }
+
+            if (isCancelled()) return Collections.emptyList();
+
+            List<SizeItem> finalItems;
+            synchronized (result) {
+                long mtime = (folderMtime != 0L) ? folderMtime : lastModifiedMillis(folder);
+                ctx.recordDir(new DirRecord(folder, mtime, childCount[0],
+                        ownBytes, ownFiles, new DirStats(totalBytes, totalFiles, types, ages)));
+                finalItems = new ArrayList<>(result);
+            }
+
+            if (snapshotStore != null) snapshotStore.saveAsync(folder, sizeIndex);
 
-                long dirBytes = folderSizeRecursive(d);
-                SizeItem item = new SizeItem(MainFrame.fileNameOrPath(d), dirBytes, true, d);
+            scanStats.finish();
+            scanStats.log("scan", folder);
+            return finalItems;
+        }
 
+        private static long lastModifiedMillis(Path p) {
+            try {
+                return Files.getLastModifiedTime(p, LinkOption.NOFOLLOW_LINKS).toMillis();
+            } catch (Exception ignored) {
+                return 0L;
+            }
+        }
+
+        private void addDirResult(List<SizeItem> result, Path d, DirStats stats) {
+            SizeItem item = new SizeItem(MainFrame.fileNameOrPath(d), stats.bytes(), true, d);
+            synchronized (result) {
                 result.add(item);
-                totalBytes += dirBytes;
-                publish(item);
+                totalBytes += stats.bytes();
+                totalFiles += stats.files();
+                types = TypeHistogram.merge(types, stats.typesOrUnknown());
+                ages = AgeHistogram.merge(ages, stats.ages());
             }
+            publisher.submit(item);
+        }
 
-            return result;
+        /** 진행 중에도 읽을 수 있는 계측 값 (하단 바 표시용). */
+        ScanStats stats() {
+            return ctx.stats();
         }
 
-        @Override
-        protected void process(List<SizeItem> chunks) {
-            for (SizeItem it : chunks) cb.onPartial(it);
+        /** 이 폴더 하위 전체의 확장자별 합계 (끝난 뒤에 읽는다). */
+        TypeHistogram fileTypes() {
+            return types;
+        }
+
+        /** 이 스캔이 지나간 파일 중 가장 큰 N 개 (끝난 뒤에 읽는다). */
+        LargestFiles largestFiles() {
+            return largestFiles;
+        }
+
+        private void deliver(List<SizeItem> batch) {
+            if (isCancelled()) return;
+
+            long t0 = System.nanoTime();
+            cb.onPartial(batch);
+            ctx.stats().addPhase(ScanStats.Phase.UI_PUBLISH, t0);
         }
 
         @Override
         protected void done() {
+            // 남은 부분 결과는 버린다: onDone 이 최종 목록을 통째로 반영함
+            publisher.close();
             try {
                 if (isCancelled()) {
                     cb.onCancelled();
                     return;
                 }
-                cb.onDone(get(), totalBytes, scannedFiles);
+                cb.onDone(get(), totalBytes, totalFiles);
             } catch (CancellationException ce) {
                 cb.onCancelled();
             } catch (Exception ex) {
                 cb.onError(ex);
             }
         }
-
-        private long folderSizeRecursive(Path start) {
-            final long[] sum = {0L};
-
-            try {
-                Files.walkFileTree(start, new SimpleFileVisitor<>() {
-                    @Override
-                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                        return isCancelled() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
-                    }
-
-                    @Override
-                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                        if (isCancelled()) return FileVisitResult.TERMINATE;
-                        try {
-                            if (attrs.isRegularFile()) {
-                                sum[0] += attrs.size();
-                                scannedFiles++;
-                            }
-                        } catch (Exception ignored) {
-                        }
-                        return FileVisitResult.CONTINUE;
-                    }
-
-                    @Override
-                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                        return isCancelled() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
-                    }
-                });
-            } catch (IOException | SecurityException ignored) {
-            }
-
-            return sum[0];
-        }
     }
 }
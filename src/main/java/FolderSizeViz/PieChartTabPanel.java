@@ -21,21 +21,32 @@ import java.awt.event.MouseEvent;
 import java.nio.file.Path;
 import java.text.AttributedString;
 import java.text.NumberFormat;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public class PieChartTabPanel extends JPanel implements Scrollable {
 
-    private static final Comparator<FolderSizeVizApp.SizeItem> BY_SIZE_DESC =
-            (a, b) -> Long.compare(b.bytes, a.bytes);
-
     private static final String OTHERS_KEY = "Others";
 
+    /**
+     * 조각 수 / Others 로 묶을 항목 수.
+     * <pre>
+     *   -Dspacescope.pie.slices=7
+     *   -Dspacescope.pie.others=3    (-1 이면 나머지 전부)
+     * </pre>
+     */
+    static final String PROP_SLICES = "spacescope.pie.slices";
+    static final String PROP_OTHERS = "spacescope.pie.others";
+    private static final int DEFAULT_SLICES = 7;
+    private static final int DEFAULT_OTHERS = 3;
+    public static final int OTHERS_ALL = -1;
+
     private static final int TITLE_FONT_SIZE = 15;
     private static final int TITLE_BASELINE_Y = 18;
     private static final int TITLE_H = 30;
@@ -60,6 +71,12 @@ public class PieChartTabPanel extends JPanel implements Scrollable {
     private final Map<Comparable<?>, Path> keyToPath = new HashMap<>();
     private Consumer<Path> onSliceClick;
 
+    private int sliceCount = intProperty(PROP_SLICES, DEFAULT_SLICES, 1);
+    private int othersCount = intProperty(PROP_OTHERS, DEFAULT_OTHERS, OTHERS_ALL);
+
+    // dataset 값 합계 (라벨마다 다시 더하지 않도록 setItems 에서 한 번 계산)
+    private double datasetTotal = 0.0;
+
     public PieChartTabPanel() {
         super(new BorderLayout());
 
@@ -115,50 +132,68 @@ public class PieChartTabPanel extends JPanel implements Scrollable {
         dataset.clear();
         keyToPath.clear();
         hoveredKey = null;
+        datasetTotal = 0.0;
         chartPanel.repaint();
     }
 
-    public void setItemsTop10(List<FolderSizeVizApp.SizeItem> items) {
+    /**
+     * @param slices 따로 그릴 조각 수 (1 이상)
+     * @param others slices 다음 몇 개를 Others 로 묶을지 ({@link #OTHERS_ALL} 이면 나머지 전부)
+     */
+    public void setSliceLimits(int slices, int others) {
+        this.sliceCount = Math.max(1, slices);
+        this.othersCount = Math.max(OTHERS_ALL, others);
+    }
+
+    /**
+     * store 는 이미 크기순이므로 앞의 slices (+ others) 개만 읽는다.
+     * 나머지 전부를 Others 로 묶을 때는 store 가 들고 있는 전체 합계에서 빼서 구한다.
+     */
+    public void setItems(SizeItemStore items) {
         dataset.clear();
         keyToPath.clear();
         hoveredKey = null;
+        datasetTotal = 0.0;
 
         if (items == null || items.isEmpty()) {
             chartPanel.repaint();
             return;
         }
 
-        List<FolderSizeVizApp.SizeItem> top10 = items.stream()
-                .sorted(BY_SIZE_DESC)
-                .limit(10)
-                .toList();
+        boolean othersAll = (othersCount == OTHERS_ALL);
+        List<FolderSizeVizApp.SizeItem> top = items.top(othersAll ? sliceCount : sliceCount + othersCount);
 
-        final int KEEP = 7;
+        Set<String> keys = new HashSet<>();
+        long slicesBytes = 0L;
         long othersBytes = 0L;
 
-        for (int i = 0; i < top10.size(); i++) {
-            FolderSizeVizApp.SizeItem it = top10.get(i);
+        for (int i = 0; i < top.size(); i++) {
+            FolderSizeVizApp.SizeItem it = top.get(i);
 
-            if (i < KEEP) {
+            if (i < sliceCount) {
                 String baseKey = trimMiddle(it.name, 28);
                 String key = baseKey;
 
                 int n = 2;
-                while (dataset.getKeys().contains(key)) {
+                while (!keys.add(key)) {
                     key = baseKey + " (" + n++ + ")";
                 }
 
                 dataset.setValue(key, it.bytes);
                 if (it.path != null) keyToPath.put(key, it.path);
+                slicesBytes += it.bytes;
 
             } else {
                 othersBytes += it.bytes;
             }
         }
 
+        if (othersAll) othersBytes = items.totalBytes() - slicesBytes;
+
         if (othersBytes > 0) {
             dataset.setValue(OTHERS_KEY, othersBytes);
         }
+        datasetTotal = slicesBytes + Math.max(0L, othersBytes);
 
         resetExplode();
         chartPanel.repaint();
@@ -242,12 +277,7 @@ public class PieChartTabPanel extends JPanel implements Scrollable {
                 if (v == null) return null;
 
                 double value = v.doubleValue();
-                double total = 0.0;
-                for (int i = 0; i < dataset.getItemCount(); i++) {
-                    Number n = dataset.getValue(i);
-                    if (n != null) total += n.doubleValue();
-                }
-                double pct = (total <= 0.0) ? 0.0 : (value / total);
+                double pct = (datasetTotal <= 0.0) ? 0.0 : (value / datasetTotal);
 
                 return key + " " + pctFmt.format(pct);
             }
@@ -299,6 +329,11 @@ public class PieChartTabPanel extends JPanel implements Scrollable {
         });
     }
 
+    private static int intProperty(String key, int def, int min) {
+        Integer v = Integer.getInteger(key);
+        return (v == null || v < min) ? def : v;
+    }
+
     private static String trimMiddle(String s, int maxLen) {
         if (s == null || s.length() <= maxLen) return s;
         int keep = Math.max(4, (maxLen - 3) / 2);
@@ -0,0 +1,245 @@
+package FolderSizeViz;
+
+import java.util.*;
+
+/**
+ * 현재 폴더의 항목 목록 (상세 막대 / 파이 차트가 같이 읽음).
+ * 이름(폴더/파일 구분 포함)으로 찾는 HashMap 과, 크기 내림차순 순위를 바로 꺼낼 수 있는
+ * 순위 트리(treap + 서브트리 크기)를 함께 유지해서 upsert / 순위 조회가 O(log n) 이다.
+ * 크기가 같으면 먼저 들어온 항목이 앞선다.
+ * EDT 에서만 사용한다.
+ */
+public final class SizeItemStore implements Iterable<FolderSizeVizApp.SizeItem> {
+
+    private static final class Node {
+        final FolderSizeVizApp.SizeItem item;
+        final long seq;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(FolderSizeVizApp.SizeItem item, long seq, int priority) {
+            this.item = item;
+            this.seq = seq;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<String, Node> byKey = new HashMap<>();
+    private final List<Runnable> listeners = new ArrayList<>();
+
+    private Node root;
+    private long totalBytes = 0L;
+    private long nextSeq = 0L;
+    private int seed = 0x2545F491;
+
+    /** 내용이 바뀔 때마다 (묶음 단위로 한 번) 호출된다. */
+    public void addChangeListener(Runnable r) {
+        listeners.add(r);
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    public boolean isEmpty() {
+        return byKey.isEmpty();
+    }
+
+    /** rank 번째로 큰 항목 (0 부터). */
+    public FolderSizeVizApp.SizeItem get(int rank) {
+        if (rank < 0 || rank >= size()) throw new IndexOutOfBoundsException(rank);
+
+        Node t = root;
+        while (true) {
+            int l = size(t.left);
+            if (rank < l) {
+                t = t.left;
+            } else if (rank == l) {
+                return t.item;
+            } else {
+                rank -= l + 1;
+                t = t.right;
+            }
+        }
+    }
+
+    /** 가장 큰 항목의 크기 (비어 있으면 0). */
+    public long maxBytes() {
+        if (root == null) return 0L;
+        Node t = root;
+        while (t.left != null) t = t.left;
+        return t.item.bytes;
+    }
+
+    /** 전체 항목 크기 합 (upsert 마다 차이만 더해 둔 값). */
+    public long totalBytes() {
+        return totalBytes;
+    }
+
+    /** 큰 순서로 최대 k 개. */
+    public List<FolderSizeVizApp.SizeItem> top(int k) {
+        List<FolderSizeVizApp.SizeItem> out = new ArrayList<>(Math.min(k, size()));
+        for (FolderSizeVizApp.SizeItem it : this) {
+            if (out.size() >= k) break;
+            out.add(it);
+        }
+        return out;
+    }
+
+    public void clear() {
+        if (isEmpty()) return;
+        root = null;
+        byKey.clear();
+        totalBytes = 0L;
+        fireChanged();
+    }
+
+    public void setAll(Collection<FolderSizeVizApp.SizeItem> items) {
+        root = null;
+        byKey.clear();
+        totalBytes = 0L;
+        if (items != null) {
+            for (FolderSizeVizApp.SizeItem it : items) {
+                if (it != null) upsertNoFire(it);
+            }
+        }
+        fireChanged();
+    }
+
+    public void upsert(FolderSizeVizApp.SizeItem item) {
+        if (item == null) return;
+        upsertNoFire(item);
+        fireChanged();
+    }
+
+    public void upsertAll(Collection<FolderSizeVizApp.SizeItem> items) {
+        if (items == null || items.isEmpty()) return;
+        for (FolderSizeVizApp.SizeItem it : items) {
+            if (it != null) upsertNoFire(it);
+        }
+        fireChanged();
+    }
+
+    private void upsertNoFire(FolderSizeVizApp.SizeItem item) {
+        String key = item.key();
+        Node old = byKey.get(key);
+        if (old != null) {
+            remove(old);
+            totalBytes -= Math.max(0L, old.item.bytes);
+        }
+        totalBytes += Math.max(0L, item.bytes);
+
+        Node n = new Node(item, nextSeq++, nextPriority());
+        byKey.put(key, n);
+
+        Node[] lr = split(root, n);
+        root = merge(merge(lr[0], n), lr[1]);
+    }
+
+    private void remove(Node n) {
+        // [n 보다 앞] / [n 이후] 로 나눈 뒤, 뒤쪽의 첫 노드(= n)를 떼어낸다
+        Node[] lr = split(root, n);
+        root = merge(lr[0], removeFirst(lr[1]));
+    }
+
+    private static Node removeFirst(Node t) {
+        if (t == null) return null;
+        if (t.left == null) return t.right;
+        t.left = removeFirst(t.left);
+        update(t);
+        return t;
+    }
+
+    /** [pivot 보다 앞선 노드들, pivot 이상인 노드들] */
+    private static Node[] split(Node t, Node pivot) {
+        if (t == null) return new Node[] { null, null };
+
+        if (before(t, pivot)) {
+            Node[] lr = split(t.right, pivot);
+            t.right = lr[0];
+            update(t);
+            lr[0] = t;
+            return lr;
+        } else {
+            Node[] lr = split(t.left, pivot);
+            t.left = lr[1];
+            update(t);
+            lr[1] = t;
+            return lr;
+        }
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    /** 크기 내림차순, 같으면 먼저 들어온 순. */
+    private static boolean before(Node a, Node b) {
+        if (a.item.bytes != b.item.bytes) return a.item.bytes > b.item.bytes;
+        return a.seq < b.seq;
+    }
+
+    private static int size(Node t) {
+        return (t == null) ? 0 : t.size;
+    }
+
+    private static void update(Node t) {
+        t.size = 1 + size(t.left) + size(t.right);
+    }
+
+    private int nextPriority() {
+        // xorshift: 입력 순서와 무관하게 트리 높이를 O(log n) 으로 유지
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private void fireChanged() {
+        for (Runnable r : listeners) r.run();
+    }
+
+    /** 큰 순서로 순회 (순회 중 변경 금지). */
+    @Override
+    public Iterator<FolderSizeVizApp.SizeItem> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node t) {
+                for (; t != null; t = t.left) stack.push(t);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public FolderSizeVizApp.SizeItem next() {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+                Node t = stack.pop();
+                pushLeft(t.right);
+                return t.item;
+            }
+        };
+    }
+}
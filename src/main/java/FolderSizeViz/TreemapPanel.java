@@ -0,0 +1,675 @@
+package FolderSizeViz;
+
+import Utils.LanguageUtil;
+import Utils.SizeFormatUtil;
+import scan.ScanTree;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 스캔 인덱스의 여러 단계를 한 화면에 그리는 squarified treemap.
+ * <ul>
+ *   <li>배치는 작업 스레드에서 계산하고 (노드, 폭, 높이) 별로 몇 개 캐시한다: 창 크기를 되돌리거나 확대/축소를 오가면 다시 계산하지 않는다.</li>
+ *   <li>그림도 작업 스레드에서 BufferedImage 에 그려 두고 (두 장을 번갈아 재사용) EDT 는 복사와 강조 테두리만 그린다.</li>
+ *   <li>몇 픽셀보다 작은 항목은 부모 안의 "작은 항목" 하나로 묶으므로, 노드가 백만 개여도 사각형 수는 화면 크기에 비례한다.</li>
+ *   <li>마우스 위치 판정은 균일 격자 (칸마다 겹치는 사각형 목록) 로 한다.</li>
+ * </ul>
+ * 클릭: 트리에서 선택, 폴더 더블클릭: 그 폴더로 확대, 오른쪽 클릭 / 제목 클릭: 한 단계 축소.
+ */
+public class TreemapPanel extends JPanel {
+
+    private static final int TITLE_FONT_SIZE = 15;
+    private static final int TITLE_BASELINE_Y = 18;
+    private static final int TITLE_H = 30;
+    private static final int AFTER_TITLE_LINE_OFFSET = 6;
+
+    // 폴더 이름 줄 높이, 이름을 쓰는 최소 폭
+    private static final int HEADER_H = 14;
+    private static final int LABEL_MIN_W = 40;
+
+    // 이보다 작은 폴더는 안을 나누지 않고, 이보다 작은 항목은 "작은 항목" 으로 묶는다
+    private static final float MIN_DIR_SIDE = 8f;
+    private static final double MIN_ITEM_AREA = 16.0;
+
+    private static final int MAX_DEPTH = 8;
+    private static final int CACHE_SIZE = 8;
+    private static final int RESIZE_DELAY_MS = 150;
+
+    // 격자 한 칸 (px)
+    private static final int CELL = 32;
+
+    private ScanTree tree;
+    private Path rootPath;
+    private int rootNode = ScanTree.NO_NODE;
+    private int zoomNode = ScanTree.NO_NODE;
+
+    // (노드, 폭, 높이) → 배치. EDT 에서만 접근
+    private final Map<Key, Layout> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Layout> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // 화면에 보이는 배치 / 그림, 작업 스레드가 다음 그림을 그릴 여분 한 장
+    private Layout shownLayout;
+    private BufferedImage shownImage;
+    private final AtomicReference<BufferedImage> spareImage = new AtomicReference<>();
+
+    private SwingWorker<Frame, Void> worker;
+    private final Timer resizeTimer;
+
+    private int hover = -1;
+    private final Rectangle titleTextBounds = new Rectangle();
+    private boolean titleHover = false;
+
+    private Consumer<Path> onItemClick;
+
+    private record Key(int node, int width, int height) {
+    }
+
+    private record Frame(Key key, Layout layout, BufferedImage image) {
+    }
+
+    public TreemapPanel() {
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        setForeground(UIManager.getColor("Label.foreground"));
+        setBorder(BorderFactory.createEmptyBorder(14, 14, 14, 14));
+
+        LanguageUtil.init();
+
+        resizeTimer = new Timer(RESIZE_DELAY_MS, e -> requestLayout());
+        resizeTimer.setRepeats(false);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resizeTimer.restart();
+            }
+        });
+        // 탭이 처음 보일 때 계산 (보이지 않는 동안에는 스캔마다 다시 배치하지 않음)
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) requestLayout();
+        });
+
+        installMouseHandlers();
+    }
+
+    public void setOnItemClick(Consumer<Path> c) {
+        this.onItemClick = c;
+    }
+
+    /** 스캔이 끝나거나 인덱스가 바뀌었을 때 (EDT). 캐시를 비우고 root 부터 다시 그린다. */
+    public void setRoot(ScanTree tree, Path root) {
+        this.tree = tree;
+        this.rootPath = root;
+        this.rootNode = (tree == null) ? ScanTree.NO_NODE : tree.node(root);
+        this.zoomNode = rootNode;
+        cache.clear();
+        requestLayout();
+    }
+
+    public void clear() {
+        if (worker != null) worker.cancel(true);
+        tree = null;
+        rootPath = null;
+        rootNode = zoomNode = ScanTree.NO_NODE;
+        cache.clear();
+        shownLayout = null;
+        hover = -1;
+        repaint();
+    }
+
+    private void zoomTo(int node) {
+        if (node == zoomNode) return;
+        zoomNode = node;
+        hover = -1;
+        requestLayout();
+    }
+
+    private void zoomOut() {
+        if (tree == null || zoomNode == rootNode || zoomNode == ScanTree.NO_NODE) return;
+        Path p = tree.path(zoomNode).getParent();
+        int up = (p == null) ? ScanTree.NO_NODE : tree.node(p);
+        zoomTo(up == ScanTree.NO_NODE ? rootNode : up);
+    }
+
+    private boolean isZoomed() {
+        return tree != null && zoomNode != rootNode;
+    }
+
+    // ---- 배치 요청 (EDT) ----
+
+    private void requestLayout() {
+        if (worker != null) worker.cancel(true);
+        worker = null;
+
+        int w = getWidth() - getInsets().left - getInsets().right;
+        int h = getHeight() - getInsets().top - getInsets().bottom - TITLE_H;
+        if (tree == null || zoomNode == ScanTree.NO_NODE || w <= 0 || h <= 0 || !isShowing()) {
+            repaint();
+            return;
+        }
+
+        Key key = new Key(zoomNode, w, h);
+        Layout cached = cache.get(key);
+        ScanTree t = tree;
+        Font font = getFont();
+        FolderSizeVizApp.ThemeColors colors = FolderSizeVizApp.ThemeColors.fromUI();
+        Color bg = getBackground();
+
+        SwingWorker<Frame, Void> sw = new SwingWorker<>() {
+            @Override
+            protected Frame doInBackground() {
+                Layout layout = (cached != null) ? cached : Layout.build(t, key.node(), w, h, this::isCancelled);
+                if (isCancelled()) return null;
+
+                BufferedImage img = spareImage.getAndSet(null);
+                if (img == null || img.getWidth() != w || img.getHeight() != h) {
+                    img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                }
+                render(layout, img, font, colors, bg);
+                if (isCancelled()) {
+                    spareImage.compareAndSet(null, img);
+                    return null;
+                }
+                return new Frame(key, layout, img);
+            }
+
+            @Override
+            protected void done() {
+                if (worker != this || isCancelled()) return;
+                worker = null;
+
+                Frame f;
+                try {
+                    f = get();
+                } catch (Exception ex) {
+                    return;
+                }
+                if (f == null) return;
+
+                cache.put(f.key(), f.layout());
+                if (shownImage != null && shownImage != f.image()) spareImage.compareAndSet(null, shownImage);
+                shownLayout = f.layout();
+                shownImage = f.image();
+                hover = -1;
+                repaint();
+            }
+        };
+        worker = sw;
+        sw.execute();
+    }
+
+    // ---- 그리기 ----
+
+    private static void render(Layout l, BufferedImage img, Font font, FolderSizeVizApp.ThemeColors c, Color bg) {
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setColor(bg);
+            g.fillRect(0, 0, img.getWidth(), img.getHeight());
+            g.setFont(font);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            FontMetrics fm = g.getFontMetrics();
+
+            Color other = blend(c.muted, bg, 0.6f);
+
+            // 부모가 먼저 (너비 우선 순서) 이므로 그대로 덮어 그리면 된다
+            for (int i = 0; i < l.count; i++) {
+                int x = Math.round(l.x[i]), y = Math.round(l.y[i]);
+                int w = Math.round(l.x[i] + l.w[i]) - x, h = Math.round(l.y[i] + l.h[i]) - y;
+                if (w <= 0 || h <= 0) continue;
+
+                Color fill;
+                if (l.node[i] == ScanTree.NO_NODE) fill = other;
+                else if (l.dir[i]) fill = blend(c.dirBar, bg, Math.min(0.7f, 0.12f * l.depth[i]));
+                else fill = blend(c.fileBar, bg, Math.min(0.5f, 0.08f * l.depth[i]));
+
+                g.setColor(fill);
+                g.fillRect(x, y, w, h);
+                g.setColor(bg);
+                g.drawRect(x, y, w - 1, h - 1);
+
+                String label = l.label[i];
+                if (label != null && w >= LABEL_MIN_W && h >= HEADER_H) {
+                    String text = fit(label + "  " + SizeFormatUtil.human(l.bytes[i]), label, fm, w - 6);
+                    if (text != null) {
+                        g.setColor(c.fg);
+                        g.drawString(text, x + 3, y + fm.getAscent());
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /** 폭에 맞는 라벨 (크기 포함 → 이름만 → 줄인 이름), 안 맞으면 null. */
+    private static String fit(String full, String name, FontMetrics fm, int maxW) {
+        if (fm.stringWidth(full) <= maxW) return full;
+        if (fm.stringWidth(name) <= maxW) return name;
+        for (int n = name.length() - 1; n >= 2; n--) {
+            String s = name.substring(0, n) + "…";
+            if (fm.stringWidth(s) <= maxW) return s;
+        }
+        return null;
+    }
+
+    private static Color blend(Color a, Color b, float t) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return new Color(
+                Math.round(a.getRed() + (b.getRed() - a.getRed()) * t),
+                Math.round(a.getGreen() + (b.getGreen() - a.getGreen()) * t),
+                Math.round(a.getBlue() + (b.getBlue() - a.getBlue()) * t));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            FolderSizeVizApp.ThemeColors c = FolderSizeVizApp.ThemeColors.fromUI();
+            Insets in = getInsets();
+            g2.translate(in.left, in.top);
+            int w = getWidth() - in.left - in.right;
+
+            // Title
+            String title = buildTitle();
+            g2.setFont(getFont().deriveFont(Font.BOLD, (float) TITLE_FONT_SIZE));
+            FontMetrics fm = g2.getFontMetrics();
+            titleTextBounds.setBounds(in.left, in.top + TITLE_BASELINE_Y - fm.getAscent(), fm.stringWidth(title), fm.getHeight());
+
+            g2.setColor(c.fg);
+            g2.drawString(title, 0, TITLE_BASELINE_Y);
+            if (titleHover && isZoomed()) {
+                g2.setColor(c.muted);
+                g2.drawLine(0, TITLE_BASELINE_Y + 2, titleTextBounds.width, TITLE_BASELINE_Y + 2);
+            }
+
+            g2.setColor(c.line);
+            g2.drawLine(0, TITLE_H - AFTER_TITLE_LINE_OFFSET, w, TITLE_H - AFTER_TITLE_LINE_OFFSET);
+
+            g2.translate(0, TITLE_H);
+            g2.setFont(getFont());
+
+            Layout l = shownLayout;
+            if (tree == null || l == null) {
+                g2.setColor(c.muted);
+                g2.drawString(LanguageUtil.ln(tree == null ? "hint.detail_empty" : "treemap.working"), 0, 30);
+                return;
+            }
+
+            // 창 크기를 바꾸는 동안에는 이전 그림을 늘려서 보여 준다
+            int h = getHeight() - in.top - in.bottom - TITLE_H;
+            if (shownImage.getWidth() == w && shownImage.getHeight() == h) g2.drawImage(shownImage, 0, 0, null);
+            else g2.drawImage(shownImage, 0, 0, w, h, null);
+
+            if (hover >= 0 && l.width == w && l.height == h) {
+                g2.setColor(c.fg);
+                g2.setStroke(new BasicStroke(2f));
+                g2.drawRect(Math.round(l.x[hover]) + 1, Math.round(l.y[hover]) + 1,
+                        Math.max(0, Math.round(l.w[hover]) - 2), Math.max(0, Math.round(l.h[hover]) - 2));
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private String buildTitle() {
+        if (tree == null || zoomNode == ScanTree.NO_NODE) return LanguageUtil.ln("label.none_selected");
+        Path p = (zoomNode == rootNode) ? rootPath : tree.path(zoomNode);
+        return LanguageUtil.fmt("treemap.title", p, SizeFormatUtil.human(tree.bytes(zoomNode)));
+    }
+
+    // ---- 마우스 ----
+
+    /** 패널 좌표의 사각형 번호 (가장 깊은 것), 없으면 -1. */
+    private int hitTest(Point pt) {
+        Layout l = shownLayout;
+        if (l == null) return -1;
+        Insets in = getInsets();
+        int w = getWidth() - in.left - in.right;
+        int h = getHeight() - in.top - in.bottom - TITLE_H;
+        if (l.width != w || l.height != h) return -1;
+        return l.hitTest(pt.x - in.left, pt.y - in.top - TITLE_H);
+    }
+
+    private void installMouseHandlers() {
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    zoomOut();
+                    return;
+                }
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+
+                if (titleTextBounds.contains(e.getPoint())) {
+                    zoomOut();
+                    return;
+                }
+
+                int i = hitTest(e.getPoint());
+                if (i < 0) return;
+                int node = shownLayout.node[i];
+                if (node == ScanTree.NO_NODE) return;
+
+                if (e.getClickCount() >= 2) {
+                    if (shownLayout.dir[i]) zoomTo(node);
+                } else if (onItemClick != null) {
+                    onItemClick.accept(tree.path(node));
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                titleHover = false;
+                setHover(-1);
+                setCursor(Cursor.getDefaultCursor());
+            }
+        });
+
+        addMouseMotionListener(new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                boolean onTitle = isZoomed() && titleTextBounds.contains(e.getPoint());
+                if (onTitle != titleHover) {
+                    titleHover = onTitle;
+                    repaint(0, 0, getWidth(), TITLE_H + getInsets().top);
+                }
+                if (onTitle) {
+                    setHover(-1);
+                    setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+                    setToolTipText(LanguageUtil.ln("treemap.zoom_out"));
+                    return;
+                }
+
+                setHover(hitTest(e.getPoint()));
+                setCursor(hover >= 0 ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            }
+        });
+    }
+
+    private void setHover(int i) {
+        if (i == hover) return;
+        hover = i;
+        setToolTipText(i < 0 ? null : buildTooltip(i));
+        repaint();
+    }
+
+    private String buildTooltip(int i) {
+        Layout l = shownLayout;
+        if (l.node[i] == ScanTree.NO_NODE) {
+            return LanguageUtil.fmt("treemap.others", String.valueOf(l.hidden[i]), SizeFormatUtil.human(l.bytes[i]));
+        }
+        return tree.path(l.node[i]) + "  (" + SizeFormatUtil.human(l.bytes[i]) + ")";
+    }
+
+    // ---- 배치 ----
+
+    /**
+     * 한 (노드, 폭, 높이) 의 사각형 목록과 위치 판정용 격자. 만든 뒤에는 바꾸지 않는다.
+     * 사각형은 너비 우선 순서 (부모가 자식보다 앞) 로 쌓인다.
+     */
+    static final class Layout {
+        final int width;
+        final int height;
+
+        int count;
+        float[] x = new float[256], y = new float[256], w = new float[256], h = new float[256];
+        int[] node = new int[256];
+        int[] hidden = new int[256]; // "작은 항목" 사각형에 묶인 항목 수
+        long[] bytes = new long[256];
+        byte[] depth = new byte[256];
+        boolean[] dir = new boolean[256];
+        String[] label = new String[256];
+
+        // 칸 c 의 사각형 번호: cellItems[cellStart[c] .. cellStart[c + 1])
+        private int cols, rows;
+        private int[] cellStart;
+        private int[] cellItems;
+
+        private Layout(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        static Layout build(ScanTree tree, int root, int width, int height, BooleanSupplier cancelled) {
+            Layout l = new Layout(width, height);
+            l.add(0, 0, width, height, root, 0, tree.bytes(root), true, tree.name(root), 0);
+
+            // 큐 대신 사각형 배열을 앞에서부터 훑는다 (너비 우선)
+            for (int i = 0; i < l.count; i++) {
+                if ((i & 255) == 0 && cancelled.getAsBoolean()) return l;
+                if (l.dir[i] && l.node[i] != ScanTree.NO_NODE && l.depth[i] < MAX_DEPTH) l.split(tree, i);
+            }
+            l.buildGrid();
+            return l;
+        }
+
+        /** 폴더 사각형 i 안에 자식들을 squarified 로 놓는다. */
+        private void split(ScanTree tree, int i) {
+            float rx = x[i] + 1, ry = y[i] + 1, rw = w[i] - 2, rh = h[i] - 2;
+            if (h[i] >= 3 * HEADER_H && w[i] >= LABEL_MIN_W) {
+                ry += HEADER_H - 1;
+                rh -= HEADER_H - 1;
+            }
+            if (rw < MIN_DIR_SIDE || rh < MIN_DIR_SIDE) return;
+
+            ScanTree.Children ch = tree.childEntries(node[i]);
+            int n = ch.size();
+            if (n == 0) return;
+
+            long sum = 0L;
+            for (int k = 0; k < n; k++) sum += Math.max(0L, ch.bytes()[k]);
+            // 파일 노드가 없는 폴더 (캐시로 답한 부분) 는 합계와 자식 합이 다르다: 차이는 "작은 항목" 에
+            long total = Math.max(bytes[i], sum);
+            if (total <= 0L) return;
+
+            double scale = (double) rw * rh / total;
+            long minBytes = (long) Math.ceil(MIN_ITEM_AREA / scale);
+
+            // 보일 만큼 큰 것만 골라 정렬 (백만 개짜리 폴더도 정렬은 화면에 들어가는 개수만큼)
+            int kept = 0;
+            int[] idx = new int[Math.min(n, 1024)];
+            long small = total - sum;
+            int smallCount = 0;
+            for (int k = 0; k < n; k++) {
+                long b = ch.bytes()[k];
+                if (b <= 0L) continue;
+                if (b < minBytes) {
+                    small += b;
+                    smallCount++;
+                    continue;
+                }
+                if (kept == idx.length) idx = Arrays.copyOf(idx, kept * 2);
+                idx[kept++] = k;
+            }
+
+            long[] sizes = new long[kept + 1];
+            int[] order = sortBySize(idx, kept, ch.bytes(), sizes);
+            int m = kept;
+            if (small >= minBytes) {
+                // 묶음은 크기에 상관없이 맨 뒤 (자리를 덜 튀게)
+                sizes[m] = small;
+                m++;
+            }
+
+            byte d = (byte) (depth[i] + 1);
+            int big = kept, hiddenCount = smallCount;
+            long smallBytes = small;
+            squarify(sizes, m, scale, rx, ry, rw, rh, (k, qx, qy, qw, qh) -> {
+                if (k < big) {
+                    int c = order[k];
+                    boolean isDir = ch.directory()[c];
+                    add(qx, qy, qw, qh, ch.nodes()[c], d, sizes[k], isDir, ch.names()[c], 0);
+                } else {
+                    add(qx, qy, qw, qh, ScanTree.NO_NODE, d, smallBytes, false, null, hiddenCount);
+                }
+            });
+        }
+
+        private static int[] sortBySize(int[] idx, int n, long[] bytes, long[] sizesOut) {
+            Integer[] boxed = new Integer[n];
+            for (int k = 0; k < n; k++) boxed[k] = idx[k];
+            Arrays.sort(boxed, (a, b) -> Long.compare(bytes[b], bytes[a]));
+            int[] out = new int[n];
+            for (int k = 0; k < n; k++) {
+                out[k] = boxed[k];
+                sizesOut[k] = bytes[out[k]];
+            }
+            return out;
+        }
+
+        private interface Place {
+            void at(int k, float x, float y, float w, float h);
+        }
+
+        /**
+         * Bruls et al. squarified: 짧은 변을 따라 한 줄씩 채우되, 다음 항목을 넣으면 줄의 가장 나쁜 가로세로비가
+         * 나빠질 때 줄을 닫는다. sizes 는 (마지막 묶음을 빼고) 큰 순.
+         */
+        private static void squarify(long[] sizes, int n, double scale,
+                                     float rx, float ry, float rw, float rh, Place place) {
+            int i = 0;
+            while (i < n && rw > 0f && rh > 0f) {
+                double side = Math.min(rw, rh);
+                double side2 = side * side;
+
+                int j = i;
+                double sum = 0.0, worst = Double.MAX_VALUE, max = 0.0, min = Double.MAX_VALUE;
+                while (j < n) {
+                    double a = sizes[j] * scale;
+                    double s = sum + a;
+                    double mx = Math.max(max, a), mn = Math.min(min, a);
+                    double ratio = Math.max(side2 * mx / (s * s), (s * s) / (side2 * mn));
+                    if (j > i && ratio > worst) break;
+                    worst = ratio;
+                    sum = s;
+                    max = mx;
+                    min = mn;
+                    j++;
+                }
+
+                boolean last = (j == n);
+                if (rw >= rh) {
+                    // 왼쪽에 세로 한 줄
+                    float colW = last ? rw : (float) Math.min(rw, sum / rh);
+                    float yy = ry;
+                    for (int k = i; k < j; k++) {
+                        float hh = (k == j - 1) ? ry + rh - yy : (float) (sizes[k] * scale / colW);
+                        place.at(k, rx, yy, colW, hh);
+                        yy += hh;
+                    }
+                    rx += colW;
+                    rw -= colW;
+                } else {
+                    // 위쪽에 가로 한 줄
+                    float rowH = last ? rh : (float) Math.min(rh, sum / rw);
+                    float xx = rx;
+                    for (int k = i; k < j; k++) {
+                        float ww = (k == j - 1) ? rx + rw - xx : (float) (sizes[k] * scale / rowH);
+                        place.at(k, xx, ry, ww, rowH);
+                        xx += ww;
+                    }
+                    ry += rowH;
+                    rh -= rowH;
+                }
+                i = j;
+            }
+        }
+
+        private void add(float ax, float ay, float aw, float ah, int n, int d, long b, boolean isDir, String name, int hiddenCount) {
+            if (count == x.length) grow();
+            x[count] = ax;
+            y[count] = ay;
+            w[count] = aw;
+            h[count] = ah;
+            node[count] = n;
+            depth[count] = (byte) d;
+            bytes[count] = b;
+            dir[count] = isDir;
+            // 이름은 라벨을 쓸 수 있는 크기일 때만 들고 있는다
+            label[count] = (aw >= LABEL_MIN_W && ah >= HEADER_H) ? name : null;
+            hidden[count] = hiddenCount;
+            count++;
+        }
+
+        private void grow() {
+            int cap = x.length * 2;
+            x = Arrays.copyOf(x, cap);
+            y = Arrays.copyOf(y, cap);
+            w = Arrays.copyOf(w, cap);
+            h = Arrays.copyOf(h, cap);
+            node = Arrays.copyOf(node, cap);
+            hidden = Arrays.copyOf(hidden, cap);
+            bytes = Arrays.copyOf(bytes, cap);
+            depth = Arrays.copyOf(depth, cap);
+            dir = Arrays.copyOf(dir, cap);
+            label = Arrays.copyOf(label, cap);
+        }
+
+        /** 각 사각형을 겹치는 칸에 넣는다 (두 번 훑기: 칸별 개수 → 채우기). 칸 안 순서는 사각형 순서 그대로. */
+        private void buildGrid() {
+            cols = Math.max(1, (width + CELL - 1) / CELL);
+            rows = Math.max(1, (height + CELL - 1) / CELL);
+            cellStart = new int[cols * rows + 1];
+
+            for (int i = 0; i < count; i++) {
+                int c0 = cellX(x[i]), c1 = cellX(x[i] + w[i] - 0.001f);
+                int r0 = cellY(y[i]), r1 = cellY(y[i] + h[i] - 0.001f);
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) cellStart[r * cols + c + 1]++;
+                }
+            }
+            for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+
+            cellItems = new int[cellStart[cols * rows]];
+            int[] fill = Arrays.copyOf(cellStart, cols * rows);
+            for (int i = 0; i < count; i++) {
+                int c0 = cellX(x[i]), c1 = cellX(x[i] + w[i] - 0.001f);
+                int r0 = cellY(y[i]), r1 = cellY(y[i] + h[i] - 0.001f);
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) cellItems[fill[r * cols + c]++] = i;
+                }
+            }
+        }
+
+        private int cellX(float v) {
+            return Math.max(0, Math.min(cols - 1, (int) (v / CELL)));
+        }
+
+        private int cellY(float v) {
+            return Math.max(0, Math.min(rows - 1, (int) (v / CELL)));
+        }
+
+        /** 점을 담는 가장 깊은 사각형. 칸 목록을 뒤에서부터 보면 자식이 부모보다 먼저 나온다. */
+        int hitTest(int px, int py) {
+            if (cellStart == null || px < 0 || py < 0 || px >= width || py >= height) return -1;
+            int cell = (py / CELL) * cols + (px / CELL);
+            for (int k = cellStart[cell + 1] - 1; k >= cellStart[cell]; k--) {
+                int i = cellItems[k];
+                if (px >= x[i] && px < x[i] + w[i] && py >= y[i] && py < y[i] + h[i]) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package Utils;
+
+import java.io.File;
+
+/**
+ * 사용자별 설정/캐시 폴더 위치.
+ * Windows: %APPDATA%\SpaceScope, 그 외: $XDG_CONFIG_HOME/SpaceScope 또는 ~/.config/SpaceScope
+ */
+public final class AppDirs {
+
+    private static final String APP_NAME = "SpaceScope";
+
+    private AppDirs() {}
+
+    public static File configDir() {
+        String appData = System.getenv("APPDATA");
+        File dir;
+        if (appData != null && !appData.isBlank()) {
+            dir = new File(appData, APP_NAME);
+        } else {
+            String xdg = System.getenv("XDG_CONFIG_HOME");
+            File base = (xdg != null && !xdg.isBlank())
+                    ? new File(xdg)
+                    : new File(System.getProperty("user.home"), ".config");
+            dir = new File(base, APP_NAME);
+        }
+        if (!dir.exists()) dir.mkdirs();
+        return dir;
+    }
+}
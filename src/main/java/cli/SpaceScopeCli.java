@@ -0,0 +1,193 @@
+package cli;
+
+import Utils.SizeFormatUtil;
+import export.CsvRecursiveExportService;
+import export.ExportTree;
+import export.XlsxRecursiveExportService;
+import scan.ScanMode;
+import scan.ScanOptions;
+import scan.ScanStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 화면 없이 스캔 + 내보내기만 하는 명령줄 진입점 (cron / headless 서버용).
+ * Swing, FlatLaf, JFreeChart 는 물론 AWT 클래스도 읽어 들이지 않는다 (XLSX 는 POI SXSSF 대신 스트리밍 writer 로 씀).
+ * <pre>
+ *   java -cp SpaceScope.jar cli.SpaceScopeCli --root /data --format csv --threads 8
+ * </pre>
+ * 끝나면 스캔 / 출력 처리량 요약을 출력한다. 종료 코드: 0 성공, 1 실패, 2 잘못된 인자.
+ */
+public final class SpaceScopeCli {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp SpaceScope.jar cli.SpaceScopeCli --root <dir> [options]",
+            "",
+            "  --root <dir>        folder to scan (required)",
+            "  --out <file>        output file (default: <folder>_folder_size_report.<format> in the current directory)",
+            "  --format csv|xlsx   output format (default: from the --out extension, otherwise csv)",
+            "  --threads <n>       scan and CSV export threads (default: number of CPUs)",
+            "  --mode <mode>       scan engine: sequential, parallel or virtual (default: parallel)",
+            "  --include-files     list files as well as folders (default)",
+            "  --no-files          list folders only",
+            "  --types             csv: also write the per-extension totals to <out>_types.csv (overwrites it)",
+            "  --json              also print the scan statistics as one JSON line",
+            "  -h, --help          show this help");
+
+    private enum Format { CSV, XLSX }
+
+    private SpaceScopeCli() {}
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /** @return 종료 코드 */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path root = null;
+        File outFile = null;
+        Format format = null;
+        int threads = 0;
+        ScanMode mode = null;
+        boolean includeFiles = true;
+        boolean types = false;
+        boolean json = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String a = args[i];
+                switch (a) {
+                    case "-h", "--help" -> {
+                        out.println(USAGE);
+                        return EXIT_OK;
+                    }
+                    case "--root" -> root = Path.of(value(args, ++i, a));
+                    case "--out" -> outFile = new File(value(args, ++i, a));
+                    case "--format" -> format = parseFormat(value(args, ++i, a));
+                    case "--threads" -> threads = parsePositive(value(args, ++i, a), a);
+                    case "--mode" -> mode = parseMode(value(args, ++i, a));
+                    case "--include-files" -> includeFiles = true;
+                    case "--no-files" -> includeFiles = false;
+                    case "--types" -> types = true;
+                    case "--json" -> json = true;
+                    default -> throw new IllegalArgumentException("unknown option: " + a);
+                }
+            }
+            if (root == null) throw new IllegalArgumentException("--root is required");
+            if (!Files.isDirectory(root)) throw new IllegalArgumentException("not a folder: " + root);
+        } catch (IllegalArgumentException e) {
+            err.println("error: " + e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        if (format == null) format = formatOf(outFile);
+        if (outFile == null) outFile = defaultOutFile(root, format);
+
+        ScanOptions options = ScanOptions.fromSystemProperties();
+        if (threads > 0) options = options.withParallelism(threads);
+        if (mode != null) options = options.withMode(mode);
+        int exportThreads = (threads > 0) ? threads : CsvRecursiveExportService.exportThreads();
+
+        try {
+            long t0 = System.nanoTime();
+            ExportTree tree = ExportTree.scan(root, includeFiles, options);
+            long scanNanos = System.nanoTime() - t0;
+            int rows = tree.rowCount();
+
+            long t1 = System.nanoTime();
+            if (format == Format.XLSX) {
+                XlsxRecursiveExportService.exportStreaming(tree, outFile, null);
+            } else {
+                CsvRecursiveExportService.exportWithProgress(tree, outFile, exportThreads, types, null);
+            }
+            long writeNanos = System.nanoTime() - t1;
+
+            printSummary(out, tree, rows, outFile, scanNanos, writeNanos);
+            if (format == Format.CSV && types) {
+                out.printf(Locale.ROOT, "Wrote   %s (file types)%n",
+                        CsvRecursiveExportService.typesFile(outFile).getAbsolutePath());
+            }
+            if (json) out.println(tree.stats().snapshot().toJson("cli-export", tree.root()));
+            return EXIT_OK;
+        } catch (IOException | RuntimeException e) {
+            err.println("error: export failed: " + e);
+            return EXIT_FAILED;
+        }
+    }
+
+    private static void printSummary(PrintStream out, ExportTree tree, int rows, File outFile,
+                                     long scanNanos, long writeNanos) {
+        ScanStats.Snapshot s = tree.stats().snapshot();
+        long entries = s.dirsOpened() + s.filesStatted();
+        long outBytes = outFile.length();
+
+        out.printf(Locale.ROOT, "Scanned %s: %,d folders, %,d entries, %s in %s (%,.0f entries/s)%n",
+                tree.root(), s.dirsOpened(), entries, SizeFormatUtil.human(s.bytesAccounted()),
+                seconds(scanNanos), perSecond(entries, scanNanos));
+        out.printf(Locale.ROOT, "Wrote   %s: %,d rows, %s in %s (%,.0f rows/s, %s/s)%n",
+                outFile.getAbsolutePath(), rows, SizeFormatUtil.human(outBytes),
+                seconds(writeNanos), perSecond(rows, writeNanos),
+                SizeFormatUtil.human((long) perSecond(outBytes, writeNanos)));
+        if (s.errors() > 0) out.printf(Locale.ROOT, "Errors  %,d (unreadable entries were skipped)%n", s.errors());
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+
+    private static double perSecond(long n, long nanos) {
+        return (nanos <= 0L) ? 0.0 : n * 1e9 / nanos;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static int parsePositive(String v, String option) {
+        try {
+            int n = Integer.parseInt(v.trim());
+            if (n > 0) return n;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(option + " must be a positive number: " + v);
+    }
+
+    private static Format parseFormat(String v) {
+        try {
+            return Format.valueOf(v.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown format: " + v);
+        }
+    }
+
+    private static ScanMode parseMode(String v) {
+        try {
+            return ScanMode.valueOf(v.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown mode: " + v);
+        }
+    }
+
+    private static Format formatOf(File outFile) {
+        if (outFile != null && outFile.getName().toLowerCase(Locale.ROOT).endsWith(".xlsx")) return Format.XLSX;
+        return Format.CSV;
+    }
+
+    /** GUI 의 기본 파일 이름과 같은 규칙: 폴더이름_folder_size_report.확장자 */
+    private static File defaultOutFile(Path root, Format format) {
+        Path fn = root.toAbsolutePath().normalize().getFileName();
+        String base = (fn == null) ? "folder_size" : fn.toString();
+        return new File(base + "_folder_size_report." + format.name().toLowerCase(Locale.ROOT));
+    }
+}
@@ -1,12 +1,16 @@
 package export;
 
-import Utils.SizeFormatUtil;
+import scan.DuplicateFinder;
+import scan.ScanStats;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntConsumer;
 
 public final class CsvRecursiveExportService {
@@ -23,330 +27,327 @@ public final class CsvRecursiveExportService {
         Objects.requireNonNull(rootDir, "rootDir");
         Objects.requireNonNull(outFile, "outFile");
 
-        // 파일 선택된 경우: 파일 1줄만
-        if (!Files.isDirectory(rootDir)) {
-            writeSingleFile(rootDir, outFile);
-            return;
-        }
-
-        // 1) 전체 재귀 스캔해서 dirSizeMap 구성 (Path -> bytes)
-        Map<Path, Long> dirSizeMap = buildDirSizeMap(rootDir);
-
-        // 2) 출력(원하는 순서: pre-order) - size는 map에서 가져옴
-        try (PrintWriter w = new PrintWriter(
-                new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8))
-        )) {
-            // Excel 한글 깨짐 방지 BOM
-            w.write('\uFEFF');
-
-            w.println("Type,Name,Depth,Path,Size (bytes),Formatted Size,Last Modified");
-
-            writeTreePreOrder(rootDir, 0, includeFiles, dirSizeMap, w);
-        }
+        // 한 번만 훑어서 이름/크기/mtime 을 모은 뒤, 출력은 메모리에서 (pre-order)
+        write(ExportTree.scan(rootDir, includeFiles), outFile, exportThreads(), false, Tuning.DEFAULT, null);
     }
 
-    private static void writeSingleFile(Path file, File outFile) throws IOException {
-        long size = 0L;
-        try { size = Files.size(file); } catch (Exception ignored) {}
-
-        String lm = lastModified(file);
-
-        try (PrintWriter w = new PrintWriter(
-                new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8))
-        )) {
-            w.write('\uFEFF');
-            w.println("Type,Name,Depth,Path,Size (bytes),Formatted Size,Last Modified");
-            w.printf("File,%s,%d,\"%s\",%d,%s,%s%n",
-                    escapeCsv(entryName(file)),
-                    0,
-                    escapeCsv(file.toAbsolutePath().normalize().toString()),
-                    size,
-                    SizeFormatUtil.human(size),
-                    lm
-            );
-        }
+    /**
+     * 행 수를 알려고 전체를 한 번 훑고 결과는 버린다.
+     * @deprecated {@link ExportTree#scan} 한 결과의 {@link ExportTree#rowCount()} 를 쓰고
+     *             그 트리를 {@link #exportWithProgress(ExportTree, File, IntConsumer)} 에 넘긴다 (스캔 한 번)
+     */
+    @Deprecated
+    public static int countEntries(Path root, boolean includeFiles) throws IOException {
+        return ExportTree.scan(root, includeFiles).rowCount();
     }
 
     /**
-     * Files.walkFileTree로 후위(post)에서 디렉토리별 합계를 계산해서 Map으로 만든다.
-     * - 파일 크기는 부모 디렉토리에 더해짐
-     * - 각 디렉토리는 (하위 전체 포함) total bytes가 저장됨
+     * 스캔 후 CSV 저장 (진행률 포함).
+     * @param totalEntries 쓰지 않음 (행 수는 스캔 결과에서 나옴)
+     * @deprecated 디스크를 다시 훑는다. {@link ExportTree#scan} 후
+     *             {@link #exportWithProgress(ExportTree, File, IntConsumer)} 를 쓴다
      */
-    private static Map<Path, Long> buildDirSizeMap(Path rootDir) throws IOException {
-        Map<Path, Long> dirSum = new HashMap<>();
-        Deque<Path> stack = new ArrayDeque<>();
-
-        Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                stack.push(dir);
-                dirSum.putIfAbsent(dir, 0L);
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                long sz = 0L;
-                try {
-                    if (attrs.isRegularFile()) sz = attrs.size();
-                } catch (Exception ignored) {}
-
-                // 현재 스택 top(부모 dir)에 파일 크기 누적
-                Path curDir = stack.peek();
-                if (curDir != null) dirSum.put(curDir, dirSum.getOrDefault(curDir, 0L) + sz);
+    @Deprecated
+    public static void exportWithProgress(
+            Path rootDir,
+            File outFile,
+            boolean includeFiles,
+            int totalEntries,
+            IntConsumer onDoneEntries
+    ) throws IOException {
 
-                return FileVisitResult.CONTINUE;
-            }
+        Objects.requireNonNull(rootDir, "rootDir");
+        Objects.requireNonNull(outFile, "outFile");
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                // 권한/에러는 무시하고 진행
-                return FileVisitResult.CONTINUE;
-            }
+        write(ExportTree.scan(rootDir, includeFiles), outFile, exportThreads(), false, Tuning.DEFAULT, onDoneEntries);
+    }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-                // dir의 누적합을 부모 dir에 더해줌 (후위에서 상향 누적)
-                long mySum = dirSum.getOrDefault(dir, 0L);
+    /**
+     * 이미 모아 둔 스캔 결과로 출력만 한다 (디스크를 다시 보지 않음).
+     * 행이 많으면 {@link #exportThreads()} 개 스레드로 나눠 쓴다 (결과 파일은 순차 출력과 바이트 단위로 같음).
+     * @param onDoneEntries 현재까지 완료된 행 수 콜백(헤더 제외, 호출한 스레드에서만 불림)
+     */
+    public static void exportWithProgress(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
+        exportWithProgress(tree, outFile, exportThreads(), onDoneEntries);
+    }
 
-                // pop
-                if (!stack.isEmpty() && stack.peek().equals(dir)) stack.pop();
+    /** @param threads 출력 스레드 수 (1 이하면 순차) */
+    public static void exportWithProgress(ExportTree tree, File outFile, int threads, IntConsumer onDoneEntries)
+            throws IOException {
+        exportWithProgress(tree, outFile, threads, false, onDoneEntries);
+    }
 
-                Path parent = stack.peek();
-                if (parent != null) dirSum.put(parent, dirSum.getOrDefault(parent, 0L) + mySum);
+    /**
+     * @param threads 출력 스레드 수 (1 이하면 순차)
+     * @param includeTypes 확장자별 합계도 {@link #typesFile} 에 쓸지 (있던 파일은 덮어씀: 확인은 호출한 쪽에서)
+     */
+    public static void exportWithProgress(ExportTree tree, File outFile, int threads, boolean includeTypes,
+                                          IntConsumer onDoneEntries) throws IOException {
+        Objects.requireNonNull(tree, "tree");
+        Objects.requireNonNull(outFile, "outFile");
 
-                return FileVisitResult.CONTINUE;
-            }
-        });
+        write(tree, outFile, threads, includeTypes, Tuning.DEFAULT, onDoneEntries);
+    }
 
-        return dirSum;
+    /** 병렬 출력 기준값을 직접 준다 (테스트에서 작은 트리로 병렬 경로/조각 경계를 만들 때). */
+    static void exportWithProgress(ExportTree tree, File outFile, int threads, Tuning tuning,
+                                   IntConsumer onDoneEntries) throws IOException {
+        write(tree, outFile, threads, false, tuning, onDoneEntries);
     }
 
     /**
-     * 디렉토리/파일 트리를 pre-order로 출력한다.
-     * 디렉토리 size는 dirSizeMap에서 가져온다.
+     * 중복 파일 찾기 결과를 CSV 로 저장 (복사본 하나당 한 줄, 묶음은 회수 가능한 크기가 큰 순).
+     * 행 형식: Group,Copies,"Path",Size (bytes),Formatted Size,Reclaimable (bytes),Last Modified
      */
-    private static void writeTreePreOrder(
-            Path dir,
-            int depth,
-            boolean includeFiles,
-            Map<Path, Long> dirSizeMap,
-            PrintWriter w
-    ) {
-        long dirBytes = dirSizeMap.getOrDefault(dir, 0L);
-
-        w.printf("Folder,%s,%d,\"%s\",%d,%s,%s%n",
-                escapeCsv(entryName(dir)),
-                depth,
-                escapeCsv(dir.toAbsolutePath().normalize().toString()),
-                dirBytes,
-                SizeFormatUtil.human(dirBytes),
-                lastModified(dir)
-        );
-
-        // children: 이름 기준 정렬 (UI와 맞추기)
-        List<Path> childDirs = new ArrayList<>();
-        List<Path> childFiles = new ArrayList<>();
-
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
-            for (Path p : ds) {
-                try {
-                    if (Files.isDirectory(p)) childDirs.add(p);
-                    else if (Files.isRegularFile(p)) childFiles.add(p);
-                } catch (Exception ignored) {}
-            }
-        } catch (Exception ignored) {
-            return;
-        }
+    public static void exportDuplicates(DuplicateFinder.Result result, File outFile) throws IOException {
+        exportDuplicates(result, outFile, null);
+    }
 
-        childDirs.sort(Comparator.comparing(p -> {
-            Path fn = p.getFileName();
-            String s = (fn == null ? p.toString() : fn.toString());
-            return s.toLowerCase(Locale.ROOT);
-        }));
-
-        childFiles.sort(Comparator.comparing(p -> {
-            Path fn = p.getFileName();
-            String s = (fn == null ? p.toString() : fn.toString());
-            return s.toLowerCase(Locale.ROOT);
-        }));
-
-        // 파일 출력(옵션)
-        if (includeFiles) {
-            for (Path f : childFiles) {
-                long sz = 0L;
-                try { sz = Files.size(f); } catch (Exception ignored) {}
-
-                w.printf("File,%s,%d,\"%s\",%d,%s,%s%n",
-                        escapeCsv(entryName(f)),
-                        depth + 1,
-                        escapeCsv(f.toAbsolutePath().normalize().toString()),
-                        sz,
-                        SizeFormatUtil.human(sz),
-                        lastModified(f)
-                );
-            }
-        }
+    /** @param onDoneRows 현재까지 완료된 행(복사본) 수 콜백 (헤더 제외) */
+    public static void exportDuplicates(DuplicateFinder.Result result, File outFile, IntConsumer onDoneRows)
+            throws IOException {
+        Objects.requireNonNull(result, "result");
+        Objects.requireNonNull(outFile, "outFile");
 
-        // 하위 디렉토리 재귀
-        for (Path d : childDirs) {
-            writeTreePreOrder(d, depth + 1, includeFiles, dirSizeMap, w);
+        int done = 0;
+        try (Utf8ByteWriter w = new Utf8ByteWriter(outFile)) {
+            w.write(BOM);
+            w.write(DUPLICATE_HEADER).newLine();
+            int group = 0;
+            for (DuplicateFinder.Group g : result.groups()) {
+                group++;
+                for (DuplicateFinder.Copy c : g.copies()) {
+                    w.number(group).write((byte) ',');
+                    w.number(g.copies().size()).write((byte) ',');
+                    w.write((byte) '"').text(c.path().toString(), true).write((byte) '"').write((byte) ',');
+                    w.number(g.size()).write((byte) ',');
+                    w.humanSize(g.size()).write((byte) ',');
+                    w.number(g.reclaimableBytes()).write((byte) ',');
+                    w.timestamp(c.mtime()).newLine();
+
+                    done++;
+                    if (onDoneRows != null) onDoneRows.accept(done);
+                }
+            }
         }
     }
 
-    private static String escapeCsv(String s) {
-        return s == null ? "" : s.replace("\"", "\"\"");
-    }
+    public static final String PROP_THREADS = "spacescope.export.threads";
 
-    private static String lastModified(Path p) {
-        try {
-            long ms = Files.getLastModifiedTime(p).toMillis();
-            Date d = new Date(ms);
-            return String.format("%tF %<tT", d);
-        } catch (Exception ignored) {
-            return "";
-        }
+    /** 병렬 출력 스레드 수: -Dspacescope.export.threads (기본 min(4, CPU 수)). */
+    public static int exportThreads() {
+        Integer v = Integer.getInteger(PROP_THREADS);
+        return (v == null || v <= 0) ? Math.min(4, Runtime.getRuntime().availableProcessors()) : v;
     }
 
-    public static int countEntries(Path root, boolean includeFiles) throws IOException {
-        if (!Files.isDirectory(root)) return 1;
+    /**
+     * 병렬 출력 기준값.
+     * @param parallelMinRows 이보다 행이 적으면 조각 파일 비용이 더 커서 순차로 쓴다
+     * @param segmentMinRows 조각 하나의 최소 행 수
+     */
+    record Tuning(int parallelMinRows, int segmentMinRows) {
+        static final Tuning DEFAULT = new Tuning(50_000, 4_096);
+    }
 
-        final int[] count = {1}; // root folder row
+    private static final long PROGRESS_POLL_MS = 100L;
 
-        Files.walkFileTree(root, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                if (!dir.equals(root)) count[0]++;
-                return FileVisitResult.CONTINUE;
-            }
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] HEADER =
+            "Type,Name,Depth,Path,Size (bytes),Formatted Size,Last Modified".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DUPLICATE_HEADER =
+            "Group,Copies,Path,Size (bytes),Formatted Size,Reclaimable (bytes),Last Modified".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TYPE_HEADER =
+            "Extension,MIME Family,Files,Size (bytes),Formatted Size".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOLDER = "Folder".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FILE = "File".getBytes(StandardCharsets.UTF_8);
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (includeFiles && attrs.isRegularFile()) count[0]++;
-                return FileVisitResult.CONTINUE;
+    /**
+     * 같은 폴더의 임시 파일에 다 쓴 뒤 outFile 자리로 옮긴다.
+     * 중간에 실패/취소되면 있던 outFile 은 그대로 남고 임시 파일은 지운다.
+     */
+    private static void write(ExportTree tree, File outFile, int threads, boolean includeTypes, Tuning tuning,
+                              IntConsumer onDoneEntries) throws IOException {
+        long t0 = System.nanoTime();
+        Path out = outFile.getAbsoluteFile().toPath();
+        // createTempFile 은 권한이 0600 이라 옮긴 뒤에도 남는다: 보통 파일로 만든다
+        String tmpName = "." + out.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp";
+        Path tmp = Files.createFile(out.resolveSibling(tmpName));
+        try {
+            int rows = tree.rowCount();
+            if (threads <= 1 || rows < tuning.parallelMinRows()) {
+                writeSequential(tree, tmp.toFile(), onDoneEntries);
+            } else {
+                writeParallel(tree, tmp, threads, rows, tuning, onDoneEntries);
             }
-
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                return FileVisitResult.CONTINUE;
+            moveIntoPlace(tmp, out);
+            if (includeTypes) writeTypes(tree, typesFile(outFile));
+        } finally {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
             }
-        });
-
-        return count[0];
+            tree.stats().addPhase(ScanStats.Phase.EXPORT_WRITE, t0);
+            tree.stats().finish();
+        }
     }
 
-    public static void exportWithProgress(
-            Path rootDir,
-            File outFile,
-            boolean includeFiles,
-            int totalEntries,
-            IntConsumer onDoneEntries
-    ) throws IOException {
-
-        Objects.requireNonNull(rootDir, "rootDir");
-        Objects.requireNonNull(outFile, "outFile");
+    /** CSV 는 표가 하나뿐이라 확장자별 합계는 옆 파일로: report.csv → report_types.csv */
+    public static File typesFile(File outFile) {
+        String name = outFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = (dot > 0) ? name.substring(0, dot) : name;
+        return new File(outFile.getAbsoluteFile().getParentFile(), base + "_types.csv");
+    }
 
-        if (!Files.isDirectory(rootDir)) {
-            writeSingleFile(rootDir, outFile);
-            if (onDoneEntries != null) onDoneEntries.accept(1);
-            return;
+    /** 행 형식: Extension,MIME Family,Files,Size (bytes),Formatted Size (용량이 큰 순) */
+    private static void writeTypes(ExportTree tree, File file) throws IOException {
+        try (Utf8ByteWriter w = new Utf8ByteWriter(file)) {
+            w.write(BOM);
+            w.write(TYPE_HEADER).newLine();
+            tree.walkTypes((extension, family, files, bytes) -> {
+                w.text(extension, true).write((byte) ',');
+                w.text(family, true).write((byte) ',');
+                w.number(files).write((byte) ',');
+                w.number(bytes).write((byte) ',');
+                w.humanSize(bytes).newLine();
+            });
         }
+    }
 
-        Map<Path, Long> dirSizeMap = buildDirSizeMap(rootDir);
-
+    private static void writeSequential(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
         final int[] done = {0};
 
-        try (PrintWriter w = new PrintWriter(
-                new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8))
-        )) {
-            w.write('\uFEFF');
-            w.println("Type,Name,Depth,Path,Size (bytes),Formatted Size,Last Modified");
+        try (Utf8ByteWriter w = new Utf8ByteWriter(outFile)) {
+            writeHeader(w);
+            tree.walk((folder, name, depth, path, bytes, mtime) -> {
+                writeRow(w, folder, name, depth, path, bytes, mtime);
 
-            writeTreePreOrderWithProgress(rootDir, 0, includeFiles, dirSizeMap, w, done, totalEntries, onDoneEntries);
+                done[0]++;
+                if (onDoneEntries != null) onDoneEntries.accept(done[0]);
+            });
         }
     }
 
-    private static void writeTreePreOrderWithProgress(
-            Path dir,
-            int depth,
-            boolean includeFiles,
-            Map<Path, Long> dirSizeMap,
-            PrintWriter w,
-            int[] done,
-            int totalEntries,
-            IntConsumer onDoneEntries
-    ) {
-        long dirBytes = dirSizeMap.getOrDefault(dir, 0L);
-
-        w.printf("Folder,%s,%d,\"%s\",%d,%s,%s%n",
-                escapeCsv(entryName(dir)),
-                depth,
-                escapeCsv(dir.toAbsolutePath().normalize().toString()),
-                dirBytes,
-                Utils.SizeFormatUtil.human(dirBytes),
-                lastModified(dir)
-        );
-
-        done[0]++;
-        if (onDoneEntries != null) onDoneEntries.accept(done[0]);
-
-        List<Path> childDirs = new ArrayList<>();
-        List<Path> childFiles = new ArrayList<>();
-
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
-            for (Path p : ds) {
-                try {
-                    if (Files.isDirectory(p)) childDirs.add(p);
-                    else if (includeFiles && Files.isRegularFile(p)) childFiles.add(p);
-                } catch (Exception ignored) {}
-            }
-        } catch (Exception ignored) {
-            return;
-        }
-
-        Comparator<Path> byName = Comparator.comparing(p -> {
-            Path fn = p.getFileName();
-            String s = (fn == null ? p.toString() : fn.toString());
-            return s.toLowerCase(Locale.ROOT);
+    /**
+     * 트리를 pre-order 조각({@link ExportTree#segments})으로 나눠 worker 마다 임시 조각 파일에 쓰고,
+     * 호출한 스레드가 조각 순서대로 기다렸다가 FileChannel.transferTo 로 이어 붙인다.
+     * 앞 조각을 붙이는 동안 뒤 조각은 계속 쓰인다.
+     */
+    private static void writeParallel(ExportTree tree, Path out, int threads, int rows, Tuning tuning,
+                                      IntConsumer onDoneEntries) throws IOException {
+        // 조각이 스레드 수보다 넉넉히 많아야 큰 하위 트리 하나에 몰리지 않는다
+        List<ExportTree.Segment> segments =
+                tree.segments(Math.max(tuning.segmentMinRows(), rows / (threads * 8)));
+
+        // 출력과 같은 폴더(같은 파일시스템)에 두면 transferTo 가 커널 안에서 끝날 수 있다
+        Path dir = out.getParent();
+        LongAdder done = new LongAdder();
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "csv-export-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
         });
 
-        childFiles.sort(byName);
-        childDirs.sort(byName);
-
-        if (includeFiles) {
-            for (Path f : childFiles) {
-                long sz = 0L;
-                try { sz = Files.size(f); } catch (Exception ignored) {}
+        List<Path> parts = new ArrayList<>(segments.size());
+        List<Future<?>> futures = new ArrayList<>(segments.size());
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                Path part = Files.createTempFile(dir, ".spacescope-", ".csv.part");
+                parts.add(part);
+                boolean first = (i == 0);
+                ExportTree.Segment segment = segments.get(i);
+
+                futures.add(pool.submit(() -> {
+                    try (Utf8ByteWriter w = new Utf8ByteWriter(part.toFile())) {
+                        if (first) writeHeader(w);
+                        segment.walk((folder, name, depth, path, bytes, mtime) -> {
+                            writeRow(w, folder, name, depth, path, bytes, mtime);
+                            done.increment();
+                        });
+                    }
+                    return null;
+                }));
+            }
 
-                w.printf("File,%s,%d,\"%s\",%d,%s,%s%n",
-                        escapeCsv(entryName(f)),
-                        depth + 1,
-                        escapeCsv(f.toAbsolutePath().normalize().toString()),
-                        sz,
-                        Utils.SizeFormatUtil.human(sz),
-                        lastModified(f)
-                );
+            try (FileChannel target = FileChannel.open(out,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int i = 0; i < parts.size(); i++) {
+                    await(futures.get(i), done, onDoneEntries);
+                    append(parts.get(i), target);
+                    Files.deleteIfExists(parts.get(i));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            try {
+                // 실패/취소로 빠져나올 때 아직 쓰는 중인 조각 파일을 지우기 전에 worker 를 멈춘다
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Path p : parts) {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
 
-                done[0]++;
-                if (onDoneEntries != null) onDoneEntries.accept(done[0]);
+    /** 조각 하나가 끝나기를 기다리며 진행률을 알린다 (콜백은 이 스레드에서만). */
+    private static void await(Future<?> f, LongAdder done, IntConsumer onDoneEntries) throws IOException {
+        while (true) {
+            try {
+                f.get(PROGRESS_POLL_MS, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                if (onDoneEntries != null) onDoneEntries.accept(done.intValue());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export cancelled");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof RuntimeException re) throw re;
+                throw new IOException(cause);
             }
         }
+        if (onDoneEntries != null) onDoneEntries.accept(done.intValue());
+    }
 
-        for (Path d : childDirs) {
-            writeTreePreOrderWithProgress(d, depth + 1, includeFiles, dirSizeMap, w, done, totalEntries, onDoneEntries);
+    private static void moveIntoPlace(Path tmp, Path out) throws IOException {
+        try {
+            Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
-    private static String entryName(Path p) {
-        if (p == null) return "";
-        Path fn = p.getFileName();
-        String name = (fn == null ? "" : fn.toString());
-        if (name.isEmpty()) {
-            // 루트(C:\, /) 같은 경우
-            Path abs = p.toAbsolutePath().normalize();
-            return abs.toString();
+    private static void append(Path part, FileChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = in.size();
+            long pos = 0L;
+            while (pos < size) pos += in.transferTo(pos, size - pos, target);
         }
-        return name;
+    }
+
+    private static void writeHeader(Utf8ByteWriter w) throws IOException {
+        // Excel 한글 깨짐 방지 BOM
+        w.write(BOM);
+        w.write(HEADER).newLine();
+    }
+
+    /** 행 형식: Type,Name,Depth,"Path",Size (bytes),Formatted Size,Last Modified ({@link Utf8ByteWriter} 로 바로 인코딩) */
+    private static void writeRow(Utf8ByteWriter w, boolean folder, String name, int depth, String path, long bytes,
+                                 long mtime) throws IOException {
+        w.write(folder ? FOLDER : FILE).write((byte) ',');
+        w.text(name, true).write((byte) ',');
+        w.number(depth).write((byte) ',');
+        w.write((byte) '"').text(path, true).write((byte) '"').write((byte) ',');
+        w.number(bytes).write((byte) ',');
+        w.humanSize(bytes).write((byte) ',');
+        w.timestamp(mtime).newLine();
     }
 
 }
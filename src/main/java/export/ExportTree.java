@@ -0,0 +1,296 @@
+package export;
+
+import scan.DirRecord;
+import scan.ScanEngine;
+import scan.ScanOptions;
+import scan.ScanStats;
+import scan.ScanTree;
+import scan.TypeHistogram;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 내보내기용 스캔 결과.
+ * root 하위를 스캔 엔진으로 한 번만 훑어 이름/크기/mtime 을 메모리({@link ScanTree})에 모으고,
+ * 행 수 계산과 행 출력은 디스크를 다시 보지 않고 여기서 한다.
+ */
+public final class ExportTree {
+
+    /** pre-order 로 한 행씩 받는다. mtime 이 0 이면 알 수 없음. */
+    @FunctionalInterface
+    interface RowVisitor {
+        void row(boolean folder, String name, int depth, String path, long bytes, long mtime) throws IOException;
+    }
+
+    /** 확장자별 합계 한 줄. family 는 MIME 최상위 분류 (모르면 빈 문자열). */
+    @FunctionalInterface
+    interface TypeRowVisitor {
+        void row(String extension, String family, long files, long bytes) throws IOException;
+    }
+
+    private final Path root;
+    private final boolean rootIsDir;
+    private final boolean includeFiles;
+    private final ScanTree tree;
+    private final int rootNode;
+    private final ScanStats stats;
+
+    // root 가 파일이거나 스캔 결과에 없을 때(심볼릭 링크 등) 쓰는 값
+    private final long rootBytes;
+    private final long rootMtime;
+
+    private ExportTree(Path root, boolean rootIsDir, boolean includeFiles, ScanTree tree, long rootBytes, long rootMtime,
+                       ScanStats stats) {
+        this.root = root;
+        this.rootIsDir = rootIsDir;
+        this.includeFiles = includeFiles;
+        this.tree = tree;
+        this.rootNode = (tree == null) ? ScanTree.NO_NODE : tree.node(root);
+        this.rootBytes = rootBytes;
+        this.rootMtime = rootMtime;
+        this.stats = stats;
+    }
+
+    /**
+     * @param root 디렉토리 권장 (파일이면 파일 1줄)
+     * @param includeFiles 파일 항목도 모을지
+     */
+    public static ExportTree scan(Path root, boolean includeFiles) throws IOException {
+        return scan(root, includeFiles, ScanOptions.fromSystemProperties());
+    }
+
+    /** 스캔 엔진 설정을 직접 준다 (CLI 의 --threads 등). */
+    public static ExportTree scan(Path root, boolean includeFiles, ScanOptions options) throws IOException {
+        Path abs = root.toAbsolutePath().normalize();
+        ScanStats stats = new ScanStats();
+
+        long bytes = 0L;
+        long mtime = 0L;
+        boolean isDir = false;
+        try {
+            BasicFileAttributes a = Files.readAttributes(abs, BasicFileAttributes.class);
+            isDir = a.isDirectory();
+            bytes = isDir ? 0L : a.size();
+            mtime = a.lastModifiedTime().toMillis();
+        } catch (Exception ignored) {}
+
+        if (!isDir) return new ExportTree(abs, false, includeFiles, null, bytes, mtime, stats);
+
+        try {
+            ScanTree tree = ScanEngine.scanAll(abs, options, includeFiles, stats);
+            return new ExportTree(abs, true, includeFiles, tree, 0L, mtime, stats);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export cancelled");
+        }
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /** 스캔 + 출력(EXPORT_WRITE) 계측 값. */
+    public ScanStats stats() {
+        return stats;
+    }
+
+    /** 출력될 행 수 (헤더 제외). */
+    public int rowCount() {
+        return (rootNode == ScanTree.NO_NODE) ? 1 : tree.countEntries(rootNode, includeFiles);
+    }
+
+    /** root 하위 전체의 확장자별 합계 (스캔하면서 폴더마다 모은 값, 따로 훑지 않음). */
+    public TypeHistogram fileTypes() {
+        if (rootNode == ScanTree.NO_NODE) {
+            if (rootIsDir) return TypeHistogram.EMPTY;
+            TypeHistogram.Builder b = new TypeHistogram.Builder();
+            b.add(entryName(root), rootBytes);
+            return b.build();
+        }
+        DirRecord r = tree.get(root);
+        return (r == null) ? TypeHistogram.unknown(tree.bytes(rootNode), 0L) : r.total().typesOrUnknown();
+    }
+
+    /** 확장자별 합계를 용량이 큰 순으로 넘긴다. */
+    void walkTypes(TypeRowVisitor v) throws IOException {
+        for (TypeHistogram.Entry e : fileTypes().entries()) {
+            String t = e.type();
+            String label = switch (t) {
+                case TypeHistogram.NONE -> "(no extension)";
+                case TypeHistogram.OTHER -> "(other)";
+                case TypeHistogram.UNKNOWN -> "(not read)";
+                default -> "." + t;
+            };
+            v.row(label, TypeHistogram.family(t), e.files(), e.bytes());
+        }
+    }
+
+    /** 폴더 → (이름순) 직계 파일 → (이름순) 하위 폴더 재귀 순서로 행을 넘긴다. */
+    void walk(RowVisitor v) throws IOException {
+        String rootName = entryName(root);
+        if (rootNode == ScanTree.NO_NODE) {
+            v.row(rootIsDir, rootName, 0, root.toString(), rootBytes, rootMtime);
+            return;
+        }
+        walk(rootNode, rootName, root.toString(), 0, tree.bytes(rootNode), tree.lastModified(rootNode), v);
+    }
+
+    /**
+     * 출력 순서대로 나눈 조각. 순서대로 이어 붙이면 {@link #walk} 와 같은 행이 나오고,
+     * 조각끼리는 서로 독립이라 여러 스레드에서 동시에 walk 할 수 있다.
+     */
+    @FunctionalInterface
+    interface Segment {
+        void walk(RowVisitor v) throws IOException;
+    }
+
+    /**
+     * pre-order 순서의 조각 목록.
+     * 행 수가 targetRows 보다 많은 하위 트리는 (폴더 행 + 직계 파일) 조각과 하위 폴더 조각들로 더 나누고,
+     * 이어지는 작은 조각들은 합쳐서 조각 하나가 대략 targetRows 행이 되게 한다.
+     */
+    List<Segment> segments(int targetRows) {
+        Segments out = new Segments(targetRows);
+        if (rootNode == ScanTree.NO_NODE) {
+            out.add(this::walk, 1);
+        } else {
+            split(rootNode, entryName(root), root.toString(), 0, tree.bytes(rootNode), tree.lastModified(rootNode), out);
+        }
+        return out.finish();
+    }
+
+    private void split(int node, String name, String path, int depth, long bytes, long mtime, Segments out) {
+        int rows = tree.countEntries(node, includeFiles);
+        if (rows <= out.targetRows) {
+            out.add(v -> walk(node, name, path, depth, bytes, mtime, v), rows);
+            return;
+        }
+
+        Sorted s = sorted(node);
+        out.add(v -> head(node, name, path, depth, bytes, mtime, v), 1 + s.files().length);
+        ScanTree.Children c = s.children();
+        for (int i : s.dirs()) {
+            String childName = c.names()[i];
+            split(c.nodes()[i], childName, childPath(path, childName), depth + 1, c.bytes()[i], c.mtime()[i], out);
+        }
+    }
+
+    /** 이어지는 조각들을 targetRows 까지 모아 하나로 합친다 (순서 유지). */
+    private static final class Segments {
+        final int targetRows;
+        private final List<Segment> out = new ArrayList<>();
+        private List<Segment> group = new ArrayList<>();
+        private int groupRows = 0;
+
+        Segments(int targetRows) {
+            this.targetRows = targetRows;
+        }
+
+        void add(Segment s, int rows) {
+            if (!group.isEmpty() && groupRows + rows > targetRows) flush();
+            group.add(s);
+            groupRows += rows;
+        }
+
+        private void flush() {
+            List<Segment> g = group;
+            out.add(g.size() == 1 ? g.get(0) : v -> {
+                for (Segment s : g) s.walk(v);
+            });
+            group = new ArrayList<>();
+            groupRows = 0;
+        }
+
+        List<Segment> finish() {
+            if (!group.isEmpty()) flush();
+            return out;
+        }
+    }
+
+    private void walk(int node, String name, String path, int depth, long bytes, long mtime, RowVisitor v)
+            throws IOException {
+        Sorted s = head(node, name, path, depth, bytes, mtime, v);
+        ScanTree.Children c = s.children();
+        for (int i : s.dirs()) {
+            String childName = c.names()[i];
+            walk(c.nodes()[i], childName, childPath(path, childName), depth + 1, c.bytes()[i], c.mtime()[i], v);
+        }
+    }
+
+    /** 폴더 행 + (이름순) 직계 파일 행. */
+    private Sorted head(int node, String name, String path, int depth, long bytes, long mtime, RowVisitor v)
+            throws IOException {
+        v.row(true, name, depth, path, bytes, mtime);
+
+        Sorted s = sorted(node);
+        ScanTree.Children c = s.children();
+        for (int i : s.files()) {
+            String childName = c.names()[i];
+            v.row(false, childName, depth + 1, childPath(path, childName), c.bytes()[i], c.mtime()[i]);
+        }
+        return s;
+    }
+
+    /** 직계 자식 (폴더당 잠금 한 번) 과, 이름순으로 정렬한 파일 / 하위 폴더 인덱스. */
+    private record Sorted(ScanTree.Children children, int[] files, int[] dirs) {
+    }
+
+    private Sorted sorted(int node) {
+        ScanTree.Children c = tree.childEntries(node);
+        int n = c.size();
+        int nDirs = 0;
+        int nFiles = 0;
+        String[] childNames = c.names();
+        Integer[] dirs = new Integer[n];
+        Integer[] files = new Integer[n];
+
+        for (int i = 0; i < n; i++) {
+            if (c.directory()[i]) dirs[nDirs++] = i;
+            else if (includeFiles) files[nFiles++] = i;
+        }
+
+        // children: 이름 기준 정렬 (UI와 맞추기)
+        Comparator<Integer> byName = Comparator.comparing(i -> childNames[i].toLowerCase(Locale.ROOT));
+        Arrays.sort(files, 0, nFiles, byName);
+        Arrays.sort(dirs, 0, nDirs, byName);
+
+        return new Sorted(c, unbox(files, nFiles), unbox(dirs, nDirs));
+    }
+
+    private static int[] unbox(Integer[] a, int n) {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = a[i];
+        return out;
+    }
+
+    /**
+     * 경로 문자열을 이어 붙인다.
+     * Path.resolve 는 행마다 Path 를 만들고, 플랫폼 인코딩으로 표현 못 하는 이름에서는 예외가 난다.
+     */
+    private String childPath(String parent, String name) {
+        String sep = root.getFileSystem().getSeparator();
+        return parent.endsWith(sep) ? parent + name : parent + sep + name;
+    }
+
+    private static String entryName(Path p) {
+        Path fn = p.getFileName();
+        String name = (fn == null ? "" : fn.toString());
+        // 루트(C:\, /) 같은 경우
+        return name.isEmpty() ? p.toString() : name;
+    }
+
+    static String lastModified(long ms) {
+        if (ms == 0L) return "";
+        return String.format("%tF %<tT", new Date(ms));
+    }
+}
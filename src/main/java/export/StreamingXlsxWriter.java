@@ -0,0 +1,382 @@
+package export;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * POI 없이 XLSX 를 바로 쓴다.
+ * 시트 XML 을 zip 항목에 스트리밍으로 쓰고, 문자열은 공유 문자열 표 없이 inline string 으로 넣는다.
+ * 셀 객체 / 임시 파일이 없으므로 행 수와 상관없이 메모리는 버퍼 크기만큼만 쓴다.
+ * <p>
+ * 한 시트의 데이터 행이 {@link #MAX_DATA_ROWS} 에 닿으면 같은 레이아웃(열 너비 / 헤더 / 틀 고정 / 자동 필터)의
+ * 새 시트 "이름 (2)", "이름 (3)" ... 으로 넘어가고, 마지막에 시트별 범위를 적은 "Summary" 시트를 붙인다.
+ * <p>
+ * 데이터 뒤에 {@link #startExtraSheet} 로 레이아웃이 다른 시트(예: 확장자별 합계)를 붙일 수 있다 (나누지 않음, Summary 에 안 들어감).
+ * <p>
+ * 쓰는 순서: 생성(첫 시트 헤더 행까지 씀) → 행마다 {@link #startRow} / 셀들 / {@link #endRow}
+ * → (필요하면 {@link #startExtraSheet} → 행들) → {@link #close}.
+ * 한 스레드에서만 쓴다.
+ */
+final class StreamingXlsxWriter implements Closeable {
+
+    /** Excel 한 시트의 최대 행 수(1,048,576)에서 헤더 한 줄을 뺀 값. */
+    static final int MAX_DATA_ROWS = 1_048_575;
+
+    static final String SUMMARY_SHEET = "Summary";
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final int STYLE_HEADER = 1;
+    private static final int[] SUMMARY_WIDTH_CHARS = { 20, 12, 12, 12, 80, 80 };
+
+    private static final byte[] ROW_OPEN = bytes("<row r=\"");
+    private static final byte[] ROW_CLOSE = bytes("</row>");
+    private static final byte[] TAG_END = bytes("\">");
+    private static final byte[] CELL_OPEN = bytes("<c r=\"");
+    private static final byte[] STR_OPEN = bytes("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+    private static final byte[] STR_CLOSE = bytes("</t></is></c>");
+    private static final byte[] NUM_OPEN = bytes("\"><v>");
+    private static final byte[] NUM_CLOSE = bytes("</v></c>");
+    private static final byte[] HEADER_STR_OPEN = bytes("\" s=\"" + STYLE_HEADER + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+
+    /** 데이터 시트 하나의 범위 (Summary 시트용). 전역 행 번호는 1 부터, 헤더 제외. */
+    private record SheetRange(String name, long firstRow, long lastRow, String firstKey, String lastKey) {
+    }
+
+    private final ZipOutputStream zip;
+    private final Utf8ByteWriter w;
+    private final String baseSheetName;
+    private final String[] headers;
+    private final int[] colWidthChars;
+    private final int rangeColumn;
+    private final int maxDataRows;
+
+    // 시트 이름 순서대로 (Summary 포함); xl/worksheets/sheet{i+1}.xml, 자동 필터 범위(없으면 null)
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<String> filterRefs = new ArrayList<>();
+    private final List<SheetRange> ranges = new ArrayList<>();
+
+    private long rowNum = 0L;          // 현재 시트의 행 번호 (헤더 = 1)
+    private long totalDataRows = 0L;
+    private boolean dataDone = false; // startExtraSheet 이후: 행 한도 / Summary 범위를 보지 않음
+    private int col = 0;
+    private int sheetColumns = 0;
+    private String firstKey;
+    private String lastKey;
+
+    /**
+     * @param colWidthChars 문자 기준 열 너비 (headers 와 같은 길이)
+     * @param rangeColumn 시트마다 첫/마지막 값을 Summary 에 적을 열 (예: Path)
+     */
+    StreamingXlsxWriter(File outFile, String sheetName, String[] headers, int[] colWidthChars, int rangeColumn)
+            throws IOException {
+        this(outFile, sheetName, headers, colWidthChars, rangeColumn, MAX_DATA_ROWS);
+    }
+
+    /** @param maxDataRows 시트 하나의 데이터 행 수 상한 (헤더 제외) */
+    StreamingXlsxWriter(File outFile, String sheetName, String[] headers, int[] colWidthChars, int rangeColumn,
+                        int maxDataRows) throws IOException {
+        if (headers.length > 26 || colWidthChars.length != headers.length) {
+            throw new IllegalArgumentException("columns: " + headers.length);
+        }
+        if (rangeColumn < 0 || rangeColumn >= headers.length || maxDataRows < 1 || maxDataRows > MAX_DATA_ROWS) {
+            throw new IllegalArgumentException("rangeColumn=" + rangeColumn + ", maxDataRows=" + maxDataRows);
+        }
+        this.baseSheetName = sheetName;
+        this.headers = headers.clone();
+        this.colWidthChars = colWidthChars.clone();
+        this.rangeColumn = rangeColumn;
+        this.maxDataRows = maxDataRows;
+
+        this.zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(outFile), 1 << 16));
+        // 용량보다 속도: 수백만 행에서 기본 레벨 deflate 가 가장 큰 비용이다
+        zip.setLevel(Deflater.BEST_SPEED);
+        this.w = new Utf8ByteWriter(Channels.newChannel(zip));
+
+        startSheet(baseSheetName, this.headers, this.colWidthChars);
+    }
+
+    private void startSheet(String name, String[] sheetHeaders, int[] widths) throws IOException {
+        sheetNames.add(name);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+        w.write(bytes(sheetPrologue(widths)));
+
+        rowNum = 0L;
+        sheetColumns = sheetHeaders.length;
+        startRowInSheet();
+        for (String h : sheetHeaders) {
+            cellRef();
+            w.write(HEADER_STR_OPEN).xmlText(h).write(STR_CLOSE);
+        }
+        endRow();
+    }
+
+    /** 현재 시트를 닫는다. autoFilter 면 헤더~마지막 행에 자동 필터. */
+    private void finishSheet(boolean autoFilter) throws IOException {
+        String lastCol = column(sheetColumns - 1);
+        if (autoFilter) {
+            w.write(bytes("</sheetData><autoFilter ref=\"A1:" + lastCol + rowNum + "\"/></worksheet>"));
+            filterRefs.add("$A$1:$" + lastCol + "$" + rowNum);
+        } else {
+            w.write(bytes("</sheetData></worksheet>"));
+            filterRefs.add(null);
+        }
+        w.flush();
+        zip.closeEntry();
+    }
+
+    /** 데이터 시트를 닫고 Summary 에 넣을 범위를 남긴다. */
+    private void finishDataSheet() throws IOException {
+        long rows = rowNum - 1;
+        ranges.add(new SheetRange(sheetNames.get(sheetNames.size() - 1),
+                totalDataRows - rows + 1, totalDataRows, firstKey, lastKey));
+        firstKey = null;
+        lastKey = null;
+        finishSheet(true);
+    }
+
+    /** 데이터 시트(들)를 닫고 새 시트를 시작한다. 이후 행은 이 시트에 들어간다. */
+    void startExtraSheet(String name, String[] sheetHeaders, int[] widths) throws IOException {
+        if (sheetHeaders.length > 26 || widths.length != sheetHeaders.length) {
+            throw new IllegalArgumentException("columns: " + sheetHeaders.length);
+        }
+        finishCurrentSheet();
+        dataDone = true;
+        startSheet(name, sheetHeaders, widths);
+    }
+
+    private void finishCurrentSheet() throws IOException {
+        if (dataDone) finishSheet(true);
+        else finishDataSheet();
+    }
+
+    void startRow() throws IOException {
+        if (dataDone) {
+            startRowInSheet();
+            return;
+        }
+        if (rowNum - 1 >= maxDataRows) {
+            finishDataSheet();
+            startSheet(baseSheetName + " (" + (sheetNames.size() + 1) + ")", headers, colWidthChars);
+        }
+        totalDataRows++;
+        startRowInSheet();
+    }
+
+    private void startRowInSheet() throws IOException {
+        rowNum++;
+        col = 0;
+        w.write(ROW_OPEN).number(rowNum).write(TAG_END);
+    }
+
+    void endRow() throws IOException {
+        w.write(ROW_CLOSE);
+    }
+
+    void text(String s) throws IOException {
+        if (!dataDone && col == rangeColumn) {
+            if (firstKey == null) firstKey = s;
+            lastKey = s;
+        }
+        cellRef();
+        w.write(STR_OPEN).xmlText(s).write(STR_CLOSE);
+    }
+
+    void number(long v) throws IOException {
+        cellRef();
+        w.write(NUM_OPEN).number(v).write(NUM_CLOSE);
+    }
+
+    /** {@link Utils.SizeFormatUtil#human} 과 같은 문자열 셀. */
+    void humanSize(long bytes) throws IOException {
+        cellRef();
+        w.write(STR_OPEN).humanSize(bytes).write(STR_CLOSE);
+    }
+
+    /** {@link ExportTree#lastModified} 와 같은 문자열 셀 (0 이면 빈 문자열). */
+    void timestamp(long ms) throws IOException {
+        cellRef();
+        w.write(STR_OPEN).timestamp(ms).write(STR_CLOSE);
+    }
+
+    private void cellRef() throws IOException {
+        w.write(CELL_OPEN).write((byte) ('A' + col++)).number(rowNum);
+    }
+
+    private static String column(int i) {
+        return String.valueOf((char) ('A' + i));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finishCurrentSheet();
+            // 나뉜 경우에만 Summary (시트 하나면 기존과 같은 모양)
+            if (ranges.size() > 1) writeSummary();
+
+            part("[Content_Types].xml", contentTypes(sheetNames.size()));
+            part("_rels/.rels", rootRels());
+            part("xl/workbook.xml", workbook());
+            part("xl/_rels/workbook.xml.rels", workbookRels(sheetNames.size()));
+            part("xl/styles.xml", styles());
+        } finally {
+            w.close(); // zip 스트림까지 닫는다
+        }
+    }
+
+    private void writeSummary() throws IOException {
+        String key = headers[rangeColumn];
+        startSheet(SUMMARY_SHEET,
+                new String[] { "Sheet", "First Row", "Last Row", "Rows", "First " + key, "Last " + key },
+                SUMMARY_WIDTH_CHARS);
+        for (SheetRange r : ranges) {
+            startRowInSheet();
+            cellRef();
+            w.write(STR_OPEN).xmlText(r.name()).write(STR_CLOSE);
+            number(r.firstRow());
+            number(r.lastRow());
+            number(r.lastRow() - r.firstRow() + 1);
+            cellRef();
+            w.write(STR_OPEN).xmlText(r.firstKey()).write(STR_CLOSE);
+            cellRef();
+            w.write(STR_OPEN).xmlText(r.lastKey()).write(STR_CLOSE);
+            endRow();
+        }
+        finishSheet(false);
+    }
+
+    private void part(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        w.write(bytes(xml));
+        w.flush();
+        zip.closeEntry();
+    }
+
+    // ---------------------------
+    // 고정 XML 조각
+    // ---------------------------
+
+    private static final String XML_DECL = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    /** 틀 고정(1행) / 열 너비 / 기본 행 높이 후 sheetData 를 연다. */
+    private static String sheetPrologue(int[] colWidthChars) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(XML_DECL)
+                .append("<worksheet xmlns=\"").append(NS_MAIN).append("\" xmlns:r=\"").append(NS_REL).append("\">")
+                .append("<sheetViews><sheetView workbookViewId=\"0\">")
+                .append("<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>")
+                .append("<selection pane=\"bottomLeft\"/>")
+                .append("</sheetView></sheetViews>")
+                .append("<sheetFormatPr defaultRowHeight=\"18\" customHeight=\"1\"/>")
+                .append("<cols>");
+        for (int i = 0; i < colWidthChars.length; i++) {
+            sb.append("<col min=\"").append(i + 1).append("\" max=\"").append(i + 1)
+                    .append("\" width=\"").append(colWidthChars[i]).append("\" customWidth=\"1\"/>");
+        }
+        sb.append("</cols><sheetData>");
+        return sb.toString();
+    }
+
+    private static String contentTypes(int sheets) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(XML_DECL)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= sheets; i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        sb.append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                .append("</Types>");
+        return sb.toString();
+    }
+
+    private static String rootRels() {
+        return XML_DECL
+                + "<Relationships xmlns=\"" + NS_PKG_REL + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>";
+    }
+
+    private String workbook() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(XML_DECL)
+                .append("<workbook xmlns=\"").append(NS_MAIN).append("\" xmlns:r=\"").append(NS_REL).append("\">")
+                .append("<bookViews><workbookView/></bookViews><sheets>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            sb.append("<sheet name=\"").append(xmlAttr(sheetNames.get(i))).append("\" sheetId=\"").append(i + 1)
+                    .append("\" r:id=\"rId").append(i + 1).append("\"/>");
+        }
+        sb.append("</sheets><definedNames>");
+        // 시트별 자동 필터 범위 (Excel 이 필터 버튼을 이 이름으로 찾는다)
+        for (int i = 0; i < sheetNames.size(); i++) {
+            String ref = filterRefs.get(i);
+            if (ref == null) continue;
+            String quoted = "'" + sheetNames.get(i).replace("'", "''") + "'";
+            sb.append("<definedName name=\"_xlnm._FilterDatabase\" localSheetId=\"").append(i)
+                    .append("\" hidden=\"1\">").append(xmlAttr(quoted)).append('!').append(ref).append("</definedName>");
+        }
+        sb.append("</definedNames></workbook>");
+        return sb.toString();
+    }
+
+    private static String workbookRels(int sheets) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(XML_DECL).append("<Relationships xmlns=\"").append(NS_PKG_REL).append("\">");
+        for (int i = 1; i <= sheets; i++) {
+            sb.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(NS_REL)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        sb.append("<Relationship Id=\"rId").append(sheets + 1).append("\" Type=\"").append(NS_REL)
+                .append("/styles\" Target=\"styles.xml\"/>")
+                .append("</Relationships>");
+        return sb.toString();
+    }
+
+    /** 0: 기본, 1: 헤더 (굵게, 가운데 정렬, 아래 얇은 테두리). */
+    private static String styles() {
+        return XML_DECL
+                + "<styleSheet xmlns=\"" + NS_MAIN + "\">"
+                + "<fonts count=\"2\">"
+                + "<font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>"
+                + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>"
+                + "</fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"2\">"
+                + "<border><left/><right/><top/><bottom/><diagonal/></border>"
+                + "<border><left/><right/><top/><bottom style=\"thin\"><color indexed=\"64\"/></bottom><diagonal/></border>"
+                + "</borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"2\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"1\" xfId=\"0\""
+                + " applyFont=\"1\" applyBorder=\"1\" applyAlignment=\"1\">"
+                + "<alignment horizontal=\"center\" vertical=\"center\"/></xf>"
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>";
+    }
+
+    private static String xmlAttr(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
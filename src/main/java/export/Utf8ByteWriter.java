@@ -0,0 +1,369 @@
+package export;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+/**
+ * 텍스트 / 숫자 / 크기 / 시각 필드를 UTF-8 바이트로 재사용 버퍼에 바로 써서 채널로 내보낸다.
+ * CSV 행({@link CsvRecursiveExportService})과 XLSX 시트 XML({@link #xmlText}, {@link StreamingXlsxWriter})이 같이 쓴다.
+ * 행마다 String.format / DecimalFormat / String.replace 로 임시 객체를 만들지 않는다.
+ * <ul>
+ *   <li>크기 표시({@link Utils.SizeFormatUtil#human})와 시각(%tF %&lt;tT)은 같은 결과를 정수 연산으로 만든다.</li>
+ *   <li>시각은 시(hour) 단위로 "yyyy-MM-dd HH:" 를 캐시하고 분/초만 계산한다.</li>
+ *   <li>ASCII 이고 따옴표가 없는 문자열은 문자를 그대로 바이트로 쓴다.</li>
+ * </ul>
+ * 한 스레드에서만 쓴다.
+ */
+final class Utf8ByteWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long KIB = 1024L;
+    private static final byte[][] UNITS = {
+            bytes(" KB"), bytes(" MB"), bytes(" GB"), bytes(" TB")
+    };
+    private static final byte[] BYTES_SUFFIX = bytes(" B");
+    private static final byte[] LINE_SEPARATOR = bytes(System.lineSeparator());
+    private static final byte[] AMP = bytes("&amp;");
+    private static final byte[] LT = bytes("&lt;");
+    private static final byte[] GT = bytes("&gt;");
+    private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // 자리 숫자 임시 공간 (long 최대 19자리 + 부호)
+    private final byte[] digits = new byte[20];
+
+    // SizeFormatUtil 의 DecimalFormat("#,##0.0") 과 같은 기호 (기본 locale)
+    private final byte[] groupingSep;
+    private final byte[] decimalSep;
+    private final char zeroDigit;
+
+    // 시각 캐시: [offsetFrom, offsetTo) 동안의 UTC offset, 지역 시각 한 시간 동안의 "yyyy-MM-dd HH:"
+    // offset 은 String.format(%tT) 과 같은 java.util.TimeZone 값으로 (표준시 이전 LMT 는 java.time 과 다름)
+    private final TimeZone zone = TimeZone.getDefault();
+    private long offsetFrom = 0L;
+    private long offsetTo = 0L;
+    private int offsetSeconds = 0;
+    private long cachedLocalHour = Long.MIN_VALUE;
+    private final byte[] hourPrefix = new byte[14];
+
+    Utf8ByteWriter(File outFile) throws IOException {
+        this(FileChannel.open(outFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /** close() 하면 channel 도 닫는다. */
+    Utf8ByteWriter(WritableByteChannel channel) {
+        this.channel = channel;
+
+        DecimalFormatSymbols sym = new DecimalFormat("#,##0.0").getDecimalFormatSymbols();
+        this.groupingSep = bytes(String.valueOf(sym.getGroupingSeparator()));
+        this.decimalSep = bytes(String.valueOf(sym.getDecimalSeparator()));
+        this.zeroDigit = sym.getZeroDigit();
+    }
+
+    Utf8ByteWriter write(byte b) throws IOException {
+        if (!buf.hasRemaining()) drain();
+        buf.put(b);
+        return this;
+    }
+
+    Utf8ByteWriter write(byte[] b) throws IOException {
+        if (buf.remaining() < b.length) {
+            drain();
+            if (b.length > buf.capacity()) {
+                channel.write(ByteBuffer.wrap(b));
+                return this;
+            }
+        }
+        buf.put(b);
+        return this;
+    }
+
+    Utf8ByteWriter newLine() throws IOException {
+        return write(LINE_SEPARATOR);
+    }
+
+    /** s 를 UTF-8 로 쓴다. escapeQuotes 면 " 를 "" 로. */
+    Utf8ByteWriter text(String s, boolean escapeQuotes) throws IOException {
+        if (s == null) return this;
+        int n = s.length();
+
+        // fast path: ASCII 이고 (escape 할 때) 따옴표가 없으면 char 를 그대로 byte 로
+        if (n <= buf.capacity() && isPlainAscii(s, escapeQuotes)) {
+            if (buf.remaining() < n) drain();
+            for (int i = 0; i < n; i++) buf.put((byte) s.charAt(i));
+            return this;
+        }
+
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (buf.remaining() < 4) drain();
+
+            if (c == '"' && escapeQuotes) buf.put((byte) '"');
+            i = putChar(s, i);
+        }
+        return this;
+    }
+
+    /**
+     * s 를 XML 텍스트로 쓴다: &amp; &lt; &gt; 는 엔티티로, XML 에 쓸 수 없는 제어 문자는 '?' 로
+     * (POI 의 SXSSF 와 같은 처리).
+     */
+    Utf8ByteWriter xmlText(String s) throws IOException {
+        if (s == null) return this;
+        int n = s.length();
+
+        if (n <= buf.capacity() && isPlainXml(s)) {
+            if (buf.remaining() < n) drain();
+            for (int i = 0; i < n; i++) buf.put((byte) s.charAt(i));
+            return this;
+        }
+
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (buf.remaining() < 5) drain();
+
+            switch (c) {
+                case '&' -> buf.put(AMP);
+                case '<' -> buf.put(LT);
+                case '>' -> buf.put(GT);
+                default -> {
+                    if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF) {
+                        buf.put((byte) '?');
+                    } else {
+                        i = putChar(s, i);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /** s[i] 한 글자(짝이 맞는 surrogate 면 두 글자)를 UTF-8 로. 버퍼에 4바이트 이상 남아 있어야 한다. */
+    private int putChar(String s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+            buf.put((byte) c);
+        } else if (c < 0x800) {
+            buf.put((byte) (0xC0 | (c >> 6)));
+            buf.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(++i));
+            buf.put((byte) (0xF0 | (cp >> 18)));
+            buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buf.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            // 짝이 없는 surrogate: OutputStreamWriter(UTF-8) 와 같이 '?' 로
+            buf.put((byte) '?');
+        } else {
+            buf.put((byte) (0xE0 | (c >> 12)));
+            buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buf.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    private static boolean isPlainXml(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x20 || c >= 0x80 || c == '&' || c == '<' || c == '>') return false;
+        }
+        return true;
+    }
+
+    private static boolean isPlainAscii(String s, boolean escapeQuotes) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80 || (escapeQuotes && c == '"')) return false;
+        }
+        return true;
+    }
+
+    Utf8ByteWriter number(long v) throws IOException {
+        if (buf.remaining() < digits.length) drain();
+        if (v == Long.MIN_VALUE) {
+            return text(Long.toString(v), false);
+        }
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+
+        int p = digits.length;
+        do {
+            digits[--p] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        buf.put(digits, p, digits.length - p);
+        return this;
+    }
+
+    /**
+     * {@link Utils.SizeFormatUtil#human(long)} 과 같은 문자열 ("#,##0.0" + 단위, HALF_EVEN).
+     * bytes / 1024^k 를 정수로 나눠 반올림하므로 2^53 미만에서는 DecimalFormat 결과와 정확히 같다.
+     */
+    Utf8ByteWriter humanSize(long bytes) throws IOException {
+        if (bytes < KIB) {
+            number(bytes);
+            return write(BYTES_SUFFIX);
+        }
+        if (bytes >= (1L << 53)) {
+            return text(Utils.SizeFormatUtil.human(bytes), false);
+        }
+
+        int unit = 0;
+        int shift = 10;
+        while (unit < UNITS.length - 1 && (bytes >>> shift) >= KIB) {
+            unit++;
+            shift += 10;
+        }
+
+        // bytes * 10 / 2^shift 를 소수 첫째 자리까지 HALF_EVEN
+        long scaled = bytes * 10;
+        long q = scaled >>> shift;
+        long rem = scaled & ((1L << shift) - 1);
+        long half = 1L << (shift - 1);
+        if (rem > half || (rem == half && (q & 1) == 1)) q++;
+
+        groupedInteger(q / 10);
+        write(decimalSep);
+        digit((int) (q % 10));
+        return write(UNITS[unit]);
+    }
+
+    private void groupedInteger(long v) throws IOException {
+        int p = digits.length;
+        int n = 0;
+        do {
+            digits[--p] = (byte) (v % 10);
+            v /= 10;
+            n++;
+        } while (v != 0);
+
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && (n - i) % 3 == 0) write(groupingSep);
+            digit(digits[p + i]);
+        }
+    }
+
+    private void digit(int d) throws IOException {
+        if (zeroDigit == '0') {
+            write((byte) ('0' + d));
+        } else {
+            text(String.valueOf((char) (zeroDigit + d)), false);
+        }
+    }
+
+    /** String.format("%tF %&lt;tT", new Date(ms)) 과 같은 값 (기본 시간대). 0 이면 빈 값. */
+    Utf8ByteWriter timestamp(long ms) throws IOException {
+        if (ms == 0L) return this;
+
+        long sec = Math.floorDiv(ms, 1000L);
+        if (sec < offsetFrom || sec >= offsetTo) {
+            if (!cacheOffset(sec)) return text(ExportTree.lastModified(ms), false);
+        }
+
+        long local = sec + offsetSeconds;
+        long localHour = Math.floorDiv(local, 3600L);
+        if (localHour != cachedLocalHour && !cacheHourPrefix(localHour)) {
+            return text(ExportTree.lastModified(ms), false);
+        }
+
+        int secOfHour = (int) Math.floorMod(local, 3600L);
+
+        if (buf.remaining() < hourPrefix.length + 5) drain();
+        buf.put(hourPrefix);
+        twoDigits(secOfHour / 60);
+        buf.put((byte) ':');
+        twoDigits(secOfHour % 60);
+        return this;
+    }
+
+    /** sec 이 속한 UTC 한 시간 동안 offset 이 일정하면 캐시한다 (전환 시각이 끼면 false: 느린 경로). */
+    private boolean cacheOffset(long sec) {
+        long start = Math.floorDiv(sec, 3600L) * 3600L;
+        int off = zone.getOffset(start * 1000L);
+        int offEnd = zone.getOffset((start + 3599L) * 1000L);
+        if (off != offEnd || off % 1000 != 0) return false;
+
+        offsetSeconds = off / 1000;
+        offsetFrom = start;
+        offsetTo = start + 3600L;
+        return true;
+    }
+
+    /**
+     * 지역 시각 기준 "yyyy-MM-dd HH:".
+     * Date 는 1582-10-15 이전을 율리우스력으로 적으므로 그 해까지는 캐시하지 않는다 (false: 느린 경로).
+     */
+    private boolean cacheHourPrefix(long localHour) {
+        LocalDate d = LocalDate.ofEpochDay(Math.floorDiv(localHour, 24L));
+        int year = d.getYear();
+        if (year <= GREGORIAN_CUTOVER_YEAR || year > 9999) return false;
+
+        int p = put4(hourPrefix, 0, year);
+        hourPrefix[p++] = '-';
+        p = put2(hourPrefix, p, d.getMonthValue());
+        hourPrefix[p++] = '-';
+        p = put2(hourPrefix, p, d.getDayOfMonth());
+        hourPrefix[p++] = ' ';
+        p = put2(hourPrefix, p, (int) Math.floorMod(localHour, 24L));
+        hourPrefix[p] = ':';
+
+        cachedLocalHour = localHour;
+        return true;
+    }
+
+    private void twoDigits(int v) {
+        buf.put((byte) ('0' + v / 10));
+        buf.put((byte) ('0' + v % 10));
+    }
+
+    private static int put2(byte[] b, int p, int v) {
+        b[p++] = (byte) ('0' + v / 10);
+        b[p++] = (byte) ('0' + v % 10);
+        return p;
+    }
+
+    private static int put4(byte[] b, int p, int v) {
+        p = put2(b, p, v / 100);
+        return put2(b, p, v % 100);
+    }
+
+    /** 버퍼에 쌓인 바이트를 channel 로 내보낸다 (zip 항목을 바꾸기 전에 호출). */
+    void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
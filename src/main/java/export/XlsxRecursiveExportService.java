@@ -4,12 +4,13 @@ import Utils.SizeFormatUtil;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import scan.DuplicateFinder;
+import scan.ScanStats;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.function.IntConsumer;
 
@@ -27,6 +28,31 @@ public final class XlsxRecursiveExportService {
             12, 30, 8, 80, 18, 18, 22
     };
 
+    private static final String SHEET_NAME = "Folder Size";
+    private static final int COL_PATH = 3;
+
+    // 확장자별 합계 시트 (데이터 시트 뒤)
+    private static final String[] TYPE_HEADERS = {
+            "Extension", "MIME Family", "Files", "Size (bytes)", "Formatted Size"
+    };
+    private static final int[] TYPE_COL_WIDTH_CHARS = {
+            18, 14, 12, 18, 18
+    };
+    private static final String TYPE_SHEET_NAME = "File Types";
+
+    private static final String[] DUPLICATE_HEADERS = {
+            "Group", "Copies", "Path", "Size (bytes)", "Formatted Size", "Reclaimable (bytes)", "Last Modified"
+    };
+    private static final int[] DUPLICATE_COL_WIDTH_CHARS = {
+            8, 8, 80, 18, 18, 20, 22
+    };
+    private static final String DUPLICATE_SHEET_NAME = "Duplicates";
+    private static final int DUPLICATE_COL_PATH = 2;
+
+    /** 이 행 수 이하면 POI(SXSSF) 로, 넘으면 {@link StreamingXlsxWriter} 로 쓴다. */
+    static final String PROP_POI_MAX_ROWS = "spacescope.xlsx.poiMaxRows";
+    private static final int DEFAULT_POI_MAX_ROWS = 10_000;
+
     /**
      * 기본: root 하위 전체(재귀) 스캔 후 XLSX 저장.
      * @param rootDir 디렉토리 권장 (파일이면 파일 1줄만 저장)
@@ -37,47 +63,18 @@ public final class XlsxRecursiveExportService {
         Objects.requireNonNull(rootDir, "rootDir");
         Objects.requireNonNull(outFile, "outFile");
 
-        if (!Files.isDirectory(rootDir)) {
-            writeSingleFile(rootDir, outFile);
-            return;
-        }
-
-        Map<Path, Long> dirSizeMap = buildDirSizeMap(rootDir);
-
-        try (SXSSFWorkbook wb = createWorkbook();
-             FileOutputStream fos = new FileOutputStream(outFile)) {
-
-            Sheet sheet = wb.createSheet("Folder Size");
-            initSheetLayout(sheet);
-
-            CellStyle headerStyle = createHeaderStyle(wb);
-            int rowIdx = 0;
-
-            // header
-            Row header = sheet.createRow(rowIdx++);
-            for (int c = 0; c < HEADERS.length; c++) {
-                Cell cell = header.createCell(c);
-                cell.setCellValue(HEADERS[c]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // data
-            rowIdx = writeTreePreOrder(sheet, rowIdx, rootDir, 0, includeFiles, dirSizeMap, null, 0, null);
-
-            // 보기 편의
-            sheet.createFreezePane(0, 1);
-            sheet.setAutoFilter(new CellRangeAddress(0, Math.max(0, rowIdx - 1), 0, HEADERS.length - 1));
-
-            wb.write(fos);
-            wb.dispose(); // SXSSF 임시파일 정리
-        }
+        // 한 번만 훑어서 이름/크기/mtime 을 모은 뒤, 출력은 메모리에서 (pre-order)
+        write(ExportTree.scan(rootDir, includeFiles), outFile, null);
     }
 
     /**
      * 진행률 포함 Export
-     * @param totalEntries 미리 countEntries로 계산한 총 행 수(헤더 제외)
+     * @param totalEntries 쓰지 않음 (행 수는 스캔 결과에서 나옴)
      * @param onDoneEntries 현재까지 완료된 행 수 콜백(헤더 제외)
+     * @deprecated 디스크를 다시 훑는다. {@link ExportTree#scan} 후
+     *             {@link #exportWithProgress(ExportTree, File, IntConsumer)} 를 쓴다
      */
+    @Deprecated
     public static void exportWithProgress(
             Path rootDir,
             File outFile,
@@ -88,69 +85,82 @@ public final class XlsxRecursiveExportService {
         Objects.requireNonNull(rootDir, "rootDir");
         Objects.requireNonNull(outFile, "outFile");
 
-        if (!Files.isDirectory(rootDir)) {
-            writeSingleFile(rootDir, outFile);
-            if (onDoneEntries != null) onDoneEntries.accept(1);
-            return;
-        }
-
-        Map<Path, Long> dirSizeMap = buildDirSizeMap(rootDir);
-
-        final int[] done = {0};
-
-        try (SXSSFWorkbook wb = createWorkbook();
-             FileOutputStream fos = new FileOutputStream(outFile)) {
-
-            Sheet sheet = wb.createSheet("Folder Size");
-            initSheetLayout(sheet);
-
-            CellStyle headerStyle = createHeaderStyle(wb);
-            int rowIdx = 0;
+        write(ExportTree.scan(rootDir, includeFiles), outFile, onDoneEntries);
+    }
 
-            // header
-            Row header = sheet.createRow(rowIdx++);
-            for (int c = 0; c < HEADERS.length; c++) {
-                Cell cell = header.createCell(c);
-                cell.setCellValue(HEADERS[c]);
-                cell.setCellStyle(headerStyle);
-            }
+    /**
+     * 이미 모아 둔 스캔 결과로 출력만 한다 (디스크를 다시 보지 않음).
+     * 행 수는 {@link ExportTree#rowCount()} 로 미리 알 수 있다.
+     */
+    public static void exportWithProgress(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
+        Objects.requireNonNull(tree, "tree");
+        Objects.requireNonNull(outFile, "outFile");
 
-            // data with progress
-            rowIdx = writeTreePreOrder(sheet, rowIdx, rootDir, 0, includeFiles, dirSizeMap, done, totalEntries, onDoneEntries);
+        write(tree, outFile, onDoneEntries);
+    }
 
-            sheet.createFreezePane(0, 1);
-            sheet.setAutoFilter(new CellRangeAddress(0, Math.max(0, rowIdx - 1), 0, HEADERS.length - 1));
+    /**
+     * 행 수와 상관없이 {@link StreamingXlsxWriter} 로만 쓴다 (POI SXSSF 를 쓰지 않음: CLI / headless 용).
+     */
+    public static void exportStreaming(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
+        Objects.requireNonNull(tree, "tree");
+        Objects.requireNonNull(outFile, "outFile");
 
-            wb.write(fos);
-            wb.dispose();
+        long t0 = System.nanoTime();
+        try {
+            writeStreaming(tree, outFile, onDoneEntries);
+        } finally {
+            tree.stats().addPhase(ScanStats.Phase.EXPORT_WRITE, t0);
+            tree.stats().finish();
         }
     }
 
-    public static int countEntries(Path root, boolean includeFiles) throws IOException {
-        if (!Files.isDirectory(root)) return 1;
-
-        final int[] count = {1}; // root folder row
-
-        Files.walkFileTree(root, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                if (!dir.equals(root)) count[0]++;
-                return FileVisitResult.CONTINUE;
-            }
+    /**
+     * 중복 파일 찾기 결과를 XLSX 로 저장 (복사본 하나당 한 행, 묶음은 회수 가능한 크기가 큰 순).
+     * 행 수와 상관없이 {@link StreamingXlsxWriter} 로 쓴다.
+     */
+    public static void exportDuplicates(DuplicateFinder.Result result, File outFile) throws IOException {
+        exportDuplicates(result, outFile, null);
+    }
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (includeFiles && attrs.isRegularFile()) count[0]++;
-                return FileVisitResult.CONTINUE;
-            }
+    /** @param onDoneRows 현재까지 완료된 행(복사본) 수 콜백 (헤더 제외) */
+    public static void exportDuplicates(DuplicateFinder.Result result, File outFile, IntConsumer onDoneRows)
+            throws IOException {
+        Objects.requireNonNull(result, "result");
+        Objects.requireNonNull(outFile, "outFile");
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                return FileVisitResult.CONTINUE;
+        int done = 0;
+        try (StreamingXlsxWriter w = new StreamingXlsxWriter(outFile, DUPLICATE_SHEET_NAME, DUPLICATE_HEADERS,
+                DUPLICATE_COL_WIDTH_CHARS, DUPLICATE_COL_PATH)) {
+            int group = 0;
+            for (DuplicateFinder.Group g : result.groups()) {
+                group++;
+                for (DuplicateFinder.Copy c : g.copies()) {
+                    w.startRow();
+                    w.number(group);
+                    w.number(g.copies().size());
+                    w.text(c.path().toString());
+                    w.number(g.size());
+                    w.humanSize(g.size());
+                    w.number(g.reclaimableBytes());
+                    w.timestamp(c.mtime());
+                    w.endRow();
+
+                    done++;
+                    if (onDoneRows != null) onDoneRows.accept(done);
+                }
             }
-        });
+        }
+    }
 
-        return count[0];
+    /**
+     * 행 수를 알려고 전체를 한 번 훑고 결과는 버린다.
+     * @deprecated {@link ExportTree#scan} 한 결과의 {@link ExportTree#rowCount()} 를 쓰고
+     *             그 트리를 {@link #exportWithProgress(ExportTree, File, IntConsumer)} 에 넘긴다 (스캔 한 번)
+     */
+    @Deprecated
+    public static int countEntries(Path root, boolean includeFiles) throws IOException {
+        return ExportTree.scan(root, includeFiles).rowCount();
     }
 
     // ---------------------------
@@ -183,132 +193,136 @@ public final class XlsxRecursiveExportService {
         return style;
     }
 
-    private static void writeSingleFile(Path file, File outFile) throws IOException {
-        long size = 0L;
-        try { size = Files.size(file); } catch (Exception ignored) {}
+    private static int poiMaxRows() {
+        Integer v = Integer.getInteger(PROP_POI_MAX_ROWS);
+        return (v == null || v < 0) ? DEFAULT_POI_MAX_ROWS : v;
+    }
+
+    private static void write(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
+        long t0 = System.nanoTime();
+        try {
+            // POI 경로는 시트 하나에만 쓰므로 한 시트에 다 들어갈 때만
+            if (tree.rowCount() <= Math.min(poiMaxRows(), StreamingXlsxWriter.MAX_DATA_ROWS)) {
+                writePoi(tree, outFile, onDoneEntries);
+            } else {
+                writeStreaming(tree, outFile, onDoneEntries);
+            }
+        } finally {
+            tree.stats().addPhase(ScanStats.Phase.EXPORT_WRITE, t0);
+            tree.stats().finish();
+        }
+    }
 
+    /**
+     * 큰 결과: 시트 XML 을 zip 에 바로 스트리밍 (inline string, 임시 파일 없음).
+     * 레이아웃(열 너비 / 헤더 스타일 / 틀 고정 / 자동 필터)은 POI 경로와 같다.
+     * Excel 행 한도를 넘으면 시트를 나누고 Summary 시트에 시트별 범위(Path)를 적는다.
+     */
+    private static void writeStreaming(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
+        final int[] done = {0};
+
+        try (StreamingXlsxWriter w = new StreamingXlsxWriter(outFile, SHEET_NAME, HEADERS, COL_WIDTH_CHARS, COL_PATH)) {
+            tree.walk((folder, name, depth, path, bytes, mtime) -> {
+                w.startRow();
+                w.text(folder ? "Folder" : "File");
+                w.text(nvl(name));
+                w.number(depth);
+                w.text(nvl(path));
+                w.number(bytes);
+                w.humanSize(bytes);
+                w.timestamp(mtime);
+                w.endRow();
+
+                done[0]++;
+                if (onDoneEntries != null) onDoneEntries.accept(done[0]);
+            });
+
+            w.startExtraSheet(TYPE_SHEET_NAME, TYPE_HEADERS, TYPE_COL_WIDTH_CHARS);
+            tree.walkTypes((extension, family, files, bytes) -> {
+                w.startRow();
+                w.text(extension);
+                w.text(family);
+                w.number(files);
+                w.number(bytes);
+                w.humanSize(bytes);
+                w.endRow();
+            });
+        }
+    }
+
+    /** 작은 결과: POI SXSSF. */
+    private static void writePoi(ExportTree tree, File outFile, IntConsumer onDoneEntries) throws IOException {
         try (SXSSFWorkbook wb = createWorkbook();
              FileOutputStream fos = new FileOutputStream(outFile)) {
 
-            Sheet sheet = wb.createSheet("Folder Size");
+            Sheet sheet = wb.createSheet(SHEET_NAME);
             initSheetLayout(sheet);
 
             CellStyle headerStyle = createHeaderStyle(wb);
+            final int[] rowIdx = {0};
 
-            int rowIdx = 0;
-            Row header = sheet.createRow(rowIdx++);
+            // header
+            Row header = sheet.createRow(rowIdx[0]++);
             for (int c = 0; c < HEADERS.length; c++) {
                 Cell cell = header.createCell(c);
                 cell.setCellValue(HEADERS[c]);
                 cell.setCellStyle(headerStyle);
             }
 
-            Row row = sheet.createRow(rowIdx);
-            fillRow(row,
-                    "File",
-                    entryName(file),
-                    0,
-                    file.toAbsolutePath().normalize().toString(),
-                    size,
-                    SizeFormatUtil.human(size),
-                    lastModified(file)
-            );
+            // data (pre-order)
+            tree.walk((folder, name, depth, path, bytes, mtime) -> {
+                Row row = sheet.createRow(rowIdx[0]++);
+                fillRow(row,
+                        folder ? "Folder" : "File",
+                        name,
+                        depth,
+                        path,
+                        bytes,
+                        SizeFormatUtil.human(bytes),
+                        ExportTree.lastModified(mtime)
+                );
+
+                if (onDoneEntries != null) onDoneEntries.accept(rowIdx[0] - 1);
+            });
 
+            // 보기 편의
             sheet.createFreezePane(0, 1);
-            sheet.setAutoFilter(new CellRangeAddress(0, rowIdx, 0, HEADERS.length - 1));
+            sheet.setAutoFilter(new CellRangeAddress(0, Math.max(0, rowIdx[0] - 1), 0, HEADERS.length - 1));
+
+            writeTypeSheet(wb, tree, headerStyle);
 
             wb.write(fos);
-            wb.dispose();
+            wb.dispose(); // SXSSF 임시파일 정리
         }
     }
 
-    /**
-     * pre-order 출력. 반환값은 다음 rowIdx
-     */
-    private static int writeTreePreOrder(
-            Sheet sheet,
-            int rowIdx,
-            Path dir,
-            int depth,
-            boolean includeFiles,
-            Map<Path, Long> dirSizeMap,
-            int[] done,
-            int totalEntries,
-            IntConsumer onDoneEntries
-    ) {
-        long dirBytes = dirSizeMap.getOrDefault(dir, 0L);
-
-        // Folder row
-        Row row = sheet.createRow(rowIdx++);
-        fillRow(row,
-                "Folder",
-                entryName(dir),
-                depth,
-                dir.toAbsolutePath().normalize().toString(),
-                dirBytes,
-                SizeFormatUtil.human(dirBytes),
-                lastModified(dir)
-        );
-
-        if (done != null) {
-            done[0]++;
-            if (onDoneEntries != null) onDoneEntries.accept(done[0]);
+    /** 확장자별 합계 시트 (용량이 큰 순). */
+    private static void writeTypeSheet(SXSSFWorkbook wb, ExportTree tree, CellStyle headerStyle) throws IOException {
+        Sheet sheet = wb.createSheet(TYPE_SHEET_NAME);
+        for (int i = 0; i < TYPE_COL_WIDTH_CHARS.length; i++) {
+            sheet.setColumnWidth(i, TYPE_COL_WIDTH_CHARS[i] * 256);
         }
+        sheet.setDefaultRowHeightInPoints(18);
 
-        // children: 이름 기준 정렬
-        List<Path> childDirs = new ArrayList<>();
-        List<Path> childFiles = new ArrayList<>();
-
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
-            for (Path p : ds) {
-                try {
-                    if (Files.isDirectory(p)) childDirs.add(p);
-                    else if (includeFiles && Files.isRegularFile(p)) childFiles.add(p);
-                } catch (Exception ignored) {}
-            }
-        } catch (Exception ignored) {
-            return rowIdx;
+        final int[] rowIdx = {0};
+        Row header = sheet.createRow(rowIdx[0]++);
+        for (int c = 0; c < TYPE_HEADERS.length; c++) {
+            Cell cell = header.createCell(c);
+            cell.setCellValue(TYPE_HEADERS[c]);
+            cell.setCellStyle(headerStyle);
         }
 
-        Comparator<Path> byName = Comparator.comparing(p -> {
-            Path fn = p.getFileName();
-            String s = (fn == null ? p.toString() : fn.toString());
-            return s.toLowerCase(Locale.ROOT);
+        tree.walkTypes((extension, family, files, bytes) -> {
+            Row row = sheet.createRow(rowIdx[0]++);
+            row.createCell(0).setCellValue(extension);
+            row.createCell(1).setCellValue(family);
+            row.createCell(2).setCellValue((double) files);
+            row.createCell(3).setCellValue((double) bytes);
+            row.createCell(4).setCellValue(SizeFormatUtil.human(bytes));
         });
 
-        childFiles.sort(byName);
-        childDirs.sort(byName);
-
-        // files
-        if (includeFiles) {
-            for (Path f : childFiles) {
-                long sz = 0L;
-                try { sz = Files.size(f); } catch (Exception ignored) {}
-
-                Row fr = sheet.createRow(rowIdx++);
-                fillRow(fr,
-                        "File",
-                        entryName(f),
-                        depth + 1,
-                        f.toAbsolutePath().normalize().toString(),
-                        sz,
-                        SizeFormatUtil.human(sz),
-                        lastModified(f)
-                );
-
-                if (done != null) {
-                    done[0]++;
-                    if (onDoneEntries != null) onDoneEntries.accept(done[0]);
-                }
-            }
-        }
-
-        // dirs recurse
-        for (Path d : childDirs) {
-            rowIdx = writeTreePreOrder(sheet, rowIdx, d, depth + 1, includeFiles, dirSizeMap, done, totalEntries, onDoneEntries);
-        }
-
-        return rowIdx;
+        sheet.createFreezePane(0, 1);
+        sheet.setAutoFilter(new CellRangeAddress(0, Math.max(0, rowIdx[0] - 1), 0, TYPE_HEADERS.length - 1));
     }
 
     private static void fillRow(
@@ -343,77 +357,4 @@ public final class XlsxRecursiveExportService {
     private static String nvl(String s) {
         return s == null ? "" : s;
     }
-
-    private static String entryName(Path p) {
-        if (p == null) return "";
-        Path fn = p.getFileName();
-        String name = (fn == null ? "" : fn.toString());
-        if (name.isEmpty()) {
-            // 루트(C:\, /) 같은 경우
-            Path abs = p.toAbsolutePath().normalize();
-            return abs.toString();
-        }
-        return name;
-    }
-
-    private static String lastModified(Path p) {
-        try {
-            long ms = Files.getLastModifiedTime(p).toMillis();
-            Date d = new Date(ms);
-            return String.format("%tF %<tT", d);
-        } catch (Exception ignored) {
-            return "";
-        }
-    }
-
-    /**
-     * Files.walkFileTree로 후위(post)에서 디렉토리별 합계를 계산해서 Map으로 만든다.
-     * - 파일 크기는 부모 디렉토리에 더해짐
-     * - 각 디렉토리는 (하위 전체 포함) total bytes가 저장됨
-     */
-    private static Map<Path, Long> buildDirSizeMap(Path rootDir) throws IOException {
-        Map<Path, Long> dirSum = new HashMap<>();
-        Deque<Path> stack = new ArrayDeque<>();
-
-        Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                stack.push(dir);
-                dirSum.putIfAbsent(dir, 0L);
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                long sz = 0L;
-                try {
-                    if (attrs.isRegularFile()) sz = attrs.size();
-                } catch (Exception ignored) {}
-
-                Path curDir = stack.peek();
-                if (curDir != null) dirSum.put(curDir, dirSum.getOrDefault(curDir, 0L) + sz);
-
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-                long mySum = dirSum.getOrDefault(dir, 0L);
-
-                if (!stack.isEmpty() && stack.peek().equals(dir)) stack.pop();
-
-                Path parent = stack.peek();
-                if (parent != null) dirSum.put(parent, dirSum.getOrDefault(parent, 0L) + mySum);
-
-                return FileVisitResult.CONTINUE;
-            }
-        });
-
-        return dirSum;
-    }
 }
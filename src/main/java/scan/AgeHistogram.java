@@ -0,0 +1,131 @@
+package scan;
+
+import java.util.Arrays;
+
+/**
+ * 마지막 수정 시각(mtime) 나이별 용량. 스캔 중에 폴더마다 직계 파일로 만들고 하위 폴더 것과 합친다 (별도 순회 없음).
+ * 구간 경계(일)는 시스템 프로퍼티로 바꿀 수 있다 (오름차순, 기본 7일 / 30일 / 1년 → 구간 4개).
+ * <pre>
+ *   -Dspacescope.age.days=7,30,365
+ * </pre>
+ * 나이는 그 폴더를 스캔한 시각 기준이다. 파일을 보지 않고 답한 부분(스냅샷 캐시 등)은 어느 구간에도 없다:
+ * 폴더 합계에서 구간 합을 빼면 그 크기다.
+ */
+public final class AgeHistogram {
+
+    public static final String PROP_DAYS = "spacescope.age.days";
+    private static final int[] DEFAULT_DAYS = { 7, 30, 365 };
+
+    private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+
+    private static final int[] DAYS = parseDays(System.getProperty(PROP_DAYS));
+
+    /** 구간 수 (경계 수 + 1). 마지막 구간은 가장 긴 경계보다 오래된 파일. */
+    public static final int BUCKETS = DAYS.length + 1;
+
+    public static final AgeHistogram EMPTY = new AgeHistogram(new long[BUCKETS]);
+
+    private final long[] bytes;
+
+    private AgeHistogram(long[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /** 구간 경계 (일, 오름차순). 구간 i 는 경계 i 일보다 최근, 마지막 구간은 마지막 경계보다 오래됨. */
+    public static int[] boundaryDays() {
+        return DAYS.clone();
+    }
+
+    static int bucketOf(long mtime, long now) {
+        // mtime 을 모르면(0) 가장 오래된 쪽
+        long age = (mtime <= 0L) ? Long.MAX_VALUE : now - mtime;
+        for (int i = 0; i < DAYS.length; i++) {
+            if (age < DAYS[i] * DAY_MS) return i;
+        }
+        return DAYS.length;
+    }
+
+    /** 스캔 인덱스에 펼쳐 둔 값에서 다시 만든다. */
+    static AgeHistogram of(long[] src, int offset) {
+        return new AgeHistogram(Arrays.copyOfRange(src, offset, offset + BUCKETS));
+    }
+
+    void copyTo(long[] dst, int offset) {
+        System.arraycopy(bytes, 0, dst, offset, BUCKETS);
+    }
+
+    public static AgeHistogram merge(AgeHistogram a, AgeHistogram b) {
+        if (a == null || a == EMPTY) return (b == null) ? EMPTY : b;
+        if (b == null || b == EMPTY) return a;
+        long[] out = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) out[i] = a.bytes[i] + b.bytes[i];
+        return new AgeHistogram(out);
+    }
+
+    public long bytes(int bucket) {
+        return bytes[bucket];
+    }
+
+    /** 구간 합 (파일을 보고 센 용량). */
+    public long total() {
+        long sum = 0L;
+        for (long b : bytes) sum += b;
+        return sum;
+    }
+
+    /** days 일 넘게 수정되지 않은 용량. days 는 경계 중 하나여야 한다. */
+    public long olderThan(int days) {
+        return olderThanBucket(bucketAfter(days));
+    }
+
+    static long olderThan(long[] src, int offset, int fromBucket) {
+        long sum = 0L;
+        for (int i = fromBucket; i < BUCKETS; i++) sum += src[offset + i];
+        return sum;
+    }
+
+    long olderThanBucket(int fromBucket) {
+        return olderThan(bytes, 0, fromBucket);
+    }
+
+    /** 경계 days 일 다음 구간 번호. */
+    static int bucketAfter(int days) {
+        for (int i = 0; i < DAYS.length; i++) {
+            if (DAYS[i] == days) return i + 1;
+        }
+        throw new IllegalArgumentException("not an age boundary: " + days);
+    }
+
+    private static int[] parseDays(String v) {
+        if (v == null || v.isBlank()) return DEFAULT_DAYS;
+        try {
+            int[] days = Arrays.stream(v.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] <= 0 || (i > 0 && days[i] <= days[i - 1])) return DEFAULT_DAYS;
+            }
+            return (days.length == 0) ? DEFAULT_DAYS : days;
+        } catch (NumberFormatException e) {
+            return DEFAULT_DAYS;
+        }
+    }
+
+    /** 폴더 하나의 직계 파일을 모으는 임시 값 (한 스레드 전용). */
+    public static final class Builder {
+        private final long now;
+        private long[] bytes;
+
+        /** @param now 나이 기준 시각 (스캔 시작) */
+        public Builder(long now) {
+            this.now = now;
+        }
+
+        public void add(long size, long mtime) {
+            if (bytes == null) bytes = new long[BUCKETS];
+            bytes[bucketOf(mtime, now)] += size;
+        }
+
+        public AgeHistogram build() {
+            return (bytes == null) ? EMPTY : new AgeHistogram(bytes);
+        }
+    }
+}
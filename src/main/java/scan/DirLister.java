@@ -0,0 +1,134 @@
+package scan;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 엔진들이 공통으로 쓰는 "폴더 한 단계 읽기".
+ * 스냅샷 캐시가 있으면 폴더의 mtime 과 직계 항목 수만 확인하고, 그대로면 파일별 stat 없이 이전 값을 쓴다.
+ */
+final class DirLister {
+
+    private DirLister() {}
+
+    /**
+     * files 는 파일까지 모으는 스캔일 때만 채워진다 (아니면 null).
+     * types / ages 는 직계 파일의 확장자별 / 나이별 합계 (스냅샷에서 재사용한 폴더는 null: 파일을 보지 않음).
+     */
+    record Listing(long mtime, int childCount, long ownBytes, long ownFiles, List<Path> subdirs, List<FileEntry> files,
+                   TypeHistogram types, AgeHistogram ages) {
+
+        /** 직계 파일만의 합계 (하위 폴더 합계를 더해 나갈 시작 값). */
+        DirStats own() {
+            return new DirStats(ownBytes, ownFiles, types, ages);
+        }
+    }
+
+    record FileEntry(String name, long size, long mtime) {
+    }
+
+    static boolean isSymbolicLink(Path p) {
+        try {
+            return Files.isSymbolicLink(p);
+        } catch (SecurityException e) {
+            return true;
+        }
+    }
+
+    static Listing list(Path dir, ScanContext ctx) {
+        ScanStats stats = ctx.stats();
+        long t0 = System.nanoTime();
+
+        Listing listing = null;
+        ScanSnapshot snapshot = ctx.snapshot();
+        // 스냅샷에는 파일별 정보가 없으므로 파일까지 모을 때는 항상 디스크에서 읽는다
+        if (snapshot != null && !ctx.collectFiles()) {
+            ScanSnapshot.Entry prev = snapshot.find(dir);
+            if (prev != null) listing = reuse(dir, prev, snapshot, stats);
+            if (listing != null) ctx.skippedFiles();
+        }
+        if (listing == null) listing = read(dir, ctx);
+
+        stats.addPhase(ScanStats.Phase.LISTING, t0);
+        stats.addBytes(listing.ownBytes());
+        return listing;
+    }
+
+    static DirRecord toRecord(Path dir, Listing l, DirStats total) {
+        return new DirRecord(dir, l.mtime(), l.childCount(), l.ownBytes(), l.ownFiles(), total);
+    }
+
+    /**
+     * 폴더 mtime 과 직계 항목 수(이름만 읽음, stat 없음)가 스냅샷과 같으면 이전 값을 돌려준다.
+     * 파일 내용만 바뀐 경우(폴더 mtime 불변)는 감지하지 못하므로 "다시 스캔"은 스냅샷 없이 돈다.
+     */
+    private static Listing reuse(Path dir, ScanSnapshot.Entry prev, ScanSnapshot snapshot, ScanStats stats) {
+        if (!unchanged(dir, prev.mtime(), prev.childCount(), stats)) return null;
+        return new Listing(prev.mtime(), prev.childCount(), prev.ownBytes(), prev.ownFiles(), snapshot.childDirs(prev), null, null, null);
+    }
+
+    /** 폴더 mtime 과 직계 항목 수가 기록과 같은지 (읽을 수 없으면 false). 스냅샷 / 인덱스 재사용 전 확인. */
+    static boolean unchanged(Path dir, long mtime, int childCount, ScanStats stats) {
+        try {
+            if (Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).toMillis() != mtime) return false;
+            stats.addDirOpened();
+            return countEntries(dir) == childCount;
+        } catch (IOException | SecurityException | DirectoryIteratorException e) {
+            return false;
+        }
+    }
+
+    private static int countEntries(Path dir) throws IOException {
+        int n = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path ignored : ds) n++;
+        }
+        return n;
+    }
+
+    /**
+     * 직계 항목마다 속성을 한 번만 읽는다 ({@link EntryReader}: walkFileTree 가 준 속성 재사용,
+     * Windows 에서는 디렉토리 목록에 딸려 온 속성).
+     */
+    private static Listing read(Path dir, ScanContext ctx) {
+        final long[] own = {0L, 0L};
+        final int[] childCount = {0};
+        List<Path> subdirs = new ArrayList<>();
+        List<FileEntry> files = ctx.collectFiles() ? new ArrayList<>() : null;
+        TypeHistogram.Builder types = new TypeHistogram.Builder();
+        AgeHistogram.Builder ages = new AgeHistogram.Builder(ctx.startedAt());
+        ScanStats stats = ctx.stats();
+
+        long mtime = EntryReader.readDir(dir, false, stats, ctx::isCancelled, e -> {
+            childCount[0]++;
+            if (e.directory()) {
+                subdirs.add(e.path());
+            } else if (e.regularFile()) {
+                own[0] += e.size();
+                own[1]++;
+                types.add(e.name(), e.size());
+                ages.add(e.size(), e.mtime());
+                ctx.offerFile(e.path(), e.size(), e.mtime());
+                if (files != null) files.add(new FileEntry(e.name(), e.size(), e.mtime()));
+            } else if (files != null && e.symbolicLink()) {
+                // 파일을 가리키는 링크는 대상 크기로 항목에만 넣는다 (폴더 합계에는 넣지 않음)
+                EntryReader.Entry target = EntryReader.read(e.path(), true, stats);
+                if (target != null && target.regularFile()) {
+                    files.add(new FileEntry(e.name(), target.size(), target.mtime()));
+                }
+            }
+        });
+
+        if (mtime == 0L) {
+            // 열 수 없는 폴더는 preVisitDirectory 가 불리지 않는다: mtime 만이라도 읽어 둔다
+            try {
+                mtime = Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).toMillis();
+            } catch (IOException | SecurityException ignored) {
+            }
+        }
+
+        return new Listing(mtime, childCount[0], own[0], own[1], subdirs, files, types.build(), ages.build());
+    }
+}
@@ -0,0 +1,14 @@
+package scan;
+
+import java.nio.file.Path;
+
+/**
+ * 끝까지 다 본 폴더 하나의 기록. 인덱스와 스냅샷 캐시에 그대로 저장된다.
+ * @param mtime 폴더 자체의 수정 시각(ms) - 직계 항목이 추가/삭제/이름변경되면 바뀐다
+ * @param childCount 직계 항목 수 (폴더 + 파일 + 읽지 못한 항목)
+ * @param ownBytes 직계 일반 파일 용량 합
+ * @param ownFiles 직계 일반 파일 수
+ * @param total 하위 전체 합계
+ */
+public record DirRecord(Path dir, long mtime, int childCount, long ownBytes, long ownFiles, DirStats total) {
+}
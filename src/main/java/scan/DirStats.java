@@ -0,0 +1,33 @@
+package scan;
+
+/**
+ * 폴더 하나의 하위 전체 합계.
+ * @param bytes 하위 전체 일반 파일 용량 합
+ * @param files 하위 전체 일반 파일 수
+ * @param types 하위 전체 확장자별 합계 (null 이면 모름: 스냅샷 캐시 / 감시 모드로 합계만 고친 경우)
+ * @param ages 하위 전체 수정 시각 나이별 용량 (null 이면 모름, 파일을 본 부분만 들어 있을 수 있음)
+ */
+public record DirStats(long bytes, long files, TypeHistogram types, AgeHistogram ages) {
+
+    public static final DirStats EMPTY = new DirStats(0L, 0L, TypeHistogram.EMPTY, AgeHistogram.EMPTY);
+
+    /** 확장자 / 나이별 합계 없이 (합계만 아는 경우). */
+    public DirStats(long bytes, long files) {
+        this(bytes, files, null, null);
+    }
+
+    public DirStats plus(DirStats o) {
+        return new DirStats(bytes + o.bytes, files + o.files,
+                TypeHistogram.merge(typesOrUnknown(), o.typesOrUnknown()), AgeHistogram.merge(ages, o.ages));
+    }
+
+    /** 모르는 부분은 {@link TypeHistogram#UNKNOWN} 으로 (합치는 쪽의 합계가 맞게). */
+    public TypeHistogram typesOrUnknown() {
+        return (types != null) ? types : TypeHistogram.unknown(bytes, files);
+    }
+
+    /** 나이를 모르는 용량 (파일을 보지 않고 답한 부분). */
+    public long agesUnknownBytes() {
+        return Math.max(0L, bytes - ((ages == null) ? 0L : ages.total()));
+    }
+}
@@ -0,0 +1,332 @@
+package scan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * 중복 파일 찾기. 단계마다 후보를 줄여서 실제로 끝까지 읽는 파일을 최소로 한다.
+ * <ol>
+ *   <li>크기: 파일까지 모으는 스캔 결과를 크기로 묶고, 같은 크기가 둘 이상인 파일만 남긴다 (읽기 없음).</li>
+ *   <li>앞/뒤 64 KB: 처음과 마지막 64 KB 의 해시가 같은 파일만 남긴다 (128 KB 이하는 파일 전체라 여기서 확정).</li>
+ *   <li>전체: 남은 후보만 memory-mapped FileChannel 로 끝까지 해시한다.</li>
+ * </ol>
+ * 2, 3 단계는 병렬 풀에서 돈다. 읽은 바이트 수나 걸린 시간이 {@link Limits} 에 닿으면 거기서 멈추고,
+ * 확정되지 않은 묶음은 결과에서 빠진다 ({@link Result#stoppedBy()}).
+ * 같은 파일을 가리키는 하드 링크는 중복으로 세지 않는다.
+ */
+public final class DuplicateFinder {
+
+    public static final String PROP_MAX_READ_BYTES = "spacescope.dupes.maxReadBytes";
+    public static final String PROP_MAX_SECONDS = "spacescope.dupes.maxSeconds";
+
+    private static final long DEFAULT_MAX_READ_BYTES = 16L << 30;
+    private static final long DEFAULT_MAX_SECONDS = 600L;
+
+    static final int EDGE = 64 * 1024;
+    private static final long MAP_CHUNK = 64L << 20;
+
+    /** 1: 크기로 묶는 중(스캔), 2: 앞/뒤 해시, 3: 전체 해시. */
+    public static final int STAGE_SIZE = 1;
+    public static final int STAGE_EDGES = 2;
+    public static final int STAGE_FULL = 3;
+
+    public enum Stop { NONE, BYTES, TIME, CANCELLED }
+
+    /** @param maxReadBytes 2, 3 단계에서 읽을 수 있는 총 바이트 @param maxMillis 전체 작업 시간 상한 */
+    public record Limits(long maxReadBytes, long maxMillis) {
+
+        public static Limits fromSystemProperties() {
+            Long bytes = Long.getLong(PROP_MAX_READ_BYTES);
+            Long seconds = Long.getLong(PROP_MAX_SECONDS);
+            return new Limits(
+                    (bytes == null || bytes <= 0) ? DEFAULT_MAX_READ_BYTES : bytes,
+                    ((seconds == null || seconds <= 0) ? DEFAULT_MAX_SECONDS : seconds) * 1000L);
+        }
+    }
+
+    public record Copy(Path path, long mtime) {
+    }
+
+    /** 내용이 같은 파일들 (경로순). */
+    public record Group(long size, List<Copy> copies) {
+        /** 하나만 남기고 지우면 확보되는 크기. */
+        public long reclaimableBytes() {
+            return size * (copies.size() - 1);
+        }
+    }
+
+    /**
+     * @param groups 회수 가능한 크기가 큰 순
+     * @param candidates 1 단계(같은 크기)를 통과한 파일 수
+     */
+    public record Result(Path root, List<Group> groups, long candidates, long bytesRead, Stop stoppedBy) {
+        public long reclaimableBytes() {
+            long sum = 0L;
+            for (Group g : groups) sum += g.reclaimableBytes();
+            return sum;
+        }
+
+        /** 모든 묶음의 복사본 수 합 (내보내기 행 수). */
+        public int copyCount() {
+            int n = 0;
+            for (Group g : groups) n += g.copies().size();
+            return n;
+        }
+    }
+
+    private record Candidate(Path path, long size, long mtime) {
+    }
+
+    private record Hashed(Candidate file, Object fileKey, String digest) {
+    }
+
+    private final Path root;
+    private final ScanOptions options;
+    private final Limits limits;
+    private final BooleanSupplier cancelled;
+    private final ScanStats stats;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile Stop stop = Stop.NONE;
+    private long deadline;
+
+    /** @param stats 1 단계 스캔 계측 값 (null 가능) */
+    public DuplicateFinder(Path root, ScanOptions options, Limits limits, BooleanSupplier cancelled, ScanStats stats) {
+        this.root = root.toAbsolutePath().normalize();
+        this.options = (options == null) ? ScanOptions.fromSystemProperties() : options;
+        this.limits = (limits == null) ? Limits.fromSystemProperties() : limits;
+        this.cancelled = (cancelled == null) ? () -> false : cancelled;
+        this.stats = stats;
+    }
+
+    /** 지금까지 2, 3 단계에서 읽은 바이트 (진행 중에도 읽을 수 있음). */
+    public long bytesRead() {
+        return bytesRead.get();
+    }
+
+    /** @param onStage 단계가 바뀔 때마다 (작업 스레드에서) 불린다, null 가능 */
+    public Result run(IntConsumer onStage) throws InterruptedException {
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.maxMillis());
+
+        notify(onStage, STAGE_SIZE);
+        ScanTree tree = ScanEngine.scanAll(root, options, true, stats);
+        List<List<Candidate>> bySize = groupBySize(tree);
+        long candidates = 0L;
+        for (List<Candidate> g : bySize) candidates += g.size();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, options.parallelism()), r -> {
+            Thread t = new Thread(r, "duplicate-hash");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Group> groups = new ArrayList<>();
+        try {
+            notify(onStage, STAGE_EDGES);
+            List<List<Hashed>> sameEdges = hashAll(pool, bySize, false);
+
+            // 128 KB 이하는 앞/뒤 해시가 곧 전체 해시
+            List<List<Candidate>> needFull = new ArrayList<>();
+            for (List<Hashed> g : sameEdges) {
+                if (g.get(0).file().size() <= 2L * EDGE) groups.add(toGroup(g));
+                else needFull.add(files(g));
+            }
+
+            notify(onStage, STAGE_FULL);
+            for (List<Hashed> g : hashAll(pool, needFull, true)) groups.add(toGroup(g));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        groups.sort(Comparator.comparingLong(Group::reclaimableBytes).reversed());
+        return new Result(root, groups, candidates, bytesRead.get(), stop);
+    }
+
+    private static void notify(IntConsumer onStage, int stage) {
+        if (onStage != null) onStage.accept(stage);
+    }
+
+    /** 1 단계: 크기가 같은 파일이 둘 이상인 묶음 (빈 파일 제외). 크기 세기 → 후보 모으기 두 번 훑는다. */
+    private List<List<Candidate>> groupBySize(ScanTree tree) {
+        int rootNode = tree.node(root);
+        if (rootNode == ScanTree.NO_NODE) return List.of();
+
+        LongIntHashMap counts = new LongIntHashMap(1 << 12);
+        forEachFile(tree, rootNode, (node, size, mtime) -> counts.put(size, counts.get(size, 0) + 1));
+
+        Map<Long, List<Candidate>> bySize = new HashMap<>();
+        forEachFile(tree, rootNode, (node, size, mtime) -> {
+            if (counts.get(size, 0) < 2) return;
+            bySize.computeIfAbsent(size, k -> new ArrayList<>()).add(new Candidate(tree.path(node), size, mtime));
+        });
+        return new ArrayList<>(bySize.values());
+    }
+
+    @FunctionalInterface
+    private interface FileVisitor {
+        void file(int node, long size, long mtime);
+    }
+
+    private static void forEachFile(ScanTree tree, int rootNode, FileVisitor v) {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(rootNode);
+        while (!stack.isEmpty()) {
+            ScanTree.Children c = tree.childEntries(stack.pop());
+            for (int i = 0; i < c.size(); i++) {
+                if (c.directory()[i]) stack.push(c.nodes()[i]);
+                else if (c.bytes()[i] > 0L) v.file(c.nodes()[i], c.bytes()[i], c.mtime()[i]);
+            }
+        }
+    }
+
+    /**
+     * 묶음마다 파일들을 해시해서 해시가 같은 파일이 둘 이상인 하위 묶음들을 돌려준다.
+     * 같은 파일(하드 링크)은 하나만 남긴다. 상한에 닿은 뒤에는 끝난 것만 모은다.
+     */
+    private List<List<Hashed>> hashAll(ExecutorService pool, List<List<Candidate>> groups, boolean full)
+            throws InterruptedException {
+        List<List<Future<Hashed>>> futures = new ArrayList<>(groups.size());
+        for (List<Candidate> g : groups) {
+            List<Future<Hashed>> fs = new ArrayList<>(g.size());
+            for (Candidate f : g) fs.add(pool.submit(() -> hash(f, full)));
+            futures.add(fs);
+        }
+
+        List<List<Hashed>> out = new ArrayList<>();
+        for (List<Future<Hashed>> fs : futures) {
+            Map<String, List<Hashed>> byDigest = new HashMap<>();
+            for (Future<Hashed> f : fs) {
+                Hashed h;
+                try {
+                    h = f.get();
+                } catch (ExecutionException e) {
+                    continue; // 예상 못 한 오류: 그 파일만 뺀다
+                }
+                if (h != null) byDigest.computeIfAbsent(h.digest(), k -> new ArrayList<>()).add(h);
+            }
+            for (List<Hashed> same : byDigest.values()) {
+                List<Hashed> distinct = distinctFiles(same);
+                if (distinct.size() >= 2) out.add(distinct);
+            }
+        }
+        return out;
+    }
+
+    private static List<Hashed> distinctFiles(List<Hashed> same) {
+        Set<Object> seen = new HashSet<>();
+        List<Hashed> out = new ArrayList<>(same.size());
+        for (Hashed h : same) {
+            if (h.fileKey() == null || seen.add(h.fileKey())) out.add(h);
+        }
+        return out;
+    }
+
+    /** @return 읽지 못했거나, 스캔 뒤에 크기가 바뀌었거나, 상한에 닿았으면 null */
+    private Hashed hash(Candidate f, boolean full) {
+        if (!checkLimits()) return null;
+        try {
+            BasicFileAttributes a = Files.readAttributes(f.path(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!a.isRegularFile() || a.size() != f.size()) return null;
+
+            long toRead = (full || f.size() <= 2L * EDGE) ? f.size() : 2L * EDGE;
+            if (!reserve(toRead)) return null;
+
+            MessageDigest md = sha256();
+            try (FileChannel ch = FileChannel.open(f.path(), StandardOpenOption.READ)) {
+                if (full) {
+                    if (!mapped(ch, f.size(), md)) return null;
+                } else if (f.size() <= 2L * EDGE) {
+                    read(ch, 0L, (int) f.size(), md);
+                } else {
+                    read(ch, 0L, EDGE, md);
+                    read(ch, f.size() - EDGE, EDGE, md);
+                }
+            }
+            return new Hashed(f, a.fileKey(), HexFormat.of().formatHex(md.digest()));
+        } catch (IOException | SecurityException e) {
+            if (stats != null) stats.addError();
+            return null;
+        }
+    }
+
+    private static void read(FileChannel ch, long pos, int len, MessageDigest md) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) break;
+        }
+        buf.flip();
+        md.update(buf);
+    }
+
+    /** 64 MB 씩 매핑해서 해시한다 (조각 사이에서 취소/시간 상한 확인). */
+    private boolean mapped(FileChannel ch, long size, MessageDigest md) throws IOException {
+        for (long pos = 0L; pos < size; pos += MAP_CHUNK) {
+            if (!checkLimits()) return false;
+            MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_CHUNK, size - pos));
+            md.update(mb);
+        }
+        return true;
+    }
+
+    private boolean reserve(long n) {
+        while (true) {
+            long cur = bytesRead.get();
+            if (cur + n > limits.maxReadBytes()) {
+                stopBy(Stop.BYTES);
+                return false;
+            }
+            if (bytesRead.compareAndSet(cur, cur + n)) return true;
+        }
+    }
+
+    private boolean checkLimits() {
+        if (stop != Stop.NONE) return false;
+        if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+            stopBy(Stop.CANCELLED);
+            return false;
+        }
+        if (System.nanoTime() - deadline > 0L) {
+            stopBy(Stop.TIME);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void stopBy(Stop reason) {
+        if (stop == Stop.NONE) stop = reason;
+    }
+
+    private static List<Candidate> files(List<Hashed> g) {
+        List<Candidate> out = new ArrayList<>(g.size());
+        for (Hashed h : g) out.add(h.file());
+        return out;
+    }
+
+    private static Group toGroup(List<Hashed> g) {
+        List<Copy> copies = new ArrayList<>(g.size());
+        for (Hashed h : g) copies.add(new Copy(h.file().path(), h.file().mtime()));
+        copies.sort(Comparator.comparing(Copy::path));
+        return new Group(g.get(0).file().size(), copies);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
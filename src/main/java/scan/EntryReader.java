@@ -0,0 +1,111 @@
+package scan;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 항목 속성 읽기 공통 경로: 항목마다 {@link BasicFileAttributes} 를 한 번만 읽어 {@link Entry} 로 넘긴다.
+ * 폴더 목록은 maxDepth=1 walkFileTree 가 목록과 함께 준 속성을 그대로 쓰므로
+ * isDirectory / isRegularFile / size / getLastModifiedTime 을 따로 부르지 않는다
+ * (네트워크 드라이브에서는 stat 하나가 왕복 한 번).
+ */
+public final class EntryReader {
+
+    private EntryReader() {}
+
+    /**
+     * 한 번 읽은 항목 속성.
+     * @param readable false 면 속성을 읽지 못한 항목 (나머지 값은 전부 false/0)
+     * @param mtime 알 수 없으면 0
+     */
+    public record Entry(Path path, boolean readable, boolean directory, boolean regularFile, boolean symbolicLink,
+                        long size, long mtime) {
+
+        static Entry of(Path path, BasicFileAttributes a) {
+            return new Entry(path, true, a.isDirectory(), a.isRegularFile(), a.isSymbolicLink(), a.size(),
+                    a.lastModifiedTime().toMillis());
+        }
+
+        static Entry unreadable(Path path) {
+            return new Entry(path, false, false, false, false, 0L, 0L);
+        }
+
+        public String name() {
+            Path fn = path.getFileName();
+            return (fn == null) ? path.toString() : fn.toString();
+        }
+    }
+
+    /**
+     * dir 의 직계 항목을 하나씩 sink 로 넘긴다.
+     * @param followLinks true 면 심볼릭 링크는 대상 속성으로 바꿔서 넘긴다 (링크일 때만 stat 1회 추가)
+     * @param stats null 가능
+     * @return dir 의 mtime (열지 못했으면 0)
+     */
+    public static long readDir(Path dir, boolean followLinks, ScanStats stats, BooleanSupplier cancelled,
+                               Consumer<Entry> sink) {
+        final long[] mtime = {0L};
+
+        try {
+            Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) {
+                    if (stats != null) stats.addDirOpened();
+                    mtime[0] = attrs.lastModifiedTime().toMillis();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path p, BasicFileAttributes attrs) {
+                    if (cancelled.getAsBoolean()) return FileVisitResult.TERMINATE;
+
+                    if (stats != null) stats.addFilesStatted(1);
+                    Entry e = Entry.of(p, attrs);
+                    if (followLinks && e.symbolicLink()) {
+                        Entry target = read(p, true, stats);
+                        // 끊어진 링크는 링크 자체 속성으로
+                        if (target != null) e = target;
+                    }
+                    sink.accept(e);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path p, IOException exc) {
+                    if (stats != null) stats.addError();
+                    if (!p.equals(dir)) sink.accept(Entry.unreadable(p));
+                    return cancelled.getAsBoolean() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | SecurityException e) {
+            if (stats != null) stats.addError();
+        }
+        return mtime[0];
+    }
+
+    /**
+     * 항목 하나의 속성 (STAT 단계로 계측).
+     * @return 읽을 수 없으면 null
+     */
+    public static Entry read(Path p, boolean followLinks, ScanStats stats) {
+        long t0 = System.nanoTime();
+        try {
+            BasicFileAttributes a = followLinks
+                    ? Files.readAttributes(p, BasicFileAttributes.class)
+                    : Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return Entry.of(p, a);
+        } catch (IOException | SecurityException e) {
+            if (stats != null) stats.addError();
+            return null;
+        } finally {
+            if (stats != null) {
+                stats.addFilesStatted(1);
+                stats.addPhase(ScanStats.Phase.STAT, t0);
+            }
+        }
+    }
+}
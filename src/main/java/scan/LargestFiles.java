@@ -0,0 +1,82 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 스캔 중에 지나간 파일 중 가장 큰 N 개.
+ * 크기 기준 min-heap 하나만 두므로 트리 크기와 상관없이 메모리는 O(N) 이다.
+ * 엔진 worker 들이 동시에 {@link #offer} 하므로 thread-safe 하며,
+ * 힙이 찬 뒤에는 현재 최솟값 이하인 파일을 잠금 없이 걸러낸다 (대부분의 파일은 여기서 끝남).
+ * <pre>
+ *   -Dspacescope.largest.count=100
+ * </pre>
+ */
+public final class LargestFiles {
+
+    public static final String PROP_COUNT = "spacescope.largest.count";
+    private static final int DEFAULT_COUNT = 100;
+
+    public record Entry(Path path, long bytes, long mtime) {
+    }
+
+    private static final Comparator<Entry> BY_BYTES = Comparator.comparingLong(Entry::bytes);
+
+    private final int capacity;
+    private final PriorityQueue<Entry> heap;
+
+    // 힙이 찼을 때의 최솟값 (그 전에는 Long.MIN_VALUE: 전부 받음)
+    private volatile long threshold = Long.MIN_VALUE;
+    private volatile boolean partial = false;
+
+    public LargestFiles(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity: " + capacity);
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, BY_BYTES);
+    }
+
+    public static int defaultCount() {
+        Integer v = Integer.getInteger(PROP_COUNT);
+        return (v == null || v <= 0) ? DEFAULT_COUNT : Math.min(v, 100_000);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void offer(Path path, long bytes, long mtime) {
+        if (bytes <= threshold) return;
+
+        synchronized (this) {
+            if (heap.size() < capacity) {
+                heap.add(new Entry(path, bytes, mtime));
+            } else if (bytes > heap.peek().bytes()) {
+                heap.poll();
+                heap.add(new Entry(path, bytes, mtime));
+            } else {
+                return;
+            }
+            if (heap.size() == capacity) threshold = heap.peek().bytes();
+        }
+    }
+
+    /** 일부 폴더를 인덱스/스냅샷으로 답해서 그 아래 파일은 보지 못했음을 표시한다. */
+    public void markPartial() {
+        partial = true;
+    }
+
+    /** true 면 결과가 트리 전체가 아니다 (캐시 없이 다시 스캔하면 완전해짐). */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /** 큰 순서로. */
+    public synchronized List<Entry> toList() {
+        List<Entry> out = new ArrayList<>(heap);
+        out.sort(BY_BYTES.reversed());
+        return out;
+    }
+}
@@ -0,0 +1,110 @@
+package scan;
+
+import java.util.Arrays;
+
+/**
+ * 이름 문자열을 char[] 하나에 이어 붙여 중복 없이 보관하는 풀.
+ * node_modules, .git 같은 같은 이름이 수십만 번 나와도 한 번만 저장되고, String 객체도 만들지 않는다.
+ * thread-safe 하지 않음 (ScanTree 가 동기화).
+ */
+final class NamePool {
+
+    private char[] chars = new char[1 << 12];
+    private int charLen = 0;
+
+    // id -> chars 시작 위치 (id 의 끝은 starts[id + 1])
+    private int[] starts = new int[1 << 10];
+    private int count = 0;
+
+    // open addressing: slot -> id + 1 (0 = 빈 칸)
+    private int[] table = new int[1 << 11];
+
+    int intern(String s) {
+        int h = hash(s);
+        int mask = table.length - 1;
+        for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+            int v = table[slot];
+            if (v == 0) {
+                int id = append(s);
+                table[slot] = id + 1;
+                if (count * 2 > table.length) rehash();
+                return id;
+            }
+            if (equalsAt(v - 1, s)) return v - 1;
+        }
+    }
+
+    /** 없으면 -1 (풀에 추가하지 않음). */
+    int find(String s) {
+        int mask = table.length - 1;
+        for (int slot = hash(s) & mask; ; slot = (slot + 1) & mask) {
+            int v = table[slot];
+            if (v == 0) return -1;
+            if (equalsAt(v - 1, s)) return v - 1;
+        }
+    }
+
+    String get(int id) {
+        int from = starts[id];
+        return new String(chars, from, end(id) - from);
+    }
+
+    int size() {
+        return count;
+    }
+
+    long memoryBytes() {
+        return (long) chars.length * Character.BYTES + (long) starts.length * Integer.BYTES + (long) table.length * Integer.BYTES;
+    }
+
+    private int end(int id) {
+        return (id + 1 < count) ? starts[id + 1] : charLen;
+    }
+
+    private int append(String s) {
+        if (charLen + s.length() > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charLen + s.length()));
+        }
+        if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+
+        s.getChars(0, s.length(), chars, charLen);
+        starts[count] = charLen;
+        charLen += s.length();
+        return count++;
+    }
+
+    private boolean equalsAt(int id, String s) {
+        int from = starts[id];
+        int len = end(id) - from;
+        if (len != s.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (chars[from + i] != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] t = new int[table.length * 2];
+        int mask = t.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hashAt(id) & mask;
+            while (t[slot] != 0) slot = (slot + 1) & mask;
+            t[slot] = id + 1;
+        }
+        table = t;
+    }
+
+    private int hashAt(int id) {
+        int h = 0;
+        for (int i = starts[id], e = end(id); i < e; i++) h = 31 * h + chars[i];
+        return mix(h);
+    }
+
+    private static int hash(String s) {
+        return mix(s.hashCode());
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,88 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ForkJoinPool(work-stealing) 기반 병렬 엔진.
+ * 폴더 하나가 task 하나이고, 하위 폴더는 fork 되어 놀고 있는 worker 가 가져간다.
+ * 그래서 형제 폴더들은 물론 한 폴더 안의 깊은 하위 트리도 동시에 계산된다.
+ */
+final class ParallelScanEngine implements ScanEngine {
+
+    private final ForkJoinPool pool;
+
+    ParallelScanEngine(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @Override
+    public void scanDirs(List<Path> dirs, ScanContext ctx, DirResultListener listener) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(dirs.size());
+
+        for (Path d : dirs) {
+            futures.add(pool.submit(() -> {
+                if (ctx.isCancelled()) return;
+
+                // walkFileTree 와 동일하게 심볼릭 링크는 따라가지 않는다
+                DirStats stats = DirLister.isSymbolicLink(d) ? DirStats.EMPTY : new DirSizeTask(d, ctx).invoke();
+                if (ctx.isCancelled()) return;
+
+                listener.onDirDone(d, stats);
+            }));
+        }
+
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException ie) {
+            pool.shutdownNow();
+            throw ie;
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static final class DirSizeTask extends RecursiveTask<DirStats> {
+        private final Path dir;
+        private final ScanContext ctx;
+
+        DirSizeTask(Path dir, ScanContext ctx) {
+            this.dir = dir;
+            this.ctx = ctx;
+        }
+
+        @Override
+        protected DirStats compute() {
+            if (ctx.isCancelled()) return DirStats.EMPTY;
+
+            DirLister.Listing listing = DirLister.list(dir, ctx);
+            ctx.addScannedFiles(listing.ownFiles());
+
+            List<DirSizeTask> subTasks = new ArrayList<>(listing.subdirs().size());
+            for (Path sub : listing.subdirs()) {
+                DirSizeTask task = new DirSizeTask(sub, ctx);
+                task.fork();
+                subTasks.add(task);
+            }
+
+            DirStats total = listing.own();
+            for (DirSizeTask t : subTasks) total = total.plus(t.join());
+
+            ctx.recordDir(dir, listing, total);
+            return total;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 한 번의 스캔 동안 엔진들이 공유하는 상태 (취소 여부, 파일 카운터, 합계 인덱스, 이전 스냅샷, 계측 값).
+ * 병렬 엔진의 여러 worker 가 동시에 접근하므로 thread-safe 해야 한다.
+ */
+public final class ScanContext {
+
+    private final BooleanSupplier cancelled;
+    private final ScanTree index;
+    private final ScanSnapshot snapshot;
+    private final boolean collectFiles;
+    private final ScanStats stats;
+    private final LargestFiles largestFiles;
+    private final LongAdder scannedFiles = new LongAdder();
+    private final long startedAt = System.currentTimeMillis();
+
+    private ScanContext(Builder b) {
+        this.cancelled = (b.cancelled == null) ? () -> false : b.cancelled;
+        this.index = b.index;
+        this.snapshot = b.snapshot;
+        this.collectFiles = b.collectFiles && b.index != null;
+        this.stats = (b.stats == null) ? new ScanStats() : b.stats;
+        this.largestFiles = b.largestFiles;
+    }
+
+    /** @param cancelled 취소 여부 (null 이면 취소 없음). 나머지는 기본값(쓰지 않음)에서 필요한 것만 지정한다. */
+    public static Builder builder(BooleanSupplier cancelled) {
+        return new Builder(cancelled);
+    }
+
+    /** {@link ScanContext} 설정. 한 번 만들고 {@link #build()} 한다. */
+    public static final class Builder {
+        private final BooleanSupplier cancelled;
+        private ScanTree index;
+        private ScanSnapshot snapshot;
+        private boolean collectFiles;
+        private ScanStats stats;
+        private LargestFiles largestFiles;
+
+        private Builder(BooleanSupplier cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        /** 끝까지 다 본 폴더의 기록을 남길 인덱스 (null 이면 기록 안 함). */
+        public Builder index(ScanTree index) {
+            this.index = index;
+            return this;
+        }
+
+        /** mtime/항목 수가 같으면 재사용할 이전 스캔 결과 (null 이면 전부 디스크에서 읽음). */
+        public Builder snapshot(ScanSnapshot snapshot) {
+            this.snapshot = snapshot;
+            return this;
+        }
+
+        /** 폴더 합계뿐 아니라 파일마다 이름/크기/mtime 도 index 에 남길지 (내보내기용, index 가 있을 때만). */
+        public Builder collectFiles(boolean collectFiles) {
+            this.collectFiles = collectFiles;
+            return this;
+        }
+
+        /** 계측 값을 모을 곳 (null 이면 새로 만듦). 내보내기처럼 스캔 뒤 단계까지 같이 잴 때 넘긴다. */
+        public Builder stats(ScanStats stats) {
+            this.stats = stats;
+            return this;
+        }
+
+        /** 지나가는 파일 중 가장 큰 N 개를 모을 곳 (null 이면 모으지 않음). */
+        public Builder largestFiles(LargestFiles largestFiles) {
+            this.largestFiles = largestFiles;
+            return this;
+        }
+
+        public ScanContext build() {
+            return new ScanContext(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getAsBoolean() || Thread.currentThread().isInterrupted();
+    }
+
+    public void addScannedFile() {
+        scannedFiles.increment();
+    }
+
+    public void addScannedFiles(long n) {
+        scannedFiles.add(n);
+    }
+
+    /** 취소되지 않은 경우에만 기록한다 (중간에 끊긴 합계는 틀린 값이므로). */
+    public void recordDir(DirRecord record) {
+        if (index == null || isCancelled()) return;
+        index.put(record);
+    }
+
+    /** 엔진용: 폴더 기록과 (모으는 중이면) 직계 파일들을 함께 남긴다. */
+    void recordDir(Path dir, DirLister.Listing listing, DirStats total) {
+        if (index == null || isCancelled()) return;
+
+        long t0 = System.nanoTime();
+        index.put(DirLister.toRecord(dir, listing, total), listing.files());
+        stats.addPhase(ScanStats.Phase.AGGREGATION, t0);
+    }
+
+    /** 엔진용: 목록에서 읽은 일반 파일 하나. */
+    void offerFile(Path file, long bytes, long mtime) {
+        if (largestFiles != null) largestFiles.offer(file, bytes, mtime);
+    }
+
+    /** dir 아래를 디스크에서 읽지 않고 답했음 (인덱스 / 스냅샷): 가장 큰 파일 목록이 불완전해진다. */
+    public void skippedFiles() {
+        if (largestFiles != null) largestFiles.markPartial();
+    }
+
+    /** 스캔 시작 시각 (파일 나이 기준). */
+    public long startedAt() {
+        return startedAt;
+    }
+
+    public LargestFiles largestFiles() {
+        return largestFiles;
+    }
+
+    /**
+     * 인덱스에 있는 dir 하위 전체 합계. 스냅샷과 같이 dir 의 mtime / 직계 항목 수를 먼저 확인하고,
+     * 다르면 기록을 버리고(상위 합계 포함) null 을 돌려준다.
+     * 더 깊은 곳만 바뀐 경우는 dir 에서 보이지 않으므로 감시 모드나 "다시 스캔"으로 맞춘다.
+     */
+    public DirStats indexed(Path dir) {
+        if (index == null) return null;
+        DirRecord r = index.get(dir);
+        if (r == null) return null;
+        if (!DirLister.unchanged(dir, r.mtime(), r.childCount(), stats)) {
+            index.invalidate(dir);
+            return null;
+        }
+        return r.total();
+    }
+
+    ScanSnapshot snapshot() {
+        return snapshot;
+    }
+
+    boolean collectFiles() {
+        return collectFiles;
+    }
+
+    public ScanStats stats() {
+        return stats;
+    }
+
+    public long scannedFiles() {
+        return scannedFiles.sum();
+    }
+}
@@ -0,0 +1,56 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 폴더들의 하위 전체 용량을 계산하는 엔진.
+ * 구현체는 {@link #create(ScanOptions)} 로 얻는다.
+ */
+public interface ScanEngine extends AutoCloseable {
+
+    @FunctionalInterface
+    interface DirResultListener {
+        /** 병렬 엔진에서는 worker 스레드에서 호출될 수 있다. */
+        void onDirDone(Path dir, DirStats stats);
+    }
+
+    /**
+     * dirs 각각의 하위 전체 용량을 계산한다.
+     * 계산이 끝난 폴더부터 listener 로 알리며, 취소되면 남은 폴더는 알리지 않고 돌아온다.
+     * 지나간 모든 하위 폴더의 합계는 {@link ScanContext#recordDir} 로 기록된다.
+     */
+    void scanDirs(List<Path> dirs, ScanContext ctx, DirResultListener listener) throws InterruptedException;
+
+    @Override
+    void close();
+
+    /**
+     * root 하위 전체를 한 번만 훑어 새 {@link ScanTree} 로 돌려준다 (UI 인덱스와는 별개).
+     * 내보내기처럼 전체 항목이 한 번에 필요할 때 쓰며, includeFiles 면 파일 노드(이름/크기/mtime)도 담는다.
+     * @param stats 계측 값을 모을 곳 (null 가능)
+     */
+    static ScanTree scanAll(Path root, ScanOptions options, boolean includeFiles, ScanStats stats)
+            throws InterruptedException {
+        ScanTree tree = new ScanTree();
+        try (ScanEngine engine = create(options)) {
+            ScanContext ctx = ScanContext.builder(null).index(tree).collectFiles(includeFiles).stats(stats).build();
+            engine.scanDirs(List.of(root), ctx, (d, s) -> {});
+        }
+        return tree;
+    }
+
+    /** 가상 스레드 모드는 java21 프로파일로 빌드했을 때만 쓸 수 있다. 쓸 수 없는 모드는 병렬로 대신한다. */
+    static ScanEngine create(ScanOptions options) {
+        ScanOptions o = (options == null) ? ScanOptions.fromSystemProperties() : options;
+        return switch (o.mode()) {
+            case SEQUENTIAL -> new SequentialScanEngine();
+            case PARALLEL -> new ParallelScanEngine(o.parallelism());
+            case VIRTUAL -> VirtualThreads.newEngine(o);
+        };
+    }
+
+    static boolean isAvailable(ScanMode mode) {
+        return mode != ScanMode.VIRTUAL || VirtualThreads.isSupported();
+    }
+}
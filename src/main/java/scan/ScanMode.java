@@ -0,0 +1,13 @@
+package scan;
+
+/**
+ * 하위 폴더 용량 계산 방식.
+ */
+public enum ScanMode {
+    /** 기존 방식: 하위 폴더를 하나씩 순서대로 walkFileTree */
+    SEQUENTIAL,
+    /** ForkJoinPool(work-stealing) 으로 여러 폴더를 동시에 계산 */
+    PARALLEL,
+    /** 폴더마다 가상 스레드 하나 (NFS/SMB 등 지연이 긴 경우). java21 프로파일 빌드에서만 사용 가능 */
+    VIRTUAL
+}
@@ -0,0 +1,87 @@
+package scan;
+
+import java.util.Locale;
+
+/**
+ * 스캔 엔진 설정.
+ * 기본값은 시스템 프로퍼티로 바꿀 수 있다.
+ * <pre>
+ *   -Dspacescope.scan.mode=sequential|parallel|virtual   (기본 parallel)
+ *   -Dspacescope.scan.parallelism=8
+ *   -Dspacescope.scan.maxOpenDirs=256
+ *   -Dspacescope.scan.cache=false
+ *   -Dspacescope.scan.watch=true
+ * </pre>
+ * @param maxOpenDirs 가상 스레드 모드에서 동시에 열어 둘 수 있는 폴더 수 (서버로 나가는 메타데이터 요청 상한)
+ * @param snapshotCache 이전 스캔 스냅샷을 검증 후 재사용하고, 끝나면 새 스냅샷을 저장할지
+ * @param watch 스캔이 끝난 트리를 WatchService 로 감시해 변경분만 반영할지
+ */
+public record ScanOptions(ScanMode mode, int parallelism, int maxOpenDirs, boolean snapshotCache, boolean watch) {
+
+    public static final String PROP_MODE = "spacescope.scan.mode";
+    public static final String PROP_PARALLELISM = "spacescope.scan.parallelism";
+    public static final String PROP_MAX_OPEN_DIRS = "spacescope.scan.maxOpenDirs";
+    public static final String PROP_CACHE = "spacescope.scan.cache";
+    public static final String PROP_WATCH = "spacescope.scan.watch";
+
+    private static final int DEFAULT_MAX_OPEN_DIRS = 256;
+
+    public ScanOptions {
+        if (mode == null) mode = ScanMode.PARALLEL;
+        if (parallelism <= 0) parallelism = defaultParallelism();
+        if (maxOpenDirs <= 0) maxOpenDirs = DEFAULT_MAX_OPEN_DIRS;
+    }
+
+    public static ScanOptions fromSystemProperties() {
+        ScanMode mode = ScanMode.PARALLEL;
+        String m = System.getProperty(PROP_MODE);
+        if (m != null) {
+            try {
+                mode = ScanMode.valueOf(m.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        int parallelism = intProperty(PROP_PARALLELISM);
+        int maxOpenDirs = intProperty(PROP_MAX_OPEN_DIRS);
+
+        boolean cache = !"false".equalsIgnoreCase(System.getProperty(PROP_CACHE, "true").trim());
+        boolean watch = Boolean.parseBoolean(System.getProperty(PROP_WATCH, "false").trim());
+
+        return new ScanOptions(mode, parallelism, maxOpenDirs, cache, watch);
+    }
+
+    public ScanOptions withMode(ScanMode newMode) {
+        return new ScanOptions(newMode, parallelism, maxOpenDirs, snapshotCache, watch);
+    }
+
+    public ScanOptions withParallelism(int newParallelism) {
+        return new ScanOptions(mode, newParallelism, maxOpenDirs, snapshotCache, watch);
+    }
+
+    public ScanOptions withMaxOpenDirs(int newMaxOpenDirs) {
+        return new ScanOptions(mode, parallelism, newMaxOpenDirs, snapshotCache, watch);
+    }
+
+    public ScanOptions withSnapshotCache(boolean enabled) {
+        return new ScanOptions(mode, parallelism, maxOpenDirs, enabled, watch);
+    }
+
+    public ScanOptions withWatch(boolean enabled) {
+        return new ScanOptions(mode, parallelism, maxOpenDirs, snapshotCache, enabled);
+    }
+
+    private static int intProperty(String key) {
+        String v = System.getProperty(key);
+        if (v == null) return 0;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int defaultParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+}
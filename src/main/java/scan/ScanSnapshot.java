@@ -0,0 +1,308 @@
+package scan;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 디스크에 저장된 스캔 결과(폴더별 기록)를 memory-mapped 로 읽는 스냅샷.
+ * 열 때 파싱을 하지 않으므로 수백만 폴더여도 바로 열리고, 조회는 경로 이진 탐색이다.
+ *
+ * <pre>
+ * [header 32B] magic, version, generation, count, childRefCount, pathPoolBytes
+ * [record 64B x count]  경로(UTF-8 바이트) 오름차순
+ *     pathOff, pathLen, childCount, mtime, ownBytes, ownFiles, totalBytes, totalFiles, childRefOff, childRefLen
+ * [int x childRefCount] 하위 폴더 record 번호
+ * [path pool]
+ * </pre>
+ * 읽기는 전부 절대 위치 get 이라 여러 스레드가 동시에 조회해도 안전하다.
+ */
+public final class ScanSnapshot {
+
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 64;
+
+    private final MappedByteBuffer buf;
+    private final long generation;
+    private final int count;
+    private final int childRefBase;
+    private final int pathPoolBase;
+
+    /** 조회 결과. index 는 스냅샷 안의 record 번호. */
+    public record Entry(int index, long mtime, int childCount, long ownBytes, long ownFiles,
+                        long totalBytes, long totalFiles) {
+    }
+
+    /** 쓰기/병합용 한 줄. key 는 정규화한 절대 경로의 UTF-8 바이트 (정렬과 이진 탐색 기준). */
+    record Row(byte[] key, long mtime, int childCount, long ownBytes, long ownFiles, long totalBytes, long totalFiles) {
+
+        static Row of(DirRecord r) {
+            return new Row(keyBytes(r.dir()), r.mtime(), r.childCount(), r.ownBytes(), r.ownFiles(),
+                    r.total().bytes(), r.total().files());
+        }
+    }
+
+    static final Comparator<Row> BY_KEY = (a, b) -> Arrays.compareUnsigned(a.key(), b.key());
+
+    private static final byte SEPARATOR = (byte) File.separatorChar;
+
+    private ScanSnapshot(MappedByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("Not a scan snapshot");
+        }
+        this.generation = buf.getLong(8);
+        this.count = buf.getInt(16);
+        int childRefCount = buf.getInt(20);
+        long pathPoolBytes = buf.getLong(24);
+
+        if (count < 0 || count > (buf.capacity() - HEADER_BYTES) / RECORD_BYTES) {
+            throw new IOException("Corrupted scan snapshot");
+        }
+        long refBase = HEADER_BYTES + (long) count * RECORD_BYTES;
+        long poolBase = refBase + (long) childRefCount * Integer.BYTES;
+        if (childRefCount < 0 || poolBase + pathPoolBytes != buf.capacity()) {
+            throw new IOException("Corrupted scan snapshot");
+        }
+        this.childRefBase = (int) refBase;
+        this.pathPoolBase = (int) poolBase;
+    }
+
+    public static ScanSnapshot open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 매핑은 채널을 닫아도 유지된다
+            return new ScanSnapshot(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Entry find(Path dir) {
+        if (dir == null || count == 0) return null;
+        byte[] key = keyBytes(dir);
+
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = comparePath(mid, key);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return entry(mid);
+        }
+        return null;
+    }
+
+    public List<Path> childDirs(Entry e) {
+        int rec = recordPos(e.index());
+        int off = buf.getInt(rec + 52);
+        int len = buf.getInt(rec + 56);
+
+        List<Path> out = new ArrayList<>(len);
+        for (int i = 0; i < len; i++) {
+            int child = buf.getInt(childRefBase + (off + i) * Integer.BYTES);
+            out.add(Path.of(pathString(child)));
+        }
+        return out;
+    }
+
+    /** 전체 기록을 순서대로 돌려준다 (병합 저장용). */
+    public void forEach(Consumer<DirRecord> consumer) {
+        for (int i = 0; i < count; i++) {
+            Entry e = entry(i);
+            consumer.accept(new DirRecord(
+                    Path.of(pathString(i)), e.mtime(), e.childCount(), e.ownBytes(), e.ownFiles(),
+                    new DirStats(e.totalBytes(), e.totalFiles())
+            ));
+        }
+    }
+
+    /** record 번호 i 를 Path 없이 읽는다 (병합 저장용). */
+    Row row(int i) {
+        int rec = recordPos(i);
+        byte[] key = new byte[buf.getInt(rec + 4)];
+        buf.get(pathPoolBase + buf.getInt(rec), key);
+        return new Row(key, buf.getLong(rec + 12), buf.getInt(rec + 8), buf.getLong(rec + 20),
+                buf.getLong(rec + 28), buf.getLong(rec + 36), buf.getLong(rec + 44));
+    }
+
+    private Entry entry(int i) {
+        int rec = recordPos(i);
+        return new Entry(
+                i,
+                buf.getLong(rec + 12),
+                buf.getInt(rec + 8),
+                buf.getLong(rec + 20),
+                buf.getLong(rec + 28),
+                buf.getLong(rec + 36),
+                buf.getLong(rec + 44)
+        );
+    }
+
+    private static int recordPos(int i) {
+        return HEADER_BYTES + i * RECORD_BYTES;
+    }
+
+    private String pathString(int i) {
+        int rec = recordPos(i);
+        byte[] b = new byte[buf.getInt(rec + 4)];
+        buf.get(pathPoolBase + buf.getInt(rec), b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private int comparePath(int i, byte[] key) {
+        int rec = recordPos(i);
+        int off = pathPoolBase + buf.getInt(rec);
+        int len = buf.getInt(rec + 4);
+
+        int n = Math.min(len, key.length);
+        for (int k = 0; k < n; k++) {
+            int c = Byte.compareUnsigned(buf.get(off + k), key[k]);
+            if (c != 0) return c;
+        }
+        return Integer.compare(len, key.length);
+    }
+
+    static byte[] keyBytes(Path p) {
+        return p.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * records 를 새 스냅샷 파일로 쓴다. 같은 경로가 여러 번 오면 뒤의 것이 남는다.
+     */
+    public static void write(Path file, long generation, Collection<DirRecord> records) throws IOException {
+        writeSorted(file, generation, sortedRows(records));
+    }
+
+    /** records 를 경로 바이트 오름차순으로 (같은 경로는 뒤의 것만). */
+    static List<Row> sortedRows(Collection<DirRecord> records) {
+        List<Row> rows = new ArrayList<>(records.size());
+        for (DirRecord r : records) rows.add(Row.of(r));
+        rows.sort(BY_KEY); // 안정 정렬: 같은 경로는 들어온 순서대로 붙어 있다
+
+        List<Row> unique = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            int last = unique.size() - 1;
+            if (last >= 0 && Arrays.equals(unique.get(last).key(), r.key())) unique.set(last, r);
+            else unique.add(r);
+        }
+        return unique;
+    }
+
+    /**
+     * 경로 바이트 오름차순으로 정렬된(중복 없는) rows 를 새 스냅샷 파일로 쓴다.
+     * 부모 record 는 정렬된 rows 안에서 이진 탐색으로 찾는다 (경로 객체 / 해시 없음).
+     */
+    static void writeSorted(Path file, long generation, List<Row> rows) throws IOException {
+        int n = rows.size();
+
+        // 부모 record 에 하위 폴더 번호 연결 (부모마다 번호 오름차순)
+        int[] parentOf = new int[n];
+        int[] childLen = new int[n];
+        int childRefCount = 0;
+        for (int i = 0; i < n; i++) {
+            int p = parentIndex(rows, rows.get(i).key());
+            parentOf[i] = p;
+            if (p < 0) continue;
+            childLen[p]++;
+            childRefCount++;
+        }
+        int[] childStart = new int[n];
+        for (int i = 1; i < n; i++) childStart[i] = childStart[i - 1] + childLen[i - 1];
+        int[] childRefs = new int[childRefCount];
+        int[] filled = new int[n];
+        for (int i = 0; i < n; i++) {
+            int p = parentOf[i];
+            if (p >= 0) childRefs[childStart[p] + filled[p]++] = i;
+        }
+
+        long poolBytes = 0L;
+        for (Row r : rows) poolBytes += r.key().length;
+        if (HEADER_BYTES + (long) n * RECORD_BYTES + (long) childRefCount * Integer.BYTES + poolBytes > Integer.MAX_VALUE) {
+            throw new IOException("Scan snapshot too large");
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(n);
+            out.writeInt(childRefCount);
+            out.writeLong(poolBytes);
+
+            int pathOff = 0;
+            for (int i = 0; i < n; i++) {
+                Row r = rows.get(i);
+
+                out.writeInt(pathOff);
+                out.writeInt(r.key().length);
+                out.writeInt(r.childCount());
+                out.writeLong(r.mtime());
+                out.writeLong(r.ownBytes());
+                out.writeLong(r.ownFiles());
+                out.writeLong(r.totalBytes());
+                out.writeLong(r.totalFiles());
+                out.writeInt(childStart[i]);
+                out.writeInt(childLen[i]);
+                out.writeInt(0); // reserved
+
+                pathOff += r.key().length;
+            }
+
+            for (int c : childRefs) out.writeInt(c);
+
+            for (Row r : rows) out.write(r.key());
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * key 의 부모 경로가 rows 에 있으면 그 번호, 없으면 -1.
+     * 마지막 구분자 앞까지("/a/b" -> "/a")가 없으면 구분자까지 붙인 루트("/a" -> "/", UNC 공유 루트)를 찾는다.
+     */
+    private static int parentIndex(List<Row> rows, byte[] key) {
+        int sep = key.length - 1;
+        while (sep >= 0 && key[sep] != SEPARATOR) sep--;
+        if (sep < 0 || sep == key.length - 1) return -1; // 파일시스템 루트
+
+        int p = (sep > 0) ? find(rows, key, sep) : -1;
+        return (p >= 0) ? p : find(rows, key, sep + 1);
+    }
+
+    /** rows 에서 key[0, len) 과 같은 경로의 번호 (없으면 -1). */
+    private static int find(List<Row> rows, byte[] key, int len) {
+        int lo = 0, hi = rows.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            byte[] k = rows.get(mid).key();
+            int c = Arrays.compareUnsigned(k, 0, k.length, key, 0, len);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /** key 가 root 자신이거나 그 하위 경로인지 (Path.startsWith 와 같은 기준, 바이트로). */
+    static boolean isUnder(byte[] key, byte[] root) {
+        if (key.length < root.length || Arrays.compare(key, 0, root.length, root, 0, root.length) != 0) return false;
+        return key.length == root.length || root[root.length - 1] == SEPARATOR || key[root.length] == SEPARATOR;
+    }
+}
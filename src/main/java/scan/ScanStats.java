@@ -0,0 +1,133 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 스캔/내보내기 한 번의 계측 값 (카운터 + 단계별 시간).
+ * 여러 worker 가 동시에 더하므로 전부 LongAdder 이고, 단계 시간은 스레드들의 합계다
+ * (병렬 스캔이면 경과 시간보다 클 수 있음).
+ * 진행 중에도 {@link #snapshot()} 으로 읽을 수 있어 하단 바 실시간 표시에 쓰고,
+ * 끝나면 {@link #log(String, Path)} 로 한 줄 JSON 을 남긴다.
+ */
+public final class ScanStats {
+
+    public enum Phase {
+        /** 폴더 열기 + 항목 목록 (walkFileTree 가 항목 속성도 함께 읽음) */
+        LISTING,
+        /** 목록과 별도로 하는 stat (선택한 폴더의 직계 파일, 링크 대상 등) */
+        STAT,
+        /** 하위 합계 누적 + 인덱스 기록 */
+        AGGREGATION,
+        /** EDT 에서 부분 결과를 화면에 반영 */
+        UI_PUBLISH,
+        /** 내보내기 행 출력 */
+        EXPORT_WRITE
+    }
+
+    private static final System.Logger LOG = System.getLogger("spacescope.stats");
+
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos = 0L;
+
+    private final LongAdder dirsOpened = new LongAdder();
+    private final LongAdder filesStatted = new LongAdder();
+    private final LongAdder bytesAccounted = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+
+    public ScanStats() {
+        for (int i = 0; i < phaseNanos.length; i++) phaseNanos[i] = new LongAdder();
+    }
+
+    public void addDirOpened() {
+        dirsOpened.increment();
+    }
+
+    public void addFilesStatted(long n) {
+        filesStatted.add(n);
+    }
+
+    public void addBytes(long n) {
+        bytesAccounted.add(n);
+    }
+
+    public void addError() {
+        errors.increment();
+    }
+
+    /** start 는 System.nanoTime() 값. */
+    public void addPhase(Phase phase, long start) {
+        phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+    }
+
+    /** 경과 시간을 여기서 멈춘다 (이후 snapshot 의 초당 처리량 기준). */
+    public void finish() {
+        if (endNanos == 0L) endNanos = System.nanoTime();
+    }
+
+    public Snapshot snapshot() {
+        long end = (endNanos == 0L) ? System.nanoTime() : endNanos;
+
+        long[] phases = new long[phaseNanos.length];
+        for (int i = 0; i < phases.length; i++) phases[i] = phaseNanos[i].sum();
+
+        return new Snapshot(end - startNanos, dirsOpened.sum(), filesStatted.sum(), bytesAccounted.sum(),
+                errors.sum(), phases);
+    }
+
+    /** kind: "scan", "export" 등. 한 줄 JSON 으로 INFO 로그를 남긴다. */
+    public void log(String kind, Path root) {
+        LOG.log(System.Logger.Level.INFO, snapshot().toJson(kind, root));
+    }
+
+    public record Snapshot(long elapsedNanos, long dirsOpened, long filesStatted, long bytesAccounted, long errors,
+                           long[] phaseNanos) {
+
+        public long phaseNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        /** 초당 항목 수 (열어 본 폴더 + stat 한 항목). */
+        public double entriesPerSecond() {
+            if (elapsedNanos <= 0L) return 0.0;
+            return (dirsOpened + filesStatted) * 1e9 / elapsedNanos;
+        }
+
+        public String toJson(String kind, Path root) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"kind\":\"").append(escape(kind)).append('"');
+            sb.append(",\"root\":\"").append(escape(root == null ? "" : root.toString())).append('"');
+            sb.append(",\"elapsedMs\":").append(elapsedNanos / 1_000_000L);
+            sb.append(",\"dirsOpened\":").append(dirsOpened);
+            sb.append(",\"filesStatted\":").append(filesStatted);
+            sb.append(",\"bytes\":").append(bytesAccounted);
+            sb.append(",\"errors\":").append(errors);
+            sb.append(",\"entriesPerSec\":").append(String.format(Locale.ROOT, "%.1f", entriesPerSecond()));
+            sb.append(",\"phasesMs\":{");
+            for (Phase p : Phase.values()) {
+                if (p.ordinal() > 0) sb.append(',');
+                sb.append('"').append(p.name().toLowerCase(Locale.ROOT)).append("\":")
+                        .append(phaseNanos[p.ordinal()] / 1_000_000L);
+            }
+            return sb.append("}}").toString();
+        }
+
+        private static String escape(String s) {
+            StringBuilder sb = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                switch (ch) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    default -> {
+                        if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                        else sb.append(ch);
+                    }
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,589 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 스캔한 폴더 트리를 노드 번호(int) 기반 primitive 배열로 보관하는 인덱스.
+ * <ul>
+ *   <li>부모/첫 자식/다음 형제 번호는 int[], 크기/개수/mtime 은 long[] 에 둔다 (폴더당 Path, DirRecord 객체 없음).</li>
+ *   <li>이름은 {@link NamePool} 에 한 번만 저장하고, Path 는 조회 결과를 돌려줄 때만 다시 만든다.</li>
+ *   <li>(부모, 이름) -> 자식 조회는 boxing 없는 해시로 한다.</li>
+ *   <li>폴더마다 하위 전체의 나이별 용량({@link AgeHistogram})은 폴더당 {@link AgeHistogram#BUCKETS} 칸씩 long[] 하나에 펼쳐 둔다.</li>
+ *   <li>폴더마다 하위 전체의 확장자별 합계({@link TypeHistogram})를 참조 하나로 둔다 (종류 수가 제한된 작은 배열).</li>
+ *   <li>파일까지 모은 스캔이면 파일도 노드(크기, mtime)로 들어가며, 노드 번호로 순회할 수 있다 (내보내기용).
+ *       폴더를 다시 기록하면서 떼어 낸 파일 노드 번호는 다음 파일 노드에 다시 쓴다.</li>
+ * </ul>
+ * 한 번 스캔한 트리 안으로 drill-down 할 때 디스크를 다시 훑지 않고 여기서 바로 답한다.
+ * 엔진 worker 들은 폴더 단위로 기록하고 UI 는 동시에 읽으므로 모든 메서드는 synchronized.
+ * 여러 호출에 걸쳐 읽고 고쳐 쓰는 갱신(스캔, 감시)끼리는 {@link #updateLock()} 으로 겹치지 않게 한다.
+ * <p>
+ * 스스로 줄어들지 않으므로, 오래 쓰는 쪽은 스캔 사이에 {@link #memoryBytes()} 를
+ * {@link #maxMemoryBytes()} 와 비교해 넘으면 {@link #clear()} 한다 (스캔 하나가 넘는 것은 막지 않음).
+ * <pre>
+ *   -Dspacescope.index.maxMB=512
+ * </pre>
+ */
+public final class ScanTree {
+
+    public static final String PROP_MAX_MB = "spacescope.index.maxMB";
+
+    private static final int NONE = -1;
+
+    // 0번은 가상 루트: 자식이 파일시스템 루트("/", "C:\")
+    private static final int ROOT = 0;
+
+    private static final byte RECORDED = 1; // 하위 전체를 끝까지 본 합계가 있음
+    private static final byte REMOVED = 2;  // 삭제된 노드 (해시에는 남아 있음, 같은 이름이 다시 생기면 재사용)
+    private static final byte FILE = 4;     // 파일 노드 (이름 해시에 넣지 않음)
+
+    /** {@link #node(Path)} 에서 찾지 못했을 때. */
+    public static final int NO_NODE = NONE;
+
+    private NamePool names;
+    private LongIntHashMap childByName;
+
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] nameId;
+    private int[] childCount;
+    private byte[] flags;
+    private long[] mtime;
+    private long[] ownBytes;
+    private long[] ownFiles;
+    private long[] totalBytes;
+    private long[] totalFiles;
+    private TypeHistogram[] types;
+    private long[] ageBytes; // 노드 n 의 구간 i: [n * AgeHistogram.BUCKETS + i]
+
+    // 떼어 낸 파일 노드 번호 (파일 노드는 이름 해시에 없으므로 바로 다시 쓸 수 있다)
+    private int[] freeFiles;
+    private int freeCount;
+
+    private int count;
+    private int recorded;
+    private long modCount; // clear 해도 되돌리지 않는다
+
+    private final Lock updateLock = new ReentrantLock();
+
+    public ScanTree() {
+        reset(1 << 10);
+    }
+
+    public synchronized void put(DirRecord record) {
+        if (record == null || record.dir() == null) return;
+        putRecord(record);
+    }
+
+    /** 폴더 기록과 그 직계 파일들을 한 번에 넣는다 (files 가 null 이면 파일은 건드리지 않음). */
+    synchronized void put(DirRecord record, List<DirLister.FileEntry> files) {
+        if (record == null || record.dir() == null) return;
+        int n = putRecord(record);
+        if (files != null) replaceFiles(n, files);
+    }
+
+    private int putRecord(DirRecord record) {
+        int n = ensure(key(record.dir()));
+        if ((flags[n] & RECORDED) == 0) {
+            recorded++;
+            modCount++;
+        } else if (mtime[n] != record.mtime() || childCount[n] != record.childCount()
+                || ownBytes[n] != record.ownBytes() || ownFiles[n] != record.ownFiles()
+                || totalBytes[n] != record.total().bytes() || totalFiles[n] != record.total().files()) {
+            modCount++;
+        }
+        flags[n] |= RECORDED;
+
+        mtime[n] = record.mtime();
+        childCount[n] = record.childCount();
+        ownBytes[n] = record.ownBytes();
+        ownFiles[n] = record.ownFiles();
+        totalBytes[n] = record.total().bytes();
+        totalFiles[n] = record.total().files();
+        types[n] = record.total().types();
+        AgeHistogram ages = record.total().ages();
+        if (ages != null) ages.copyTo(ageBytes, n * AgeHistogram.BUCKETS);
+        else Arrays.fill(ageBytes, n * AgeHistogram.BUCKETS, (n + 1) * AgeHistogram.BUCKETS, 0L);
+        return n;
+    }
+
+    public synchronized DirRecord get(Path dir) {
+        if (dir == null) return null;
+        Path k = key(dir);
+        int n = find(k);
+        return (n == NONE || (flags[n] & RECORDED) == 0) ? null : record(n, k);
+    }
+
+    /** {@link #forEachRecorded} 가 넘기는 폴더 하나. path 는 정규화한 절대 경로 문자열. */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void record(int node, String path);
+    }
+
+    /**
+     * root 자신과 그 하위에서 기록이 있는 폴더를 노드 번호와 경로 문자열로 넘긴다 (스냅샷 저장, 감시 등록용).
+     * 폴더마다 Path / DirRecord / AgeHistogram 을 만들지 않는다.
+     * 잠금을 잡은 채로 부르므로 visitor 는 값만 옮겨 담고 I/O 는 하지 않는다.
+     */
+    public synchronized void forEachRecorded(Path root, RecordVisitor v) {
+        if (root == null) return;
+        Path k = key(root);
+        int n = find(k);
+        if (n != NONE) visit(n, k.toString(), k.getFileSystem().getSeparator(), v);
+    }
+
+    /**
+     * dir 와 그 하위 전체, 그리고 dir 를 포함하던 상위 폴더들의 합계를 버린다.
+     * (dir 가 바뀌면 상위 합계도 더 이상 맞지 않음)
+     */
+    public synchronized void invalidate(Path dir) {
+        if (dir == null) return;
+        Path k = key(dir);
+
+        int n = find(k);
+        if (n != NONE) {
+            unrecordSubtree(n);
+            n = parent[n];
+        } else {
+            n = deepestAncestor(k);
+        }
+        for (; n != NONE && n != ROOT; n = parent[n]) unrecord(n);
+        modCount++;
+    }
+
+    /** dir 와 그 하위 기록만 버린다 (폴더가 삭제/이동된 경우). */
+    public synchronized void removeSubtree(Path dir) {
+        if (dir == null) return;
+        int n = find(key(dir));
+        if (n == NONE) return;
+
+        unrecordSubtree(n);
+        unlink(n);
+        flags[n] |= REMOVED;
+        modCount++;
+    }
+
+    /**
+     * dir 의 상위 폴더들(기록이 있는 것만) 합계에 변화량을 더한다.
+     * 감시 모드에서 하위 변경을 전체 재스캔 없이 반영할 때 쓴다.
+     * 바뀐 파일의 확장자는 모르므로 상위 폴더들의 확장자별 합계는 버린다 (모름).
+     */
+    public synchronized void adjustAncestors(Path dir, long deltaBytes, long deltaFiles) {
+        if (dir == null || (deltaBytes == 0L && deltaFiles == 0L)) return;
+
+        Path k = key(dir);
+        int n = find(k);
+        n = (n != NONE) ? parent[n] : deepestAncestor(k);
+
+        for (; n != NONE && n != ROOT; n = parent[n]) {
+            if ((flags[n] & RECORDED) == 0) continue;
+            totalBytes[n] += deltaBytes;
+            totalFiles[n] += deltaFiles;
+            types[n] = null;
+            modCount++;
+        }
+    }
+
+    /** 오래된 데이터 순위 한 줄. */
+    public record StaleDir(Path dir, long staleBytes, long totalBytes) {
+    }
+
+    /**
+     * root 아래 폴더들(root 제외)을 days 일 넘게 수정되지 않은 용량(하위 전체)이 큰 순으로 limit 개.
+     * 스캔하면서 모은 나이별 용량만 보므로 디스크는 다시 읽지 않는다.
+     * @param days {@link AgeHistogram#boundaryDays()} 중 하나
+     */
+    public synchronized List<StaleDir> staleDirs(Path root, int days, int limit) {
+        List<StaleDir> out = new ArrayList<>();
+        int r = (root == null) ? NONE : find(key(root));
+        if (r == NONE || limit <= 0) return out;
+
+        int from = AgeHistogram.bucketAfter(days);
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, (a, b) -> Long.compare(a[0], b[0]));
+
+        int[] stack = new int[64];
+        int sp = 0;
+        stack[sp++] = r;
+        while (sp > 0) {
+            int n = stack[--sp];
+            for (int c = firstChild[n]; c != NONE; c = nextSibling[c]) {
+                if ((flags[c] & (FILE | REMOVED)) != 0) continue;
+                if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                stack[sp++] = c;
+
+                if ((flags[c] & RECORDED) == 0) continue;
+                long stale = AgeHistogram.olderThan(ageBytes, c * AgeHistogram.BUCKETS, from);
+                if (stale <= 0L) continue;
+                if (heap.size() < limit) heap.add(new long[] { stale, c });
+                else if (stale > heap.peek()[0]) {
+                    heap.poll();
+                    heap.add(new long[] { stale, c });
+                }
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            long[] e = heap.poll();
+            int n = (int) e[1];
+            out.add(new StaleDir(path(n), e[0], totalBytes[n]));
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // ---- 노드 번호 기반 순회 (내보내기용) ----
+
+    /** 경로의 노드 번호, 없으면 {@link #NO_NODE}. */
+    public synchronized int node(Path p) {
+        return (p == null) ? NONE : find(key(p));
+    }
+
+    /** 직계 자식 노드들 (순서 없음). */
+    public synchronized int[] children(int node) {
+        int n = 0;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) n++;
+
+        int[] out = new int[n];
+        int i = 0;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) out[i++] = c;
+        return out;
+    }
+
+    /**
+     * 직계 자식들의 이름/종류/크기/mtime (순서 없음, 배열 인덱스는 서로 대응).
+     * 자식마다 name/bytes/lastModified 를 따로 부르면 자식 수만큼 잠금을 잡으므로,
+     * 여러 스레드가 동시에 순회하는 내보내기는 폴더당 한 번 이걸로 읽는다.
+     */
+    public record Children(int[] nodes, String[] names, boolean[] directory, long[] bytes, long[] mtime) {
+        public int size() {
+            return nodes.length;
+        }
+    }
+
+    public synchronized Children childEntries(int node) {
+        int[] nodes = children(node);
+        int n = nodes.length;
+        String[] childNames = new String[n];
+        boolean[] dir = new boolean[n];
+        long[] b = new long[n];
+        long[] m = new long[n];
+        for (int i = 0; i < n; i++) {
+            int c = nodes[i];
+            childNames[i] = names.get(nameId[c]);
+            dir[i] = (flags[c] & FILE) == 0;
+            b[i] = totalBytes[c];
+            m[i] = mtime[c];
+        }
+        return new Children(nodes, childNames, dir, b, m);
+    }
+
+    public synchronized boolean isDirectory(int node) {
+        return (flags[node] & FILE) == 0;
+    }
+
+    public synchronized String name(int node) {
+        return names.get(nameId[node]);
+    }
+
+    /** 폴더는 하위 전체 합계, 파일은 파일 크기. */
+    public synchronized long bytes(int node) {
+        return totalBytes[node];
+    }
+
+    public synchronized long lastModified(int node) {
+        return mtime[node];
+    }
+
+    /** 폴더 노드의 기록 값 (직계 항목 수 / 직계 파일 합계 / 하위 전체 파일 수). */
+    public synchronized int childCount(int node) {
+        return childCount[node];
+    }
+
+    public synchronized long ownBytes(int node) {
+        return ownBytes[node];
+    }
+
+    public synchronized long ownFiles(int node) {
+        return ownFiles[node];
+    }
+
+    public synchronized long files(int node) {
+        return totalFiles[node];
+    }
+
+    /** 이름을 부모 쪽으로 따라 올라가 Path 를 다시 만든다. */
+    public synchronized Path path(int node) {
+        List<String> parts = new ArrayList<>();
+        for (int n = node; n != ROOT; n = parent[n]) parts.add(names.get(nameId[n]));
+        Collections.reverse(parts);
+        return Path.of(parts.get(0), parts.subList(1, parts.size()).toArray(new String[0]));
+    }
+
+    /** node 자신을 포함한 하위 폴더 수 (+ includeFiles 면 파일 수). 내보내기 행 수 계산용. */
+    public synchronized int countEntries(int node, boolean includeFiles) {
+        int n = 1;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            if ((flags[c] & FILE) != 0) {
+                if (includeFiles) n++;
+            } else {
+                n += countEntries(c, includeFiles);
+            }
+        }
+        return n;
+    }
+
+    public synchronized void clear() {
+        reset(1 << 10);
+        modCount++;
+    }
+
+    /**
+     * 스캔 / 감시처럼 기록을 읽고 계산해 다시 쓰는 갱신이 처음부터 끝까지 잡는 잠금.
+     * 디스크를 읽는 동안에도 잡고 있으므로 조회(UI)는 이 잠금을 잡지 않는다.
+     */
+    public Lock updateLock() {
+        return updateLock;
+    }
+
+    /**
+     * 폴더 기록(mtime / 항목 수 / 크기 / 개수)이 생기거나 바뀌거나 없어질 때마다 올라가는 번호.
+     * 같은 값을 다시 기록하면(인덱스로 답한 drill-down 등) 그대로라서, 스냅샷을 다시 저장할지 판단하는 데 쓴다.
+     */
+    public synchronized long modCount() {
+        return modCount;
+    }
+
+    /** 기록이 있는 폴더 수. */
+    public synchronized int size() {
+        return recorded;
+    }
+
+    /** 노드 배열과 이름 풀이 차지하는 대략의 힙 크기. */
+    public synchronized long memoryBytes() {
+        long perNode = 6L * Integer.BYTES + 1 + (5L + AgeHistogram.BUCKETS) * Long.BYTES;
+        return perNode * parent.length + (long) freeFiles.length * Integer.BYTES
+                + names.memoryBytes() + childByName.memoryBytes();
+    }
+
+    /** 오래 유지하는 인덱스의 크기 상한: -Dspacescope.index.maxMB (기본 최대 힙의 1/4). */
+    public static long maxMemoryBytes() {
+        Integer mb = Integer.getInteger(PROP_MAX_MB);
+        return (mb == null || mb <= 0) ? Runtime.getRuntime().maxMemory() / 4 : mb * (1L << 20);
+    }
+
+    // ---- 내부 구현 ----
+
+    private void reset(int capacity) {
+        names = new NamePool();
+        childByName = new LongIntHashMap(capacity);
+
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        nameId = new int[capacity];
+        childCount = new int[capacity];
+        flags = new byte[capacity];
+        mtime = new long[capacity];
+        ownBytes = new long[capacity];
+        ownFiles = new long[capacity];
+        totalBytes = new long[capacity];
+        totalFiles = new long[capacity];
+        types = new TypeHistogram[capacity];
+        ageBytes = new long[capacity * AgeHistogram.BUCKETS];
+        freeFiles = new int[16];
+        freeCount = 0;
+
+        parent[ROOT] = NONE;
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+        nameId[ROOT] = NONE;
+        count = 1;
+        recorded = 0;
+    }
+
+    private void grow() {
+        int cap = parent.length + (parent.length >> 1);
+        parent = Arrays.copyOf(parent, cap);
+        firstChild = Arrays.copyOf(firstChild, cap);
+        nextSibling = Arrays.copyOf(nextSibling, cap);
+        nameId = Arrays.copyOf(nameId, cap);
+        childCount = Arrays.copyOf(childCount, cap);
+        flags = Arrays.copyOf(flags, cap);
+        mtime = Arrays.copyOf(mtime, cap);
+        ownBytes = Arrays.copyOf(ownBytes, cap);
+        ownFiles = Arrays.copyOf(ownFiles, cap);
+        totalBytes = Arrays.copyOf(totalBytes, cap);
+        totalFiles = Arrays.copyOf(totalFiles, cap);
+        types = Arrays.copyOf(types, cap);
+        ageBytes = Arrays.copyOf(ageBytes, cap * AgeHistogram.BUCKETS);
+    }
+
+    /** 경로의 노드를 찾고, 없는 구간은 만든다. */
+    private int ensure(Path k) {
+        int n = ensureChild(ROOT, k.getRoot().toString());
+        for (int i = 0; i < k.getNameCount(); i++) {
+            n = ensureChild(n, k.getName(i).toString());
+        }
+        return n;
+    }
+
+    private int ensureChild(int p, String name) {
+        int id = names.intern(name);
+        long key = childKey(p, id);
+
+        int n = childByName.get(key, NONE);
+        if (n != NONE) {
+            if ((flags[n] & REMOVED) != 0) revive(n);
+            return n;
+        }
+
+        n = newNode();
+        parent[n] = p;
+        nameId[n] = id;
+        firstChild[n] = NONE;
+        link(n);
+        childByName.put(key, n);
+        return n;
+    }
+
+    private int newNode() {
+        if (count == parent.length) grow();
+        return count++;
+    }
+
+    /** dir 의 기존 파일 노드를 떼어 내고 files 로 바꾼다 (떼어 낸 번호부터 다시 쓴다). */
+    private void replaceFiles(int dir, List<DirLister.FileEntry> files) {
+        int prev = NONE;
+        for (int c = firstChild[dir], next; c != NONE; c = next) {
+            next = nextSibling[c];
+            if ((flags[c] & FILE) == 0) {
+                prev = c;
+                continue;
+            }
+            if (prev == NONE) firstChild[dir] = next;
+            else nextSibling[prev] = next;
+            release(c);
+        }
+
+        for (DirLister.FileEntry f : files) {
+            int n = (freeCount > 0) ? freeFiles[--freeCount] : newNode();
+            parent[n] = dir;
+            nameId[n] = names.intern(f.name());
+            firstChild[n] = NONE;
+            flags[n] = FILE;
+            mtime[n] = f.mtime();
+            totalBytes[n] = f.size();
+            totalFiles[n] = 1L;
+            link(n);
+        }
+    }
+
+    /** 떼어 낸 파일 노드를 다시 쓸 수 있게 둔다. */
+    private void release(int file) {
+        flags[file] = REMOVED | FILE;
+        nextSibling[file] = NONE;
+        if (freeCount == freeFiles.length) freeFiles = Arrays.copyOf(freeFiles, freeCount * 2);
+        freeFiles[freeCount++] = file;
+    }
+
+    /** 삭제됐던 노드를 빈 상태로 다시 붙인다 (예전 하위 노드는 끊어 버림, 파일 노드는 다시 씀). */
+    private void revive(int n) {
+        for (int c = firstChild[n], next; c != NONE; c = next) {
+            next = nextSibling[c];
+            if ((flags[c] & FILE) != 0) release(c);
+            else flags[c] |= REMOVED;
+        }
+        firstChild[n] = NONE;
+        flags[n] = 0;
+        mtime[n] = childCount[n] = 0;
+        ownBytes[n] = ownFiles[n] = totalBytes[n] = totalFiles[n] = 0L;
+        types[n] = null;
+        Arrays.fill(ageBytes, n * AgeHistogram.BUCKETS, (n + 1) * AgeHistogram.BUCKETS, 0L);
+        link(n);
+    }
+
+    private void link(int n) {
+        int p = parent[n];
+        nextSibling[n] = firstChild[p];
+        firstChild[p] = n;
+    }
+
+    private void unlink(int n) {
+        int p = parent[n];
+        if (firstChild[p] == n) {
+            firstChild[p] = nextSibling[n];
+        } else {
+            for (int c = firstChild[p]; c != NONE; c = nextSibling[c]) {
+                if (nextSibling[c] == n) {
+                    nextSibling[c] = nextSibling[n];
+                    break;
+                }
+            }
+        }
+        nextSibling[n] = NONE;
+    }
+
+    private int find(Path k) {
+        int n = findChild(ROOT, k.getRoot().toString());
+        for (int i = 0; n != NONE && i < k.getNameCount(); i++) {
+            n = findChild(n, k.getName(i).toString());
+        }
+        return n;
+    }
+
+    private int findChild(int p, String name) {
+        int id = names.find(name);
+        if (id < 0) return NONE;
+        int n = childByName.get(childKey(p, id), NONE);
+        return (n == NONE || (flags[n] & REMOVED) != 0) ? NONE : n;
+    }
+
+    /** k 자신은 없을 때, 트리에 있는 가장 가까운 상위 노드. */
+    private int deepestAncestor(Path k) {
+        for (Path a = k.getParent(); a != null; a = a.getParent()) {
+            int n = find(a);
+            if (n != NONE) return n;
+        }
+        return NONE;
+    }
+
+    private void unrecord(int n) {
+        if ((flags[n] & RECORDED) == 0) return;
+        flags[n] &= ~RECORDED;
+        recorded--;
+    }
+
+    private void unrecordSubtree(int n) {
+        unrecord(n);
+        for (int c = firstChild[n]; c != NONE; c = nextSibling[c]) unrecordSubtree(c);
+    }
+
+    private void visit(int n, String path, String sep, RecordVisitor v) {
+        if ((flags[n] & RECORDED) != 0) v.record(n, path);
+        for (int c = firstChild[n]; c != NONE; c = nextSibling[c]) {
+            if ((flags[c] & FILE) != 0) continue;
+            String name = names.get(nameId[c]);
+            visit(c, path.endsWith(sep) ? path + name : path + sep + name, sep, v);
+        }
+    }
+
+    private DirRecord record(int n, Path path) {
+        return new DirRecord(path, mtime[n], childCount[n], ownBytes[n], ownFiles[n],
+                new DirStats(totalBytes[n], totalFiles[n], types[n], AgeHistogram.of(ageBytes, n * AgeHistogram.BUCKETS)));
+    }
+
+    private static long childKey(int parent, int nameId) {
+        return ((long) parent << 32) | (nameId & 0xFFFFFFFFL);
+    }
+
+    private static Path key(Path p) {
+        return p.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,43 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 순차 방식: 호출 스레드에서 폴더를 하나씩 깊이 우선으로 계산.
+ */
+final class SequentialScanEngine implements ScanEngine {
+
+    @Override
+    public void scanDirs(List<Path> dirs, ScanContext ctx, DirResultListener listener) {
+        for (Path d : dirs) {
+            if (ctx.isCancelled()) return;
+
+            // walkFileTree 와 동일하게 심볼릭 링크는 따라가지 않는다
+            DirStats stats = DirLister.isSymbolicLink(d) ? DirStats.EMPTY : scanTree(d, ctx);
+            if (ctx.isCancelled()) return;
+
+            listener.onDirDone(d, stats);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    static DirStats scanTree(Path dir, ScanContext ctx) {
+        if (ctx.isCancelled()) return DirStats.EMPTY;
+
+        DirLister.Listing listing = DirLister.list(dir, ctx);
+        ctx.addScannedFiles(listing.ownFiles());
+
+        DirStats total = listing.own();
+        for (Path sub : listing.subdirs()) {
+            if (ctx.isCancelled()) return total;
+            total = total.plus(scanTree(sub, ctx));
+        }
+
+        ctx.recordDir(dir, listing, total);
+        return total;
+    }
+}
@@ -0,0 +1,182 @@
+package scan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 설정 폴더 아래 스캔 스냅샷 파일 관리.
+ * 매핑된 파일은 Windows 에서 덮어쓰거나 지울 수 없으므로 저장할 때마다
+ * 세대 번호가 붙은 새 파일(scan-snapshot-N.bin)을 만들고, 이전 세대는 지울 수 있을 때 지운다.
+ */
+public final class SnapshotStore {
+
+    private static final String PREFIX = "scan-snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+    private volatile ScanSnapshot current;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scan-snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // root 마다 대기 중인 저장은 하나만 (큐에 있는 동안 다시 요청되면 그 저장이 최신 기록을 읽는다)
+    private final Map<Path, ScanTree> pending = new HashMap<>();
+
+    // savedIndex 에서 저장한 root -> 그때의 ScanTree.modCount (save 잠금 안에서만)
+    private ScanTree savedIndex;
+    private final Map<Path, Long> savedAt = new HashMap<>();
+
+    private SnapshotStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /** dir 안의 가장 최신 세대 스냅샷을 연다. 없거나 깨졌으면 빈 상태로 시작. */
+    public static SnapshotStore open(Path dir) {
+        SnapshotStore store = new SnapshotStore(dir);
+        store.current = store.loadLatest();
+        return store;
+    }
+
+    public ScanSnapshot current() {
+        return current;
+    }
+
+    /**
+     * index 에서 root 아래 기록을 읽어 새 세대로 저장한다 (백그라운드 스레드 하나).
+     * 같은 root 가 아직 큐에 있으면 새로 넣지 않고, 기록은 저장하는 시점에 읽는다.
+     */
+    public void saveAsync(Path root, ScanTree index) {
+        Path r = root.toAbsolutePath().normalize();
+        synchronized (pending) {
+            if (pending.put(r, index) != null) return;
+        }
+        writer.execute(() -> {
+            ScanTree latest;
+            synchronized (pending) {
+                latest = pending.remove(r);
+            }
+            try {
+                save(r, latest);
+            } catch (IOException | RuntimeException ignored) {
+                // 캐시는 없어도 동작하므로 저장 실패는 무시
+            }
+        });
+    }
+
+    /**
+     * root 아래 기록을 index 의 기록으로 교체해 새 세대로 저장한다 (root 밖의 기존 기록은 유지).
+     * 마지막으로 저장한 뒤 index 가 바뀌지 않았고 root 가 그때 저장한 root 안이면 아무것도 하지 않는다.
+     * @return 새 세대를 썼으면 true
+     */
+    public synchronized boolean save(Path root, ScanTree index) throws IOException {
+        Path r = root.toAbsolutePath().normalize();
+        long mod = index.modCount();
+        if (index != savedIndex) savedAt.clear();
+        for (Map.Entry<Path, Long> e : savedAt.entrySet()) {
+            if (e.getValue() == mod && r.startsWith(e.getKey())) return false;
+        }
+
+        List<ScanSnapshot.Row> rows = new ArrayList<>();
+        index.forEachRecorded(r, (node, path) -> rows.add(new ScanSnapshot.Row(
+                path.getBytes(StandardCharsets.UTF_8), index.lastModified(node), index.childCount(node),
+                index.ownBytes(node), index.ownFiles(node), index.bytes(node), index.files(node))));
+        rows.sort(ScanSnapshot.BY_KEY);
+        replaceUnder(r, rows);
+
+        savedIndex = index;
+        savedAt.values().removeIf(m -> m != mod);
+        savedAt.put(r, mod);
+        return true;
+    }
+
+    /** root 아래 기록을 records 로 교체해 새 세대로 저장한다 (root 밖의 기존 기록은 유지). */
+    public synchronized void save(Path root, Collection<DirRecord> records) throws IOException {
+        replaceUnder(root.toAbsolutePath().normalize(), ScanSnapshot.sortedRows(records));
+        savedAt.clear(); // index 밖에서 온 기록이므로 index 기준 비교는 더 이상 맞지 않는다
+    }
+
+    /**
+     * 이전 세대(경로 바이트 오름차순)에서 root 아래를 건너뛰며 정렬된 rows 와 한 번에 합쳐 쓴다.
+     * rows 는 경로 바이트 오름차순, 중복 없음 (같은 경로가 이전 세대에도 있으면 rows 쪽이 남는다).
+     */
+    private void replaceUnder(Path root, List<ScanSnapshot.Row> rows) throws IOException {
+        ScanSnapshot prev = current;
+        byte[] rootKey = ScanSnapshot.keyBytes(root);
+
+        int oldCount = (prev == null) ? 0 : prev.size();
+        List<ScanSnapshot.Row> merged = new ArrayList<>(oldCount + rows.size());
+        int j = 0;
+        for (int i = 0; i < oldCount; i++) {
+            ScanSnapshot.Row old = prev.row(i);
+            if (ScanSnapshot.isUnder(old.key(), rootKey)) continue;
+            int c = -1;
+            while (j < rows.size() && (c = ScanSnapshot.BY_KEY.compare(rows.get(j), old)) < 0) merged.add(rows.get(j++));
+            if (c != 0) merged.add(old);
+        }
+        while (j < rows.size()) merged.add(rows.get(j++));
+
+        long gen = (prev == null) ? 1L : prev.generation() + 1L;
+        Files.createDirectories(dir);
+        Path file = dir.resolve(PREFIX + gen + SUFFIX);
+        ScanSnapshot.writeSorted(file, gen, merged);
+
+        current = ScanSnapshot.open(file);
+        deleteOlderThan(gen);
+    }
+
+    private ScanSnapshot loadLatest() {
+        List<Path> files = listSnapshotFiles();
+        files.sort(Comparator.comparingLong(SnapshotStore::generationOf).reversed());
+
+        for (Path f : files) {
+            try {
+                ScanSnapshot s = ScanSnapshot.open(f);
+                deleteOlderThan(s.generation());
+                return s;
+            } catch (IOException | RuntimeException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private void deleteOlderThan(long gen) {
+        for (Path f : listSnapshotFiles()) {
+            if (generationOf(f) >= gen) continue;
+            try {
+                Files.deleteIfExists(f);
+            } catch (IOException ignored) {
+                // 아직 매핑이 살아 있으면(Windows) 다음 저장 때 다시 시도
+            }
+        }
+    }
+
+    private List<Path> listSnapshotFiles() {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : ds) {
+                if (generationOf(p) > 0) out.add(p);
+            }
+        } catch (IOException ignored) {
+        }
+        return out;
+    }
+
+    private static long generationOf(Path p) {
+        String name = p.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+}
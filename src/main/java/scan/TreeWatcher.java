@@ -0,0 +1,251 @@
+package scan;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 스캔이 끝난 트리를 WatchService 로 지켜보면서 변경분만 {@link ScanTree} 에 반영한다.
+ * <ul>
+ *   <li>이벤트가 난 폴더는 한 단계만 다시 읽어 직계 파일 합계 차이를 상위 폴더들에 더한다.</li>
+ *   <li>새로 생긴 하위 폴더는 그 하위만 스캔하고, 사라진 하위 폴더는 기록된 합계만큼 뺀다.</li>
+ *   <li>OVERFLOW(이벤트 유실)가 오면 그 폴더 하위만 다시 스캔한다.</li>
+ * </ul>
+ * 등록/처리는 모두 전용 데몬 스레드 하나에서 돌고, 바뀐 폴더는 {@link Listener} 로 알린다.
+ * 모인 변경을 처리하는 동안 {@link ScanTree#updateLock()} 을 잡으므로 같은 인덱스에 쓰는 스캔과 겹치지 않는다
+ * (스캔 중에 온 이벤트는 스캔이 끝난 뒤 처리).
+ */
+public final class TreeWatcher implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Listener {
+        /** watcher 스레드에서 호출된다. changedDirs: 직계 항목이나 하위 합계가 바뀐 폴더들 */
+        void onDirsChanged(Set<Path> changedDirs);
+
+        /** OS 감시 개수 제한으로 더 등록하지 못하게 됐을 때 한 번 (watcher 스레드). */
+        default void onRegistrationLimited() {
+        }
+    }
+
+    // 연속된 이벤트(복사/압축 해제 등)를 한 번에 처리하기 위한 대기 시간
+    private static final long COALESCE_MS = 300;
+
+    private final Path root;
+    private final ScanTree index;
+    private final Listener listener;
+    private final WatchService ws;
+    private final Thread thread;
+
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private volatile boolean closed = false;
+    private volatile boolean registrationLimited = false;
+
+    private TreeWatcher(Path root, ScanTree index, Listener listener) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.index = index;
+        this.listener = listener;
+        this.ws = this.root.getFileSystem().newWatchService();
+        this.thread = new Thread(this::run, "tree-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * root 아래에서 index 에 기록된 폴더들을 감시하기 시작한다 (디스크를 다시 훑지 않음).
+     */
+    public static TreeWatcher start(Path root, ScanTree index, Listener listener) throws IOException {
+        TreeWatcher w = new TreeWatcher(root, index, listener);
+        w.thread.start();
+        return w;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /** OS 감시 개수 제한 등으로 일부 폴더를 등록하지 못했는지. */
+    public boolean isRegistrationLimited() {
+        return registrationLimited;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            ws.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        registerSubtree(root);
+
+        while (!closed) {
+            Map<Path, Set<Path>> touched = new LinkedHashMap<>();
+            Set<Path> overflowed = new LinkedHashSet<>();
+
+            try {
+                WatchKey key = ws.take();
+                drain(key, touched, overflowed);
+
+                // 잠깐 더 모아서 폴더별로 한 번만 처리
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COALESCE_MS);
+                long left;
+                while ((left = deadline - System.nanoTime()) > 0) {
+                    WatchKey more = ws.poll(left, TimeUnit.NANOSECONDS);
+                    if (more == null) break;
+                    drain(more, touched, overflowed);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            // 읽고(index.get) 디스크를 보고 다시 쓰는(put / adjustAncestors) 사이에 스캔이 끼지 않게
+            Lock updates = index.updateLock();
+            try {
+                updates.lockInterruptibly();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Set<Path> changed = new LinkedHashSet<>();
+            try {
+                for (Path d : overflowed) {
+                    if (rescanSubtree(d)) changed.add(d);
+                }
+                for (Map.Entry<Path, Set<Path>> e : touched.entrySet()) {
+                    Path d = e.getKey();
+                    if (isUnderAny(d, overflowed)) continue;
+                    if (applyDirChange(d, e.getValue())) changed.add(d);
+                }
+            } catch (RuntimeException ignored) {
+                // 한 번의 처리 실패로 감시를 멈추지 않는다
+            } finally {
+                updates.unlock();
+            }
+
+            if (!changed.isEmpty() && !closed) listener.onDirsChanged(changed);
+        }
+    }
+
+    private void drain(WatchKey key, Map<Path, Set<Path>> touched, Set<Path> overflowed) {
+        Path dir = keys.get(key);
+
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (dir == null) continue;
+
+            if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflowed.add(dir);
+                continue;
+            }
+            if (ev.context() instanceof Path name) {
+                touched.computeIfAbsent(dir, k -> new LinkedHashSet<>()).add(dir.resolve(name));
+            }
+        }
+
+        if (!key.reset()) keys.remove(key);
+    }
+
+    /**
+     * dir 한 단계만 다시 읽고, 생기거나 사라진 하위 폴더를 반영한다.
+     * @return 합계나 직계 항목이 바뀌었으면 true
+     */
+    private boolean applyDirChange(Path dir, Set<Path> entries) {
+        DirRecord old = index.get(dir);
+        if (old == null) return false;
+
+        ScanContext ctx = newContext();
+        long dBytes = 0L;
+        long dFiles = 0L;
+
+        for (Path child : entries) {
+            boolean nowDir = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+            DirRecord known = index.get(child);
+
+            if (known != null && !nowDir) {
+                // 하위 폴더 삭제/이동
+                dBytes -= known.total().bytes();
+                dFiles -= known.total().files();
+                index.removeSubtree(child);
+            } else if (known == null && nowDir) {
+                // 새 하위 폴더 (복사/이동으로 내용이 있을 수 있음)
+                DirStats added = SequentialScanEngine.scanTree(child, ctx);
+                if (closed) return false;
+                dBytes += added.bytes();
+                dFiles += added.files();
+                registerSubtree(child);
+            }
+        }
+
+        DirLister.Listing listing = DirLister.list(dir, ctx);
+        if (closed) return false;
+
+        dBytes += listing.ownBytes() - old.ownBytes();
+        dFiles += listing.ownFiles() - old.ownFiles();
+
+        boolean entriesChanged = listing.childCount() != old.childCount() || listing.mtime() != old.mtime();
+        if (dBytes == 0L && dFiles == 0L && !entriesChanged) return false;
+
+        index.put(new DirRecord(dir, listing.mtime(), listing.childCount(), listing.ownBytes(), listing.ownFiles(),
+                new DirStats(old.total().bytes() + dBytes, old.total().files() + dFiles)));
+        index.adjustAncestors(dir, dBytes, dFiles);
+        return true;
+    }
+
+    /** OVERFLOW: 이벤트가 유실됐으므로 dir 하위만 처음부터 다시 계산한다. */
+    private boolean rescanSubtree(Path dir) {
+        DirRecord old = index.get(dir);
+        if (old == null) return false;
+
+        index.removeSubtree(dir);
+        DirStats now = SequentialScanEngine.scanTree(dir, newContext());
+        if (closed) return false;
+
+        registerSubtree(dir);
+        index.adjustAncestors(dir, now.bytes() - old.total().bytes(), now.files() - old.total().files());
+        return true;
+    }
+
+    private ScanContext newContext() {
+        return ScanContext.builder(() -> closed).index(index).build();
+    }
+
+    /** dir 하위에서 기록이 있는 폴더들을 등록한다 (경로만 모아 두고 등록은 인덱스 잠금 밖에서). */
+    private void registerSubtree(Path dir) {
+        List<String> dirs = new ArrayList<>();
+        index.forEachRecorded(dir, (node, path) -> dirs.add(path));
+        for (String d : dirs) {
+            if (closed) return;
+            try {
+                register(Path.of(d));
+            } catch (InvalidPathException ignored) {
+                // 플랫폼 인코딩으로 표현 못 하는 이름
+            }
+        }
+    }
+
+    private void register(Path dir) {
+        if (registrationLimited) return;
+        try {
+            WatchKey key = dir.register(ws,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            keys.put(key, dir);
+        } catch (NoSuchFileException | NotDirectoryException | AccessDeniedException ignored) {
+        } catch (IOException e) {
+            // inotify watch 개수 제한 등: 이후 폴더는 감시하지 않는다
+            registrationLimited = true;
+            if (!closed) listener.onRegistrationLimited();
+        } catch (ClosedWatchServiceException | SecurityException ignored) {
+        }
+    }
+
+    private static boolean isUnderAny(Path p, Set<Path> roots) {
+        for (Path r : roots) {
+            if (p.startsWith(r)) return true;
+        }
+        return false;
+    }
+}
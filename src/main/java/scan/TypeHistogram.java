@@ -0,0 +1,277 @@
+package scan;
+
+import java.net.FileNameMap;
+import java.net.URLConnection;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 확장자별 용량 / 파일 수. 스캔 중에 폴더마다 하나씩 만들어 하위 폴더 것과 합친다 (별도 순회 없음).
+ * <ul>
+ *   <li>확장자는 전역 번호로 바꿔 (번호, 용량, 파일 수) 세 long 을 한 배열에 번호순으로 둔다: 합치기는 병합 한 번.</li>
+ *   <li>종류가 {@link #MAX_TYPES} 개를 넘으면 작은 것부터 {@link #OTHER} 로 접어서 폴더당 크기가 제한된다.</li>
+ *   <li>한 번 만든 값은 바꾸지 않으므로 여러 스레드가 그대로 공유한다.</li>
+ * </ul>
+ * MIME 분류(video, image, text ...)는 확장자에서 보여 줄 때만 구한다 ({@link #family}).
+ */
+public final class TypeHistogram {
+
+    /** 폴더 하나가 따로 들고 있는 종류 수 상한 (넘는 것은 {@link #OTHER}). */
+    public static final int MAX_TYPES = 64;
+
+    /** 확장자 없음. */
+    public static final String NONE = "";
+    /** 종류가 너무 많아 접힌 나머지. */
+    public static final String OTHER = "*";
+    /** 파일을 보지 않고 답한 부분 (스냅샷 캐시 / 감시 모드 변경분): 합계만 안다. */
+    public static final String UNKNOWN = "?";
+
+    private static final int ID_NONE = 0;
+    private static final int ID_OTHER = 1;
+    private static final int ID_UNKNOWN = 2;
+
+    // 확장자로 보는 최대 길이, 전역 번호 상한 (이상한 이름이 많아도 표가 커지지 않게)
+    private static final int MAX_EXT_LENGTH = 10;
+    private static final int MAX_IDS = 4096;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = Collections.synchronizedList(new ArrayList<>());
+
+    static {
+        register(NONE);
+        register(OTHER);
+        register(UNKNOWN);
+    }
+
+    public static final TypeHistogram EMPTY = new TypeHistogram(new long[0], 0);
+
+    /** 보여 줄 때 쓰는 한 줄. */
+    public record Entry(String type, long bytes, long files) {
+    }
+
+    // [id, bytes, files] * size, id 오름차순
+    private final long[] data;
+    private final int size;
+
+    private TypeHistogram(long[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    /** 파일을 보지 않은 bytes / files 를 {@link #UNKNOWN} 하나로. */
+    public static TypeHistogram unknown(long bytes, long files) {
+        if (bytes == 0L && files == 0L) return EMPTY;
+        return new TypeHistogram(new long[] { ID_UNKNOWN, bytes, files }, 1);
+    }
+
+    /** 두 값을 합친 새 값 (둘 중 하나가 비었으면 다른 쪽 그대로). */
+    public static TypeHistogram merge(TypeHistogram a, TypeHistogram b) {
+        if (a.size == 0) return b;
+        if (b.size == 0) return a;
+
+        long[] out = new long[(a.size + b.size) * 3];
+        int i = 0, j = 0, n = 0;
+        while (i < a.size || j < b.size) {
+            long ia = (i < a.size) ? a.data[i * 3] : Long.MAX_VALUE;
+            long ib = (j < b.size) ? b.data[j * 3] : Long.MAX_VALUE;
+            int o = n * 3;
+            if (ia < ib) {
+                System.arraycopy(a.data, i++ * 3, out, o, 3);
+            } else if (ib < ia) {
+                System.arraycopy(b.data, j++ * 3, out, o, 3);
+            } else {
+                out[o] = ia;
+                out[o + 1] = a.data[i * 3 + 1] + b.data[j * 3 + 1];
+                out[o + 2] = a.data[i * 3 + 2] + b.data[j * 3 + 2];
+                i++;
+                j++;
+            }
+            n++;
+        }
+        return fold(out, n);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** {@link #UNKNOWN} 에 들어간 용량 (0 이면 전부 파일별로 센 값). */
+    public long unknownBytes() {
+        for (int i = 0; i < size; i++) {
+            if (data[i * 3] == ID_UNKNOWN) return data[i * 3 + 1];
+        }
+        return 0L;
+    }
+
+    /** 용량이 큰 순. type 은 소문자 확장자 또는 {@link #NONE} / {@link #OTHER} / {@link #UNKNOWN}. */
+    public List<Entry> entries() {
+        List<Entry> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add(new Entry(NAMES.get((int) data[i * 3]), data[i * 3 + 1], data[i * 3 + 2]));
+        }
+        out.sort(Comparator.comparingLong(Entry::bytes).reversed());
+        return out;
+    }
+
+    /** MIME 최상위 분류로 묶은 값, 용량이 큰 순. 확장자 없음 / 모르는 확장자는 {@link #NONE}. */
+    public List<Entry> families() {
+        Map<String, long[]> sums = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String type = NAMES.get((int) data[i * 3]);
+            String fam = (type.equals(OTHER) || type.equals(UNKNOWN)) ? type : family(type);
+            long[] s = sums.computeIfAbsent(fam, k -> new long[2]);
+            s[0] += data[i * 3 + 1];
+            s[1] += data[i * 3 + 2];
+        }
+        List<Entry> out = new ArrayList<>(sums.size());
+        sums.forEach((k, v) -> out.add(new Entry(k, v[0], v[1])));
+        out.sort(Comparator.comparingLong(Entry::bytes).reversed());
+        return out;
+    }
+
+    /** 확장자의 MIME 최상위 분류 (video, audio, image, text, application, font ...), 모르면 {@link #NONE}. */
+    public static String family(String ext) {
+        if (ext == null || ext.isEmpty()) return NONE;
+        String f = FAMILY_OVERRIDES.get(ext);
+        if (f != null) return f;
+
+        String mime = MIME_MAP.getContentTypeFor("x." + ext);
+        if (mime == null) return NONE;
+        int slash = mime.indexOf('/');
+        return (slash > 0) ? mime.substring(0, slash) : NONE;
+    }
+
+    // JDK 표에 없거나 분류가 어색한 흔한 확장자
+    private static final FileNameMap MIME_MAP = URLConnection.getFileNameMap();
+    private static final Map<String, String> FAMILY_OVERRIDES = Map.ofEntries(
+            Map.entry("mkv", "video"), Map.entry("avi", "video"), Map.entry("wmv", "video"),
+            Map.entry("m4v", "video"), Map.entry("webm", "video"), Map.entry("ts", "video"),
+            Map.entry("m4a", "audio"), Map.entry("ogg", "audio"), Map.entry("opus", "audio"),
+            Map.entry("heic", "image"), Map.entry("webp", "image"), Map.entry("raw", "image"),
+            Map.entry("cr2", "image"), Map.entry("nef", "image"), Map.entry("psd", "image"),
+            Map.entry("log", "text"), Map.entry("md", "text"), Map.entry("yml", "text"),
+            Map.entry("yaml", "text"), Map.entry("ini", "text"), Map.entry("sql", "text"),
+            Map.entry("ttf", "font"), Map.entry("otf", "font"), Map.entry("woff", "font"), Map.entry("woff2", "font"),
+            Map.entry("iso", "application"), Map.entry("dll", "application"), Map.entry("so", "application"),
+            Map.entry("class", "application"), Map.entry("msi", "application"), Map.entry("dmg", "application"),
+            Map.entry("vmdk", "application"), Map.entry("vhdx", "application"), Map.entry("db", "application"),
+            Map.entry("rar", "application"), Map.entry("xz", "application"), Map.entry("bz2", "application"));
+
+    /** 종류가 많으면 용량이 작은 것부터 {@link #OTHER} 로 접는다. */
+    private static TypeHistogram fold(long[] data, int size) {
+        if (size <= MAX_TYPES) {
+            // 폴더마다 인덱스에 남으므로 딱 맞는 크기로
+            return new TypeHistogram((data.length == size * 3) ? data : Arrays.copyOf(data, size * 3), size);
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Long.compare(data[y * 3 + 1], data[x * 3 + 1]));
+
+        // UNKNOWN 은 접지 않는다 (다시 스캔할지 판단하는 값)
+        boolean[] keep = new boolean[size];
+        int kept = 0;
+        long otherBytes = 0L, otherFiles = 0L;
+        for (int r = 0; r < size; r++) {
+            int i = order[r];
+            long id = data[i * 3];
+            if (id == ID_UNKNOWN || (id != ID_OTHER && kept < MAX_TYPES - 2)) {
+                keep[i] = true;
+                kept++;
+            } else {
+                otherBytes += data[i * 3 + 1];
+                otherFiles += data[i * 3 + 2];
+            }
+        }
+
+        long[] out = new long[(kept + 1) * 3];
+        int n = 0;
+        boolean otherPut = false;
+        for (int i = 0; i < size; i++) {
+            long id = data[i * 3];
+            if (!otherPut && id > ID_OTHER) {
+                out[n * 3] = ID_OTHER;
+                out[n * 3 + 1] = otherBytes;
+                out[n * 3 + 2] = otherFiles;
+                n++;
+                otherPut = true;
+            }
+            if (keep[i]) {
+                System.arraycopy(data, i * 3, out, n * 3, 3);
+                n++;
+            }
+        }
+        if (!otherPut) {
+            out[n * 3] = ID_OTHER;
+            out[n * 3 + 1] = otherBytes;
+            out[n * 3 + 2] = otherFiles;
+            n++;
+        }
+        return new TypeHistogram(out, n);
+    }
+
+    /**
+     * 파일 이름의 확장자 번호 (소문자). 이름이 점으로 시작하거나 끝나면, 또는 숫자뿐이면 (libc.so.6, a.001)
+     * 확장자 없음.
+     */
+    static int typeOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot <= 0 || dot == fileName.length() - 1 || fileName.length() - dot - 1 > MAX_EXT_LENGTH) return ID_NONE;
+
+        String ext = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        boolean letter = false;
+        for (int i = 0; i < ext.length(); i++) {
+            char c = ext.charAt(i);
+            if (c >= 'a' && c <= 'z') letter = true;
+            else if (c < '0' || c > '9') return ID_NONE;
+        }
+        if (!letter) return ID_NONE;
+
+        Integer id = IDS.get(ext);
+        return (id != null) ? id : register(ext);
+    }
+
+    private static int register(String ext) {
+        synchronized (NAMES) {
+            Integer id = IDS.get(ext);
+            if (id != null) return id;
+            if (NAMES.size() >= MAX_IDS) return ID_OTHER;
+            NAMES.add(ext);
+            IDS.put(ext, NAMES.size() - 1);
+            return NAMES.size() - 1;
+        }
+    }
+
+    /** 폴더 하나의 직계 파일을 모으는 임시 값 (한 스레드 전용). */
+    public static final class Builder {
+        private long[] data = new long[4 * 3];
+        private int size;
+
+        public void add(String fileName, long bytes) {
+            int id = typeOf(fileName);
+            int lo = 0, hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long m = data[mid * 3];
+                if (m < id) lo = mid + 1;
+                else if (m > id) hi = mid - 1;
+                else {
+                    data[mid * 3 + 1] += bytes;
+                    data[mid * 3 + 2]++;
+                    return;
+                }
+            }
+            if ((size + 1) * 3 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            System.arraycopy(data, lo * 3, data, (lo + 1) * 3, (size - lo) * 3);
+            data[lo * 3] = id;
+            data[lo * 3 + 1] = bytes;
+            data[lo * 3 + 2] = 1L;
+            size++;
+        }
+
+        public TypeHistogram build() {
+            if (size == 0) return EMPTY;
+            return fold(Arrays.copyOf(data, size * 3), size);
+        }
+    }
+}
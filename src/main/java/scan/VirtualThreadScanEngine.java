@@ -0,0 +1,104 @@
+package scan;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 폴더 하나당 가상 스레드 하나로 읽는 엔진 (NFS/SMB 처럼 지연이 긴 파일시스템용).
+ * 폴더 열기/stat 은 CPU 가 아니라 왕복 지연에 묶이므로, 플랫폼 스레드 풀 없이 수천 개 요청을 동시에 걸어 둔다.
+ * 동시에 열려 있는 폴더 수는 {@link ScanOptions#maxOpenDirs()} 로 제한하고,
+ * 부모는 자식을 기다리며 스레드를 붙잡지 않는다 (마지막 자식이 끝날 때 합계를 이어서 계산).
+ */
+final class VirtualThreadScanEngine implements ScanEngine {
+
+    private final ExecutorService executor;
+    private final Semaphore openDirs;
+
+    /** @param executor 작업마다 가상 스레드 하나 ({@link VirtualThreads#newEngine} 가 만든다) */
+    VirtualThreadScanEngine(ExecutorService executor, int maxOpenDirs) {
+        this.executor = executor;
+        this.openDirs = new Semaphore(Math.max(1, maxOpenDirs));
+    }
+
+    @Override
+    public void scanDirs(List<Path> dirs, ScanContext ctx, DirResultListener listener) throws InterruptedException {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(dirs.size());
+
+        for (Path d : dirs) {
+            // walkFileTree 와 동일하게 심볼릭 링크는 따라가지 않는다
+            CompletableFuture<DirStats> f = DirLister.isSymbolicLink(d)
+                    ? CompletableFuture.completedFuture(DirStats.EMPTY)
+                    : scan(d, ctx);
+
+            futures.add(f.thenAccept(stats -> {
+                if (!ctx.isCancelled()) listener.onDirDone(d, stats);
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException ie) {
+            executor.shutdownNow();
+            throw ie;
+        } catch (ExecutionException ee) {
+            Throwable cause = (ee.getCause() instanceof CompletionException ce) ? ce.getCause() : ee.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<DirStats> scan(Path dir, ScanContext ctx) {
+        return CompletableFuture.supplyAsync(() -> list(dir, ctx), executor).thenCompose(listing -> {
+            if (listing == null) return CompletableFuture.completedFuture(DirStats.EMPTY);
+
+            DirStats own = listing.own();
+            if (listing.subdirs().isEmpty()) {
+                ctx.recordDir(dir, listing, own);
+                return CompletableFuture.completedFuture(own);
+            }
+
+            List<CompletableFuture<DirStats>> subs = new ArrayList<>(listing.subdirs().size());
+            for (Path sub : listing.subdirs()) subs.add(scan(sub, ctx));
+
+            return CompletableFuture.allOf(subs.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                DirStats total = own;
+                for (CompletableFuture<DirStats> f : subs) total = total.plus(f.join());
+
+                ctx.recordDir(dir, listing, total);
+                return total;
+            });
+        });
+    }
+
+    /** 취소됐거나 기다리는 중 중단되면 null. */
+    private DirLister.Listing list(Path dir, ScanContext ctx) {
+        if (ctx.isCancelled()) return null;
+
+        try {
+            openDirs.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            if (ctx.isCancelled()) return null;
+            DirLister.Listing listing = DirLister.list(dir, ctx);
+            ctx.addScannedFiles(listing.ownFiles());
+            return listing;
+        } finally {
+            openDirs.release();
+        }
+    }
+}
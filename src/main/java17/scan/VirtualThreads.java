@@ -0,0 +1,19 @@
+package scan;
+
+/**
+ * Java 17 빌드용: 가상 스레드가 없으므로 {@link ScanMode#VIRTUAL} 은 쓸 수 없다.
+ * (-Pjava21 로 빌드하면 src/main/java21 의 구현이 대신 들어간다)
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    /** {@link ScanMode#VIRTUAL} 용 엔진: 이 빌드에서는 병렬 엔진으로 대신한다. */
+    static ScanEngine newEngine(ScanOptions options) {
+        return new ParallelScanEngine(options.parallelism());
+    }
+}
@@ -0,0 +1,22 @@
+package scan;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Java 21 빌드용 (-Pjava21): 작업마다 가상 스레드 하나.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    static boolean isSupported() {
+        return true;
+    }
+
+    /** {@link ScanMode#VIRTUAL} 용 엔진. */
+    static ScanEngine newEngine(ScanOptions options) {
+        return new VirtualThreadScanEngine(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scan-vt-", 0).factory()),
+                options.maxOpenDirs());
+    }
+}
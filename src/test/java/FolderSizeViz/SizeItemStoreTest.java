@@ -0,0 +1,165 @@
+package FolderSizeViz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeItemStoreTest {
+
+    private static FolderSizeVizApp.SizeItem dir(String name, long bytes) {
+        return new FolderSizeVizApp.SizeItem(name, bytes, true, null);
+    }
+
+    private static FolderSizeVizApp.SizeItem file(String name, long bytes) {
+        return new FolderSizeVizApp.SizeItem(name, bytes, false, null);
+    }
+
+    private static List<String> names(SizeItemStore s) {
+        List<String> out = new ArrayList<>();
+        for (FolderSizeVizApp.SizeItem it : s) out.add(it.name);
+        return out;
+    }
+
+    private static List<String> ranked(SizeItemStore s) {
+        List<String> out = new ArrayList<>();
+        for (int k = 0; k < s.size(); k++) out.add(s.get(k).name);
+        return out;
+    }
+
+    @Test
+    void emptyStore() {
+        SizeItemStore s = new SizeItemStore();
+
+        assertTrue(s.isEmpty());
+        assertEquals(0L, s.maxBytes());
+        assertEquals(0L, s.totalBytes());
+        assertTrue(s.top(3).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> s.get(0));
+    }
+
+    @Test
+    void itemsAreRankedBySizeThenInsertionOrder() {
+        SizeItemStore s = new SizeItemStore();
+        s.upsertAll(List.of(dir("a", 10), dir("b", 30), file("c", 10), dir("d", 20), file("e", 30)));
+
+        assertEquals(List.of("b", "e", "d", "a", "c"), names(s));
+        assertEquals(names(s), ranked(s));
+        assertEquals(30L, s.maxBytes());
+        assertEquals(100L, s.totalBytes());
+        assertEquals(List.of("b", "e"), s.top(2).stream().map(it -> it.name).toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> s.get(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> s.get(-1));
+    }
+
+    @Test
+    void upsertReplacesAndMovesTheItem() {
+        SizeItemStore s = new SizeItemStore();
+        s.upsertAll(List.of(dir("a", 10), dir("b", 20), dir("c", 30)));
+
+        s.upsert(dir("a", 40));
+        assertEquals(List.of("a", "c", "b"), ranked(s));
+        assertEquals(3, s.size());
+        assertEquals(90L, s.totalBytes());
+        assertEquals(40L, s.maxBytes());
+
+        s.upsert(dir("a", 1));
+        assertEquals(List.of("c", "b", "a"), ranked(s));
+        assertEquals(51L, s.totalBytes());
+        assertEquals(30L, s.maxBytes());
+    }
+
+    @Test
+    void reinsertedTieGoesAfterExistingEqualItems() {
+        SizeItemStore s = new SizeItemStore();
+        s.upsertAll(List.of(dir("a", 5), dir("b", 5), dir("c", 5)));
+
+        s.upsert(dir("a", 5));
+        assertEquals(List.of("b", "c", "a"), ranked(s));
+        assertEquals(15L, s.totalBytes());
+    }
+
+    @Test
+    void folderAndFileWithTheSameNameAreSeparateItems() {
+        SizeItemStore s = new SizeItemStore();
+        s.upsert(dir("x", 3));
+        s.upsert(file("x", 4));
+
+        assertEquals(2, s.size());
+        assertTrue(s.get(0).name.equals("x") && !s.get(0).isDirectory);
+        assertTrue(s.get(1).isDirectory);
+        assertEquals(7L, s.totalBytes());
+    }
+
+    @Test
+    void negativeSizesAreRankedButNotCounted() {
+        SizeItemStore s = new SizeItemStore();
+        s.upsertAll(List.of(dir("unknown", -1), dir("a", 5)));
+
+        assertEquals(List.of("a", "unknown"), ranked(s));
+        assertEquals(5L, s.totalBytes());
+
+        s.upsert(dir("unknown", 2));
+        assertEquals(7L, s.totalBytes());
+    }
+
+    @Test
+    void setAllClearAndListeners() {
+        SizeItemStore s = new SizeItemStore();
+        int[] fired = {0};
+        s.addChangeListener(() -> fired[0]++);
+
+        s.upsertAll(List.of(dir("a", 1), dir("b", 2)));
+        assertEquals(1, fired[0]);
+        s.upsertAll(List.of());
+        assertEquals(1, fired[0]);
+
+        s.setAll(List.of(dir("c", 3)));
+        assertEquals(2, fired[0]);
+        assertEquals(List.of("c"), ranked(s));
+        assertEquals(3L, s.totalBytes());
+
+        s.clear();
+        assertEquals(3, fired[0]);
+        assertTrue(s.isEmpty());
+        assertEquals(0L, s.totalBytes());
+        s.clear();
+        assertEquals(3, fired[0]);
+    }
+
+    @Test
+    void randomUpsertsMatchASortedList() {
+        SizeItemStore s = new SizeItemStore();
+        // 이름 -> [크기, 들어온 순서]
+        Map<String, long[]> model = new LinkedHashMap<>();
+        Random rnd = new Random(42);
+
+        for (int step = 0; step < 3_000; step++) {
+            String name = "n" + rnd.nextInt(200);
+            long bytes = rnd.nextInt(50); // 같은 크기가 자주 나오게
+            s.upsert(dir(name, bytes));
+            model.put(name, new long[]{bytes, step});
+
+            if (step % 250 == 0 || step == 2_999) {
+                List<Map.Entry<String, long[]>> expected = new ArrayList<>(model.entrySet());
+                expected.sort((x, y) -> (x.getValue()[0] != y.getValue()[0])
+                        ? Long.compare(y.getValue()[0], x.getValue()[0])
+                        : Long.compare(x.getValue()[1], y.getValue()[1]));
+
+                List<String> want = expected.stream().map(Map.Entry::getKey).toList();
+                assertEquals(want, ranked(s));
+                assertEquals(want, names(s));
+
+                long total = 0L;
+                for (long[] v : model.values()) total += v[0];
+                assertEquals(total, s.totalBytes());
+                assertEquals(expected.get(0).getValue()[0], s.maxBytes());
+            }
+        }
+    }
+}
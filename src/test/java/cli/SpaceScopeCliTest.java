@@ -0,0 +1,121 @@
+package cli;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceScopeCliTest {
+
+    @TempDir
+    Path tmp;
+
+    private Path root;
+
+    private final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+
+    /** root/ (a.txt, b.md, sub/ (c.txt)) : 폴더 2 + 파일 3 = 5 행 */
+    @BeforeEach
+    void createTree() throws IOException {
+        root = Files.createDirectories(tmp.resolve("data"));
+        Files.writeString(root.resolve("a.txt"), "hello");
+        Files.writeString(root.resolve("b.md"), "# md");
+        Path sub = Files.createDirectories(root.resolve("sub"));
+        Files.writeString(sub.resolve("c.txt"), "x".repeat(2048));
+    }
+
+    private int run(String... args) {
+        return SpaceScopeCli.run(args,
+                new PrintStream(outBytes, true, StandardCharsets.UTF_8),
+                new PrintStream(errBytes, true, StandardCharsets.UTF_8));
+    }
+
+    private String out() {
+        return outBytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private String err() {
+        return errBytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void helpPrintsUsage() {
+        assertEquals(0, run("--help"));
+        assertTrue(out().startsWith("Usage:"));
+    }
+
+    @Test
+    void usageErrorsExitWithTwo() {
+        assertEquals(2, run());
+        assertTrue(err().contains("--root is required"), err());
+
+        assertEquals(2, run("--root", root.toString(), "--bogus"));
+        assertTrue(err().contains("unknown option: --bogus"), err());
+
+        assertEquals(2, run("--root"));
+        assertTrue(err().contains("--root needs a value"), err());
+
+        assertEquals(2, run("--root", root.toString(), "--threads", "0"));
+        assertEquals(2, run("--root", root.toString(), "--format", "pdf"));
+        assertEquals(2, run("--root", root.toString(), "--mode", "turbo"));
+        assertEquals(2, run("--root", root.resolve("a.txt").toString()));
+        assertTrue(err().contains("not a folder"), err());
+        assertTrue(err().contains("Usage:"));
+    }
+
+    @Test
+    void csvRun() throws IOException {
+        Path out = tmp.resolve("report.csv");
+        assertEquals(0, run("--root", root.toString(), "--out", out.toString(), "--threads", "2"), err());
+
+        List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+        assertEquals("﻿Type,Name,Depth,Path,Size (bytes),Formatted Size,Last Modified", lines.get(0));
+        assertEquals(1 + 5, lines.size());
+        assertTrue(lines.get(1).startsWith("Folder,data,0,"), lines.get(1));
+        assertTrue(out().contains("5 rows"), out());
+
+        // --types 를 주지 않으면 옆 파일을 만들지 않는다
+        assertFalse(Files.exists(tmp.resolve("report_types.csv")));
+    }
+
+    @Test
+    void csvRunWithTypesAndFoldersOnly() throws IOException {
+        Path out = tmp.resolve("report.csv");
+        assertEquals(0, run("--root", root.toString(), "--out", out.toString(), "--no-files", "--types", "--json"),
+                err());
+
+        assertEquals(1 + 2, Files.readAllLines(out, StandardCharsets.UTF_8).size());
+        List<String> types = Files.readAllLines(tmp.resolve("report_types.csv"), StandardCharsets.UTF_8);
+        assertTrue(types.get(0).endsWith("Extension,MIME Family,Files,Size (bytes),Formatted Size"));
+        assertTrue(out().contains("(file types)"), out());
+        assertTrue(out().lines().anyMatch(l -> l.startsWith("{")), out());
+    }
+
+    @Test
+    void xlsxRunFromOutExtension() throws IOException {
+        Path out = tmp.resolve("report.xlsx");
+        assertEquals(0, run("--root", root.toString(), "--out", out.toString(), "--mode", "sequential"), err());
+
+        try (InputStream in = Files.newInputStream(out); XSSFWorkbook wb = new XSSFWorkbook(in)) {
+            Sheet data = wb.getSheet("Folder Size");
+            assertNotNull(data);
+            assertEquals(1 + 5, data.getPhysicalNumberOfRows());
+            assertEquals("Type", data.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("data", data.getRow(1).getCell(1).getStringCellValue());
+            assertNotNull(wb.getSheet("File Types"));
+        }
+    }
+}
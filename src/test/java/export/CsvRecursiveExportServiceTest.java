@@ -0,0 +1,92 @@
+package export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 병렬 CSV 출력이 순차 출력과 바이트 단위로 같은지, 실패하면 아무것도 남기지 않는지. */
+class CsvRecursiveExportServiceTest {
+
+    @TempDir
+    Path src;
+
+    @TempDir
+    Path outDir;
+
+    private ExportTree tree;
+
+    @BeforeEach
+    void buildTree() throws IOException {
+        Path root = Files.createDirectory(src.resolve("루트"));
+        file(root.resolve("가나다.txt"), 10);
+        file(root.resolve("😀 emoji.bin"), 2_000);
+        file(root.resolve("a,\"quoted\".csv"), 3);
+        for (String d : List.of("하위A", "sub B", "ñandú")) {
+            Path dir = Files.createDirectory(root.resolve(d));
+            for (int i = 0; i < 6; i++) file(dir.resolve("파일" + i + ".dat"), 100 * i + 1);
+            Path nested = Files.createDirectory(dir.resolve("깊은 폴더"));
+            file(nested.resolve("끝.txt"), 7);
+            Files.createDirectory(nested.resolve("빈 폴더"));
+        }
+        tree = ExportTree.scan(root, true);
+    }
+
+    private static void file(Path p, int bytes) throws IOException {
+        Files.write(p, new byte[bytes]);
+    }
+
+    private byte[] export(int threads, CsvRecursiveExportService.Tuning tuning) throws IOException {
+        File out = outDir.resolve("out-" + threads + "-" + tuning.segmentMinRows() + ".csv").toFile();
+        CsvRecursiveExportService.exportWithProgress(tree, out, threads, tuning, null);
+        return Files.readAllBytes(out.toPath());
+    }
+
+    @Test
+    void parallelMatchesSequentialBytes() throws IOException {
+        byte[] sequential = export(1, CsvRecursiveExportService.Tuning.DEFAULT);
+        String csv = new String(sequential, StandardCharsets.UTF_8);
+        assertTrue(csv.contains(File.separator + "😀 emoji.bin\""), csv);
+        assertEquals(tree.rowCount() + 1, csv.split("\r?\n").length);
+
+        // 조각 1행: 폴더 행 + 직계 파일이 한 조각이고 하위 폴더는 다른 조각 (폴더 안에서 경계)
+        // 조각 2~7행: 작은 조각을 합치는 경계가 여러 위치에 걸린다
+        for (int segmentRows : new int[]{1, 2, 3, 5, 7}) {
+            byte[] parallel = export(4, new CsvRecursiveExportService.Tuning(1, segmentRows));
+            assertArrayEquals(sequential, parallel, "segmentMinRows=" + segmentRows);
+        }
+        assertNoLeftovers();
+    }
+
+    @Test
+    void failureKeepsOldFileAndRemovesTemporaries() throws IOException {
+        Path out = outDir.resolve("report.csv");
+        Files.writeString(out, "old");
+
+        // 진행률 콜백은 조각을 이어 붙이는 도중에 불리므로, 여기서 던지면 출력 중간에 멈춘다
+        assertThrows(IllegalStateException.class, () ->
+                CsvRecursiveExportService.exportWithProgress(tree, out.toFile(), 4,
+                        new CsvRecursiveExportService.Tuning(1, 1), done -> {
+                            throw new IllegalStateException("stop");
+                        }));
+
+        assertEquals("old", Files.readString(out));
+        assertNoLeftovers();
+    }
+
+    private void assertNoLeftovers() throws IOException {
+        try (Stream<Path> s = Files.list(outDir)) {
+            List<String> hidden = s.map(p -> p.getFileName().toString()).filter(n -> n.startsWith(".")).toList();
+            assertEquals(List.of(), hidden);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package export;
+
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.util.PaneInformation;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 작은 시트 행 한도로 나뉜 통합 문서를 POI 로 다시 읽어 시트 / Summary / 틀 고정 / 자동 필터를 확인한다. */
+class StreamingXlsxWriterTest {
+
+    private static final String[] HEADERS = {"Type", "Path", "Size (bytes)"};
+    private static final int[] WIDTHS = {10, 60, 16};
+
+    @TempDir
+    Path tmp;
+
+    private File write(int rows, int maxDataRows, boolean extraSheet) throws IOException {
+        File out = tmp.resolve("out.xlsx").toFile();
+        try (StreamingXlsxWriter w = new StreamingXlsxWriter(out, "Folder Size", HEADERS, WIDTHS, 1, maxDataRows)) {
+            for (int i = 1; i <= rows; i++) {
+                w.startRow();
+                w.text(i % 2 == 0 ? "File" : "Folder");
+                w.text("/root/경로 " + i);
+                w.number(i * 100L);
+                w.endRow();
+            }
+            if (extraSheet) {
+                w.startExtraSheet("File Types", new String[]{"Extension", "Files"}, new int[]{12, 10});
+                for (String ext : new String[]{".txt", ".bin"}) {
+                    w.startRow();
+                    w.text(ext);
+                    w.number(3L);
+                    w.endRow();
+                }
+            }
+        }
+        return out;
+    }
+
+    private static List<String> sheetNames(XSSFWorkbook wb) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) out.add(wb.getSheetName(i));
+        return out;
+    }
+
+    private static String filterName(XSSFWorkbook wb, int sheet) {
+        for (Name n : wb.getAllNames()) {
+            if (n.getNameName().equals("_xlnm._FilterDatabase") && n.getSheetIndex() == sheet) return n.getRefersToFormula();
+        }
+        return null;
+    }
+
+    private static void assertLayout(XSSFSheet s, String filterRef) {
+        PaneInformation pane = s.getPaneInformation();
+        assertNotNull(pane, s.getSheetName());
+        assertTrue(pane.isFreezePane(), s.getSheetName());
+        assertEquals(1, pane.getHorizontalSplitPosition(), s.getSheetName());
+        assertEquals(0, pane.getVerticalSplitPosition(), s.getSheetName());
+
+        if (filterRef == null) assertFalse(s.getCTWorksheet().isSetAutoFilter(), s.getSheetName());
+        else assertEquals(filterRef, s.getCTWorksheet().getAutoFilter().getRef(), s.getSheetName());
+    }
+
+    private static void assertSummaryRow(XSSFRow r, String sheet, long first, long last, String firstKey, String lastKey) {
+        assertEquals(sheet, r.getCell(0).getStringCellValue());
+        assertEquals(first, (long) r.getCell(1).getNumericCellValue());
+        assertEquals(last, (long) r.getCell(2).getNumericCellValue());
+        assertEquals(last - first + 1, (long) r.getCell(3).getNumericCellValue());
+        assertEquals(firstKey, r.getCell(4).getStringCellValue());
+        assertEquals(lastKey, r.getCell(5).getStringCellValue());
+    }
+
+    @Test
+    void rowsRollOverIntoNumberedSheetsWithSummary() throws IOException {
+        File out = write(8, 3, true);
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(out)) {
+            assertEquals(List.of("Folder Size", "Folder Size (2)", "Folder Size (3)", "File Types", "Summary"),
+                    sheetNames(wb));
+
+            // 헤더 + 데이터 3 / 3 / 2 행
+            int[] dataRows = {3, 3, 2};
+            for (int i = 0; i < dataRows.length; i++) {
+                XSSFSheet s = wb.getSheetAt(i);
+                assertEquals(dataRows[i], s.getLastRowNum(), s.getSheetName());
+                assertEquals("Path", s.getRow(0).getCell(1).getStringCellValue());
+                assertEquals(WIDTHS[1] * 256, s.getColumnWidth(1));
+                String ref = "A1:C" + (dataRows[i] + 1);
+                assertLayout(s, ref);
+                assertEquals("'" + s.getSheetName() + "'!$A$1:$C$" + (dataRows[i] + 1), filterName(wb, i));
+            }
+            XSSFSheet second = wb.getSheet("Folder Size (2)");
+            assertEquals("/root/경로 4", second.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(400.0, second.getRow(1).getCell(2).getNumericCellValue());
+
+            XSSFSheet types = wb.getSheet("File Types");
+            assertEquals(2, types.getLastRowNum());
+            assertEquals(".bin", types.getRow(2).getCell(0).getStringCellValue());
+            assertLayout(types, "A1:B3");
+            assertEquals("'File Types'!$A$1:$B$3", filterName(wb, 3));
+
+            XSSFSheet summary = wb.getSheet("Summary");
+            assertEquals(3, summary.getLastRowNum());
+            assertEquals("First Path", summary.getRow(0).getCell(4).getStringCellValue());
+            assertSummaryRow(summary.getRow(1), "Folder Size", 1, 3, "/root/경로 1", "/root/경로 3");
+            assertSummaryRow(summary.getRow(2), "Folder Size (2)", 4, 6, "/root/경로 4", "/root/경로 6");
+            assertSummaryRow(summary.getRow(3), "Folder Size (3)", 7, 8, "/root/경로 7", "/root/경로 8");
+            assertLayout(summary, null);
+            assertNull(filterName(wb, 4));
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void exactlyFullSheetDoesNotStartAnEmptyOne() throws IOException {
+        File out = write(6, 3, false);
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(out)) {
+            assertEquals(List.of("Folder Size", "Folder Size (2)", "Summary"), sheetNames(wb));
+            assertEquals(3, wb.getSheetAt(1).getLastRowNum());
+            assertSummaryRow(wb.getSheet("Summary").getRow(2), "Folder Size (2)", 4, 6, "/root/경로 4", "/root/경로 6");
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void singleSheetHasNoSummary() throws IOException {
+        File out = write(3, 3, false);
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(out)) {
+            assertEquals(List.of("Folder Size"), sheetNames(wb));
+            assertEquals(3, wb.getSheetAt(0).getLastRowNum());
+            assertLayout(wb.getSheetAt(0), "A1:C4");
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void rejectsRowLimitsOutsideTheSheetSize() {
+        File out = tmp.resolve("bad.xlsx").toFile();
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingXlsxWriter(out, "S", HEADERS, WIDTHS, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingXlsxWriter(out, "S", HEADERS, WIDTHS, 1, StreamingXlsxWriter.MAX_DATA_ROWS + 1));
+    }
+}
@@ -0,0 +1,298 @@
+package export;
+
+import Utils.SizeFormatUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Utf8ByteWriter} 가 예전 출력 경로(OutputStreamWriter + String.replace / SizeFormatUtil / String.format)와
+ * 바이트 단위로 같은지 비교한다.
+ */
+class Utf8ByteWriterTest {
+
+    private final TimeZone savedZone = TimeZone.getDefault();
+    private final Locale savedLocale = Locale.getDefault();
+
+    @AfterEach
+    void restoreDefaults() {
+        TimeZone.setDefault(savedZone);
+        Locale.setDefault(savedLocale);
+    }
+
+    private interface Body {
+        void write(Utf8ByteWriter w) throws IOException;
+    }
+
+    private static byte[] written(Body body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Utf8ByteWriter w = new Utf8ByteWriter(Channels.newChannel(out))) {
+            body.write(w);
+        }
+        return out.toByteArray();
+    }
+
+    /** 예전 CSV 경로: PrintWriter(OutputStreamWriter(UTF-8)) 로 쓴 바이트 (짝 없는 surrogate 는 '?'). */
+    private static byte[] viaOutputStreamWriter(String s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            w.write(s);
+        }
+        return out.toByteArray();
+    }
+
+    private static final String[] SAMPLES = {
+            "",
+            "plain-ascii.txt",
+            "quote\"inside\"",
+            "\"\"",
+            "한글 폴더/사진 2024",
+            "Ω ü ß é",
+            "emoji 😀 and 𝄞",
+            "߿ࠀ�￾￿",
+            "tab\tnew\nline\rcr",
+            "ctrl \u0000\u0001\u0007\u001F end",
+            "xml & <tag> \"q\" 'a'",
+            "lonely high \uD83D",
+            "\uD83D",
+            "lonely low \uDE00 mid",
+            "reversed \uDE00\uD83D pair",
+            "high high \uD83D😀",
+    };
+
+    @Test
+    void textMatchesOutputStreamWriter() throws IOException {
+        for (String s : SAMPLES) {
+            assertArrayEquals(viaOutputStreamWriter(s), written(w -> w.text(s, false)), "raw: " + s);
+            assertArrayEquals(viaOutputStreamWriter(s.replace("\"", "\"\"")), written(w -> w.text(s, true)),
+                    "escaped: " + s);
+        }
+    }
+
+    @Test
+    void textLongerThanBufferMatchesOutputStreamWriter() throws IOException {
+        // 버퍼(64 KB)보다 긴 ASCII / 여러 바이트 글자, 버퍼 경계에 걸친 surrogate 쌍
+        String ascii = "a\"b".repeat(30_000);
+        String mixed = "가😀\"x".repeat(20_000);
+        String straddle = "x".repeat((1 << 16) - 2) + "😀" + "y";
+
+        for (String s : new String[]{ascii, mixed, straddle}) {
+            assertArrayEquals(viaOutputStreamWriter(s), written(w -> w.text(s, false)));
+            assertArrayEquals(viaOutputStreamWriter(s.replace("\"", "\"\"")), written(w -> w.text(s, true)));
+        }
+    }
+
+    @Test
+    void textAfterOtherFieldsCrossesBufferBoundary() throws IOException {
+        // 앞 필드로 버퍼를 거의 채운 뒤 여러 바이트 글자를 쓰는 경우
+        String head = "h".repeat((1 << 16) - 3);
+        String tail = "한😀\uD83D";
+        assertArrayEquals(viaOutputStreamWriter(head + tail),
+                written(w -> w.text(head, false).text(tail, false)));
+    }
+
+    /** POI SXSSF 와 같은 처리: &amp; &lt; &gt; 는 엔티티, XML 에 못 쓰는 제어 문자와 U+FFFE/U+FFFF 는 '?'. */
+    private static String xmlEscaped(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                default -> {
+                    if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF) {
+                        sb.append('?');
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void xmlTextEscapesLikeSxssf() throws IOException {
+        for (String s : SAMPLES) {
+            assertArrayEquals(viaOutputStreamWriter(xmlEscaped(s)), written(w -> w.xmlText(s)), "xml: " + s);
+        }
+        String big = "<a & b>\u0001한😀".repeat(20_000);
+        assertArrayEquals(viaOutputStreamWriter(xmlEscaped(big)), written(w -> w.xmlText(big)));
+    }
+
+    @Test
+    void numberMatchesLongToString() throws IOException {
+        long[] values = {0L, 1L, -1L, 9L, 10L, 1234567890L, -987654321L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long v : values) {
+            assertEquals(Long.toString(v), new String(written(w -> w.number(v)), StandardCharsets.UTF_8));
+        }
+    }
+
+    /** 한 writer 로 이어서 쓰고 줄마다 비교한다. */
+    private static void assertHumanSizes(long[] values) throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (long b : values) expected.append(SizeFormatUtil.human(b)).append(System.lineSeparator());
+
+        String actual = new String(written(w -> {
+            for (long b : values) w.humanSize(b).newLine();
+        }), StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), actual);
+    }
+
+    @Test
+    void humanSizeMatchesSizeFormatUtilForSmallValues() throws IOException {
+        long[] values = new long[300_000];
+        for (int i = 0; i < values.length; i++) values[i] = i;
+        assertHumanSizes(values);
+    }
+
+    @Test
+    void humanSizeRoundsHalfEvenLikeDecimalFormat() throws IOException {
+        // bytes*10 / 2^shift 의 나머지가 정확히 절반인 값 = 2^(shift-2) * 홀수: HALF_EVEN 이 갈리는 곳
+        long[] values = new long[4 * 2_000 * 3];
+        int n = 0;
+        for (int shift = 10; shift <= 40; shift += 10) {
+            for (long odd = 5; odd < 4_005; odd += 2) {
+                long b = (1L << (shift - 2)) * odd;
+                values[n++] = b - 1;
+                values[n++] = b;
+                values[n++] = b + 1;
+            }
+        }
+        assertHumanSizes(values);
+    }
+
+    @Test
+    void humanSizeMatchesSizeFormatUtilAcrossUnits() throws IOException {
+        assertHumanSizes(new long[]{
+                1023L, 1024L, 1025L, 1535L, 1536L, 1537L, 10_239L, 10_240L,
+                (1L << 20) - 1, 1L << 20, (1L << 20) + 1, 1_048_575L * 1024,
+                (1L << 30) - 1, 1L << 30, (1L << 40) - 1, 1L << 40, 1L << 50,
+                (1L << 53) - 1, 1L << 53, (1L << 53) + 1, Long.MAX_VALUE
+        });
+
+        Random rnd = new Random(17);
+        long[] values = new long[200_000];
+        for (int i = 0; i < values.length; i++) {
+            int bits = 10 + rnd.nextInt(53);
+            values[i] = rnd.nextLong() >>> (64 - bits);
+        }
+        assertHumanSizes(values);
+    }
+
+    @Test
+    void humanSizeUsesDefaultLocaleSymbols() throws Exception {
+        // SizeFormatUtil 은 스레드마다 DecimalFormat 을 만들므로 새 스레드에서 비교
+        Locale.setDefault(Locale.GERMANY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            try {
+                assertHumanSizes(new long[]{1536L, 1_234_567L, 5_000_000_000L, 1L << 45});
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        t.start();
+        t.join();
+        if (failure.get() != null) throw new AssertionError(failure.get());
+    }
+
+    private static final long CROSS_CHECK_FROM_MS = Instant.parse("1900-01-01T00:00:00Z").toEpochMilli();
+    private static final long CROSS_CHECK_TO_MS = Instant.parse("9999-01-01T00:00:00Z").toEpochMilli();
+
+    /** 예전 출력: String.format("%tF %&lt;tT", new Date(ms)) 이고 DateTimeFormatter 로도 같은 값. */
+    private static void assertTimestamps(String zone, List<Long> millis) throws IOException {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        StringBuilder expected = new StringBuilder();
+        for (long ms : millis) {
+            String s = String.format("%tF %<tT", new Date(ms));
+            if (ms >= CROSS_CHECK_FROM_MS && ms < CROSS_CHECK_TO_MS) {
+                // Date 는 1582-10-15 이전을 율리우스력으로 적고 표준시 이전 지역 평균시(LMT)도 java.time 과 달라서
+                // DateTimeFormatter 와는 1900 ~ 9998 년만 비교한다 (10000 년부터는 '+' 부호도 붙음)
+                assertEquals(dtf.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneId.of(zone))), s);
+            }
+            expected.append(s).append(System.lineSeparator());
+        }
+
+        // 한 writer 로 이어서 써야 시(hour) 캐시 / offset 캐시를 거친다
+        String actual = new String(written(w -> {
+            for (long ms : millis) w.timestamp(ms).newLine();
+        }), StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), actual, zone);
+    }
+
+    private static List<Long> around(String isoInstant, long spanMs, long stepMs) {
+        long mid = Instant.parse(isoInstant).toEpochMilli();
+        List<Long> out = new ArrayList<>();
+        for (long ms = mid - spanMs; ms <= mid + spanMs; ms += stepMs) out.add(ms);
+        return out;
+    }
+
+    @Test
+    void timestampMatchesStringFormatAcrossDstTransitions() throws IOException {
+        long hours3 = 3 * 3_600_000L;
+        long step = 7 * 60_000L + 13_001L;
+
+        // 봄 / 가을 전환 (가을에는 같은 지역 시각이 두 번)
+        List<Long> ny = around("2024-03-10T07:00:00Z", hours3, step);
+        ny.addAll(around("2024-11-03T06:00:00Z", hours3, step));
+        assertTimestamps("America/New_York", ny);
+
+        List<Long> berlin = around("2024-03-31T01:00:00Z", hours3, step);
+        berlin.addAll(around("2024-10-27T01:00:00Z", hours3, step));
+        assertTimestamps("Europe/Berlin", berlin);
+
+        // 30 분 단위 offset / 30 분짜리 DST
+        assertTimestamps("Asia/Kolkata", around("2024-06-01T12:00:00Z", hours3, step));
+        List<Long> lordHowe = around("2024-04-06T15:00:00Z", hours3, step);
+        lordHowe.addAll(around("2024-10-05T15:30:00Z", hours3, step));
+        assertTimestamps("Australia/Lord_Howe", lordHowe);
+
+        assertTimestamps("Asia/Seoul", around("2025-01-01T00:00:00Z", hours3, step));
+    }
+
+    @Test
+    void timestampHandlesOddValues() throws IOException {
+        List<Long> millis = new ArrayList<>(List.of(
+                1L, -1L, 999L, -999L, -1_000L, 86_399_999L,
+                -62_135_596_800_000L,          // 0001-01-01: 캐시 밖 느린 경로
+                Instant.parse("1200-06-01T12:00:00Z").toEpochMilli(),   // 율리우스력 구간
+                Instant.parse("1582-10-15T00:00:00Z").toEpochMilli(),
+                Instant.parse("1582-10-14T23:59:59Z").toEpochMilli(),
+                253_402_300_799_000L,          // 9999-12-31 23:59:59
+                1_700_000_000_123L, 1_700_000_000_123L, 1_699_999_999_999L));
+        Random rnd = new Random(42);
+        for (int i = 0; i < 50_000; i++) millis.add(rnd.nextLong() % 4_000_000_000_000L);
+
+        assertTimestamps("UTC", millis);
+        assertTimestamps("America/New_York", millis);
+        assertTimestamps("Asia/Seoul", millis);
+    }
+
+    @Test
+    void zeroTimestampIsEmpty() throws IOException {
+        assertEquals(0, written(w -> w.timestamp(0L)).length);
+    }
+}
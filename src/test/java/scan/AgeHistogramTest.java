@@ -0,0 +1,106 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 기본 경계(7일 / 30일 / 1년) 기준. */
+class AgeHistogramTest {
+
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void defaultBoundaries() {
+        assertArrayEquals(new int[]{7, 30, 365}, AgeHistogram.boundaryDays());
+        assertEquals(4, AgeHistogram.BUCKETS);
+    }
+
+    @Test
+    void boundaryAgeBelongsToTheOlderBucket() {
+        assertEquals(0, AgeHistogram.bucketOf(NOW, NOW));
+        assertEquals(0, AgeHistogram.bucketOf(NOW - 7 * DAY + 1, NOW));
+        assertEquals(1, AgeHistogram.bucketOf(NOW - 7 * DAY, NOW));
+        assertEquals(1, AgeHistogram.bucketOf(NOW - 30 * DAY + 1, NOW));
+        assertEquals(2, AgeHistogram.bucketOf(NOW - 30 * DAY, NOW));
+        assertEquals(2, AgeHistogram.bucketOf(NOW - 365 * DAY + 1, NOW));
+        assertEquals(3, AgeHistogram.bucketOf(NOW - 365 * DAY, NOW));
+    }
+
+    @Test
+    void unknownMtimeIsOldestAndFutureMtimeIsNewest() {
+        assertEquals(3, AgeHistogram.bucketOf(0L, NOW));
+        assertEquals(3, AgeHistogram.bucketOf(-5L, NOW));
+        assertEquals(0, AgeHistogram.bucketOf(NOW + DAY, NOW));
+    }
+
+    @Test
+    void builderSumsSizesPerBucket() {
+        AgeHistogram.Builder b = new AgeHistogram.Builder(NOW);
+        b.add(10, NOW - DAY);
+        b.add(20, NOW - 6 * DAY);
+        b.add(30, NOW - 7 * DAY);
+        b.add(40, NOW - 100 * DAY);
+        b.add(50, NOW - 400 * DAY);
+        b.add(60, 0L);
+        AgeHistogram h = b.build();
+
+        assertEquals(30L, h.bytes(0));
+        assertEquals(30L, h.bytes(1));
+        assertEquals(40L, h.bytes(2));
+        assertEquals(110L, h.bytes(3));
+        assertEquals(210L, h.total());
+
+        assertEquals(180L, h.olderThan(7));
+        assertEquals(150L, h.olderThan(30));
+        assertEquals(110L, h.olderThan(365));
+        assertThrows(IllegalArgumentException.class, () -> h.olderThan(10));
+    }
+
+    @Test
+    void bucketAfterMapsBoundariesToTheNextBucket() {
+        assertEquals(1, AgeHistogram.bucketAfter(7));
+        assertEquals(2, AgeHistogram.bucketAfter(30));
+        assertEquals(3, AgeHistogram.bucketAfter(365));
+        assertThrows(IllegalArgumentException.class, () -> AgeHistogram.bucketAfter(0));
+    }
+
+    @Test
+    void mergeAddsBucketsAndTreatsEmptyAsIdentity() {
+        AgeHistogram.Builder a = new AgeHistogram.Builder(NOW);
+        a.add(5, NOW);
+        a.add(7, 0L);
+        AgeHistogram.Builder b = new AgeHistogram.Builder(NOW);
+        b.add(11, NOW - 40 * DAY);
+        b.add(13, NOW);
+
+        AgeHistogram ha = a.build();
+        AgeHistogram merged = AgeHistogram.merge(ha, b.build());
+        assertEquals(18L, merged.bytes(0));
+        assertEquals(0L, merged.bytes(1));
+        assertEquals(11L, merged.bytes(2));
+        assertEquals(7L, merged.bytes(3));
+
+        assertSame(AgeHistogram.EMPTY, new AgeHistogram.Builder(NOW).build());
+        assertSame(ha, AgeHistogram.merge(ha, AgeHistogram.EMPTY));
+        assertSame(ha, AgeHistogram.merge(null, ha));
+        assertSame(AgeHistogram.EMPTY, AgeHistogram.merge(null, null));
+    }
+
+    @Test
+    void copyToAndOfRoundTripAtAnOffset() {
+        AgeHistogram.Builder b = new AgeHistogram.Builder(NOW);
+        b.add(1, NOW);
+        b.add(2, NOW - 10 * DAY);
+        b.add(3, NOW - 50 * DAY);
+        b.add(4, NOW - 500 * DAY);
+        AgeHistogram h = b.build();
+
+        long[] flat = new long[2 + AgeHistogram.BUCKETS];
+        h.copyTo(flat, 2);
+        AgeHistogram back = AgeHistogram.of(flat, 2);
+
+        for (int i = 0; i < AgeHistogram.BUCKETS; i++) assertEquals(h.bytes(i), back.bytes(i));
+        assertEquals(7L, AgeHistogram.olderThan(flat, 2, AgeHistogram.bucketAfter(30)));
+    }
+}
@@ -0,0 +1,156 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateFinderTest {
+
+    private static final int BIG = 200_000; // 앞/뒤 64 KB 사이에 가운데가 남는 크기
+    private static final ScanOptions OPTIONS = new ScanOptions(ScanMode.SEQUENTIAL, 2, 0, false, false);
+    private static final DuplicateFinder.Limits NO_LIMITS = new DuplicateFinder.Limits(Long.MAX_VALUE, 60_000L);
+
+    @TempDir
+    Path tmp;
+
+    private static byte[] content(int size) {
+        byte[] b = new byte[size];
+        for (int i = 0; i < size; i++) b[i] = (byte) (i * 31 + 7);
+        return b;
+    }
+
+    private Path write(String name, byte[] data) throws IOException {
+        Path p = tmp.resolve(name);
+        Files.createDirectories(p.getParent());
+        return Files.write(p, data);
+    }
+
+    private Path big(String name, int flipAt) throws IOException {
+        byte[] b = content(BIG);
+        if (flipAt >= 0) b[flipAt] ^= 1;
+        return write(name, b);
+    }
+
+    private static List<Path> paths(DuplicateFinder.Group g) {
+        List<Path> out = new ArrayList<>();
+        for (DuplicateFinder.Copy c : g.copies()) out.add(c.path());
+        return out;
+    }
+
+    @Test
+    void eachStageNarrowsTheCandidates() throws Exception {
+        Path a = big("a.bin", -1);
+        Path b = big("sub/b.bin", -1);
+        big("c.bin", BIG / 2);        // 앞/뒤는 같고 가운데만 다름: 전체 해시에서 빠짐
+        big("d.bin", 0);              // 앞이 다름: 앞/뒤 해시에서 빠짐
+        Path x = write("x.txt", content(10));
+        Path y = write("sub/y.txt", content(10));
+        write("z.txt", content(11));  // 크기가 하나뿐: 읽지 않음
+        write("empty1", new byte[0]);
+        write("empty2", new byte[0]);
+
+        List<Integer> stages = new ArrayList<>();
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, NO_LIMITS, null, null).run(stages::add);
+
+        assertEquals(List.of(DuplicateFinder.STAGE_SIZE, DuplicateFinder.STAGE_EDGES, DuplicateFinder.STAGE_FULL),
+                stages);
+        assertEquals(DuplicateFinder.Stop.NONE, r.stoppedBy());
+        assertEquals(6L, r.candidates());
+
+        // 앞/뒤: 큰 파일 4 개 x 128 KB + 작은 파일 2 개 전체, 전체: 앞/뒤가 같은 a, b, c
+        long edges = 4L * 2 * DuplicateFinder.EDGE + 2L * 10;
+        assertEquals(edges + 3L * BIG, r.bytesRead());
+
+        assertEquals(2, r.groups().size());
+        DuplicateFinder.Group first = r.groups().get(0);
+        assertEquals(BIG, first.size());
+        assertEquals(List.of(a, b), paths(first));
+        assertEquals(List.of(y, x), paths(r.groups().get(1))); // 경로순
+        assertEquals(BIG + 10L, r.reclaimableBytes());
+        assertEquals(4, r.copyCount());
+    }
+
+    @Test
+    void smallFilesAreSettledWithoutTheFullStage() throws Exception {
+        write("a.txt", content(2 * DuplicateFinder.EDGE));
+        write("b.txt", content(2 * DuplicateFinder.EDGE));
+
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, NO_LIMITS, null, null).run(null);
+
+        assertEquals(1, r.groups().size());
+        assertEquals(2L * 2 * DuplicateFinder.EDGE, r.bytesRead());
+    }
+
+    @Test
+    void hardLinksAreNotDuplicates() throws Exception {
+        Path a = write("a.txt", content(100));
+        try {
+            Files.createLink(tmp.resolve("link.txt"), a);
+        } catch (UnsupportedOperationException | IOException e) {
+            return; // 하드 링크를 못 만드는 파일 시스템
+        }
+
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, NO_LIMITS, null, null).run(null);
+
+        assertEquals(2L, r.candidates());
+        assertTrue(r.groups().isEmpty());
+    }
+
+    @Test
+    void readLimitStopsBeforeReading() throws Exception {
+        big("a.bin", -1);
+        big("b.bin", -1);
+
+        DuplicateFinder.Limits limits = new DuplicateFinder.Limits(2L * DuplicateFinder.EDGE, 60_000L);
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, limits, null, null).run(null);
+
+        assertEquals(DuplicateFinder.Stop.BYTES, r.stoppedBy());
+        assertTrue(r.groups().isEmpty());
+        assertTrue(r.bytesRead() <= limits.maxReadBytes());
+    }
+
+    @Test
+    void readLimitBetweenStagesDropsUnsettledGroups() throws Exception {
+        big("a.bin", -1);
+        big("b.bin", -1);
+
+        // 앞/뒤는 다 읽지만 전체 해시 하나를 읽을 만큼은 남지 않는다
+        DuplicateFinder.Limits limits = new DuplicateFinder.Limits(4L * DuplicateFinder.EDGE + BIG - 1, 60_000L);
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, limits, null, null).run(null);
+
+        assertEquals(DuplicateFinder.Stop.BYTES, r.stoppedBy());
+        assertEquals(2L, r.candidates());
+        assertTrue(r.groups().isEmpty());
+    }
+
+    @Test
+    void timeLimitStopsHashing() throws Exception {
+        write("a.txt", content(10));
+        write("b.txt", content(10));
+
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, new DuplicateFinder.Limits(Long.MAX_VALUE, 0L),
+                null, null).run(null);
+
+        assertEquals(DuplicateFinder.Stop.TIME, r.stoppedBy());
+        assertEquals(0L, r.bytesRead());
+        assertTrue(r.groups().isEmpty());
+    }
+
+    @Test
+    void cancellationStopsHashing() throws Exception {
+        write("a.txt", content(10));
+        write("b.txt", content(10));
+
+        DuplicateFinder.Result r = new DuplicateFinder(tmp, OPTIONS, NO_LIMITS, () -> true, null).run(null);
+
+        assertEquals(DuplicateFinder.Stop.CANCELLED, r.stoppedBy());
+        assertTrue(r.groups().isEmpty());
+    }
+}
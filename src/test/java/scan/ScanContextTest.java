@@ -0,0 +1,63 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanContextTest {
+
+    @TempDir
+    Path tmp;
+
+    private static long mtime(Path dir) throws IOException {
+        return Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).toMillis();
+    }
+
+    @Test
+    void indexHitIsTrustedOnlyWhileTheFolderIsUnchanged() throws IOException {
+        Path dir = Files.createDirectory(tmp.resolve("dir"));
+        Files.write(dir.resolve("a.bin"), new byte[10]);
+
+        ScanTree index = new ScanTree();
+        index.put(new DirRecord(tmp, mtime(tmp), 1, 0L, 0L, new DirStats(10L, 1L)));
+        index.put(new DirRecord(dir, mtime(dir), 1, 10L, 1L, new DirStats(10L, 1L)));
+        ScanContext ctx = ScanContext.builder(() -> false).index(index).build();
+
+        assertEquals(10L, ctx.indexed(dir).bytes());
+
+        // 항목 수가 다르다 (mtime 은 그대로 맞춰 둠)
+        long before = mtime(dir);
+        Files.write(dir.resolve("b.bin"), new byte[5]);
+        Files.setLastModifiedTime(dir, FileTime.fromMillis(before));
+
+        assertNull(ctx.indexed(dir));
+        assertNull(index.get(dir));
+        assertNull(index.get(tmp), "ancestor totals no longer add up");
+    }
+
+    @Test
+    void changedMtimeInvalidatesTheHit() throws IOException {
+        Path dir = Files.createDirectory(tmp.resolve("dir"));
+        ScanTree index = new ScanTree();
+        index.put(new DirRecord(dir, mtime(dir) - 1_000L, 0, 0L, 0L, new DirStats(0L, 0L)));
+
+        assertNull(ScanContext.builder(() -> false).index(index).build().indexed(dir));
+        assertNull(index.get(dir));
+    }
+
+    @Test
+    void missingFolderIsNotTrusted() {
+        Path gone = tmp.resolve("gone");
+        ScanTree index = new ScanTree();
+        index.put(new DirRecord(gone, 1L, 0, 0L, 0L, new DirStats(0L, 0L)));
+
+        assertNull(ScanContext.builder(() -> false).index(index).build().indexed(gone));
+    }
+}
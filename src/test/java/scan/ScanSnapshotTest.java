@@ -0,0 +1,186 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanSnapshotTest {
+
+    @TempDir
+    Path tmp;
+
+    private static DirRecord rec(Path dir, long seed) {
+        return new DirRecord(dir.toAbsolutePath().normalize(), 1_700_000_000_000L + seed, (int) (seed % 7),
+                seed * 11, seed % 5, new DirStats(seed * 1_000L, seed * 3));
+    }
+
+    /** 경로 바이트 순서가 문자 순서와 다른 이름들 (접두어, 공백/기호, 한글, surrogate 쌍). */
+    private List<DirRecord> sampleTree(Path root) {
+        List<DirRecord> out = new ArrayList<>();
+        String[] names = {"a", "a b", "a-b", "ab", "a.b", "Z", "é", "한글", "😀", "zz"};
+        out.add(rec(root, 1));
+        long seed = 2;
+        for (String n : names) {
+            Path d = root.resolve(n);
+            out.add(rec(d, seed++));
+            for (String m : new String[]{"x", "가", "x y"}) out.add(rec(d.resolve(m), seed++));
+        }
+        return out;
+    }
+
+    private static void assertEntry(DirRecord expected, ScanSnapshot.Entry e) {
+        assertNotNull(e, expected.dir().toString());
+        assertEquals(expected.mtime(), e.mtime());
+        assertEquals(expected.childCount(), e.childCount());
+        assertEquals(expected.ownBytes(), e.ownBytes());
+        assertEquals(expected.ownFiles(), e.ownFiles());
+        assertEquals(expected.total().bytes(), e.totalBytes());
+        assertEquals(expected.total().files(), e.totalFiles());
+    }
+
+    @Test
+    void writeThenOpenFindsEveryRecord() throws IOException {
+        Path root = tmp.resolve("root");
+        List<DirRecord> records = sampleTree(root);
+        Path file = tmp.resolve("snap.bin");
+
+        ScanSnapshot.write(file, 7L, records);
+        ScanSnapshot s = ScanSnapshot.open(file);
+
+        assertEquals(7L, s.generation());
+        assertEquals(records.size(), s.size());
+        for (DirRecord r : records) assertEntry(r, s.find(r.dir()));
+
+        assertNull(s.find(root.resolve("missing")));
+        assertNull(s.find(root.resolve("a").resolve("x").resolve("deeper")));
+        assertNull(s.find(tmp));
+        assertNull(s.find(null));
+    }
+
+    @Test
+    void findNormalizesTheQueryPath() throws IOException {
+        Path root = tmp.resolve("root");
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 1L, sampleTree(root));
+        ScanSnapshot s = ScanSnapshot.open(file);
+
+        assertNotNull(s.find(root.resolve("a").resolve("..").resolve("ab")));
+    }
+
+    @Test
+    void forEachReturnsTheWrittenRecordsInPathOrder() throws IOException {
+        Path root = tmp.resolve("root");
+        List<DirRecord> records = sampleTree(root);
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 1L, records);
+
+        List<DirRecord> read = new ArrayList<>();
+        ScanSnapshot.open(file).forEach(read::add);
+
+        Map<Path, DirRecord> byPath = new HashMap<>();
+        for (DirRecord r : records) byPath.put(r.dir(), r);
+        assertEquals(records.size(), read.size());
+        for (DirRecord r : read) assertEquals(byPath.get(r.dir()), r);
+
+        // UTF-8 바이트 오름차순 (이진 탐색과 같은 순서)
+        for (int i = 1; i < read.size(); i++) {
+            byte[] a = read.get(i - 1).dir().toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            byte[] b = read.get(i).dir().toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            assertTrue(Arrays.compareUnsigned(a, b) < 0, read.get(i).dir().toString());
+        }
+    }
+
+    @Test
+    void childDirsListsDirectChildrenOnly() throws IOException {
+        Path root = tmp.resolve("root");
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 1L, sampleTree(root));
+        ScanSnapshot s = ScanSnapshot.open(file);
+
+        List<Path> children = s.childDirs(s.find(root));
+        assertEquals(10, children.size());
+        for (Path c : children) assertEquals(root.toAbsolutePath().normalize(), c.getParent());
+
+        List<Path> grand = s.childDirs(s.find(root.resolve("한글")));
+        assertEquals(3, grand.size());
+        assertTrue(grand.contains(root.toAbsolutePath().normalize().resolve("한글").resolve("가")));
+
+        assertTrue(s.childDirs(s.find(root.resolve("a").resolve("x"))).isEmpty());
+    }
+
+    @Test
+    void laterRecordForTheSamePathWins() throws IOException {
+        Path dir = tmp.resolve("d");
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 1L, List.of(rec(dir, 1), rec(dir, 9)));
+
+        ScanSnapshot s = ScanSnapshot.open(file);
+        assertEquals(1, s.size());
+        assertEntry(rec(dir, 9), s.find(dir));
+    }
+
+    @Test
+    void emptySnapshotOpens() throws IOException {
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 3L, List.of());
+
+        ScanSnapshot s = ScanSnapshot.open(file);
+        assertEquals(0, s.size());
+        assertEquals(3L, s.generation());
+        assertNull(s.find(tmp));
+    }
+
+    @Test
+    void headerLayout() throws IOException {
+        Path root = tmp.resolve("root");
+        List<DirRecord> records = sampleTree(root);
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 42L, records);
+
+        long poolBytes = 0L;
+        for (DirRecord r : records) {
+            poolBytes += r.dir().toString().getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+        }
+        int childRefs = records.size() - 1; // root 말고는 모두 부모가 스냅샷 안에 있음
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(0x53534E50, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals(42L, in.readLong());
+            assertEquals(records.size(), in.readInt());
+            assertEquals(childRefs, in.readInt());
+            assertEquals(poolBytes, in.readLong());
+        }
+        assertEquals(32L + 64L * records.size() + 4L * childRefs + poolBytes, Files.size(file));
+        assertFalse(Files.exists(tmp.resolve("snap.bin.tmp")));
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = tmp.resolve("foreign.bin");
+        Files.write(foreign, new byte[64]);
+        assertThrows(IOException.class, () -> ScanSnapshot.open(foreign));
+
+        Path tiny = tmp.resolve("tiny.bin");
+        Files.write(tiny, new byte[]{0x53, 0x53});
+        assertThrows(IOException.class, () -> ScanSnapshot.open(tiny));
+
+        Path file = tmp.resolve("snap.bin");
+        ScanSnapshot.write(file, 1L, sampleTree(tmp.resolve("root")));
+        byte[] all = Files.readAllBytes(file);
+        Path truncated = tmp.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(all, all.length - 1));
+        assertThrows(IOException.class, () -> ScanSnapshot.open(truncated));
+    }
+}
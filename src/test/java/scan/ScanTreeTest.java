@@ -0,0 +1,340 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanTreeTest {
+
+    private static final Path ROOT = Path.of("").toAbsolutePath().getRoot().resolve("scan-tree-test");
+
+    private static DirRecord rec(Path dir, long total) {
+        return new DirRecord(dir, 100L + total, 2, total / 2, 1L, new DirStats(total, 3L));
+    }
+
+    private static List<DirLister.FileEntry> files(String... names) {
+        List<DirLister.FileEntry> out = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) out.add(new DirLister.FileEntry(names[i], 10L * (i + 1), 500L + i));
+        return out;
+    }
+
+    private static String[] childNames(ScanTree t, Path dir) {
+        String[] names = t.childEntries(t.node(dir)).names().clone();
+        Arrays.sort(names);
+        return names;
+    }
+
+    @Test
+    void putThenGetReturnsTheRecord() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        t.put(rec(a, 40L));
+
+        DirRecord r = t.get(a);
+        assertNotNull(r);
+        assertEquals(a, r.dir());
+        assertEquals(140L, r.mtime());
+        assertEquals(2, r.childCount());
+        assertEquals(20L, r.ownBytes());
+        assertEquals(1L, r.ownFiles());
+        assertEquals(40L, r.total().bytes());
+        assertEquals(3L, r.total().files());
+        assertEquals(1, t.size());
+
+        // 중간 경로는 노드만 있고 기록은 없음
+        assertNull(t.get(ROOT));
+        assertNotEquals(ScanTree.NO_NODE, t.node(ROOT));
+        assertEquals(a, t.path(t.node(a)));
+    }
+
+    private static List<Path> recordedUnder(ScanTree t, Path root) {
+        List<Path> out = new ArrayList<>();
+        t.forEachRecorded(root, (node, path) -> out.add(Path.of(path)));
+        return out;
+    }
+
+    @Test
+    void recordedUnderCollectsTheSubtree() {
+        ScanTree t = new ScanTree();
+        t.put(rec(ROOT, 100L));
+        t.put(rec(ROOT.resolve("a"), 60L));
+        t.put(rec(ROOT.resolve("a").resolve("x"), 10L));
+        t.put(rec(ROOT.resolve("b"), 40L));
+
+        assertEquals(4, recordedUnder(t, ROOT).size());
+        List<Path> underA = recordedUnder(t, ROOT.resolve("a"));
+        assertEquals(2, underA.size());
+        assertTrue(underA.contains(ROOT.resolve("a").resolve("x")));
+        assertTrue(recordedUnder(t, ROOT.resolve("missing")).isEmpty());
+    }
+
+    @Test
+    void modCountMovesOnlyWhenRecordedValuesChange() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        long m0 = t.modCount();
+
+        t.put(rec(a, 10L));
+        long m1 = t.modCount();
+        assertTrue(m1 > m0);
+
+        // 같은 값을 다시 기록 (인덱스로 답한 drill-down)
+        t.put(rec(a, 10L));
+        t.put(rec(a, 10L), files("f"));
+        assertEquals(m1, t.modCount());
+
+        t.put(rec(a, 11L));
+        long m2 = t.modCount();
+        assertTrue(m2 > m1);
+
+        t.put(rec(a.resolve("x"), 1L));
+        t.adjustAncestors(a.resolve("x"), 5L, 1L);
+        long m3 = t.modCount();
+        assertTrue(m3 > m2);
+        t.adjustAncestors(a.resolve("x"), 0L, 0L);
+        assertEquals(m3, t.modCount());
+
+        t.removeSubtree(a.resolve("x"));
+        assertTrue(t.modCount() > m3);
+        long m4 = t.modCount();
+        t.clear();
+        assertTrue(t.modCount() > m4, "clear never goes back to an older count");
+    }
+
+    @Test
+    void forEachRecordedVisitsRecordedFoldersWithTheirPaths() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        t.put(rec(ROOT, 100L));
+        t.put(rec(a, 60L), files("f1"));
+        t.put(rec(a.resolve("x").resolve("y"), 10L));
+        t.put(rec(ROOT.resolve("b"), 40L));
+
+        List<String> paths = new ArrayList<>();
+        t.forEachRecorded(a, (node, path) -> {
+            paths.add(path);
+            assertEquals(Path.of(path), t.path(node));
+            assertEquals(t.get(Path.of(path)).total().bytes(), t.bytes(node));
+        });
+        paths.sort(null);
+        // 기록 없는 중간 폴더(x)와 파일은 건너뛴다
+        assertEquals(List.of(a.toString(), a.resolve("x").resolve("y").toString()), paths);
+
+        int[] n = {0};
+        t.forEachRecorded(ROOT, (node, path) -> n[0]++);
+        assertEquals(4, n[0]);
+        t.forEachRecorded(ROOT.resolve("missing"), (node, path) -> fail(path));
+
+        int node = t.node(a);
+        assertEquals(2, t.childCount(node));
+        assertEquals(30L, t.ownBytes(node));
+        assertEquals(1L, t.ownFiles(node));
+        assertEquals(3L, t.files(node));
+    }
+
+    @Test
+    void replacedFileNodesAreReused() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        String[] names = new String[2_000];
+        for (int i = 0; i < names.length; i++) names[i] = "f" + i;
+
+        t.put(rec(a, 1L), files(names));
+        t.put(rec(a, 1L), files(names)); // 빈 번호 목록 배열이 자리 잡은 뒤부터 비교
+        long before = t.memoryBytes();
+        for (int round = 0; round < 20; round++) t.put(rec(a, 1L), files(names));
+
+        assertEquals(before, t.memoryBytes());
+        assertEquals(1 + names.length, t.countEntries(t.node(a), true));
+
+        // 지웠다 되살린 폴더의 파일 노드도 다시 쓴다
+        t.removeSubtree(a);
+        t.put(rec(a, 1L), files(names));
+        assertEquals(before, t.memoryBytes());
+        assertEquals(1 + names.length, t.countEntries(t.node(a), true));
+    }
+
+    @Test
+    void removeSubtreeHidesTheFolderAndItsChildren() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        Path ax = a.resolve("x");
+        t.put(rec(ROOT, 100L));
+        t.put(rec(a, 60L));
+        t.put(rec(ax, 10L));
+        t.put(rec(ROOT.resolve("b"), 40L));
+        assertEquals(4, t.size());
+
+        t.removeSubtree(a);
+
+        assertEquals(2, t.size());
+        assertNull(t.get(a));
+        assertNull(t.get(ax));
+        assertEquals(ScanTree.NO_NODE, t.node(a));
+        assertEquals(ScanTree.NO_NODE, t.node(ax));
+        assertArrayEquals(new String[]{"b"}, childNames(t, ROOT));
+        assertEquals(2, t.countEntries(t.node(ROOT), true));
+
+        // 없는 경로 / 두 번 지워도 그대로
+        t.removeSubtree(a);
+        t.removeSubtree(ROOT.resolve("missing"));
+        assertEquals(2, t.size());
+    }
+
+    @Test
+    void revivedFolderStartsEmpty() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        Path ax = a.resolve("x");
+        t.put(rec(ROOT, 100L));
+        t.put(rec(a, 60L), files("f1", "f2"));
+        t.put(rec(ax, 10L));
+        t.removeSubtree(a);
+
+        // 같은 이름이 다시 생기면 노드를 재사용하되 예전 하위 노드(x, 파일)는 끊긴다
+        t.put(rec(a, 7L));
+        assertEquals(2, t.size());
+        assertEquals(7L, t.get(a).total().bytes());
+        assertNull(t.get(ax));
+        assertEquals(ScanTree.NO_NODE, t.node(ax));
+        assertEquals(0, t.children(t.node(a)).length);
+        assertArrayEquals(new String[]{"a"}, childNames(t, ROOT));
+        assertEquals(2, t.countEntries(t.node(ROOT), true));
+
+        // 예전 하위 폴더도 다시 넣으면 빈 상태로 살아난다
+        t.put(rec(ax, 3L));
+        assertEquals(3L, t.get(ax).total().bytes());
+        assertEquals(0, t.children(t.node(ax)).length);
+        assertEquals(3, t.size());
+    }
+
+    @Test
+    void revivingADeepPathRevivesRemovedAncestors() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        Path deep = a.resolve("x").resolve("y");
+        t.put(rec(a, 5L));
+        t.put(rec(deep, 1L));
+        t.removeSubtree(a);
+
+        t.put(rec(deep, 2L));
+        assertEquals(2L, t.get(deep).total().bytes());
+        assertNull(t.get(a));
+        assertEquals(deep, t.path(t.node(deep)));
+        assertEquals(1, t.size());
+    }
+
+    @Test
+    void replaceFilesSwapsOnlyTheFileNodes() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        t.put(rec(a, 60L), files("f1", "f2", "f3"));
+        t.put(rec(a.resolve("sub"), 5L), files("s1"));
+        int node = t.node(a);
+
+        assertEquals(1 + 3 + (1 + 1), t.countEntries(node, true));
+        assertEquals(2, t.countEntries(node, false));
+
+        t.put(rec(a, 61L), files("g1"));
+        assertEquals(1 + 1 + (1 + 1), t.countEntries(node, true));
+        assertEquals(2, t.countEntries(node, false));
+        assertArrayEquals(new String[]{"g1", "sub"}, childNames(t, a));
+
+        ScanTree.Children c = t.childEntries(node);
+        for (int i = 0; i < c.size(); i++) {
+            if (c.names()[i].equals("g1")) {
+                assertFalse(c.directory()[i]);
+                assertEquals(10L, c.bytes()[i]);
+                assertEquals(500L, c.mtime()[i]);
+                assertFalse(t.isDirectory(c.nodes()[i]));
+            } else {
+                assertTrue(c.directory()[i]);
+            }
+        }
+
+        // 파일 목록 없이 기록만 바꾸면 파일은 그대로
+        t.put(rec(a, 62L), null);
+        assertEquals(1 + 1 + (1 + 1), t.countEntries(node, true));
+
+        // 빈 목록이면 파일을 모두 뗀다
+        t.put(rec(a, 63L), files());
+        assertEquals(1 + (1 + 1), t.countEntries(node, true));
+        assertArrayEquals(new String[]{"sub"}, childNames(t, a));
+    }
+
+    @Test
+    void filesDoNotShadowFoldersWithTheSameName() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        t.put(rec(a, 1L), files("same"));
+        t.put(rec(a.resolve("same"), 2L));
+
+        assertEquals(2L, t.get(a.resolve("same")).total().bytes());
+        assertEquals(3, t.countEntries(t.node(a), true));
+        assertTrue(t.isDirectory(t.node(a.resolve("same"))));
+    }
+
+    @Test
+    void invalidateDropsTheFolderItsChildrenAndAncestorsOnly() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        t.put(rec(ROOT, 100L));
+        t.put(rec(a, 60L));
+        t.put(rec(a.resolve("x"), 10L));
+        t.put(rec(ROOT.resolve("b"), 40L));
+
+        t.invalidate(a);
+
+        assertNull(t.get(ROOT));
+        assertNull(t.get(a));
+        assertNull(t.get(a.resolve("x")));
+        assertNotNull(t.get(ROOT.resolve("b")));
+        assertEquals(1, t.size());
+        // 노드는 남아서 순회는 된다
+        assertNotEquals(ScanTree.NO_NODE, t.node(a.resolve("x")));
+    }
+
+    @Test
+    void adjustAncestorsUpdatesRecordedParentsAndForgetsTheirTypes() {
+        ScanTree t = new ScanTree();
+        Path a = ROOT.resolve("a");
+        Path ax = a.resolve("x");
+        TypeHistogram.Builder types = new TypeHistogram.Builder();
+        types.add("f.txt", 100L);
+        t.put(new DirRecord(ROOT, 1L, 1, 0L, 0L, new DirStats(100L, 1L, types.build(), null)));
+        t.put(rec(ax, 10L));
+
+        t.adjustAncestors(ax, 25L, 2L);
+
+        assertEquals(125L, t.get(ROOT).total().bytes());
+        assertEquals(3L, t.get(ROOT).total().files());
+        assertNull(t.get(ROOT).total().types());
+        assertEquals(10L, t.get(ax).total().bytes());
+        assertNull(t.get(a));
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        ScanTree t = new ScanTree();
+        for (int i = 0; i < 5_000; i++) {
+            t.put(rec(ROOT.resolve("d" + (i % 50)).resolve("e" + i), i), files("f" + i));
+        }
+        assertEquals(5_000, t.size());
+        for (int i = 0; i < 5_000; i += 97) {
+            Path p = ROOT.resolve("d" + (i % 50)).resolve("e" + i);
+            assertEquals(i, t.get(p).total().bytes());
+            assertEquals(p, t.path(t.node(p)));
+        }
+        assertEquals(1 + 50 + 5_000 * 2, t.countEntries(t.node(ROOT), true));
+        assertEquals(1 + 50 + 5_000, t.countEntries(t.node(ROOT), false));
+
+        t.clear();
+        assertEquals(0, t.size());
+        assertEquals(ScanTree.NO_NODE, t.node(ROOT));
+    }
+}
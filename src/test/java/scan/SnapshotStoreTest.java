@@ -0,0 +1,190 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path tmp;
+
+    private static DirRecord rec(Path dir, long bytes) {
+        return new DirRecord(dir.toAbsolutePath().normalize(), 1_000L, 1, bytes, 1L, new DirStats(bytes, 1L));
+    }
+
+    private Path store() {
+        return tmp.resolve("cache");
+    }
+
+    @Test
+    void emptyFolderHasNoSnapshot() {
+        assertNull(SnapshotStore.open(store()).current());
+    }
+
+    @Test
+    void eachSaveWritesANewGenerationAndDropsOlderOnes() throws IOException {
+        Path a = tmp.resolve("a");
+        SnapshotStore s = SnapshotStore.open(store());
+
+        s.save(a, List.of(rec(a, 10)));
+        assertEquals(1L, s.current().generation());
+        assertTrue(Files.exists(store().resolve("scan-snapshot-1.bin")));
+
+        s.save(a, List.of(rec(a, 20)));
+        assertEquals(2L, s.current().generation());
+        assertTrue(Files.exists(store().resolve("scan-snapshot-2.bin")));
+        assertFalse(Files.exists(store().resolve("scan-snapshot-1.bin")));
+        assertEquals(20L, s.current().find(a).totalBytes());
+    }
+
+    @Test
+    void saveReplacesOnlyTheRecordsUnderRoot() throws IOException {
+        Path a = tmp.resolve("a");
+        Path b = tmp.resolve("b");
+        SnapshotStore s = SnapshotStore.open(store());
+
+        s.save(a, List.of(rec(a, 1), rec(a.resolve("x"), 2), rec(a.resolve("y"), 3)));
+        s.save(b, List.of(rec(b, 4)));
+        ScanSnapshot cur = s.current();
+        assertEquals(4, cur.size());
+
+        // a 를 다시 저장하면 a 아래 예전 기록(y)은 사라지고 b 는 남는다
+        s.save(a, List.of(rec(a, 5), rec(a.resolve("x"), 6)));
+        cur = s.current();
+        assertEquals(3, cur.size());
+        assertEquals(5L, cur.find(a).totalBytes());
+        assertEquals(6L, cur.find(a.resolve("x")).totalBytes());
+        assertNull(cur.find(a.resolve("y")));
+        assertEquals(4L, cur.find(b).totalBytes());
+    }
+
+    @Test
+    void reopenLoadsTheLatestGeneration() throws IOException {
+        Path a = tmp.resolve("a");
+        SnapshotStore first = SnapshotStore.open(store());
+        first.save(a, List.of(rec(a, 1)));
+        first.save(a, List.of(rec(a, 2)));
+
+        SnapshotStore reopened = SnapshotStore.open(store());
+        assertEquals(2L, reopened.current().generation());
+        assertEquals(2L, reopened.current().find(a).totalBytes());
+
+        reopened.save(a, List.of(rec(a, 3)));
+        assertEquals(3L, reopened.current().generation());
+    }
+
+    @Test
+    void corruptNewestFileFallsBackToAnOlderGeneration() throws IOException {
+        Path a = tmp.resolve("a");
+        SnapshotStore s = SnapshotStore.open(store());
+        s.save(a, List.of(rec(a, 1)));
+
+        Files.write(store().resolve("scan-snapshot-5.bin"), new byte[]{1, 2, 3});
+        Files.write(store().resolve("scan-snapshot-x.bin"), new byte[]{1});
+
+        SnapshotStore reopened = SnapshotStore.open(store());
+        assertEquals(1L, reopened.current().generation());
+        assertEquals(1L, reopened.current().find(a).totalBytes());
+    }
+
+    @Test
+    void saveFromIndexSkipsWhenNothingChanged() throws IOException {
+        Path a = tmp.resolve("a");
+        ScanTree index = new ScanTree();
+        index.put(rec(a, 10));
+        index.put(rec(a.resolve("x"), 4));
+        SnapshotStore s = SnapshotStore.open(store());
+
+        assertTrue(s.save(a, index));
+        assertEquals(1L, s.current().generation());
+        assertEquals(4L, s.current().find(a.resolve("x")).totalBytes());
+
+        // 같은 root 다시 / 그 안으로 drill-down / 같은 값 재기록: 새 세대 없음
+        assertFalse(s.save(a, index));
+        assertFalse(s.save(a.resolve("x"), index));
+        index.put(rec(a, 10));
+        assertFalse(s.save(a, index));
+        assertEquals(1L, s.current().generation());
+
+        // 기록이 바뀌면 저장
+        index.put(rec(a.resolve("x"), 5));
+        assertTrue(s.save(a.resolve("x"), index));
+        assertEquals(2L, s.current().generation());
+        assertEquals(5L, s.current().find(a.resolve("x")).totalBytes());
+        assertEquals(10L, s.current().find(a).totalBytes());
+
+        // 다른 인덱스는 비교하지 않는다
+        ScanTree other = new ScanTree();
+        other.put(rec(a, 7));
+        assertTrue(s.save(a, other));
+        assertEquals(7L, s.current().find(a).totalBytes());
+        assertNull(s.current().find(a.resolve("x")));
+    }
+
+    @Test
+    void mergeKeepsByteOrderAroundTheReplacedRoot() throws IOException {
+        Path t = tmp.resolve("t");
+        Path a = t.resolve("a");
+        // 바이트 순서로 a 하위("a/..") 사이에 끼는 이웃들: "a b", "a-b", "a.b" 는 '/' 보다 앞, "ab", "가" 는 뒤
+        List<Path> neighbours = List.of(t, t.resolve("a b"), t.resolve("a-b"), t.resolve("a.b"),
+                t.resolve("ab"), t.resolve("가"));
+        SnapshotStore s = SnapshotStore.open(store());
+
+        List<DirRecord> first = new ArrayList<>();
+        for (int i = 0; i < neighbours.size(); i++) first.add(rec(neighbours.get(i), 100 + i));
+        first.add(rec(a, 1));
+        first.add(rec(a.resolve("old"), 2));
+        s.save(t, first);
+
+        ScanTree index = new ScanTree();
+        index.put(rec(a, 50));
+        index.put(rec(a.resolve("new"), 20));
+        index.put(rec(a.resolve("new").resolve("깊은"), 5));
+        assertTrue(s.save(a, index));
+
+        ScanSnapshot cur = s.current();
+        assertEquals(neighbours.size() + 3, cur.size());
+        for (int i = 0; i < neighbours.size(); i++) {
+            assertEquals(100L + i, cur.find(neighbours.get(i)).totalBytes(), neighbours.get(i).toString());
+        }
+        assertEquals(50L, cur.find(a).totalBytes());
+        assertNull(cur.find(a.resolve("old")));
+        assertEquals(5L, cur.find(a.resolve("new").resolve("깊은")).totalBytes());
+
+        List<DirRecord> read = new ArrayList<>();
+        cur.forEach(read::add);
+        for (int i = 1; i < read.size(); i++) {
+            byte[] x = read.get(i - 1).dir().toString().getBytes(StandardCharsets.UTF_8);
+            byte[] y = read.get(i).dir().toString().getBytes(StandardCharsets.UTF_8);
+            assertTrue(Arrays.compareUnsigned(x, y) < 0, read.get(i).dir().toString());
+        }
+
+        // 하위 폴더 연결도 합친 순서 기준
+        List<Path> children = cur.childDirs(cur.find(t));
+        assertEquals(neighbours.size(), children.size()); // t 를 뺀 이웃들 + a
+        assertTrue(children.contains(a.toAbsolutePath().normalize()));
+        assertEquals(List.of(a.resolve("new").toAbsolutePath().normalize()), cur.childDirs(cur.find(a)));
+    }
+
+    @Test
+    void recordsForTheSamePathReplaceOlderOnesEvenOutsideRoot() throws IOException {
+        Path a = tmp.resolve("a");
+        Path b = tmp.resolve("b");
+        SnapshotStore s = SnapshotStore.open(store());
+        s.save(b, List.of(rec(b, 1)));
+
+        s.save(a, List.of(rec(a, 2), rec(b, 3)));
+        assertEquals(2, s.current().size());
+        assertEquals(3L, s.current().find(b).totalBytes());
+    }
+}
@@ -0,0 +1,171 @@
+package scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeHistogramTest {
+
+    private static Map<String, TypeHistogram.Entry> byType(TypeHistogram h) {
+        Map<String, TypeHistogram.Entry> out = new HashMap<>();
+        for (TypeHistogram.Entry e : h.entries()) assertNull(out.put(e.type(), e), e.type());
+        return out;
+    }
+
+    private static long totalBytes(TypeHistogram h) {
+        long sum = 0L;
+        for (TypeHistogram.Entry e : h.entries()) sum += e.bytes();
+        return sum;
+    }
+
+    private static long totalFiles(TypeHistogram h) {
+        long sum = 0L;
+        for (TypeHistogram.Entry e : h.entries()) sum += e.files();
+        return sum;
+    }
+
+    /** 글자만으로 된 서로 다른 확장자 (숫자뿐인 확장자는 확장자로 보지 않으므로). */
+    private static String ext(int i) {
+        return "t" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+    }
+
+    /** i 번째 종류가 (i + 1) * 100 바이트, 파일 하나. */
+    private static TypeHistogram manyTypes(int count) {
+        TypeHistogram.Builder b = new TypeHistogram.Builder();
+        for (int i = 0; i < count; i++) b.add("f." + ext(i), (i + 1) * 100L);
+        return b.build();
+    }
+
+    @Test
+    void builderGroupsByLowerCaseExtension() {
+        TypeHistogram.Builder b = new TypeHistogram.Builder();
+        b.add("a.MP4", 100);
+        b.add("b.mp4", 50);
+        b.add("notes.txt", 7);
+        b.add("README", 3);
+        b.add(".bashrc", 2);      // 점으로 시작
+        b.add("trailing.", 1);    // 점으로 끝남
+        b.add("libc.so.6", 4);    // 숫자뿐
+        b.add("x.verylongextension", 5);
+
+        TypeHistogram h = b.build();
+        Map<String, TypeHistogram.Entry> m = byType(h);
+
+        assertEquals(new TypeHistogram.Entry("mp4", 150, 2), m.get("mp4"));
+        assertEquals(new TypeHistogram.Entry("txt", 7, 1), m.get("txt"));
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.NONE, 15, 5), m.get(TypeHistogram.NONE));
+        assertEquals(3, m.size());
+        assertEquals(List.of("mp4", TypeHistogram.NONE, "txt"),
+                h.entries().stream().map(TypeHistogram.Entry::type).toList());
+    }
+
+    @Test
+    void emptyBuilderAndMergeWithEmptyReturnTheSameValue() {
+        TypeHistogram h = manyTypes(3);
+
+        assertSame(TypeHistogram.EMPTY, new TypeHistogram.Builder().build());
+        assertSame(h, TypeHistogram.merge(h, TypeHistogram.EMPTY));
+        assertSame(h, TypeHistogram.merge(TypeHistogram.EMPTY, h));
+        assertSame(TypeHistogram.EMPTY, TypeHistogram.unknown(0, 0));
+    }
+
+    @Test
+    void mergeAddsMatchingTypesAndKeepsTheRest() {
+        TypeHistogram.Builder a = new TypeHistogram.Builder();
+        a.add("a.jpg", 10);
+        a.add("b.log", 1);
+        TypeHistogram.Builder b = new TypeHistogram.Builder();
+        b.add("c.jpg", 30);
+        b.add("d.zip", 5);
+
+        TypeHistogram merged = TypeHistogram.merge(
+                TypeHistogram.merge(a.build(), b.build()), TypeHistogram.unknown(8, 2));
+        Map<String, TypeHistogram.Entry> m = byType(merged);
+
+        assertEquals(new TypeHistogram.Entry("jpg", 40, 2), m.get("jpg"));
+        assertEquals(new TypeHistogram.Entry("log", 1, 1), m.get("log"));
+        assertEquals(new TypeHistogram.Entry("zip", 5, 1), m.get("zip"));
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.UNKNOWN, 8, 2), m.get(TypeHistogram.UNKNOWN));
+        assertEquals(8L, merged.unknownBytes());
+        assertEquals("jpg", merged.entries().get(0).type());
+    }
+
+    @Test
+    void upToMaxTypesNothingIsFolded() {
+        TypeHistogram h = manyTypes(TypeHistogram.MAX_TYPES);
+
+        assertEquals(TypeHistogram.MAX_TYPES, h.entries().size());
+        assertNull(byType(h).get(TypeHistogram.OTHER));
+    }
+
+    @Test
+    void smallestTypesFoldIntoOther() {
+        int count = TypeHistogram.MAX_TYPES + 6;
+        TypeHistogram h = manyTypes(count);
+        Map<String, TypeHistogram.Entry> m = byType(h);
+
+        // 큰 것 MAX_TYPES - 2 개 + OTHER
+        int kept = TypeHistogram.MAX_TYPES - 2;
+        int folded = count - kept;
+        assertEquals(kept + 1, m.size());
+        for (int i = folded; i < count; i++) assertNotNull(m.get(ext(i)), ext(i));
+        for (int i = 0; i < folded; i++) assertNull(m.get(ext(i)), ext(i));
+
+        long otherBytes = 0L;
+        for (int i = 0; i < folded; i++) otherBytes += (i + 1) * 100L;
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.OTHER, otherBytes, folded), m.get(TypeHistogram.OTHER));
+
+        long all = 0L;
+        for (int i = 0; i < count; i++) all += (i + 1) * 100L;
+        assertEquals(all, totalBytes(h));
+        assertEquals(count, totalFiles(h));
+    }
+
+    @Test
+    void mergingFoldedValuesAddsTheirOtherAndFoldsAgain() {
+        TypeHistogram a = manyTypes(TypeHistogram.MAX_TYPES + 6);
+        TypeHistogram.Builder b = new TypeHistogram.Builder();
+        for (int i = 0; i < 40; i++) b.add("g." + ext(100 + i), 1_000_000L + i);
+        TypeHistogram merged = TypeHistogram.merge(a, b.build());
+        Map<String, TypeHistogram.Entry> m = byType(merged);
+
+        assertEquals(TypeHistogram.MAX_TYPES - 1, m.size());
+        for (int i = 0; i < 40; i++) assertNotNull(m.get(ext(100 + i)), ext(100 + i));
+        assertEquals(totalBytes(a) + totalBytes(b.build()), totalBytes(merged));
+        assertEquals(totalFiles(a) + 40, totalFiles(merged));
+        assertEquals(TypeHistogram.MAX_TYPES + 6 - 22, m.get(TypeHistogram.OTHER).files());
+    }
+
+    @Test
+    void unknownIsNeverFolded() {
+        TypeHistogram merged = TypeHistogram.merge(manyTypes(TypeHistogram.MAX_TYPES + 6), TypeHistogram.unknown(1, 1));
+        Map<String, TypeHistogram.Entry> m = byType(merged);
+
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.UNKNOWN, 1, 1), m.get(TypeHistogram.UNKNOWN));
+        assertEquals(1L, merged.unknownBytes());
+        assertEquals(TypeHistogram.MAX_TYPES, m.size());
+    }
+
+    @Test
+    void familiesGroupByMimeTopLevel() {
+        TypeHistogram.Builder b = new TypeHistogram.Builder();
+        b.add("a.mkv", 100);
+        b.add("b.webm", 50);
+        b.add("c.log", 5);
+        b.add("README", 2);
+        TypeHistogram h = TypeHistogram.merge(b.build(), TypeHistogram.unknown(1, 1));
+
+        Map<String, TypeHistogram.Entry> m = new HashMap<>();
+        for (TypeHistogram.Entry e : h.families()) m.put(e.type(), e);
+
+        assertEquals(new TypeHistogram.Entry("video", 150, 2), m.get("video"));
+        assertEquals(new TypeHistogram.Entry("text", 5, 1), m.get("text"));
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.NONE, 2, 1), m.get(TypeHistogram.NONE));
+        assertEquals(new TypeHistogram.Entry(TypeHistogram.UNKNOWN, 1, 1), m.get(TypeHistogram.UNKNOWN));
+        assertEquals("video", h.families().get(0).type());
+    }
+}